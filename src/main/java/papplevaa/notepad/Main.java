@@ -3,6 +3,17 @@ package papplevaa.notepad;
 import papplevaa.notepad.controller.Controller;
 import papplevaa.notepad.model.Model;
 import papplevaa.notepad.ui.View;
+import papplevaa.notepad.util.Log;
+import papplevaa.notepad.util.Settings;
+import papplevaa.notepad.util.SingleInstance;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * The entry point for the Notepad application. It initializes the Model, View, and Controller components,
@@ -11,16 +22,50 @@ import papplevaa.notepad.ui.View;
 public class Main {
     /**
      * The main method that serves as the entry point for the Notepad application.
-     * Initializes the Model, View, and Controller components, loads the saved model data,
-     * and starts the application.
+     * If an instance is already running, the files to open are forwarded to it and this launch exits before
+     * starting the user interface. Otherwise binds the socket of the instance first, so a launch started meanwhile
+     * forwards its files to this one, then initializes the Model, View, and Controller components, loads the saved
+     * model data, starts the application, opens the files and passes it the files of later launches.
      *
-     * @param args The command-line arguments (not used in this application).
+     * @param args The paths to the files to open.
      */
     public static void main(String[] args) {
+        List<File> filePaths = new ArrayList<>();
+        for(String arg : args) {
+            filePaths.add(new File(arg).getAbsoluteFile());
+        }
+        Path socketPath = Model.getSocketPath().toPath();
+        SingleInstance instance = null;
+        if(Settings.isSingleInstance()) {
+            if(SingleInstance.forward(socketPath, filePaths)) {
+                return;
+            }
+            try {
+                instance = SingleInstance.listen(socketPath);
+            } catch(FileAlreadyExistsException exception) {
+                // Another launch became the instance since the files could not be forwarded
+                if(!SingleInstance.forward(socketPath, filePaths)) {
+                    Log.error("Another instance is running but did not take the files");
+                }
+                return;
+            } catch(IOException | UnsupportedOperationException exception) {
+                Log.warn("Failed to listen for other launches: ", exception.getMessage());
+            }
+        }
+
         View view = new View();
         Model model = new Model();
         Controller controller = new Controller(view, model);
         controller.loadModel();
         controller.start();
+        SwingUtilities.invokeLater(() -> controller.openPaths(filePaths));
+
+        if(instance != null) {
+            instance.setListener(forwarded -> SwingUtilities.invokeLater(() -> {
+                controller.openPaths(forwarded);
+                view.bringToFront();
+            }));
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "notepad-instance-close"));
+        }
     }
 }
@@ -1,5 +1,8 @@
 package papplevaa.notepad.controller;
 
+import papplevaa.notepad.model.Tab;
+import papplevaa.notepad.util.TextSearch;
+
 /**
  * The CallbackHandler interface defines methods that the controller uses to handle user actions and updates from the View.
  * Implementing classes, typically the controller, should provide concrete implementations for each method to respond
@@ -17,10 +20,15 @@ public interface CallbackHandler {
     void closeTab();
 
     /**
-     * Signals the request to open a file and create a new tab for its content in the application.
+     * Signals the request to open files and create a new tab for the content of each in the application.
      */
     void open();
 
+    /**
+     * Signals the request to open the files of a folder matching a pattern, each in a new tab.
+     */
+    void openFolder();
+
     /**
      * Signals the request to save the content of the currently active tab.
      */
@@ -31,6 +39,11 @@ public interface CallbackHandler {
      */
     void saveAs();
 
+    /**
+     * Signals the request to start or stop following the text appended to the file of the currently active tab.
+     */
+    void toggleFollow();
+
     /**
      * Signals the request to undo the last user action in the currently active tab.
      */
@@ -56,6 +69,62 @@ public interface CallbackHandler {
      */
     void paste();
 
+    /**
+     * Signals the request to show the dialog for finding and replacing text.
+     */
+    void find();
+
+    /**
+     * Signals the request to select the next match after the caret in the currently active tab, wrapping around at its end.
+     *
+     * @param search The search to run.
+     */
+    void findNext(TextSearch search);
+
+    /**
+     * Signals the request to replace the selected match in the currently active tab and select the next one.
+     *
+     * @param search      The search the selection has to match.
+     * @param replacement The replacement of the match.
+     */
+    void replace(TextSearch search, String replacement);
+
+    /**
+     * Signals the request to replace all matches in the currently active tab as a single edit.
+     *
+     * @param search      The search to run.
+     * @param replacement The replacement of the matches.
+     */
+    void replaceAll(TextSearch search, String replacement);
+
+    /**
+     * Signals the request to list the matches in all tabs.
+     *
+     * @param search The search to run.
+     */
+    void findInAllTabs(TextSearch search);
+
+    /**
+     * Signals the request to select a match found in a tab.
+     *
+     * @param tab   The tab holding the match.
+     * @param start The start offset of the match.
+     * @param end   The end offset of the match.
+     */
+    void showSearchHit(Tab tab, int start, int end);
+
+    /**
+     * Signals the request to move the caret to the start of a line chosen by the user in the currently active tab.
+     */
+    void goToLine();
+
+    /**
+     * Signals a move of the caret in the currently active tab.
+     *
+     * @param offset The offset of the caret.
+     */
+    void updateCaretPosition(int offset);
+
     /**
      * Signals the request to close the Notepad application.
      */
@@ -74,11 +143,23 @@ public interface CallbackHandler {
     void updateSelectedTab(int selectedIndex);
 
     /**
-     * Signals the update of the content in the currently active tab with new content.
+     * Signals the update of the content of a tab with new content.
      *
-     * @param newContent The new content to update in the active tab.
+     * @param tabIndex   The index of the tab whose text area changed.
+     * @param newContent The new content of the tab.
      */
-    void updateContent(String newContent);
+    void updateContent(int tabIndex, String newContent);
+
+    /**
+     * Signals an edit of the content of a tab, described by the changed range only. The tab is the one whose
+     * text area was edited, which is not the selected one when e.g. a replacement finishes after switching tabs.
+     *
+     * @param tabIndex      The index of the tab whose text area was edited.
+     * @param offset        The offset at which the edit happened.
+     * @param removedLength The number of characters removed at the offset.
+     * @param insertedText  The text inserted at the offset, empty if nothing was inserted.
+     */
+    void updateContent(int tabIndex, int offset, int removedLength, String insertedText);
 
     /**
      * Signals the update of the size of the application window.
@@ -87,4 +168,9 @@ public interface CallbackHandler {
      * @param height The new height of the application window.
      */
     void updateFrameSize(int width, int height);
+
+    /**
+     * Signals that the application window has been painted for the first time.
+     */
+    void framePainted();
 }
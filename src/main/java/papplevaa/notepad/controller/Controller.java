@@ -4,17 +4,113 @@ import papplevaa.notepad.ui.*;
 import papplevaa.notepad.model.*;
 import papplevaa.notepad.util.*;
 
+import javax.swing.*;
 import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The Controller class manages the communication between the View and Model in the Notepad application.
  * It implements the CallbackHandler interface to handle user actions and updates from the View.
  */
 public class Controller implements CallbackHandler {
+    /** The prefix of the gauges of the sizes of the tabs. */
+    private static final String TAB_SIZE_GAUGES = "tab.size.";
+    /** The latency of opening a file, from choosing it to showing its tab. */
+    private static final LatencyHistogram OPEN_LATENCY = Metrics.histogram("controller.open");
+    /** The latency of writing a tab to its file on the I/O thread. */
+    private static final LatencyHistogram SAVE_LATENCY = Metrics.histogram("controller.save");
+    /** The latency of applying an edit to the model. */
+    private static final LatencyHistogram UPDATE_CONTENT_LATENCY = Metrics.histogram("controller.updateContent");
+    /** The latency of loading the model of the previous session. */
+    private static final LatencyHistogram LOAD_MODEL_LATENCY = Metrics.histogram("controller.loadModel");
+    /** The latency of switching between dark and light mode. */
+    private static final LatencyHistogram INVERT_THEME_LATENCY = Metrics.histogram("controller.invertTheme");
+    /** The number of files that failed to open. */
+    private static final LongAdder OPEN_FAILURES = Metrics.counter("controller.open.failures");
+    /** The number of saves that failed. */
+    private static final LongAdder SAVE_FAILURES = Metrics.counter("controller.save.failures");
+    /** The number of saves coalesced with a save in progress. */
+    private static final LongAdder SAVES_COALESCED = Metrics.counter("controller.save.coalesced");
+    /** The number of tabs reloaded from their files, after other processes changed them or to follow them. */
+    private static final LongAdder RELOADS = Metrics.counter("controller.reloads");
+    /** The number of batches of text appended to followed tabs, at most one per frame. */
+    private static final LongAdder FOLLOW_APPENDS = Metrics.counter("controller.follow.appends");
+    /** The fraction of the line cap of a followed tab its lines may exceed it by before the oldest ones are dropped, as a divisor. */
+    private static final int FOLLOW_TRIM_SLACK = 8;
+    /** The number of unchanged lines shown around the changed ones when a tab is compared with its file. */
+    private static final int DIFF_CONTEXT_LINES = 3;
+
     /** The view associated with this controller. */
     private View view;
     /** The model associated with this controller. */
     private Model model;
+    /** The number of restored tabs whose files are still being loaded. */
+    private int loadingTabs;
+    /** The restored tabs whose files changed under their unsaved changes since the last session, shown once all are loaded. */
+    private final List<String> changedSinceSession;
+    /** The journal recording the edits, so they survive a crash. */
+    private final SessionJournal journal;
+    /** The executor writing files and reading the files changed by other processes in the background, one file at a time. */
+    private final ExecutorService ioExecutor;
+    /** The watcher reporting the files of the tabs changed by other processes. */
+    private final FileWatcher fileWatcher;
+    /** The changed files of tabs with unsaved changes waiting for the user to decide, by tab. */
+    private final Map<Tab, RestoredContent> pendingExternalChanges;
+    /** The flag indicating whether the user is being asked about a changed file. */
+    private boolean askingAboutExternalChange;
+    /** The batches of files being opened together, oldest first. */
+    private final List<OpenBatch> openBatches;
+    /** The coalescer adding the tabs of the files loaded by the batches at most once per frame. */
+    private final FrameCoalescer openRefresh;
+    /** The files followed by tabs, by tab. */
+    private final Map<Tab, FollowedFile> followedFiles;
+    /** The coalescer appending the text read from the followed files at most once per frame. */
+    private final FrameCoalescer followRefresh;
+    /** The executor checking the followed files for appended text, created when a file is first followed. */
+    private ScheduledExecutorService followExecutor;
+    /** The flag indicating whether followed text is being appended to a text area, so it is not taken for an edit. */
+    private boolean appendingFollowedText;
+    /** The saves in progress, by tab. */
+    private final Map<Tab, SaveInProgress> savesInProgress;
+    /** The undo histories of the previous session not restored yet, by tab. */
+    private final Map<Tab, UndoHistoryStore.Entry> pendingHistories;
+    /** The number of searches in all tabs started, so the matches of an older search are dropped. */
+    private int searchGeneration;
+    /** The coalescer refreshing the tab titles and the caret position at most once per frame. */
+    private final FrameCoalescer stateRefresh;
+    /** The tabs edited since the last refresh, whose titles may have to change. */
+    private final Set<Tab> editedTabs;
+    /** The caret offset to show at the next refresh, or -1 if it did not move. */
+    private int pendingCaretOffset;
+    /** The number of content events received from the view. */
+    private long contentEventsReceived;
+    /** The number of tab titles changed by the refreshes. */
+    private long titleChangesApplied;
 
     /**
      * Constructs a new Controller with the specified view and model.
@@ -26,43 +122,361 @@ public class Controller implements CallbackHandler {
         this.view = view;
         this.view.registerCallback(this);
         this.model = model;
+        this.journal = new SessionJournal(Model.getDataPath(), Model.getJournalPath(), this::requestCheckpoint);
+        this.ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notepad-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.savesInProgress = new HashMap<>();
+        this.fileWatcher = new FileWatcher(Settings.getWatchDebounceMillis(),
+                files -> SwingUtilities.invokeLater(() -> this.filesChanged(files)));
+        this.pendingExternalChanges = new LinkedHashMap<>();
+        this.openBatches = new ArrayList<>();
+        this.openRefresh = new FrameCoalescer(this::addOpenedFiles);
+        this.followedFiles = new LinkedHashMap<>();
+        this.followRefresh = new FrameCoalescer(this::appendFollowedText);
+        this.pendingHistories = new HashMap<>();
+        this.changedSinceSession = new ArrayList<>();
+        this.stateRefresh = new FrameCoalescer(this::refreshState);
+        this.editedTabs = new LinkedHashSet<>();
+        this.pendingCaretOffset = -1;
     }
 
     /**
-     * Loads the model from the serialized data file and updates the model accordingly.
-     * Reads contents of files saved in the model and updates tab information.
+     * Loads the model from the session data file and updates the model accordingly.
+     * Edits recorded in the journal after the session was written are replayed, recovering them after a crash.
+     * Tabs backed by a file are marked as loading; their files are read concurrently once the application
+     * is started, so the window does not wait for them, and their unsaved changes are applied on top.
+     * Only the index of the undo histories is read; the history of a tab is read when it is first undone.
      */
     public void loadModel() {
-        Model savedModel = FileUtil.deserialize(Model.getDataPath(), Model.class);
+        long startNanos = System.nanoTime();
+        Model savedModel = this.journal.recover();
         if(savedModel != null) {
             this.model = savedModel;
+            UndoHistoryStore histories = UndoHistoryStore.open(Model.getHistoryPath());
 
-            // Read contents of files saved
             int numberOfTabs = this.model.getNumberOfTabs();
             for(int index = 0; index < numberOfTabs; index++) {
                 Tab tab = this.model.getTabAt(index);
-                String contentSaved = null;
-                File filePath = tab.getFilePath();
-                if(filePath != null) {
-                    contentSaved = FileUtil.loadContent(filePath);
-                    // contentSaved is null if loadContent fails
-                    // in this case delete the path associated with the tab
-                    if(contentSaved == null) {
-                        tab.setFilePath(null);
-                    }
+                if(tab.getFilePath() != null) {
+                    tab.setLoading(true);
+                } else {
+                    tab.setLastSavedContent(null);
+                }
+                if(index < histories.getNumberOfEntries() && histories.getEntry(index) != null) {
+                    this.pendingHistories.put(tab, histories.getEntry(index));
                 }
-                tab.setLastSavedContent(contentSaved);
             }
         }
+        LOAD_MODEL_LATENCY.recordSince(startNanos);
     }
 
     /**
-     * Starts the Notepad application by initializing the view and running it.
+     * Starts the Notepad application by starting the journal, initializing the view and running it,
+     * then starts loading the files of the restored tabs. The metrics are exposed and dumped from then on,
+     * and the files of the tabs are watched for changes made by other processes.
      */
     public void start() {
+        Metrics.start(Model.getMetricsPath(), Settings.getMetricsDumpMillis());
+        try {
+            this.fileWatcher.start();
+        } catch(IOException exception) {
+            Log.warn("Failed to watch the files of the tabs: ", exception.getMessage());
+        }
+        this.journal.start(this.model);
         this.view.initialize(this.model);
         this.view.run();
-        System.out.println("Start the app!");
+        this.restoreTabs();
+        this.updateTabSizeGauges();
+        Log.info("Start the app!");
+    }
+
+    /**
+     * Loads the files of all restored tabs concurrently on a bounded pool of daemon threads.
+     * Each tab is filled in on the event dispatch thread as soon as its own file is loaded.
+     */
+    private void restoreTabs() {
+        List<Tab> loadingTabs = new ArrayList<>();
+        int numberOfTabs = this.model.getNumberOfTabs();
+        for(int index = 0; index < numberOfTabs; index++) {
+            Tab tab = this.model.getTabAt(index);
+            if(tab.isLoading()) {
+                loadingTabs.add(tab);
+            }
+        }
+        this.loadingTabs = loadingTabs.size();
+        if(loadingTabs.isEmpty()) {
+            this.logStartupTime("All tabs loaded");
+            return;
+        }
+        int numberOfThreads = Math.min(loadingTabs.size(), Settings.getRestoreThreads());
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, runnable -> {
+            Thread thread = new Thread(runnable, "notepad-restore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for(Tab tab : loadingTabs) {
+            File filePath = tab.getFilePath();
+            boolean largeFile = tab.isLargeFile();
+            CompletableFuture
+                    .supplyAsync(() -> readRestoredContent(filePath, largeFile), executor)
+                    .exceptionally(failure -> {
+                        // Restored like a file that could not be read, so the tab does not stay loading
+                        Throwable cause = (failure instanceof CompletionException && failure.getCause() != null) ? failure.getCause() : failure;
+                        Log.error("Failed to restore " + filePath.getName() + ": ", String.valueOf(cause));
+                        return new RestoredContent(null, null, 0);
+                    })
+                    .thenAcceptAsync(content -> this.applyRestoredContent(tab, content), SwingUtilities::invokeLater);
+        }
+        // Lets the threads exit once the submitted loads are done
+        executor.shutdown();
+    }
+
+    /**
+     * Reads the content of the file of a restored tab. Runs on a restore thread.
+     * Large files are mapped again, unless they dropped below the large file threshold.
+     *
+     * @param filePath  The path to the file of the tab.
+     * @param largeFile True if the tab showed a large file.
+     * @return The content read; both of its parts are {@code null} if reading failed.
+     */
+    private static RestoredContent readRestoredContent(File filePath, boolean largeFile) {
+        long lastModified = filePath.lastModified();
+        if(largeFile && filePath.length() > Settings.getLargeFileThreshold()) {
+            try {
+                return new RestoredContent(null, MappedText.open(filePath, Charset.defaultCharset(), ProgressListener.NONE), lastModified);
+            } catch(IOException exception) {
+                Log.warn("Failed to map ", filePath.getName());
+                return new RestoredContent(null, null, lastModified);
+            }
+        }
+        return new RestoredContent(FileUtil.loadText(filePath, ProgressListener.NONE), null, lastModified);
+    }
+
+    /**
+     * Fills in a restored tab with the content read from its file, shows it in the view and watches its file.
+     * If reading failed, the path associated with the tab is deleted. Once all tabs are loaded, the user is told
+     * about the files that changed under the unsaved changes of their tabs since the last session.
+     *
+     * @param tab     The restored tab.
+     * @param content The content read from the file of the tab.
+     */
+    private void applyRestoredContent(Tab tab, RestoredContent content) {
+        tab.setLoading(false);
+        if(content.mappedContent != null) {
+            tab.setMappedContent(content.mappedContent);
+        } else {
+            // Large file tabs that became regular tabs never had their content in the session
+            boolean largeFile = tab.isLargeFile();
+            tab.setMappedContent(null);
+            if(content.text == null) {
+                this.model.setFilePathOf(tab, null);
+                tab.setLastSavedContent(null);
+            } else {
+                tab.setEncoding(content.text.getEncoding());
+                tab.setLineSeparator(content.text.getLineSeparator());
+                tab.setLastSavedContent(content.text.getContent());
+            }
+            if(largeFile) {
+                tab.setCurrentContent(tab.getLastSavedContent());
+            }
+            if(tab.isRestoredChangesDropped()) {
+                Log.warn("File changed since last session, unsaved changes dropped: ", tab.getTitle());
+                this.changedSinceSession.add(tab.getTitle() + ": its unsaved changes no longer apply and were dropped");
+            } else if(tab.isChangedSinceSession()) {
+                Log.warn("File changed since last session, unsaved changes kept: ", tab.getTitle());
+                this.changedSinceSession.add(tab.getTitle() + ": its unsaved changes were kept over the new content");
+            }
+        }
+        if(tab.getFilePath() != null) {
+            tab.setFileLastModified(content.lastModified);
+            this.fileWatcher.watch(tab.getFilePath());
+        }
+        try {
+            this.view.showRestoredTab(this.model.indexOfTab(tab), tab);
+        } catch(NoSuchElementException exception) {
+            // The tab is no longer in the model
+        }
+        this.updateTabSizeGauges();
+        this.loadingTabs--;
+        if(this.loadingTabs == 0) {
+            this.journal.checkpoint(this.model);
+            this.logStartupTime("All tabs loaded");
+            if(!this.changedSinceSession.isEmpty()) {
+                this.view.showWarningDialog("Files changed or removed since the last session:\n"
+                        + String.join("\n", this.changedSinceSession));
+                this.changedSinceSession.clear();
+            }
+        }
+    }
+
+    /**
+     * Asks for a checkpoint of the journal on the event dispatch thread, which owns the model.
+     * Called on the journal thread when the journal grows too large.
+     */
+    private void requestCheckpoint() {
+        SwingUtilities.invokeLater(() -> this.journal.checkpoint(this.model));
+    }
+
+    /**
+     * Logs the time elapsed since the start of the JVM.
+     *
+     * @param milestone The startup milestone reached.
+     */
+    private void logStartupTime(String milestone) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        Log.info(milestone, " in " + uptime + " ms");
+    }
+
+    /**
+     * Reads the files of the tabs changed by other processes again on the I/O thread. Files whose modification time
+     * is the one the tab read or saved them at, like the ones just saved by the tab itself, are skipped, as are tabs
+     * still loading or saving, and tabs following their files, which read the appended text themselves.
+     * Runs on the event dispatch thread.
+     *
+     * @param files The changed files, as absolute paths.
+     */
+    private void filesChanged(Set<File> files) {
+        if(this.ioExecutor.isShutdown()) {
+            return;
+        }
+        for(File file : files) {
+            Tab tab = this.model.findTab(file);
+            if(tab == null || tab.isLoading() || tab.isFollowing() || this.savesInProgress.containsKey(tab)) {
+                continue;
+            }
+            File filePath = tab.getFilePath();
+            long lastModified = filePath.lastModified();
+            if(lastModified == 0 || lastModified == tab.getFileLastModified()) {
+                // Deleted, or not changed since the tab read or saved it
+                continue;
+            }
+            // Reads started for older changes are superseded by this one
+            tab.setFileLastModified(lastModified);
+            boolean largeFile = tab.isLargeFile();
+            CompletableFuture
+                    .supplyAsync(() -> readRestoredContent(filePath, largeFile), this.ioExecutor)
+                    .thenAcceptAsync(content -> this.applyExternalChange(tab, filePath, content), SwingUtilities::invokeLater);
+            Log.debug("File changed by another program: ", filePath.getName());
+        }
+    }
+
+    /**
+     * Reloads a tab whose file was changed by another process once the file is read again. A tab without unsaved
+     * changes is reloaded right away; for a tab with unsaved changes, the user decides whether to reload it, keep the
+     * changes or look at the differences first, one tab at a time. Runs on the event dispatch thread.
+     *
+     * @param tab      The tab.
+     * @param filePath The path the file was read from.
+     * @param content  The content read from the file.
+     */
+    private void applyExternalChange(Tab tab, File filePath, RestoredContent content) {
+        if(!filePath.equals(tab.getFilePath()) || content.lastModified < tab.getFileLastModified()) {
+            // Saved elsewhere, changed again or saved since the file was read
+            return;
+        }
+        if(content.text == null && content.mappedContent == null) {
+            Log.warn("Failed to reload ", filePath.getName());
+            return;
+        }
+        try {
+            this.model.indexOfTab(tab);
+        } catch(NoSuchElementException exception) {
+            // The tab was closed since its file was read
+            return;
+        }
+        if(!tab.isUnsaved()) {
+            this.reloadTab(tab, content);
+            return;
+        }
+        this.pendingExternalChanges.put(tab, content);
+        if(this.askingAboutExternalChange) {
+            // Asked once the dialog shown now is answered
+            return;
+        }
+        this.askingAboutExternalChange = true;
+        try {
+            while(!this.pendingExternalChanges.isEmpty()) {
+                Tab changedTab = this.pendingExternalChanges.keySet().iterator().next();
+                this.askAboutExternalChange(changedTab, this.pendingExternalChanges.remove(changedTab));
+            }
+        } finally {
+            this.askingAboutExternalChange = false;
+        }
+    }
+
+    /**
+     * Asks the user whether to reload a tab with unsaved changes whose file was changed by another process,
+     * showing the differences between the tab and the file as often as asked to.
+     *
+     * @param tab     The tab.
+     * @param content The content read from the file.
+     */
+    private void askAboutExternalChange(Tab tab, RestoredContent content) {
+        if(content.lastModified < tab.getFileLastModified()) {
+            // Saved while an earlier change was asked about
+            return;
+        } else if(!tab.isUnsaved()) {
+            this.reloadTab(tab, content);
+            return;
+        }
+        String name = tab.getTitle();
+        while(true) {
+            ExternalChangeOptions option = this.view.showExternalChangeDialog(name);
+            if(option == ExternalChangeOptions.SHOW_DIFF) {
+                String diff = LineDiff.unified(name + " (unsaved)", tab.getCurrentContent(),
+                        name + " (on disk)", content.text.getContent(), DIFF_CONTEXT_LINES);
+                this.view.showDiffDialog("Changes of " + name, diff);
+            } else if(option == ExternalChangeOptions.RELOAD) {
+                this.reloadTab(tab, content);
+                return;
+            } else {
+                Log.debug("Kept the unsaved changes of ", name);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Replaces the content of a tab with the content read again from its file, and shows it in the view.
+     * The text area of the tab is created again, keeping the caret where it was as far as the new content allows.
+     *
+     * @param tab     The tab.
+     * @param content The content read from the file.
+     */
+    private void reloadTab(Tab tab, RestoredContent content) {
+        int index;
+        try {
+            index = this.model.indexOfTab(tab);
+        } catch(NoSuchElementException exception) {
+            // The tab was closed while the user was asked
+            return;
+        }
+        if(content.mappedContent != null) {
+            tab.setMappedContent(content.mappedContent);
+        } else {
+            tab.setMappedContent(null);
+            tab.setEncoding(content.text.getEncoding());
+            tab.setLineSeparator(content.text.getLineSeparator());
+            tab.setCurrentContent(content.text.getContent());
+            tab.commitChanges();
+        }
+        tab.setFileLastModified(content.lastModified);
+        // The undo history of the previous session no longer matches the content
+        this.pendingHistories.remove(tab);
+        UndoableTextArea textArea = this.view.getTextAreaAt(index);
+        int caret = (textArea != null) ? textArea.getCaretPosition() : 0;
+        this.view.showRestoredTab(index, tab);
+        textArea = this.view.getTextAreaAt(index);
+        if(textArea != null) {
+            textArea.setCaretPosition(Math.min(caret, textArea.getDocument().getLength()));
+        }
+        this.journal.checkpoint(this.model);
+        this.updateTabSizeGauges();
+        RELOADS.increment();
+        Log.info("Reloaded ", tab.getTitle());
     }
 
     /* ------ CallbackHandler interface methods ------ */
@@ -83,8 +497,10 @@ public class Controller implements CallbackHandler {
         // Set new tab as selected in both model and view
         this.model.setSelectedIndex(index);
         this.view.changeSelectedTab(index);
+        this.journal.checkpoint(this.model);
+        this.updateTabSizeGauges();
         // Log
-        System.out.println("New tab");
+        Log.debug("New tab");
     }
 
     /**
@@ -97,11 +513,15 @@ public class Controller implements CallbackHandler {
     public void closeTab() {
         // Get selected tab
         if(!this.model.isSelected()) {
-            System.out.println("No tab is selected!");
+            Log.debug("No tab is selected!");
             return;
         }
         int index = this.model.getSelectedIndex();
         Tab selectedTab = this.model.getTabAt(index);
+        if(selectedTab.isLoading()) {
+            Log.debug("Tab is still loading!");
+            return;
+        }
         // Check for unsaved changes
         if(selectedTab.isUnsaved()) {
             // Prompt to save changes
@@ -109,161 +529,856 @@ public class Controller implements CallbackHandler {
             if(option == ConfirmDialogOptions.CANCEL) {
                 return;
             } else if(option == ConfirmDialogOptions.SAVE) {
-                this.save();
-                // Return if save failed
-                if(selectedTab.getFilePath() == null) {
-                    return;
-                }
+                // Close tab once it is saved, keep it if save fails
+                this.save(selectedTab, () -> this.removeTab(selectedTab));
+                return;
             }
         }
         // Close tab
+        this.removeTab(selectedTab);
+    }
+
+    /**
+     * Removes a tab from both the model and view.
+     *
+     * @param tab The tab to remove.
+     */
+    private void removeTab(Tab tab) {
+        int index;
+        try {
+            index = this.model.indexOfTab(tab);
+        } catch(NoSuchElementException exception) {
+            // The tab is already closed
+            return;
+        }
         this.model.removeTab(index);
         this.view.removeTab(index);
-        System.out.println("Close Tab");
+        this.pendingExternalChanges.remove(tab);
+        FollowedFile followed = this.followedFiles.remove(tab);
+        if(followed != null) {
+            followed.task.cancel(false);
+        }
+        if(tab.getFilePath() != null) {
+            this.fileWatcher.unwatch(tab.getFilePath());
+        }
+        this.journal.checkpoint(this.model);
+        this.updateTabSizeGauges();
+        Log.debug("Close Tab");
     }
 
     /**
      * {@inheritDoc}
-     * Opens a file chooser dialog to select a file, creates a new tab with the file's content, and adds it
-     * to both the model and view. Sets the newly opened tab as the selected tab.
+     * Opens a file chooser dialog to select files. A single file is loaded in the background while the progress
+     * of reading it is shown, several files are loaded together by {@link #openFiles(List, long)}.
      */
     @Override
     public void open() {
-        // Get path to open
-        File filePath = this.view.chooseFile(ChooseFileDialogType.OPEN);
-        if(filePath == null) {
-            System.out.println("No file chosen!");
+        // Get paths to open
+        File[] filePaths = this.view.chooseFiles();
+        long startNanos = System.nanoTime();
+        if(filePaths.length == 0) {
+            Log.debug("No file chosen!");
             return;
         }
-        // Do not open the tab again
-        int numberOfTabs = this.model.getNumberOfTabs();
-        for(int index = 0; index < numberOfTabs; index++) {
-            File pathOfTabAtIndex = this.model.getTabAt(index).getFilePath();
-            if(pathOfTabAtIndex != null && pathOfTabAtIndex.equals(filePath)) {
-                this.view.changeSelectedTab(index);
-                System.out.println("File is already open!");
-                return;
+        if(filePaths.length == 1) {
+            this.openFile(filePaths[0], startNanos);
+        } else {
+            this.openFiles(Arrays.asList(filePaths), startNanos);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Opens a file chooser dialog to select a folder and asks for the glob pattern of the files to open, matched
+     * against their paths relative to the folder. The folder is searched in the background, then at most
+     * {@link Settings#getOpenMaxFiles()} of the matching files are loaded together by {@link #openFiles(List, long)}.
+     */
+    @Override
+    public void openFolder() {
+        File directory = this.view.chooseFolder();
+        if(directory == null) {
+            Log.debug("No folder chosen!");
+            return;
+        }
+        String pattern = this.view.askFilePattern(directory.getName());
+        long startNanos = System.nanoTime();
+        if(pattern == null) {
+            return;
+        }
+        PathMatcher matcher;
+        try {
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        } catch(IllegalArgumentException exception) {
+            this.view.showErrorDialog("Invalid pattern " + pattern + ":\n" + exception.getMessage());
+            return;
+        }
+        int maxFiles = Settings.getOpenMaxFiles();
+        CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return FileUtil.listFiles(directory, matcher, maxFiles);
+                    } catch(IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                }, ForkJoinPool.commonPool())
+                .whenCompleteAsync((files, failure) -> {
+                    if(failure != null) {
+                        Throwable cause = (failure instanceof CompletionException && failure.getCause() != null) ? failure.getCause() : failure;
+                        Log.warn("Failed to read folder " + directory.getName() + ": ", cause.getMessage());
+                        this.view.showErrorDialog("Failed to read folder " + directory.getName() + ":\n" + cause.getMessage());
+                    } else if(files.isEmpty()) {
+                        this.view.showErrorDialog("No files in " + directory.getName() + " match " + pattern);
+                    } else {
+                        if(files.size() == maxFiles) {
+                            Log.warn("Opening only the first " + maxFiles + " matching files of ", directory.getName());
+                        }
+                        this.openFiles(files, startNanos);
+                    }
+                }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Opens files given on the command line or forwarded by a later launch, like the files chosen to open:
+     * a single file is opened on its own, several files are loaded together by {@link #openFiles(List, long)}.
+     * Runs on the event dispatch thread.
+     *
+     * @param filePaths The paths to the files to open, possibly none.
+     */
+    public void openPaths(List<File> filePaths) {
+        long startNanos = System.nanoTime();
+        if(filePaths.size() == 1) {
+            this.openFile(filePaths.get(0), startNanos);
+        } else if(!filePaths.isEmpty()) {
+            this.openFiles(filePaths, startNanos);
+        }
+    }
+
+    /**
+     * Opens a file in a new tab, or selects its tab if it is already open. The content is loaded in the background
+     * while the progress is shown. Once loaded, creates a new tab with the file's content, adds it to both the model
+     * and view, and sets it as the selected tab. The time from choosing the file to showing its tab is measured.
+     *
+     * @param filePath   The path to the file to open.
+     * @param startNanos The time the file was chosen, as returned by {@link System#nanoTime()}.
+     */
+    private void openFile(File filePath, long startNanos) {
+        // Do not open the tab again, whatever path leads to its file
+        Tab openTab = this.model.findTab(filePath);
+        if(openTab != null) {
+            this.view.changeSelectedTab(this.model.indexOfTab(openTab));
+            Log.debug("File is already open!");
+            return;
+        }
+        // Files above the threshold are memory-mapped and shown read-only
+        if(filePath.length() > Settings.getLargeFileThreshold()) {
+            this.openLargeFile(filePath, startNanos);
+            return;
+        }
+        // Load the content in the background, so the progress of large files can be shown
+        String name = filePath.getName();
+        ProgressListener progress = this.view.createProgressListener("Opening " + name);
+        new SwingWorker<LoadedText, Void>() {
+            @Override
+            protected LoadedText doInBackground() {
+                return FileUtil.loadText(filePath, progress);
+            }
+
+            @Override
+            protected void done() {
+                LoadedText loaded = null;
+                try {
+                    loaded = this.get();
+                } catch(InterruptedException | ExecutionException exception) {
+                    // The worker is already done here, loadText reports its own failures by returning null
+                }
+                if(loaded == null) {
+                    OPEN_FAILURES.increment();
+                    Log.warn("Failed to open ", name);
+                    return;
+                }
+                Tab openedTab = new Tab(name, loaded.getContent(), filePath);
+                openedTab.setEncoding(loaded.getEncoding());
+                openedTab.setLineSeparator(loaded.getLineSeparator());
+                openedTab.setFileLastModified(loaded.getLastModified());
+                addOpenedTab(openedTab, startNanos);
+            }
+        }.execute();
+    }
+
+    /**
+     * Opens files together, each in a new tab, skipping the ones already open. The files are loaded in parallel
+     * on a bounded pool of daemon threads, large files being memory-mapped; their tabs are added on the event
+     * dispatch thread in batches, at most once per frame, as the files are loaded. A single progress monitor shows
+     * how many of the files are done; canceling it stops loading the remaining files.
+     *
+     * @param filePaths  The paths to the files to open.
+     * @param startNanos The time the files were chosen, as returned by {@link System#nanoTime()}.
+     */
+    private void openFiles(List<File> filePaths, long startNanos) {
+        List<File> closedFiles = new ArrayList<>();
+        for(File filePath : filePaths) {
+            if(this.model.findTab(filePath) == null) {
+                closedFiles.add(filePath);
+            }
+        }
+        if(closedFiles.isEmpty()) {
+            Log.debug("Files are already open!");
+            return;
+        }
+        ProgressListener progress = this.view.createProgressListener("Opening " + closedFiles.size() + " files");
+        OpenBatch batch = new OpenBatch(closedFiles.size(), progress, startNanos);
+        this.openBatches.add(batch);
+        int numberOfThreads = Math.min(closedFiles.size(), Settings.getOpenThreads());
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, runnable -> {
+            Thread thread = new Thread(runnable, "notepad-open");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for(File filePath : closedFiles) {
+            CompletableFuture
+                    .runAsync(() -> {
+                        // Files not started yet are skipped once the batch is canceled
+                        RestoredContent content = progress.isCanceled() ? null : readRestoredContent(filePath, true);
+                        batch.add(new OpenedFile(filePath, content));
+                    }, executor)
+                    .thenRunAsync(this.openRefresh::request, SwingUtilities::invokeLater);
+        }
+        // Lets the threads exit once the submitted loads are done
+        executor.shutdown();
+    }
+
+    /**
+     * Adds the tabs of the files loaded by the batches since the last frame to both the model and view, and watches
+     * their files. The first tab of a batch is selected. The journal is checkpointed once for all added tabs.
+     * A canceled batch drops its loaded files that were not added yet.
+     */
+    private void addOpenedFiles() {
+        boolean added = false;
+        for(Iterator<OpenBatch> iterator = this.openBatches.iterator(); iterator.hasNext(); ) {
+            OpenBatch batch = iterator.next();
+            boolean canceled = batch.progress.isCanceled();
+            for(OpenedFile file : batch.take()) {
+                batch.done++;
+                String name = file.filePath.getName();
+                if(canceled || file.content == null) {
+                    continue;
+                } else if(file.content.text == null && file.content.mappedContent == null) {
+                    OPEN_FAILURES.increment();
+                    Log.warn("Failed to open ", name);
+                    continue;
+                } else if(this.model.findTab(file.filePath) != null) {
+                    // The same file was chosen through another path, or opened meanwhile
+                    continue;
+                }
+                Tab openedTab = createOpenedTab(file.filePath, file.content);
+                this.model.addTab(openedTab);
+                if(openedTab.isLargeFile()) {
+                    this.view.addLargeFileTab(openedTab.getTitle(), openedTab.getMappedContent());
+                } else {
+                    this.view.addTab(openedTab.getTitle(), openedTab.getCurrentContent());
+                }
+                if(!batch.selected) {
+                    batch.selected = true;
+                    int index = this.model.indexOfTab(openedTab);
+                    this.model.setSelectedIndex(index);
+                    this.view.changeSelectedTab(index);
+                }
+                this.fileWatcher.watch(openedTab.getFilePath());
+                OPEN_LATENCY.recordSince(batch.startNanos);
+                added = true;
+            }
+            batch.progress.progressed(batch.done, batch.total);
+            if(canceled || batch.done == batch.total) {
+                batch.progress.finished();
+                iterator.remove();
+                Log.info(canceled ? "Canceled opening files after " : "Opened files: ", batch.done + " of " + batch.total);
             }
         }
-        // Create tab
+        if(added) {
+            this.journal.checkpoint(this.model);
+            this.updateTabSizeGauges();
+        }
+    }
+
+    /**
+     * Creates the tab of an opened file from its loaded content.
+     *
+     * @param filePath The path to the file.
+     * @param content  The content read from the file, either its text or its memory-mapped content.
+     * @return The tab holding the content of the file.
+     */
+    private static Tab createOpenedTab(File filePath, RestoredContent content) {
+        String name = filePath.getName();
+        Tab openedTab;
+        if(content.mappedContent != null) {
+            openedTab = new Tab(name, content.mappedContent);
+        } else {
+            openedTab = new Tab(name, content.text.getContent(), filePath);
+            openedTab.setEncoding(content.text.getEncoding());
+            openedTab.setLineSeparator(content.text.getLineSeparator());
+        }
+        openedTab.setFileLastModified(content.lastModified);
+        return openedTab;
+    }
+
+    /**
+     * Memory-maps a file above the large file threshold in the background while the progress of indexing its
+     * lines is shown, then opens it in a new read-only tab.
+     *
+     * @param filePath   The path to the file to open.
+     * @param startNanos The time the file was chosen, as returned by {@link System#nanoTime()}.
+     */
+    private void openLargeFile(File filePath, long startNanos) {
         String name = filePath.getName();
-        String lastSavedContent = FileUtil.loadContent(filePath);
-        Tab openedTab = new Tab(name, lastSavedContent, filePath);
+        ProgressListener progress = this.view.createProgressListener("Indexing " + name);
+        new SwingWorker<MappedText, Void>() {
+            /** The time the file was last modified before it was mapped. */
+            private long lastModified;
+
+            @Override
+            protected MappedText doInBackground() throws IOException {
+                this.lastModified = filePath.lastModified();
+                return MappedText.open(filePath, Charset.defaultCharset(), progress);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    Tab openedTab = new Tab(name, this.get());
+                    openedTab.setFileLastModified(this.lastModified);
+                    addOpenedTab(openedTab, startNanos);
+                } catch(InterruptedException | ExecutionException exception) {
+                    OPEN_FAILURES.increment();
+                    Log.warn("Failed to open ", name);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Adds a tab opened from a file to both the model and view, sets it as the selected tab and watches its file.
+     * If the file was opened meanwhile, e.g. chosen twice or forwarded by two launches before it was loaded,
+     * the tab already open is selected instead.
+     *
+     * @param openedTab  The tab holding the content of the opened file.
+     * @param startNanos The time the file was chosen, as returned by {@link System#nanoTime()}.
+     */
+    private void addOpenedTab(Tab openedTab, long startNanos) {
+        Tab openTab = this.model.findTab(openedTab.getFilePath());
+        if(openTab != null) {
+            this.view.changeSelectedTab(this.model.indexOfTab(openTab));
+            Log.debug("File was opened meanwhile!");
+            return;
+        }
         // Add tab to the model and view
         this.model.addTab(openedTab);
         int index = this.model.indexOfTab(openedTab);
-        this.view.addTab(openedTab.getTitle(), openedTab.getCurrentContent());
+        if(openedTab.isLargeFile()) {
+            this.view.addLargeFileTab(openedTab.getTitle(), openedTab.getMappedContent());
+        } else {
+            this.view.addTab(openedTab.getTitle(), openedTab.getCurrentContent());
+        }
         // Set the opened tab as selected
         this.model.setSelectedIndex(index);
         this.view.changeSelectedTab(index);
+        this.fileWatcher.watch(openedTab.getFilePath());
+        this.journal.checkpoint(this.model);
+        this.updateTabSizeGauges();
+        OPEN_LATENCY.recordSince(startNanos);
         // Log
-        System.out.println("Open");
+        Log.debug("Open");
     }
 
     /**
      * {@inheritDoc}
-     * Saves the content of the currently active tab. If the tab has not been saved before,
+     * Saves the content of the currently active tab in the background. If the tab has not been saved before,
      * invokes the saveAs method.
      */
     @Override
     public void save() {
         // Get selected tab
         if(!this.model.isSelected()) {
-            System.out.println("No tab is selected!");
+            Log.debug("No tab is selected!");
             return;
         }
         int index = this.model.getSelectedIndex();
         Tab selectedTab = this.model.getTabAt(index);
-        // If tab was never saved, call saveAs method
-        if(selectedTab.getFilePath() == null) {
-            this.saveAs();
+        if(selectedTab.isLoading()) {
+            Log.debug("Tab is still loading!");
+            return;
+        }
+        if(selectedTab.isLargeFile()) {
+            Log.debug("Large files are read-only!");
+            return;
+        }
+        if(selectedTab.isFollowing()) {
+            Log.debug("Followed files are read-only!");
+            return;
+        }
+        this.save(selectedTab, () -> { });
+    }
+
+    /**
+     * Saves the content of a tab in the background. If the tab has not been saved before,
+     * asks for a path to save it to.
+     *
+     * @param tab     The tab to save.
+     * @param onSaved The action run on the event dispatch thread once the tab is saved.
+     */
+    private void save(Tab tab, Runnable onSaved) {
+        // If tab was never saved, choose a path first
+        if(tab.getFilePath() == null) {
+            this.saveAs(tab, onSaved);
             return;
         }
         // Else save to path already associated with the tab
-        String currentContent = selectedTab.getCurrentContent();
-        File filePath = selectedTab.getFilePath();
-        FileUtil.saveContent(currentContent, filePath);
-        selectedTab.commitChanges();
-        this.view.updateTitleAt(this.model.getSelectedIndex(), selectedTab.getTitle(), selectedTab.isUnsaved());
-        System.out.println("Save");
+        this.startSave(tab, tab.getFilePath(), onSaved);
+        Log.debug("Save");
     }
 
     /**
      * {@inheritDoc}
      * Opens a file chooser dialog to choose a location to save the content of the currently active tab.
-     * Updates the tab's file path, saves the content.
+     * Saves the content in the background, then updates the tab's file path.
      */
     @Override
     public void saveAs() {
         // Get selected tab
         if(!this.model.isSelected()) {
-            System.out.println("No tab is selected!");
+            Log.debug("No tab is selected!");
             return;
         }
         int index = this.model.getSelectedIndex();
         Tab selectedTab = this.model.getTabAt(index);
+        if(selectedTab.isLoading()) {
+            Log.debug("Tab is still loading!");
+            return;
+        }
+        if(selectedTab.isLargeFile()) {
+            Log.debug("Large files are read-only!");
+            return;
+        }
+        if(selectedTab.isFollowing()) {
+            Log.debug("Followed files are read-only!");
+            return;
+        }
+        this.saveAs(selectedTab, () -> { });
+    }
+
+    /**
+     * Opens a file chooser dialog to choose a location to save the content of a tab, then saves it in the background.
+     *
+     * @param tab     The tab to save.
+     * @param onSaved The action run on the event dispatch thread once the tab is saved.
+     */
+    private void saveAs(Tab tab, Runnable onSaved) {
         // Choose save path
         File filePath = this.view.chooseFile(ChooseFileDialogType.SAVE);
         if(filePath == null) {
-            System.out.println("No file chosen!");
+            Log.debug("No file chosen!");
             return;
         }
         // Save file to chosen path
-        String currentContent = selectedTab.getCurrentContent();
-        FileUtil.saveContent(currentContent, filePath);
-        // Update model and view
-        String title = filePath.getName();
-        selectedTab.setTitle(title);
-        selectedTab.setFilePath(filePath);
-        selectedTab.commitChanges();
-        this.view.updateTitleAt(this.model.getSelectedIndex(), title, selectedTab.isUnsaved());
+        this.startSave(tab, filePath, onSaved);
         // Log
-        System.out.println("Save as");
+        Log.debug("Save as");
     }
 
     /**
      * {@inheritDoc}
-     * Undoes the last user action in the currently active tab using the UndoableTextArea.
+     * A tab starts following its file by reading it again and keeping its last lines; from then on only the bytes
+     * appended to the file are read, on a background thread, and appended to the tab at most once per frame.
+     * The tab is read-only while following. A tab stops following by reading its whole file again.
      */
     @Override
-    public void undo() {
-        // Tell the selected text area to make the change
-        UndoableTextArea textArea = this.view.getSelectedTextArea();
-        if(textArea == null) {
+    public void toggleFollow() {
+        // Get selected tab
+        if(!this.model.isSelected()) {
+            Log.debug("No tab is selected!");
             return;
         }
-
-        try {
-            textArea.undo();
-            System.out.println("Undo happened");
-        } catch(RuntimeException exception) {
-            System.out.println("Can not undo!");
+        Tab selectedTab = this.model.getTabAt(this.model.getSelectedIndex());
+        if(selectedTab.isFollowing()) {
+            this.stopFollowing(selectedTab);
+            return;
         }
-    }
-
-    /**
-     * {@inheritDoc}
-     * Redoes the previously undone user action in the currently active tab using the UndoableTextArea.
-     */
-    @Override
-    public void redo() {
-        // Tell the selected text area to make the change
-        UndoableTextArea textArea = this.view.getSelectedTextArea();
-        if(textArea == null) {
+        if(selectedTab.isLoading() || this.savesInProgress.containsKey(selectedTab)) {
+            Log.debug("Tab is still loading or saving!");
             return;
         }
-
-        try {
-            textArea.redo();
-            System.out.println("Redo happened");
-        } catch(RuntimeException exception) {
-            System.out.println("Can not redo!");
+        if(selectedTab.getFilePath() == null || selectedTab.isLargeFile()) {
+            Log.debug("Only files opened as text can be followed!");
+            return;
+        }
+        if(selectedTab.isUnsaved()) {
+            this.view.showErrorDialog("Save the changes of " + selectedTab.getTitle() + " before following it.");
+            return;
         }
+        this.startFollowing(selectedTab);
     }
 
     /**
-     * {@inheritDoc}
-     * Copies the selected content in the currently active tab using the UndoableTextArea.
+     * Makes a tab follow its file: reads the file again on the I/O thread, keeping only its last lines,
+     * then starts checking it for appended text.
+     *
+     * @param tab The tab.
+     */
+    private void startFollowing(Tab tab) {
+        tab.setFollowing(true);
+        this.view.setEditableAt(this.model.indexOfTab(tab), false);
+        File filePath = tab.getFilePath();
+        int maxLines = Settings.getFollowMaxLines();
+        CompletableFuture
+                .supplyAsync(() -> keepLastLines(FileUtil.loadText(filePath, ProgressListener.NONE), maxLines), this.ioExecutor)
+                .thenAcceptAsync(loaded -> this.followLoadedFile(tab, filePath, loaded), SwingUtilities::invokeLater);
+        Log.debug("Follow ", tab.getTitle());
+    }
+
+    /**
+     * Shows the last lines of a followed file in its tab, scrolled to the end, and schedules the checks for the text
+     * appended to the file after them. Runs on the event dispatch thread.
+     *
+     * @param tab      The tab following the file.
+     * @param filePath The path the file was read from.
+     * @param loaded   The last lines of the file, or {@code null} if it could not be read.
+     */
+    private void followLoadedFile(Tab tab, File filePath, LoadedText loaded) {
+        int index;
+        try {
+            index = this.model.indexOfTab(tab);
+        } catch(NoSuchElementException exception) {
+            // The tab was closed while its file was read
+            return;
+        }
+        if(!tab.isFollowing() || !filePath.equals(tab.getFilePath()) || this.followedFiles.containsKey(tab)) {
+            // Stopped following while the file was read
+            return;
+        }
+        if(loaded == null) {
+            Log.warn("Failed to follow ", filePath.getName());
+            tab.setFollowing(false);
+            this.view.setEditableAt(index, true);
+            return;
+        }
+        this.reloadTab(tab, new RestoredContent(loaded, null, loaded.getLastModified()));
+        UndoableTextArea textArea = this.view.getTextAreaAt(index);
+        if(textArea != null) {
+            textArea.setCaretPosition(textArea.getDocument().getLength());
+        }
+        FollowedFile followed = new FollowedFile(new FileTail(filePath, loaded.getLength(), loaded.getEncoding()));
+        followed.task = this.getFollowExecutor().scheduleWithFixedDelay(() -> this.readFollowedFile(tab, followed),
+                0, Settings.getFollowPollMillis(), TimeUnit.MILLISECONDS);
+        this.followedFiles.put(tab, followed);
+    }
+
+    /**
+     * Stops a tab following its file. The tab only holds the last lines of the file, so the whole file is read again
+     * before the tab can be edited; until then, it stays read-only and can not be saved. If the file can not be read,
+     * the tab keeps only its last lines, stays read-only and the user is told; stopping again tries reading it again.
+     *
+     * @param tab The tab.
+     */
+    private void stopFollowing(Tab tab) {
+        FollowedFile followed = this.followedFiles.remove(tab);
+        if(followed != null) {
+            followed.task.cancel(false);
+        }
+        File filePath = tab.getFilePath();
+        CompletableFuture
+                .supplyAsync(() -> readRestoredContent(filePath, true), this.ioExecutor)
+                .thenAcceptAsync(content -> {
+                    if(!tab.isFollowing() || this.followedFiles.containsKey(tab)) {
+                        // Stopped by an earlier read, or followed again meanwhile
+                        return;
+                    }
+                    int index;
+                    try {
+                        index = this.model.indexOfTab(tab);
+                    } catch(NoSuchElementException exception) {
+                        // The tab was closed while its file was read
+                        return;
+                    }
+                    if(content.text == null && content.mappedContent == null) {
+                        Log.warn("Failed to reload ", filePath.getName());
+                        this.view.showErrorDialog("Failed to read " + filePath.getName() + ".\nThe tab holds only the last lines "
+                                + "of the file, so it stays read-only; stop following it again to retry.");
+                        return;
+                    }
+                    this.reloadTab(tab, content);
+                    tab.setFollowing(false);
+                    this.view.setEditableAt(index, true);
+                }, SwingUtilities::invokeLater);
+        Log.debug("Stop following ", tab.getTitle());
+    }
+
+    /**
+     * Reads the text appended to a followed file and hands it to the event dispatch thread, which appends it at the
+     * end of the frame. A file that shrank was truncated or replaced, so it is followed again from its start.
+     * Runs on the follow thread.
+     *
+     * @param tab      The tab following the file.
+     * @param followed The followed file.
+     */
+    private void readFollowedFile(Tab tab, FollowedFile followed) {
+        if(followed.shrank) {
+            return;
+        }
+        String text;
+        try {
+            text = followed.tail.readAppended();
+        } catch(IOException exception) {
+            // Tried again at the next check, the file may be being replaced
+            return;
+        }
+        if(text == null) {
+            followed.shrank = true;
+            SwingUtilities.invokeLater(() -> this.followAgain(tab, followed));
+        } else if(!text.isEmpty()) {
+            followed.add(text);
+            SwingUtilities.invokeLater(this.followRefresh::request);
+        }
+    }
+
+    /**
+     * Follows a file again from its start after it was truncated or replaced. Runs on the event dispatch thread.
+     *
+     * @param tab      The tab following the file.
+     * @param followed The followed file that shrank.
+     */
+    private void followAgain(Tab tab, FollowedFile followed) {
+        if(this.followedFiles.get(tab) != followed) {
+            // Stopped following or closed meanwhile
+            return;
+        }
+        this.followedFiles.remove(tab);
+        followed.task.cancel(false);
+        Log.info("File truncated or replaced, followed again: ", tab.getTitle());
+        this.startFollowing(tab);
+    }
+
+    /**
+     * Appends the text read from the followed files to their tabs. Once a tab exceeds the line cap by an eighth of it,
+     * its oldest lines are dropped down to the cap, so the text is not cut at its start on every frame.
+     * The model is updated first and marked as saved without copying its content, since the tab mirrors its file,
+     * then the text areas are updated
+     * without their events being taken for edits. Runs once per frame on the event dispatch thread.
+     */
+    private void appendFollowedText() {
+        int maxLines = Settings.getFollowMaxLines();
+        boolean appended = false;
+        for(Map.Entry<Tab, FollowedFile> entry : this.followedFiles.entrySet()) {
+            String text = entry.getValue().take();
+            if(text.isEmpty()) {
+                continue;
+            }
+            Tab tab = entry.getKey();
+            tab.applyEdit(tab.getCurrentLength(), 0, text);
+            // Trim only once the lines exceed the cap by a slack, so most frames only append at the end
+            LineIndex lineIndex = tab.getLineIndex();
+            int excessLines = lineIndex.getLineCount() - maxLines;
+            int removedLength = (excessLines > maxLines / FOLLOW_TRIM_SLACK) ? lineIndex.getLineStart(excessLines) : 0;
+            if(removedLength > 0) {
+                tab.applyEdit(0, removedLength, "");
+            }
+            tab.commitFollowedText();
+            this.appendingFollowedText = true;
+            try {
+                this.view.appendText(this.model.indexOfTab(tab), text, removedLength);
+            } finally {
+                this.appendingFollowedText = false;
+            }
+            FOLLOW_APPENDS.increment();
+            appended = true;
+        }
+        if(appended) {
+            this.updateTabSizeGauges();
+        }
+    }
+
+    /**
+     * Gets the executor checking the followed files for appended text, creating it with its daemon thread at first.
+     *
+     * @return The executor.
+     */
+    private ScheduledExecutorService getFollowExecutor() {
+        if(this.followExecutor == null) {
+            this.followExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "notepad-follow");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.followExecutor;
+    }
+
+    /**
+     * Keeps the last lines of the text read from a file, counting lines like the line index does.
+     *
+     * @param loaded   The text read from the file, or {@code null} if it could not be read.
+     * @param maxLines The number of lines to keep.
+     * @return The text with its last lines only, or {@code null} if it could not be read.
+     */
+    private static LoadedText keepLastLines(LoadedText loaded, int maxLines) {
+        if(loaded == null) {
+            return null;
+        }
+        String content = loaded.getContent();
+        int start = content.length();
+        for(int line = 0; line < maxLines && start >= 0; line++) {
+            start = content.lastIndexOf('\n', start - 1);
+        }
+        if(start < 0) {
+            return loaded;
+        }
+        return new LoadedText(content.substring(start + 1), loaded.getEncoding(), loaded.getLineSeparator(),
+                loaded.getLastModified(), loaded.getLength());
+    }
+
+    /**
+     * Writes the current content of a tab to a file on the I/O thread while the progress is shown.
+     * If the tab is already being saved, the save is coalesced with it: once the save in progress ends,
+     * the tab is saved once more only if it was edited meanwhile or is saved to another path.
+     *
+     * @param tab      The tab to save.
+     * @param filePath The path to save the tab to.
+     * @param onSaved  The action run on the event dispatch thread once the tab is saved.
+     */
+    private void startSave(Tab tab, File filePath, Runnable onSaved) {
+        SaveInProgress inProgress = this.savesInProgress.get(tab);
+        if(inProgress != null) {
+            inProgress.requestAgain(filePath, onSaved);
+            SAVES_COALESCED.increment();
+            Log.debug("Save coalesced with the save in progress");
+            return;
+        }
+        // The pieces of the content are immutable, so the I/O thread encodes them while the tab is edited further
+        CharSequence content = tab.getContentSnapshot();
+        long generation = tab.getGeneration();
+        TextEncoding encoding = tab.getEncoding();
+        LineSeparator separator = tab.getLineSeparator();
+        ProgressListener progress = this.view.createProgressListener("Saving " + filePath.getName());
+        CompletableFuture<SavedFile> write = CompletableFuture
+                .supplyAsync(() -> {
+                    long startNanos = System.nanoTime();
+                    try {
+                        FileUtil.saveContent(content, filePath, encoding, separator, progress);
+                    } catch(IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                    SAVE_LATENCY.recordSince(startNanos);
+                    return new SavedFile(content.toString(), filePath.lastModified());
+                }, this.ioExecutor);
+        SaveInProgress save = new SaveInProgress(filePath, generation, write, onSaved);
+        this.savesInProgress.put(tab, save);
+        write.whenCompleteAsync((lastModified, failure) -> this.finishSave(tab, save), SwingUtilities::invokeLater);
+    }
+
+    /**
+     * Commits the saved content of a tab and updates its title and path once its file is written,
+     * or reports the failure, leaving the tab unchanged. The file saved to is watched instead of the previous one,
+     * and its modification time is kept, so the save is not taken for a change made by another process.
+     * A save requested meanwhile is started either way, as it writes newer content, possibly to another path.
+     * Runs on the event dispatch thread, once the file is written; a save already finished is left alone.
+     *
+     * @param tab  The saved tab.
+     * @param save The save, whose file is written.
+     */
+    private void finishSave(Tab tab, SaveInProgress save) {
+        if(this.savesInProgress.get(tab) != save) {
+            // Already finished while closing
+            return;
+        }
+        this.savesInProgress.remove(tab);
+        File filePath = save.filePath;
+        SavedFile saved;
+        try {
+            saved = save.write.join();
+        } catch(CompletionException | CancellationException failure) {
+            Throwable cause = (failure instanceof CompletionException && failure.getCause() != null) ? failure.getCause() : failure;
+            SAVE_FAILURES.increment();
+            Log.error("Failed to save " + filePath.getName() + ": ", cause.getMessage());
+            this.view.showErrorDialog("Failed to save " + filePath.getName() + ":\n" + cause.getMessage());
+            if(save.nextPath != null) {
+                this.startSave(tab, save.nextPath, save.nextOnSaved);
+            }
+            return;
+        }
+        // Update model and view
+        String title = filePath.getName();
+        File previousPath = tab.getFilePath();
+        tab.setTitle(title);
+        this.model.setFilePathOf(tab, filePath);
+        tab.setFileLastModified(saved.lastModified);
+        tab.commitChanges(saved.content, save.generation);
+        try {
+            this.view.updateTitleAt(this.model.indexOfTab(tab), title, tab.isUnsaved());
+            if(!filePath.equals(previousPath)) {
+                this.fileWatcher.watch(filePath);
+                if(previousPath != null) {
+                    this.fileWatcher.unwatch(previousPath);
+                }
+            }
+            this.journal.checkpoint(this.model);
+            this.updateTabSizeGauges();
+        } catch(NoSuchElementException exception) {
+            // The tab was closed while it was being saved
+        }
+        Log.info("Saved ", title);
+        save.onSaved.run();
+        if(save.nextPath != null) {
+            if(tab.isUnsaved() || !save.nextPath.equals(filePath)) {
+                this.startSave(tab, save.nextPath, save.nextOnSaved);
+            } else {
+                save.nextOnSaved.run();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Undoes the last user action in the currently active tab using the UndoableTextArea.
+     */
+    @Override
+    public void undo() {
+        // Tell the selected text area to make the change
+        UndoableTextArea textArea = this.view.getSelectedTextArea();
+        if(textArea == null) {
+            return;
+        }
+
+        this.restoreUndoHistory(this.model.getTabAt(this.model.getSelectedIndex()), textArea);
+        try {
+            textArea.undo();
+            Log.debug("Undo happened");
+        } catch(RuntimeException exception) {
+            Log.debug("Can not undo!");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Redoes the previously undone user action in the currently active tab using the UndoableTextArea.
+     */
+    @Override
+    public void redo() {
+        // Tell the selected text area to make the change
+        UndoableTextArea textArea = this.view.getSelectedTextArea();
+        if(textArea == null) {
+            return;
+        }
+
+        this.restoreUndoHistory(this.model.getTabAt(this.model.getSelectedIndex()), textArea);
+        try {
+            textArea.redo();
+            Log.debug("Redo happened");
+        } catch(RuntimeException exception) {
+            Log.debug("Can not redo!");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Copies the selected content in the currently active tab using the UndoableTextArea.
      */
     @Override
     public void copy() {
@@ -274,7 +1389,7 @@ public class Controller implements CallbackHandler {
         }
 
         textArea.copy();
-        System.out.println("Copy");
+        Log.debug("Copy");
     }
 
     /**
@@ -290,7 +1405,7 @@ public class Controller implements CallbackHandler {
         }
 
         textArea.cut();
-        System.out.println("Cut");
+        Log.debug("Cut");
     }
 
     /**
@@ -306,18 +1421,306 @@ public class Controller implements CallbackHandler {
         }
 
         textArea.paste();
-        System.out.println("Paste");
+        Log.debug("Paste");
+    }
+
+    /**
+     * {@inheritDoc}
+     * Shows the find dialog of the view.
+     */
+    @Override
+    public void find() {
+        this.view.showFindDialog();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The search starts at the end of the selection, so a selected match is skipped; an empty match at the caret is
+     * skipped as well, so repeating the search moves on.
+     */
+    @Override
+    public void findNext(TextSearch search) {
+        UndoableTextArea textArea = this.view.getSelectedTextArea();
+        if(textArea == null) {
+            this.view.setSearchStatus("The tab can not be searched");
+            return;
+        }
+        String text = this.model.getTabAt(this.model.getSelectedIndex()).getCurrentContent();
+        int from = textArea.getSelectionEnd();
+        int[] match = search.find(text, from);
+        if(match != null && match[0] == from && match[1] == from && textArea.getSelectionStart() == from) {
+            match = search.find(text, from + 1);
+        }
+        boolean wrapped = false;
+        if(match == null) {
+            match = search.find(text, 0);
+            wrapped = true;
+        }
+        if(match == null) {
+            this.view.setSearchStatus("No matches");
+            return;
+        }
+        textArea.select(match[0], match[1]);
+        this.view.setSearchStatus(wrapped ? "Search wrapped to the start" : " ");
+    }
+
+    /**
+     * {@inheritDoc}
+     * If the selection is not a match, the next match is only selected.
+     */
+    @Override
+    public void replace(TextSearch search, String replacement) {
+        UndoableTextArea textArea = this.view.getSelectedTextArea();
+        if(textArea == null) {
+            this.view.setSearchStatus("The tab can not be searched");
+            return;
+        }
+        String text = this.model.getTabAt(this.model.getSelectedIndex()).getCurrentContent();
+        try {
+            String replaced = search.replacementOf(text, textArea.getSelectionStart(), textArea.getSelectionEnd(), replacement);
+            if(replaced != null) {
+                textArea.replaceSelection(replaced);
+            }
+        } catch(IllegalArgumentException | IndexOutOfBoundsException exception) {
+            this.view.setSearchStatus("Invalid replacement: " + exception.getMessage());
+            return;
+        }
+        this.findNext(search);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The replaced text is computed in the background, then the range from the first to the last match is replaced
+     * in one edit, which is undone in one step. Nothing is replaced if the tab was edited in the meantime.
+     */
+    @Override
+    public void replaceAll(TextSearch search, String replacement) {
+        if(this.view.getSelectedTextArea() == null) {
+            this.view.setSearchStatus("The tab can not be searched");
+            return;
+        }
+        Tab tab = this.model.getTabAt(this.model.getSelectedIndex());
+        String text = tab.getCurrentContent();
+        this.view.setSearchStatus("Replacing...");
+        CompletableFuture.supplyAsync(() -> search.replaceAll(text, replacement), ForkJoinPool.commonPool())
+                .whenCompleteAsync((result, error) -> {
+                    if(error != null) {
+                        this.view.setSearchStatus("Invalid replacement: " + error.getCause().getMessage());
+                        return;
+                    }
+                    if(result == null) {
+                        this.view.setSearchStatus("No matches");
+                        return;
+                    }
+                    UndoableTextArea textArea;
+                    try {
+                        textArea = this.view.getTextAreaAt(this.model.indexOfTab(tab));
+                    } catch(NoSuchElementException exception) {
+                        return;
+                    }
+                    if(textArea == null || tab.getCurrentContent() != text) {
+                        this.view.setSearchStatus("The tab changed while replacing, nothing was replaced");
+                        return;
+                    }
+                    textArea.replaceAsOneStep(result.getStart(), result.getEnd(), result.getText());
+                    this.view.setSearchStatus("Replaced " + result.getCount() + " matches");
+                    if(Log.isEnabled(Log.Level.INFO)) {
+                        Log.info("Replaced " + result.getCount() + " matches in ", tab.getTitle());
+                    }
+                }, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Each tab is searched on its own task on the fork-join pool, and its matches are listed as soon as it is done.
+     * Tabs that are still loading and large files shown read-only are not searched.
+     */
+    @Override
+    public void findInAllTabs(TextSearch search) {
+        int generation = ++this.searchGeneration;
+        this.view.clearSearchHits();
+        this.view.setSearchStatus("Searching...");
+        int[] found = new int[2];
+        List<Tab> searchedTabs = new ArrayList<>();
+        int numberOfTabs = this.model.getNumberOfTabs();
+        for(int index = 0; index < numberOfTabs; index++) {
+            Tab tab = this.model.getTabAt(index);
+            if(!tab.isLoading() && !tab.isLargeFile()) {
+                searchedTabs.add(tab);
+            }
+        }
+        if(searchedTabs.isEmpty()) {
+            this.view.setSearchStatus("No matches");
+            return;
+        }
+        for(Tab tab : searchedTabs) {
+            String title = tab.getTitle();
+            String text = tab.getCurrentContent();
+            CompletableFuture.supplyAsync(() -> listHits(tab, title, text, search.findAll(text)), ForkJoinPool.commonPool())
+                    .whenCompleteAsync((hits, error) -> {
+                        if(generation != this.searchGeneration) {
+                            return;
+                        }
+                        found[0]++;
+                        if(hits != null) {
+                            found[1] += hits.size();
+                            this.view.addSearchHits(hits);
+                        }
+                        String progress = (found[0] < searchedTabs.size()) ? " so far" : "";
+                        this.view.setSearchStatus(found[1] + " matches in " + found[0] + " of " + searchedTabs.size() + " tabs" + progress);
+                    }, SwingUtilities::invokeLater);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Selects the tab holding the match and selects the match, if it is still within the text.
+     */
+    @Override
+    public void showSearchHit(Tab tab, int start, int end) {
+        int index;
+        try {
+            index = this.model.indexOfTab(tab);
+        } catch(NoSuchElementException exception) {
+            this.view.setSearchStatus("The tab was closed");
+            return;
+        }
+        this.view.changeSelectedTab(index);
+        UndoableTextArea textArea = this.view.getSelectedTextArea();
+        if(textArea != null && end <= textArea.getDocument().getLength()) {
+            textArea.select(start, end);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Asks the view for the line and moves the caret to its start, found in the line index of the tab.
+     */
+    @Override
+    public void goToLine() {
+        UndoableTextArea textArea = this.view.getSelectedTextArea();
+        if(textArea == null) {
+            return;
+        }
+        LineIndex lineIndex = this.model.getTabAt(this.model.getSelectedIndex()).getLineIndex();
+        int currentLine = lineIndex.getLineOfOffset(Math.min(textArea.getCaretPosition(), lineIndex.getLength())) + 1;
+        Integer line = this.view.askLineNumber(currentLine, lineIndex.getLineCount());
+        if(line == null) {
+            return;
+        }
+        textArea.setCaretPosition(lineIndex.getLineStart(line - 1));
+        textArea.requestFocus();
+        if(Log.isEnabled(Log.Level.DEBUG)) {
+            Log.debug("Went to line " + line);
+        }
+    }
+
+    /**
+     * Creates the list entries of the matches in a tab, each showing the line of the match.
+     * The lines are counted in one pass over the text, as the matches are in order.
+     *
+     * @param tab     The tab holding the matches.
+     * @param title   The title of the tab.
+     * @param text    The text of the tab.
+     * @param matches The start and end offsets of the matches, in pairs.
+     * @return The list entries.
+     */
+    private static List<FindDialog.Hit> listHits(Tab tab, String title, String text, int[] matches) {
+        List<FindDialog.Hit> hits = new ArrayList<>(matches.length / 2);
+        int line = 1;
+        int lineStart = 0;
+        int counted = 0;
+        for(int index = 0; index < matches.length; index += 2) {
+            int start = matches[index];
+            for(; counted < start; counted++) {
+                if(text.charAt(counted) == '\n') {
+                    line++;
+                    lineStart = counted + 1;
+                }
+            }
+            int lineEnd = text.indexOf('\n', start);
+            lineEnd = (lineEnd < 0) ? text.length() : lineEnd;
+            String snippet = text.substring(lineStart, Math.min(lineEnd, lineStart + 200)).trim();
+            hits.add(new FindDialog.Hit(tab, start, matches[index + 1], title + ":" + line + ": " + snippet));
+        }
+        return hits;
     }
 
     /**
      * {@inheritDoc}
-     * Closes the Notepad application, serializes the model, and disposes of the application frame.
+     * Closes the Notepad application after the saves in progress are written, saves the session and stops the journal,
+     * saves the undo histories, disposes of the application frame, and dumps the metrics one last time.
+     * The files of the tabs are no longer watched or followed.
      */
     @Override
     public void close() {
-        FileUtil.serialize(Model.getDataPath(), this.model);
+        this.fileWatcher.close();
+        if(this.followExecutor != null) {
+            this.followExecutor.shutdownNow();
+        }
+        // Let the saves in progress finish writing, and finish them here, as their callbacks would run after closing
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while(!this.savesInProgress.isEmpty()) {
+            Map.Entry<Tab, SaveInProgress> entry = this.savesInProgress.entrySet().iterator().next();
+            try {
+                entry.getValue().write.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch(TimeoutException exception) {
+                Log.warn("Saves still in progress!");
+                break;
+            } catch(InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch(ExecutionException exception) {
+                // Reported when the save is finished
+            }
+            this.finishSave(entry.getKey(), entry.getValue());
+        }
+        this.ioExecutor.shutdown();
+        this.journal.close(this.model);
+        this.saveUndoHistories();
+        this.stateRefresh.flush();
         this.view.closeFrame();
-        System.out.println("Close frame");
+        Metrics.stop(Model.getMetricsPath());
+        if(Log.isEnabled(Log.Level.INFO)) {
+            Log.info("Content events: " + this.contentEventsReceived + " received, "
+                    + this.stateRefresh.getUpdates() + " refreshes applied, " + this.titleChangesApplied + " title changes");
+            Log.info("Edit latency: ", UPDATE_CONTENT_LATENCY.toString());
+        }
+        Log.debug("Close frame");
+    }
+
+    /**
+     * Restores the undo history of the previous session of a tab, if it has one that has not been restored yet.
+     * The history is discarded if the tab no longer has the text it ended at.
+     *
+     * @param tab      The tab.
+     * @param textArea The text area of the tab.
+     */
+    private void restoreUndoHistory(Tab tab, UndoableTextArea textArea) {
+        UndoHistoryStore.Entry entry = this.pendingHistories.remove(tab);
+        if(entry != null && !textArea.restoreUndoHistory(entry)) {
+            Log.warn("Undo history does not match the tab, discarded: ", tab.getTitle());
+        }
+    }
+
+    /**
+     * Saves the undo histories of the tabs for the next session. Tabs whose text area was not created keep the
+     * history of the previous session, if they have one.
+     */
+    private void saveUndoHistories() {
+        List<UndoHistoryStore.Entry> entries = new ArrayList<>();
+        int numberOfTabs = this.model.getNumberOfTabs();
+        for(int index = 0; index < numberOfTabs; index++) {
+            Tab tab = this.model.getTabAt(index);
+            UndoableTextArea textArea = this.view.getTextAreaAt(index);
+            if(textArea == null || textArea.getUndoHistory().getNumberOfSteps() == 0) {
+                entries.add(this.pendingHistories.get(tab));
+                continue;
+            }
+            this.restoreUndoHistory(tab, textArea);
+            entries.add(UndoHistoryStore.Entry.of(textArea.getUndoHistory(), textArea.getText()));
+        }
+        UndoHistoryStore.write(Model.getHistoryPath(), entries);
     }
 
     /**
@@ -327,10 +1730,13 @@ public class Controller implements CallbackHandler {
      */
     @Override
     public void invertTheme() {
+        long startNanos = System.nanoTime();
         boolean isDarkMode = this.model.isDarkMode();
         this.model.setDarkMode(!isDarkMode);
         this.view.setDarkMode(!isDarkMode);
-        System.out.println("Theme changed");
+        this.journal.checkpoint(this.model);
+        INVERT_THEME_LATENCY.recordSince(startNanos);
+        Log.debug("Theme changed");
     }
 
     /**
@@ -341,29 +1747,173 @@ public class Controller implements CallbackHandler {
     public void updateSelectedTab(int selectedIndex) {
         if(this.model.getSelectedIndex() != selectedIndex) {
             this.model.setSelectedIndex(selectedIndex);
-            System.out.println("Changed tab");
+            Log.debug("Changed tab");
+        }
+        UndoableTextArea textArea = this.view.getSelectedTextArea();
+        this.pendingCaretOffset = -1;
+        if(textArea != null) {
+            this.showCaretPosition(textArea.getCaretPosition());
+        } else {
+            this.view.clearCaretPosition();
         }
     }
 
     /**
      * {@inheritDoc}
-     * Updates the content of the currently active tab with the provided new content in the model.
-     * Updates the title in the view.
+     * The position is shown at the next refresh, so a burst of caret moves costs one lookup.
      */
     @Override
-    public void updateContent(String newContent) {
-        // Get selected tab
+    public void updateCaretPosition(int offset) {
+        this.pendingCaretOffset = offset;
+        this.stateRefresh.request();
+    }
+
+    /**
+     * Gets the number of content events received from the view.
+     *
+     * @return The number of events.
+     */
+    public long getContentEventsReceived() {
+        return this.contentEventsReceived;
+    }
+
+    /**
+     * Gets the number of refreshes of the tab titles and caret position run, at most one per frame.
+     *
+     * @return The number of refreshes.
+     */
+    public long getStateRefreshesApplied() {
+        return this.stateRefresh.getUpdates();
+    }
+
+    /**
+     * Gets the number of tab titles changed by the refreshes, which only happens when a tab becomes saved or unsaved.
+     *
+     * @return The number of title changes.
+     */
+    public long getTitleChangesApplied() {
+        return this.titleChangesApplied;
+    }
+
+    /**
+     * Refreshes the titles of the tabs edited since the last refresh, the caret position and the size gauges of the tabs.
+     * Checking whether a tab is unsaved may compare its contents, so it is done once per frame instead of per edit.
+     */
+    private void refreshState() {
+        if(!this.editedTabs.isEmpty()) {
+            this.updateTabSizeGauges();
+        }
+        for(Tab tab : this.editedTabs) {
+            try {
+                if(this.view.updateTitleAt(this.model.indexOfTab(tab), tab.getTitle(), tab.isUnsaved())) {
+                    this.titleChangesApplied++;
+                }
+            } catch(NoSuchElementException exception) {
+                // The tab was closed since it was edited
+            }
+        }
+        this.editedTabs.clear();
+        if(this.pendingCaretOffset >= 0) {
+            this.showCaretPosition(this.pendingCaretOffset);
+            this.pendingCaretOffset = -1;
+        }
+    }
+
+    /**
+     * Shows the line and column of the caret of the selected tab, looked up in the line index of the tab
+     * without walking the document.
+     *
+     * @param offset The offset of the caret.
+     */
+    private void showCaretPosition(int offset) {
         if(!this.model.isSelected()) {
-            System.out.println("No tab is selected!");
             return;
         }
-        int index = this.model.getSelectedIndex();
-        Tab selectedTab = this.model.getTabAt(index);
+        Tab selectedTab = this.model.getTabAt(this.model.getSelectedIndex());
+        if(selectedTab.isLoading() || selectedTab.isLargeFile()) {
+            this.view.clearCaretPosition();
+            return;
+        }
+        LineIndex lineIndex = selectedTab.getLineIndex();
+        int clampedOffset = Math.min(offset, lineIndex.getLength());
+        int line = lineIndex.getLineOfOffset(clampedOffset);
+        this.view.showCaretPosition(line + 1, clampedOffset - lineIndex.getLineStart(line) + 1);
+    }
+
+    /**
+     * Publishes the size of the content of each tab as a gauge, in characters, or in bytes for large files.
+     * Tabs still loading have a size of 0. The gauges of closed tabs are removed.
+     */
+    private void updateTabSizeGauges() {
+        Map<String, Long> sizes = new HashMap<>();
+        int numberOfTabs = this.model.getNumberOfTabs();
+        for(int index = 0; index < numberOfTabs; index++) {
+            Tab tab = this.model.getTabAt(index);
+            long size;
+            if(tab.isLoading()) {
+                size = 0;
+            } else if(tab.isLargeFile()) {
+                size = tab.getMappedContent().getSize();
+            } else {
+                size = tab.getCurrentLength();
+            }
+            sizes.put(TAB_SIZE_GAUGES + index + " " + tab.getTitle(), size);
+        }
+        Metrics.setGauges(TAB_SIZE_GAUGES, sizes);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Updates the content of the tab whose text area changed with the provided new content in the model.
+     * Updates the title in the view at the next refresh. Text appended to a followed tab is already in the model.
+     */
+    @Override
+    public void updateContent(int tabIndex, String newContent) {
+        long startNanos = System.nanoTime();
+        if(this.appendingFollowedText) {
+            return;
+        }
+        if(tabIndex < 0 || tabIndex >= this.model.getNumberOfTabs()) {
+            Log.debug("No tab for the text area!");
+            return;
+        }
+        Tab editedTab = this.model.getTabAt(tabIndex);
         // Save new content
-        selectedTab.setCurrentContent(newContent);
+        editedTab.setCurrentContent(newContent);
+        this.journal.recordContent(tabIndex, newContent);
+        // Update title in view
+        this.contentEventsReceived++;
+        this.editedTabs.add(editedTab);
+        this.stateRefresh.request();
+        UPDATE_CONTENT_LATENCY.recordSince(startNanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Applies the edit to the content of the tab whose text area was edited in the model, without copying the whole
+     * content. The model is updated right away, since later edits refer to its offsets; the title in the view is
+     * updated at the next refresh, together with the other edits of the frame. Text appended to a followed tab is
+     * already in the model.
+     */
+    @Override
+    public void updateContent(int tabIndex, int offset, int removedLength, String insertedText) {
+        long startNanos = System.nanoTime();
+        if(this.appendingFollowedText) {
+            return;
+        }
+        if(tabIndex < 0 || tabIndex >= this.model.getNumberOfTabs()) {
+            Log.debug("No tab for the text area!");
+            return;
+        }
+        Tab editedTab = this.model.getTabAt(tabIndex);
+        // Apply the edit
+        editedTab.applyEdit(offset, removedLength, insertedText);
+        this.journal.recordEdit(tabIndex, offset, removedLength, insertedText);
         // Update title in view
-        this.view.updateTitleAt(index, selectedTab.getTitle(), selectedTab.isUnsaved());
-        //System.out.println("Content updated");
+        this.contentEventsReceived++;
+        this.editedTabs.add(editedTab);
+        this.stateRefresh.request();
+        UPDATE_CONTENT_LATENCY.recordSince(startNanos);
     }
 
     /**
@@ -375,6 +1925,227 @@ public class Controller implements CallbackHandler {
     public void updateFrameSize(int width, int height) {
         this.model.setWindowWidth(width);
         this.model.setWindowHeight(height);
-        //System.out.println("Frame resized: " + width + "x" + height);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Logs the time elapsed since the start of the JVM.
+     */
+    @Override
+    public void framePainted() {
+        this.logStartupTime("First paint");
+    }
+
+    /**
+     * A save in progress, together with the save requested for the same tab while it is in progress.
+     */
+    private static final class SaveInProgress {
+        /** The path the tab is saved to. */
+        private final File filePath;
+        /** The edit generation of the tab when the save started. */
+        private final long generation;
+        /** The write of the file, completed with the content written and its modification time once written. */
+        private final CompletableFuture<SavedFile> write;
+        /** The action run once the save in progress ends successfully. */
+        private final Runnable onSaved;
+        /** The path to save to once more, or {@code null} if no other save was requested. */
+        private File nextPath;
+        /** The actions run once the requested save ends successfully. */
+        private Runnable nextOnSaved;
+
+        /**
+         * Constructs a new SaveInProgress.
+         *
+         * @param filePath   The path the tab is saved to.
+         * @param generation The edit generation of the tab when the save started.
+         * @param write      The write of the file.
+         * @param onSaved    The action run once the save ends successfully.
+         */
+        private SaveInProgress(File filePath, long generation, CompletableFuture<SavedFile> write, Runnable onSaved) {
+            this.filePath = filePath;
+            this.generation = generation;
+            this.write = write;
+            this.onSaved = onSaved;
+        }
+
+        /**
+         * Requests another save once this one ends. Requests made meanwhile are merged into one save
+         * to the path requested last, which runs the actions of all of them.
+         *
+         * @param filePath The path to save to.
+         * @param onSaved  The action run once the tab is saved.
+         */
+        private void requestAgain(File filePath, Runnable onSaved) {
+            Runnable previous = this.nextOnSaved;
+            this.nextOnSaved = (previous == null) ? onSaved : () -> {
+                previous.run();
+                onSaved.run();
+            };
+            this.nextPath = filePath;
+        }
+    }
+
+    /**
+     * A file written by a save: the content written, turned into a string by the I/O thread, and its modification time.
+     */
+    private static final class SavedFile {
+        /** The content written to the file. */
+        private final String content;
+        /** The modification time of the file once written. */
+        private final long lastModified;
+
+        /**
+         * Constructs a new SavedFile.
+         *
+         * @param content      The content written to the file.
+         * @param lastModified The modification time of the file.
+         */
+        private SavedFile(String content, long lastModified) {
+            this.content = content;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * A file followed by a tab: the tail read from it by the follow thread, and the text read but not appended yet.
+     */
+    private static final class FollowedFile {
+        /** The tail of the file, read on the follow thread. */
+        private final FileTail tail;
+        /** The text read but not appended to the tab yet, guarded by the followed file. */
+        private final StringBuilder pending;
+        /** The flag indicating whether the file shrank, so it is not read again until it is followed again. */
+        private volatile boolean shrank;
+        /** The periodic check for appended text. */
+        private ScheduledFuture<?> task;
+
+        /**
+         * Constructs a new FollowedFile.
+         *
+         * @param tail The tail of the file.
+         */
+        private FollowedFile(FileTail tail) {
+            this.tail = tail;
+            this.pending = new StringBuilder();
+        }
+
+        /**
+         * Adds text read from the file, to be appended to the tab.
+         *
+         * @param text The text.
+         */
+        private synchronized void add(String text) {
+            this.pending.append(text);
+        }
+
+        /**
+         * Takes the text read since the last call.
+         *
+         * @return The text, empty if none was read.
+         */
+        private synchronized String take() {
+            String text = this.pending.toString();
+            this.pending.setLength(0);
+            return text;
+        }
+    }
+
+    /**
+     * Files being opened together: the files loaded by the open threads but not added to the model yet,
+     * and the progress of the whole batch.
+     */
+    private static final class OpenBatch {
+        /** The number of files of the batch. */
+        private final int total;
+        /** The progress of the batch, in files. */
+        private final ProgressListener progress;
+        /** The time the files were chosen, as returned by {@link System#nanoTime()}. */
+        private final long startNanos;
+        /** The files loaded but not added yet, guarded by the batch. */
+        private final List<OpenedFile> loaded;
+        /** The number of loaded files taken on the event dispatch thread. */
+        private int done;
+        /** The flag indicating whether a tab of the batch was selected. */
+        private boolean selected;
+
+        /**
+         * Constructs a new OpenBatch.
+         *
+         * @param total      The number of files of the batch.
+         * @param progress   The progress of the batch, in files.
+         * @param startNanos The time the files were chosen, as returned by {@link System#nanoTime()}.
+         */
+        private OpenBatch(int total, ProgressListener progress, long startNanos) {
+            this.total = total;
+            this.progress = progress;
+            this.startNanos = startNanos;
+            this.loaded = new ArrayList<>();
+        }
+
+        /**
+         * Adds a file loaded by an open thread.
+         *
+         * @param file The loaded file.
+         */
+        private synchronized void add(OpenedFile file) {
+            this.loaded.add(file);
+        }
+
+        /**
+         * Takes the files loaded since the last call.
+         *
+         * @return The loaded files, in the order they were loaded.
+         */
+        private synchronized List<OpenedFile> take() {
+            List<OpenedFile> files = new ArrayList<>(this.loaded);
+            this.loaded.clear();
+            return files;
+        }
+    }
+
+    /**
+     * A file loaded by an open thread.
+     */
+    private static final class OpenedFile {
+        /** The path to the file. */
+        private final File filePath;
+        /** The content read from the file, or {@code null} if it was skipped because its batch was canceled. */
+        private final RestoredContent content;
+
+        /**
+         * Constructs a new OpenedFile.
+         *
+         * @param filePath The path to the file.
+         * @param content  The content read from the file, or {@code null} if it was skipped.
+         */
+        private OpenedFile(File filePath, RestoredContent content) {
+            this.filePath = filePath;
+            this.content = content;
+        }
+    }
+
+    /**
+     * The content read from the file of a restored or changed tab: either its text or its memory-mapped content.
+     */
+    private static final class RestoredContent {
+        /** The text of the file with its encoding, or {@code null} if it was not loaded. */
+        private final LoadedText text;
+        /** The memory-mapped content of a large file, or {@code null} if it was not mapped. */
+        private final MappedText mappedContent;
+        /** The time the file was last modified before it was read. */
+        private final long lastModified;
+
+        /**
+         * Constructs a new RestoredContent.
+         *
+         * @param text          The text of the file with its encoding.
+         * @param mappedContent The memory-mapped content of a large file.
+         * @param lastModified  The time the file was last modified before it was read.
+         */
+        private RestoredContent(LoadedText text, MappedText mappedContent, long lastModified) {
+            this.text = text;
+            this.mappedContent = mappedContent;
+            this.lastModified = lastModified;
+        }
     }
 }
@@ -0,0 +1,181 @@
+package papplevaa.notepad.model;
+
+import java.util.Arrays;
+
+/**
+ * An index of the offsets at which the lines of a text start, updated on each edit instead of being rebuilt.
+ * The starts of all lines but the first are kept in a gap array of primitive ints, with the gap at the line of the
+ * last edit, so typing in one place moves no entries. The starts before the gap are stored as offsets, the ones after
+ * it as distances from the end of the text, so an edit does not have to shift the starts after it either.
+ * Both parts are sorted, so the line of an offset and the start of a line are found in O(log n) time.
+ */
+public final class LineIndex {
+    /** The initial capacity of the gap array. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The starts before the gap as offsets, followed by the gap, followed by the starts after it as distances from the end. */
+    private int[] starts;
+    /** The index of the first entry of the gap. */
+    private int gapStart;
+    /** The index of the first entry after the gap. */
+    private int gapEnd;
+    /** The length of the text. */
+    private int length;
+
+    /**
+     * Constructs a new LineIndex of a text.
+     *
+     * @param text The text to index.
+     */
+    public LineIndex(CharSequence text) {
+        this.starts = new int[INITIAL_CAPACITY];
+        this.gapEnd = this.starts.length;
+        this.insertStarts(0, text);
+        this.length = text.length();
+    }
+
+    /**
+     * Gets the number of lines, which is one more than the number of line feeds.
+     *
+     * @return The number of lines.
+     */
+    public int getLineCount() {
+        return this.starts.length - (this.gapEnd - this.gapStart) + 1;
+    }
+
+    /**
+     * Gets the length of the indexed text.
+     *
+     * @return The length of the text.
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Gets the offset at which a line starts.
+     *
+     * @param line The index of the line, 0 being the first.
+     * @return The offset of the first character of the line.
+     * @throws IndexOutOfBoundsException if there is no such line.
+     */
+    public int getLineStart(int line) {
+        if(line < 0 || line >= this.getLineCount()) {
+            throw new IndexOutOfBoundsException("Line " + line + " of " + this.getLineCount());
+        }
+        return (line == 0) ? 0 : this.startAt(line - 1);
+    }
+
+    /**
+     * Gets the line holding an offset. The offset of a line feed belongs to the line it ends.
+     *
+     * @param offset The offset, from 0 to the length of the text.
+     * @return The index of the line, 0 being the first.
+     * @throws IndexOutOfBoundsException if the offset is out of the bounds of the text.
+     */
+    public int getLineOfOffset(int offset) {
+        if(offset < 0 || offset > this.length) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " of " + this.length);
+        }
+        return this.countStartsUpTo(offset);
+    }
+
+    /**
+     * Updates the index after a range of the text was replaced.
+     *
+     * @param offset        The offset at which the edit happened.
+     * @param removedLength The number of characters removed at the offset.
+     * @param insertedText  The text inserted at the offset.
+     * @throws IndexOutOfBoundsException if the removed range is out of the bounds of the text.
+     */
+    public void applyEdit(int offset, int removedLength, CharSequence insertedText) {
+        if(offset < 0 || removedLength < 0 || offset + removedLength > this.length) {
+            throw new IndexOutOfBoundsException("Range " + offset + "+" + removedLength + " of " + this.length);
+        }
+        // The lines starting within the removed range lose their line feeds
+        this.moveGap(this.countStartsUpTo(offset));
+        int removedStarts = this.countStartsUpTo(offset + removedLength) - this.gapStart;
+        this.gapEnd += removedStarts;
+        // The distances of the starts after the gap from the end stay the same
+        this.length += insertedText.length() - removedLength;
+        this.insertStarts(offset, insertedText);
+    }
+
+    /**
+     * Gets the start of a line other than the first.
+     *
+     * @param index The index of the start, 0 being the start of the second line.
+     * @return The offset of the start.
+     */
+    private int startAt(int index) {
+        return (index < this.gapStart) ? this.starts[index] : this.length - this.starts[index + this.gapEnd - this.gapStart];
+    }
+
+    /**
+     * Counts the lines other than the first starting at or before an offset, with a binary search.
+     *
+     * @param offset The offset.
+     * @return The number of starts at or before the offset.
+     */
+    private int countStartsUpTo(int offset) {
+        int low = 0;
+        int high = this.getLineCount() - 1;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(this.startAt(middle) <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Moves the gap so it starts at an index, converting the moved starts between offsets and distances from the end.
+     *
+     * @param index The index of the start the gap is moved before.
+     */
+    private void moveGap(int index) {
+        while(this.gapStart > index) {
+            this.gapStart--;
+            this.gapEnd--;
+            this.starts[this.gapEnd] = this.length - this.starts[this.gapStart];
+        }
+        while(this.gapStart < index) {
+            this.starts[this.gapStart] = this.length - this.starts[this.gapEnd];
+            this.gapStart++;
+            this.gapEnd++;
+        }
+    }
+
+    /**
+     * Inserts the starts of the lines following the line feeds of an inserted text at the gap, which has to be at
+     * the first start after the offset of the text.
+     *
+     * @param offset The offset of the inserted text.
+     * @param text   The inserted text.
+     */
+    private void insertStarts(int offset, CharSequence text) {
+        int textLength = text.length();
+        for(int index = 0; index < textLength; index++) {
+            if(text.charAt(index) == '\n') {
+                if(this.gapStart == this.gapEnd) {
+                    this.grow();
+                }
+                this.starts[this.gapStart++] = offset + index + 1;
+            }
+        }
+    }
+
+    /**
+     * Doubles the capacity of the gap array, keeping the starts after the gap at its end.
+     */
+    private void grow() {
+        int after = this.starts.length - this.gapEnd;
+        int[] grown = Arrays.copyOf(this.starts, this.starts.length * 2);
+        System.arraycopy(this.starts, this.gapEnd, grown, grown.length - after, after);
+        this.gapEnd = grown.length - after;
+        this.starts = grown;
+    }
+}
@@ -0,0 +1,246 @@
+package papplevaa.notepad.model;
+
+import papplevaa.notepad.util.ProgressListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A read-only text backed by a memory-mapped file, used for files too large to be loaded into memory.
+ * The file is mapped in regions, and only a sparse index of line starts is kept on the heap: a checkpoint every
+ * {@value #LINES_PER_CHECKPOINT} lines, or sooner once {@value #BYTES_PER_CHECKPOINT} bytes were passed, so locating
+ * a line scans a bounded number of bytes even in files with very long lines. Lines are decoded on request.
+ * The charset has to encode the line feed as a single {@code '\n'} byte, which holds for ASCII compatible charsets.
+ */
+public final class MappedText {
+    /** The number of lines between two entries of the sparse line index. */
+    private static final int LINES_PER_CHECKPOINT = 1024;
+    /** The number of bytes after which a checkpoint is placed at the next line start, whatever the number of lines. */
+    private static final int BYTES_PER_CHECKPOINT = 1 << 16;
+    /** The number of bits of the size of a mapped region. */
+    private static final int REGION_BITS = 30;
+    /** The size of a mapped region. */
+    private static final long REGION_SIZE = 1L << REGION_BITS;
+    /** The number of bytes scanned at once while indexing. */
+    private static final int SCAN_BLOCK_SIZE = 1 << 16;
+    /** The longest line prefix decoded, in bytes, longer lines are cut. */
+    private static final int MAX_LINE_BYTES = 1 << 16;
+
+    /** The mapped file. */
+    private final File file;
+    /** The charset used to decode the lines. */
+    private final Charset charset;
+    /** The size of the file in bytes. */
+    private final long size;
+    /** The mapped regions of the file. */
+    private final MappedByteBuffer[] regions;
+    /** The indexes of the lines starting at the checkpoints, in ascending order. */
+    private long[] checkpointLines;
+    /** The byte offsets of the lines starting at the checkpoints. */
+    private long[] checkpointOffsets;
+    /** The number of lines in the file. */
+    private long lineCount;
+    /** The index of the most recently located line. */
+    private long cachedLine;
+    /** The byte offset of the most recently located line. */
+    private long cachedOffset;
+
+    /**
+     * Constructs a new MappedText over the mapped regions of a file.
+     *
+     * @param file    The mapped file.
+     * @param charset The charset used to decode the lines.
+     * @param size    The size of the file in bytes.
+     * @param regions The mapped regions of the file.
+     */
+    private MappedText(File file, Charset charset, long size, MappedByteBuffer[] regions) {
+        this.file = file;
+        this.charset = charset;
+        this.size = size;
+        this.regions = regions;
+    }
+
+    /**
+     * Maps a file into memory and indexes its lines.
+     *
+     * @param file     The file to map.
+     * @param charset  The charset used to decode the lines.
+     * @param listener The listener notified about the progress of indexing.
+     * @return The mapped text.
+     * @throws IOException if the file can not be mapped.
+     */
+    public static MappedText open(File file, Charset charset, ProgressListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int numberOfRegions = (int) ((size + REGION_SIZE - 1) >> REGION_BITS);
+            MappedByteBuffer[] regions = new MappedByteBuffer[numberOfRegions];
+            for(int index = 0; index < numberOfRegions; index++) {
+                long position = (long) index << REGION_BITS;
+                regions[index] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, size - position));
+            }
+            // The mapping stays valid after the channel is closed
+            MappedText text = new MappedText(file, charset, size, regions);
+            text.index(listener);
+            return text;
+        } finally {
+            listener.finished();
+        }
+    }
+
+    /**
+     * Gets the mapped file.
+     *
+     * @return The mapped file.
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Gets the size of the mapped file.
+     *
+     * @return The size in bytes.
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of lines in the file. A file ending with a line feed has an empty last line.
+     *
+     * @return The number of lines.
+     */
+    public long getLineCount() {
+        return this.lineCount;
+    }
+
+    /**
+     * Decodes the line at the specified index, without its line terminator.
+     * Lines longer than {@value #MAX_LINE_BYTES} bytes are cut.
+     *
+     * @param lineIndex The index of the line.
+     * @return The decoded line.
+     * @throws IndexOutOfBoundsException if the index is out of bounds.
+     */
+    public String getLine(long lineIndex) {
+        if(lineIndex < 0 || lineIndex >= this.lineCount) {
+            throw new IndexOutOfBoundsException("Index is out of bounds!");
+        }
+        long start = this.lineStart(lineIndex);
+        long end = start;
+        long limit = Math.min(this.size, start + MAX_LINE_BYTES);
+        while(end < limit && this.byteAt(end) != '\n') {
+            end++;
+        }
+        if(end > start && this.byteAt(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[(int) (end - start)];
+        for(int index = 0; index < bytes.length; index++) {
+            bytes[index] = this.byteAt(start + index);
+        }
+        return new String(bytes, this.charset);
+    }
+
+    /**
+     * Builds the sparse line index with a single sequential scan of the file.
+     *
+     * @param listener The listener notified after each scanned block.
+     */
+    private void index(ProgressListener listener) {
+        long[] lineIndexes = new long[16];
+        long[] offsets = new long[16];
+        int numberOfCheckpoints = 1;
+        long lastLine = 0;
+        long lastOffset = 0;
+        long lines = 1;
+        byte[] block = new byte[SCAN_BLOCK_SIZE];
+        for(long position = 0; position < this.size; position += SCAN_BLOCK_SIZE) {
+            int length = (int) Math.min(SCAN_BLOCK_SIZE, this.size - position);
+            this.read(position, block, length);
+            for(int index = 0; index < length; index++) {
+                if(block[index] == '\n') {
+                    long lineStart = position + index + 1;
+                    if(lines - lastLine >= LINES_PER_CHECKPOINT || lineStart - lastOffset >= BYTES_PER_CHECKPOINT) {
+                        if(numberOfCheckpoints == offsets.length) {
+                            lineIndexes = Arrays.copyOf(lineIndexes, lineIndexes.length * 2);
+                            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                        }
+                        lineIndexes[numberOfCheckpoints] = lines;
+                        offsets[numberOfCheckpoints++] = lineStart;
+                        lastLine = lines;
+                        lastOffset = lineStart;
+                    }
+                    lines++;
+                }
+            }
+            listener.progressed(position + length, this.size);
+        }
+        this.checkpointLines = Arrays.copyOf(lineIndexes, numberOfCheckpoints);
+        this.checkpointOffsets = Arrays.copyOf(offsets, numberOfCheckpoints);
+        this.lineCount = lines;
+        this.cachedLine = 0;
+        this.cachedOffset = 0;
+    }
+
+    /**
+     * Locates the byte offset of a line, starting from the closest checkpoint or from the last located line.
+     * At most {@value #BYTES_PER_CHECKPOINT} bytes are scanned from the checkpoint.
+     *
+     * @param lineIndex The index of the line.
+     * @return The byte offset of the start of the line.
+     */
+    private long lineStart(long lineIndex) {
+        int checkpoint = Arrays.binarySearch(this.checkpointLines, lineIndex);
+        if(checkpoint < 0) {
+            // The checkpoint before the insertion point
+            checkpoint = -checkpoint - 2;
+        }
+        long line = this.checkpointLines[checkpoint];
+        long offset = this.checkpointOffsets[checkpoint];
+        if(this.cachedLine <= lineIndex && this.cachedLine > line) {
+            line = this.cachedLine;
+            offset = this.cachedOffset;
+        }
+        while(line < lineIndex) {
+            if(this.byteAt(offset++) == '\n') {
+                line++;
+            }
+        }
+        this.cachedLine = line;
+        this.cachedOffset = offset;
+        return offset;
+    }
+
+    /**
+     * Reads a byte of the file.
+     *
+     * @param position The position of the byte in the file.
+     * @return The byte.
+     */
+    private byte byteAt(long position) {
+        return this.regions[(int) (position >> REGION_BITS)].get((int) (position & (REGION_SIZE - 1)));
+    }
+
+    /**
+     * Reads a block of bytes of the file, which may span two regions.
+     *
+     * @param position The position of the first byte in the file.
+     * @param block    The array the bytes are read into.
+     * @param length   The number of bytes to read.
+     */
+    private void read(long position, byte[] block, int length) {
+        int region = (int) (position >> REGION_BITS);
+        int offset = (int) (position & (REGION_SIZE - 1));
+        int firstPart = (int) Math.min(length, REGION_SIZE - offset);
+        this.regions[region].get(offset, block, 0, firstPart);
+        if(firstPart < length) {
+            this.regions[region + 1].get(0, block, firstPart, length - firstPart);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package papplevaa.notepad.model;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
@@ -11,10 +15,24 @@ import java.util.NoSuchElementException;
  * Implements the Serializable interface to support serialization.
  */
 public class Model implements Serializable {
+    /** The serial version of the class, pinned so sessions saved by earlier versions stay readable. */
+    private static final long serialVersionUID = -4329615676289053280L;
     /** The default data file path for serialization. */
     private static final File data = new File(System.getProperty("user.home") + File.separator + "notepad.data");
+    /** The default journal file path, next to the data file. */
+    private static final File journal = new File(System.getProperty("user.home") + File.separator + "notepad.journal");
+    /** The default undo history file path, next to the data file. */
+    private static final File history = new File(System.getProperty("user.home") + File.separator + "notepad.history");
+    /** The default metrics file path, next to the data file. */
+    private static final File metrics = new File(System.getProperty("user.home") + File.separator + "notepad.metrics");
+    /** The default socket file path later launches forward their files to, next to the data file. */
+    private static final File socket = new File(System.getProperty("user.home") + File.separator + "notepad.socket");
     /** The list of tabs managed by the model. */
     private List<Tab> tabs;
+    /** The tabs backed by a file, by the canonical path of their file; rebuilt from the tabs once deserialized. */
+    private transient Map<String, Tab> tabsByPath;
+    /** The key each tab of the model is indexed under in {@link #tabsByPath}, {@code null} for tabs without a file. */
+    private transient Map<Tab, String> pathKeys;
     /** The index of the currently selected tab. */
     private int selectedIndex;
     /** The flag indicating whether the dark mode is enabled or not. */
@@ -35,6 +53,8 @@ public class Model implements Serializable {
      */
     public Model() {
         this.tabs = new ArrayList<>();
+        this.tabsByPath = new HashMap<>();
+        this.pathKeys = new HashMap<>();
         this.selectedIndex = -1;
         this.darkMode = true;
         this.height = Model.MINHEIGHT;
@@ -50,6 +70,42 @@ public class Model implements Serializable {
         return data;
     }
 
+    /**
+     * Gets the journal file path recording the edits made since the data file was written.
+     *
+     * @return The journal file path.
+     */
+    public static File getJournalPath() {
+        return journal;
+    }
+
+    /**
+     * Gets the undo history file path storing the undo history of the tabs for the next session.
+     *
+     * @return The undo history file path.
+     */
+    public static File getHistoryPath() {
+        return history;
+    }
+
+    /**
+     * Gets the metrics file path the metrics of the application are dumped to.
+     *
+     * @return The metrics file path.
+     */
+    public static File getMetricsPath() {
+        return metrics;
+    }
+
+    /**
+     * Gets the socket file path the running instance listens on for the files later launches are asked to open.
+     *
+     * @return The socket file path.
+     */
+    public static File getSocketPath() {
+        return socket;
+    }
+
     /**
      * Adds a new tab to the model.
      *
@@ -61,6 +117,7 @@ public class Model implements Serializable {
             throw new NullPointerException("Adding null as tab!");
         }
         this.tabs.add(tab);
+        this.index(tab);
     }
 
     /**
@@ -73,12 +130,40 @@ public class Model implements Serializable {
         if(tabIndex < 0 || tabIndex >= this.tabs.size()) {
             throw new IndexOutOfBoundsException("Index is out of bounds!");
         }
-        this.tabs.remove(tabIndex);
+        this.unindex(this.tabs.remove(tabIndex));
         if(this.selectedIndex == tabIndex && tabIndex == tabs.size()) {
             this.selectedIndex = tabs.size() - 1;
         }
     }
 
+    /**
+     * Finds the tab backed by a file, however the path of the file is written: relative paths, {@code ..} and
+     * symbolic links lead to the same tab.
+     *
+     * @param filePath The path of the file.
+     * @return The tab backed by the file, or {@code null} if no tab of the model is.
+     */
+    public Tab findTab(File filePath) {
+        return this.tabsByPath.get(pathKey(filePath));
+    }
+
+    /**
+     * Sets the file path associated with a tab, keeping the tab found by its new path.
+     * A tab that is not in the model only gets its path set.
+     *
+     * @param tab      The tab.
+     * @param filePath The new file path of the tab, or {@code null} if it is no longer backed by a file.
+     */
+    public void setFilePathOf(Tab tab, File filePath) {
+        if(!this.pathKeys.containsKey(tab)) {
+            tab.setFilePath(filePath);
+            return;
+        }
+        this.unindex(tab);
+        tab.setFilePath(filePath);
+        this.index(tab);
+    }
+
     /**
      * Gets the number of tabs in the model.
      *
@@ -144,6 +229,69 @@ public class Model implements Serializable {
         return index;
     }
 
+    /**
+     * Indexes a tab added to the model by the canonical path of its file.
+     * If another tab already has the same file, that one stays the one found by the path.
+     *
+     * @param tab The tab.
+     */
+    private void index(Tab tab) {
+        String key = (tab.getFilePath() == null) ? null : pathKey(tab.getFilePath());
+        this.pathKeys.put(tab, key);
+        if(key != null) {
+            this.tabsByPath.putIfAbsent(key, tab);
+        }
+    }
+
+    /**
+     * Removes a tab from the index, by the key it was indexed under, as its file may have moved since.
+     * If it was the one found by the path, the first other tab with the same file is found by it instead.
+     *
+     * @param tab The tab.
+     */
+    private void unindex(Tab tab) {
+        String key = this.pathKeys.remove(tab);
+        if(key != null && this.tabsByPath.remove(key, tab)) {
+            for(Tab other : this.tabs) {
+                if(key.equals(this.pathKeys.get(other))) {
+                    this.tabsByPath.put(key, other);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the key a file is indexed under: its canonical path, or its absolute normalized path if the canonical
+     * path can not be resolved.
+     *
+     * @param filePath The path of the file.
+     * @return The key of the file.
+     */
+    private static String pathKey(File filePath) {
+        try {
+            return filePath.getCanonicalPath();
+        } catch(IOException exception) {
+            return filePath.getAbsoluteFile().toPath().normalize().toString();
+        }
+    }
+
+    /**
+     * Reads the model and rebuilds the index of its tabs by path.
+     *
+     * @param stream The stream to read from.
+     * @throws IOException            if an I/O error occurs.
+     * @throws ClassNotFoundException if the class of a serialized object can not be found.
+     */
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        this.tabsByPath = new HashMap<>();
+        this.pathKeys = new HashMap<>();
+        for(Tab tab : this.tabs) {
+            this.index(tab);
+        }
+    }
+
     /**
      * Checks if dark mode is enabled.
      *
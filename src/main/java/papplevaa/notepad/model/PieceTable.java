@@ -0,0 +1,629 @@
+package papplevaa.notepad.model;
+
+import java.util.Arrays;
+
+/**
+ * A mutable text backed by a piece table.
+ * The text is described by a sequence of pieces, each referring to a range of either the original, never modified
+ * text or an append-only buffer holding all inserted text. The pieces are kept in a treap ordered by their position
+ * in the text and augmented with subtree lengths, so inserts, deletes and lookups by offset take O(log n) expected
+ * time in the number of pieces. An unmodified text consists of a single piece over the original text, which is shared
+ * with the caller instead of being copied.
+ */
+public class PieceTable implements CharSequence {
+    /** The original text, shared with the caller. */
+    private final String original;
+    /** The append-only buffer holding all inserted text. */
+    private final StringBuilder added;
+    /** The root of the treap of pieces, or {@code null} if the text is empty. */
+    private Node root;
+    /** The state of the pseudo random generator of treap priorities. */
+    private int seed;
+    /** The left tree produced by the last split. */
+    private Node splitLeft;
+    /** The right tree produced by the last split. */
+    private Node splitRight;
+
+    /**
+     * Constructs a new PieceTable holding the given original text.
+     *
+     * @param original The original text.
+     * @throws NullPointerException if the original text is null.
+     */
+    public PieceTable(String original) {
+        if(original == null) {
+            throw new NullPointerException("Original text is null!");
+        }
+        this.original = original;
+        this.added = new StringBuilder();
+        this.seed = 0x9E3779B9;
+        if(!original.isEmpty()) {
+            this.root = new Node(true, 0, original.length(), this.nextPriority());
+        }
+    }
+
+    /**
+     * Gets the original text the piece table was created with.
+     *
+     * @return The original text.
+     */
+    public String getOriginal() {
+        return this.original;
+    }
+
+    /**
+     * Checks if the text still consists of the whole original text only.
+     *
+     * @return True if the text is the unmodified original text, false otherwise.
+     */
+    public boolean isUnmodified() {
+        if(this.root == null) {
+            return this.original.isEmpty();
+        }
+        return this.root.left == null && this.root.right == null
+                && this.root.fromOriginal && this.root.start == 0 && this.root.length == this.original.length();
+    }
+
+    /**
+     * Gets the number of pieces the text consists of.
+     *
+     * @return The number of pieces.
+     */
+    public int getNumberOfPieces() {
+        return count(this.root);
+    }
+
+    /**
+     * Inserts text at the specified offset.
+     * Typing at the end of the previously inserted text extends its piece instead of creating a new one.
+     *
+     * @param offset The offset at which the text is inserted.
+     * @param text   The text to insert.
+     * @throws IndexOutOfBoundsException if the offset is out of bounds.
+     */
+    public void insert(int offset, CharSequence text) {
+        this.checkRange(offset, 0);
+        if(text.length() == 0) {
+            return;
+        }
+        this.split(this.root, offset);
+        Node left = this.splitLeft;
+        Node right = this.splitRight;
+        Node last = rightmost(left);
+        if(last != null && !last.fromOriginal && last.start + last.length == this.added.length()) {
+            this.added.append(text);
+            for(Node node = left; node != null; node = node.right) {
+                node.size += text.length();
+                if(node.right == null) {
+                    node.length += text.length();
+                }
+            }
+        } else {
+            Node piece = new Node(false, this.added.length(), text.length(), this.nextPriority());
+            this.added.append(text);
+            left = merge(left, piece);
+        }
+        this.root = merge(left, right);
+    }
+
+    /**
+     * Deletes a range of text.
+     *
+     * @param offset The offset of the first deleted character.
+     * @param length The number of deleted characters.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     */
+    public void delete(int offset, int length) {
+        this.checkRange(offset, length);
+        if(length == 0) {
+            return;
+        }
+        this.split(this.root, offset);
+        Node left = this.splitLeft;
+        this.split(this.splitRight, length);
+        this.root = merge(left, this.splitRight);
+    }
+
+    /**
+     * Replaces a range of text with the given text.
+     *
+     * @param offset        The offset of the first replaced character.
+     * @param removedLength The number of replaced characters.
+     * @param text          The text inserted in place of the range.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     */
+    public void replace(int offset, int removedLength, CharSequence text) {
+        this.checkRange(offset, removedLength);
+        this.delete(offset, removedLength);
+        this.insert(offset, text);
+    }
+
+    /**
+     * Compares the text to the specified string.
+     * Pieces of the original text that sit at their original position are not compared char by char
+     * when the string is the original text itself, so comparing a modified text against the text it was
+     * created from costs time proportional to the edits only.
+     *
+     * @param other The string to compare to.
+     * @return True if the text equals the string, false otherwise.
+     */
+    public boolean contentEquals(String other) {
+        if(other.length() != this.length()) {
+            return false;
+        }
+        return this.regionEquals(this.root, other, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length() {
+        return size(this.root);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char charAt(int index) {
+        if(index < 0 || index >= this.length()) {
+            throw new IndexOutOfBoundsException("Index is out of bounds!");
+        }
+        Node node = this.root;
+        while(true) {
+            int leftSize = size(node.left);
+            if(index < leftSize) {
+                node = node.left;
+            } else if(index < leftSize + node.length) {
+                int position = node.start + index - leftSize;
+                return node.fromOriginal ? this.original.charAt(position) : this.added.charAt(position);
+            } else {
+                index -= leftSize + node.length;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        this.checkRange(start, end - start);
+        StringBuilder builder = new StringBuilder(end - start);
+        this.appendRange(this.root, start, end, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Returns the text as a string.
+     * The original text is returned as is while it is unmodified.
+     *
+     * @return The text.
+     */
+    @Override
+    public String toString() {
+        if(this.isUnmodified()) {
+            return this.original;
+        }
+        StringBuilder builder = new StringBuilder(this.length());
+        this.appendRange(this.root, 0, this.length(), builder);
+        return builder.toString();
+    }
+
+    /**
+     * Creates a piece table over the original text that holds no pieces yet, to be filled with
+     * {@link #appendOriginal(int, int)} and {@link #appendAdded(CharSequence)}.
+     *
+     * @param original The original text.
+     * @return The empty piece table.
+     */
+    static PieceTable empty(String original) {
+        PieceTable table = new PieceTable(original);
+        table.root = null;
+        return table;
+    }
+
+    /**
+     * Appends a piece referring to a range of the original text to the end of the text.
+     *
+     * @param start  The offset of the range in the original text.
+     * @param length The length of the range.
+     * @throws IndexOutOfBoundsException if the range is out of the bounds of the original text.
+     */
+    void appendOriginal(int start, int length) {
+        if(start < 0 || length < 0 || start > this.original.length() - length) {
+            throw new IndexOutOfBoundsException("Range is out of bounds!");
+        }
+        if(length > 0) {
+            this.root = merge(this.root, new Node(true, start, length, this.nextPriority()));
+        }
+    }
+
+    /**
+     * Appends inserted text to the end of the text.
+     *
+     * @param text The inserted text.
+     */
+    void appendAdded(CharSequence text) {
+        this.insert(this.length(), text);
+    }
+
+    /**
+     * Takes an immutable snapshot of the text, which another thread can read while the table is edited further.
+     * Only the pieces and the inserted text still in the text are copied; the original text is shared.
+     *
+     * @return The snapshot of the text.
+     */
+    public Snapshot snapshot() {
+        int numberOfPieces = count(this.root);
+        int[] starts = new int[numberOfPieces];
+        int[] lengths = new int[numberOfPieces];
+        String[] texts = new String[numberOfPieces];
+        this.collect(this.root, starts, lengths, texts, 0);
+        return new Snapshot(this.original, starts, lengths, texts);
+    }
+
+    /**
+     * Copies the pieces of the tree into arrays, in order.
+     *
+     * @param node    The root of the tree.
+     * @param starts  The offsets of the pieces in the original text.
+     * @param lengths The lengths of the pieces.
+     * @param texts   The text of the inserted pieces, left {@code null} for ranges of the original text.
+     * @param index   The index of the first piece of the tree in the arrays.
+     * @return The index following the last piece of the tree.
+     */
+    private int collect(Node node, int[] starts, int[] lengths, String[] texts, int index) {
+        if(node == null) {
+            return index;
+        }
+        index = this.collect(node.left, starts, lengths, texts, index);
+        starts[index] = node.fromOriginal ? node.start : 0;
+        lengths[index] = node.length;
+        if(!node.fromOriginal) {
+            texts[index] = this.added.substring(node.start, node.start + node.length);
+        }
+        return this.collect(node.right, starts, lengths, texts, index + 1);
+    }
+
+    /* ------ Treap operations ------ */
+
+    /**
+     * Splits the tree at the specified offset into {@link #splitLeft} and {@link #splitRight},
+     * cutting the piece that spans the offset into two.
+     *
+     * @param node   The root of the tree to split.
+     * @param offset The offset to split at, relative to the tree.
+     */
+    private void split(Node node, int offset) {
+        if(node == null) {
+            this.splitLeft = null;
+            this.splitRight = null;
+            return;
+        }
+        int leftSize = size(node.left);
+        if(offset <= leftSize) {
+            this.split(node.left, offset);
+            node.left = this.splitRight;
+            update(node);
+            this.splitRight = node;
+        } else if(offset >= leftSize + node.length) {
+            this.split(node.right, offset - leftSize - node.length);
+            node.right = this.splitLeft;
+            update(node);
+            this.splitLeft = node;
+        } else {
+            // The tail keeps the priority of the piece, so it can take over its right subtree
+            int inner = offset - leftSize;
+            Node tail = new Node(node.fromOriginal, node.start + inner, node.length - inner, node.priority);
+            tail.right = node.right;
+            update(tail);
+            node.length = inner;
+            node.right = null;
+            update(node);
+            this.splitLeft = node;
+            this.splitRight = tail;
+        }
+    }
+
+    /**
+     * Merges two trees, where every piece of the first tree precedes every piece of the second one.
+     *
+     * @param left  The root of the first tree.
+     * @param right The root of the second tree.
+     * @return The root of the merged tree.
+     */
+    private static Node merge(Node left, Node right) {
+        if(left == null) {
+            return right;
+        }
+        if(right == null) {
+            return left;
+        }
+        if(left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        } else {
+            right.left = merge(left, right.left);
+            update(right);
+            return right;
+        }
+    }
+
+    /**
+     * Appends the part of the tree that falls into the range to the builder.
+     *
+     * @param node    The root of the tree.
+     * @param start   The start of the range, relative to the tree.
+     * @param end     The end of the range, relative to the tree.
+     * @param builder The builder the text is appended to.
+     */
+    private void appendRange(Node node, int start, int end, StringBuilder builder) {
+        if(node == null || start >= end) {
+            return;
+        }
+        int leftSize = size(node.left);
+        if(start < leftSize) {
+            this.appendRange(node.left, start, Math.min(end, leftSize), builder);
+        }
+        int pieceStart = Math.max(start - leftSize, 0);
+        int pieceEnd = Math.min(end - leftSize, node.length);
+        if(pieceStart < pieceEnd) {
+            CharSequence source = node.fromOriginal ? this.original : this.added;
+            builder.append(source, node.start + pieceStart, node.start + pieceEnd);
+        }
+        int rightStart = leftSize + node.length;
+        if(end > rightStart) {
+            this.appendRange(node.right, Math.max(start - rightStart, 0), end - rightStart, builder);
+        }
+    }
+
+    /**
+     * Compares the text of the tree to the region of the string starting at the specified offset.
+     *
+     * @param node   The root of the tree.
+     * @param other  The string to compare to.
+     * @param offset The offset in the string where the text of the tree starts.
+     * @return True if the text of the tree equals the region, false otherwise.
+     */
+    private boolean regionEquals(Node node, String other, int offset) {
+        if(node == null) {
+            return true;
+        }
+        if(!this.regionEquals(node.left, other, offset)) {
+            return false;
+        }
+        int position = offset + size(node.left);
+        if(node.fromOriginal) {
+            boolean inPlace = (other == this.original && node.start == position);
+            if(!inPlace && !other.regionMatches(position, this.original, node.start, node.length)) {
+                return false;
+            }
+        } else {
+            for(int index = 0; index < node.length; index++) {
+                if(other.charAt(position + index) != this.added.charAt(node.start + index)) {
+                    return false;
+                }
+            }
+        }
+        return this.regionEquals(node.right, other, position + node.length);
+    }
+
+    /**
+     * Checks that the range lies within the text.
+     *
+     * @param offset The start of the range.
+     * @param length The length of the range.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     */
+    private void checkRange(int offset, int length) {
+        if(offset < 0 || length < 0 || offset > this.length() - length) {
+            throw new IndexOutOfBoundsException("Range is out of bounds!");
+        }
+    }
+
+    /**
+     * Generates the next treap priority with a xorshift generator.
+     *
+     * @return The next priority.
+     */
+    private int nextPriority() {
+        this.seed ^= this.seed << 13;
+        this.seed ^= this.seed >>> 17;
+        this.seed ^= this.seed << 5;
+        return this.seed;
+    }
+
+    /**
+     * Gets the number of characters in the tree.
+     *
+     * @param node The root of the tree.
+     * @return The number of characters, 0 for an empty tree.
+     */
+    private static int size(Node node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    /**
+     * Gets the number of pieces in the tree.
+     *
+     * @param node The root of the tree.
+     * @return The number of pieces, 0 for an empty tree.
+     */
+    private static int count(Node node) {
+        return (node == null) ? 0 : count(node.left) + 1 + count(node.right);
+    }
+
+    /**
+     * Gets the last piece of the tree.
+     *
+     * @param node The root of the tree.
+     * @return The last piece, or {@code null} for an empty tree.
+     */
+    private static Node rightmost(Node node) {
+        while(node != null && node.right != null) {
+            node = node.right;
+        }
+        return node;
+    }
+
+    /**
+     * Recomputes the subtree length of a node from its children.
+     *
+     * @param node The node to update.
+     */
+    private static void update(Node node) {
+        node.size = size(node.left) + node.length + size(node.right);
+    }
+
+    /**
+     * An immutable snapshot of a text: its pieces, with their inserted text copied, over the shared original text.
+     * Reading the characters in order, like encoding the text into a file, finds the piece of each character in
+     * constant time. A snapshot is read by one thread at a time.
+     */
+    public static final class Snapshot implements CharSequence {
+        /** The original text the pieces refer to. */
+        final String original;
+        /** The offsets of the pieces in the original text, unused for inserted pieces. */
+        final int[] starts;
+        /** The lengths of the pieces. */
+        final int[] lengths;
+        /** The text of the inserted pieces, {@code null} for ranges of the original text. */
+        final String[] texts;
+        /** The offsets of the pieces in the text, followed by the length of the text. */
+        private final int[] offsets;
+        /** The index of the piece the last character read was in. */
+        private int piece;
+
+        /**
+         * Constructs a new Snapshot.
+         *
+         * @param original The original text.
+         * @param starts   The offsets of the pieces in the original text.
+         * @param lengths  The lengths of the pieces, none of them empty.
+         * @param texts    The text of the inserted pieces.
+         */
+        private Snapshot(String original, int[] starts, int[] lengths, String[] texts) {
+            this.original = original;
+            this.starts = starts;
+            this.lengths = lengths;
+            this.texts = texts;
+            this.offsets = new int[lengths.length + 1];
+            for(int index = 0; index < lengths.length; index++) {
+                this.offsets[index + 1] = this.offsets[index] + lengths[index];
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int length() {
+            return this.offsets[this.lengths.length];
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public char charAt(int index) {
+            if(index < 0 || index >= this.length()) {
+                throw new IndexOutOfBoundsException("Index is out of bounds!");
+            }
+            int piece = this.piece;
+            if(index < this.offsets[piece] || index >= this.offsets[piece + 1]) {
+                // Reading in order moves to the next piece
+                piece = (index >= this.offsets[piece + 1] && index < this.offsets[piece + 2]) ? piece + 1 : this.pieceAt(index);
+                this.piece = piece;
+            }
+            int position = index - this.offsets[piece];
+            return (this.texts[piece] == null) ? this.original.charAt(this.starts[piece] + position) : this.texts[piece].charAt(position);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if(start < 0 || start > end || end > this.length()) {
+                throw new IndexOutOfBoundsException("Range is out of bounds!");
+            }
+            StringBuilder builder = new StringBuilder(end - start);
+            for(int piece = (start == end) ? 0 : this.pieceAt(start), position = start; position < end; piece++) {
+                int from = position - this.offsets[piece];
+                int to = Math.min(end, this.offsets[piece + 1]) - this.offsets[piece];
+                if(this.texts[piece] == null) {
+                    builder.append(this.original, this.starts[piece] + from, this.starts[piece] + to);
+                } else {
+                    builder.append(this.texts[piece], from, to);
+                }
+                position += to - from;
+            }
+            return builder.toString();
+        }
+
+        /**
+         * Returns the text as a string. The original text is returned as is if the snapshot is just that text.
+         *
+         * @return The text.
+         */
+        @Override
+        public String toString() {
+            if(this.lengths.length == 1 && this.texts[0] == null && this.starts[0] == 0 && this.lengths[0] == this.original.length()) {
+                return this.original;
+            }
+            return (String) this.subSequence(0, this.length());
+        }
+
+        /**
+         * Finds the piece a character is in.
+         *
+         * @param index The index of the character in the text.
+         * @return The index of the piece.
+         */
+        private int pieceAt(int index) {
+            int piece = Arrays.binarySearch(this.offsets, index);
+            // An index inside a piece lands before the offset of the next piece
+            return (piece >= 0) ? piece : -piece - 2;
+        }
+    }
+
+    /**
+     * A piece of the text, stored as a node of the treap.
+     */
+    private static final class Node {
+        /** The flag indicating whether the piece refers to the original text or to the added buffer. */
+        private final boolean fromOriginal;
+        /** The offset of the piece in its source. */
+        private final int start;
+        /** The number of characters in the piece. */
+        private int length;
+        /** The heap priority of the node. */
+        private final int priority;
+        /** The number of characters in the subtree rooted at this node. */
+        private int size;
+        /** The subtree of the preceding pieces. */
+        private Node left;
+        /** The subtree of the following pieces. */
+        private Node right;
+
+        /**
+         * Constructs a new leaf node for a piece.
+         *
+         * @param fromOriginal True if the piece refers to the original text.
+         * @param start        The offset of the piece in its source.
+         * @param length       The number of characters in the piece.
+         * @param priority     The heap priority of the node.
+         */
+        private Node(boolean fromOriginal, int start, int length, int priority) {
+            this.fromOriginal = fromOriginal;
+            this.start = start;
+            this.length = length;
+            this.priority = priority;
+            this.size = length;
+        }
+    }
+}
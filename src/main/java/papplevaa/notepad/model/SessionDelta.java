@@ -0,0 +1,383 @@
+package papplevaa.notepad.model;
+
+import papplevaa.notepad.util.LineSeparator;
+import papplevaa.notepad.util.Settings;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The unsaved changes of a file-backed tab relative to the saved content of its file, as stored in the session.
+ * The changes are pieces: ranges of the saved content and inserted text. A tab without unsaved changes only stores
+ * the length and hash of its saved content, so the file is never written to the session. A tab with unsaved changes
+ * stores the pieces of its piece table, followed by its whole content as a fallback if it is not larger than
+ * {@link Settings#getSessionFallbackMaxChars()}, so the changes survive the file being changed by another program
+ * before the session is restored. The fallback is taken as a snapshot of the pieces and only turned into text when
+ * the delta is written, off the event dispatch thread.
+ *
+ * <p>Sessions written before line breaks were normalized refer to the file with its own line breaks; their deltas
+ * are turned into deltas of the normalized file with {@link #normalized(String, LineSeparator)} once it is loaded.
+ */
+final class SessionDelta {
+    /** The piece count marking a tab whose content equals the content of its file. */
+    private static final int UNMODIFIED = -1;
+
+    /** The length of the saved content the delta refers to. */
+    private final int savedLength;
+    /** The hash of the saved content the delta refers to. */
+    private final int savedHash;
+    /** The offsets of the pieces in the saved content, unused for inserted pieces; {@code null} if unmodified. */
+    private final int[] starts;
+    /** The lengths of the pieces in the saved content, unused for inserted pieces; {@code null} if unmodified. */
+    private final int[] lengths;
+    /** The text of the inserted pieces, {@code null} for ranges of the saved content; {@code null} if unmodified. */
+    private final CharSequence[] texts;
+    /** The whole content the pieces make, used if the saved content changed; a piece table while edits are replayed, {@code null} if none. */
+    private final CharSequence fallback;
+    /** The flag indicating whether the delta refers to the saved content with the line breaks of its file. */
+    private final boolean rawLineBreaks;
+
+    /**
+     * Constructs a new SessionDelta.
+     *
+     * @param savedLength   The length of the saved content.
+     * @param savedHash     The hash of the saved content.
+     * @param starts        The offsets of the pieces in the saved content.
+     * @param lengths       The lengths of the pieces in the saved content.
+     * @param texts         The text of the inserted pieces.
+     * @param fallback      The whole content the pieces make, or {@code null}.
+     * @param rawLineBreaks The flag indicating whether the delta refers to the line breaks of the file.
+     */
+    private SessionDelta(int savedLength, int savedHash, int[] starts, int[] lengths, CharSequence[] texts, CharSequence fallback, boolean rawLineBreaks) {
+        this.savedLength = savedLength;
+        this.savedHash = savedHash;
+        this.starts = starts;
+        this.lengths = lengths;
+        this.texts = texts;
+        this.fallback = fallback;
+        this.rawLineBreaks = rawLineBreaks;
+    }
+
+    /**
+     * Creates the delta of a tab whose content equals the content of its file.
+     * The tab takes whatever content the file has when it is restored.
+     *
+     * @param saved The saved content of the tab.
+     * @return The delta of an unmodified tab.
+     */
+    static SessionDelta unmodified(String saved) {
+        return new SessionDelta(saved.length(), saved.hashCode(), null, null, null, null, false);
+    }
+
+    /**
+     * Creates the delta of a piece table whose original text is the saved content of the tab.
+     * The pieces are copied from a snapshot of the table, which is kept as the fallback; this costs O(pieces) plus the
+     * inserted text still in the table, whatever the length of the saved content.
+     *
+     * @param table The piece table holding the current content.
+     * @return The delta of the table.
+     */
+    static SessionDelta of(PieceTable table) {
+        String saved = table.getOriginal();
+        if(table.isUnmodified()) {
+            return unmodified(saved);
+        }
+        PieceTable.Snapshot snapshot = table.snapshot();
+        return new SessionDelta(saved.length(), saved.hashCode(), snapshot.starts, snapshot.lengths,
+                Arrays.copyOf(snapshot.texts, snapshot.texts.length, CharSequence[].class), snapshot, false);
+    }
+
+    /**
+     * Creates the delta of a tab with unsaved changes, holding its whole current content as one inserted piece.
+     *
+     * @param saved   The saved content of the tab.
+     * @param current The current content of the tab, turned into text when the delta is written.
+     * @return The delta of the modified tab.
+     */
+    static SessionDelta modified(String saved, CharSequence current) {
+        boolean empty = (current.length() == 0);
+        return new SessionDelta(saved.length(), saved.hashCode(), new int[empty ? 0 : 1],
+                empty ? new int[0] : new int[] {current.length()}, empty ? new CharSequence[0] : new CharSequence[] {current}, null, false);
+    }
+
+    /**
+     * Checks if the delta holds unsaved changes.
+     *
+     * @return True if the tab had unsaved changes, false if its content was the content of its file.
+     */
+    boolean isModified() {
+        return this.texts != null;
+    }
+
+    /**
+     * Checks if a saved content is the one the delta was made for, by its length and hash.
+     *
+     * @param saved The saved content of the tab, as loaded from its file.
+     * @return True if the saved content matches, false if the file changed since the session was saved.
+     */
+    boolean matches(String saved) {
+        return saved.length() == this.savedLength && saved.hashCode() == this.savedHash;
+    }
+
+    /**
+     * Reads a delta written by {@link #write(DataOutputStream)}.
+     *
+     * @param stream       The stream to read from.
+     * @param withFallback The flag indicating whether the session may hold fallbacks, from version 5 on.
+     * @return The delta read.
+     * @throws IOException if an I/O error occurs or the data is corrupt.
+     */
+    static SessionDelta read(DataInputStream stream, boolean withFallback) throws IOException {
+        int savedLength = stream.readInt();
+        int savedHash = stream.readInt();
+        int numberOfPieces = stream.readInt();
+        if(numberOfPieces == UNMODIFIED) {
+            return new SessionDelta(savedLength, savedHash, null, null, null, null, false);
+        }
+        if(numberOfPieces < 0) {
+            throw new IOException("Corrupt session delta");
+        }
+        int[] starts = new int[numberOfPieces];
+        int[] lengths = new int[numberOfPieces];
+        CharSequence[] texts = new CharSequence[numberOfPieces];
+        for(int index = 0; index < numberOfPieces; index++) {
+            if(stream.readBoolean()) {
+                starts[index] = stream.readInt();
+                lengths[index] = stream.readInt();
+            } else {
+                texts[index] = SessionStore.readText(stream);
+                lengths[index] = texts[index].length();
+            }
+        }
+        String fallback = (withFallback && stream.readBoolean()) ? SessionStore.readText(stream) : null;
+        return new SessionDelta(savedLength, savedHash, starts, lengths, texts, fallback, false);
+    }
+
+    /**
+     * Checks if the delta refers to the saved content with the line breaks of its file, as read from a session
+     * written before line breaks were normalized, and not normalized yet.
+     *
+     * @return True if the delta refers to the line breaks of the file, false if it refers to the normalized content.
+     */
+    boolean hasRawLineBreaks() {
+        return this.rawLineBreaks;
+    }
+
+    /**
+     * Marks the delta as read from a session written before line breaks were normalized, referring to the saved
+     * content with the line breaks of its file.
+     *
+     * @return The same delta, marked.
+     */
+    SessionDelta withRawLineBreaks() {
+        return new SessionDelta(this.savedLength, this.savedHash, this.starts, this.lengths, this.texts, this.fallback, true);
+    }
+
+    /**
+     * Turns a delta read from a session written before line breaks were normalized into a delta of the normalized
+     * saved content. The saved content is matched with its line breaks turned back into the separator of its file,
+     * and the content rebuilt over it is normalized; if it does not match, only the inserted text is normalized.
+     *
+     * @param saved     The saved content of the tab, as loaded from its file, with {@code \n} line breaks.
+     * @param separator The line separator detected in the file.
+     * @return The delta of the normalized saved content, or the same delta if it was not read from such a session.
+     */
+    SessionDelta normalized(String saved, LineSeparator separator) {
+        if(!this.rawLineBreaks || this.texts == null) {
+            return this;
+        }
+        String raw = (separator == LineSeparator.LF) ? saved : saved.replace("\n", separator.getSeparator());
+        if(this.matches(raw)) {
+            return modified(saved, LineSeparator.normalize(this.applyTo(raw).toString()));
+        }
+        int[] pieceLengths = this.lengths.clone();
+        CharSequence[] pieceTexts = this.texts.clone();
+        for(int index = 0; index < pieceTexts.length; index++) {
+            if(pieceTexts[index] != null) {
+                pieceTexts[index] = LineSeparator.normalize(pieceTexts[index].toString());
+                pieceLengths[index] = pieceTexts[index].length();
+            }
+        }
+        String fallback = (this.fallback == null) ? null : LineSeparator.normalize(this.fallback.toString());
+        return new SessionDelta(this.savedLength, this.savedHash, this.starts, pieceLengths, pieceTexts, fallback, false);
+    }
+
+    /**
+     * Gets the delta as it is now, to be written by another thread. A fallback being edited by replayed edits is
+     * replaced by a snapshot of its pieces.
+     *
+     * @return The delta that can be written while edits are replayed on this one.
+     */
+    SessionDelta snapshot() {
+        if(!(this.fallback instanceof PieceTable)) {
+            return this;
+        }
+        return new SessionDelta(this.savedLength, this.savedHash, this.starts, this.lengths, this.texts,
+                ((PieceTable) this.fallback).snapshot(), this.rawLineBreaks);
+    }
+
+    /**
+     * Writes the delta to the stream. The fallback is only written if the pieces refer to the saved content and it
+     * is not larger than {@link Settings#getSessionFallbackMaxChars()}.
+     *
+     * @param stream The stream to write to.
+     * @throws IOException if an I/O error occurs.
+     */
+    void write(DataOutputStream stream) throws IOException {
+        stream.writeInt(this.savedLength);
+        stream.writeInt(this.savedHash);
+        if(this.texts == null) {
+            stream.writeInt(UNMODIFIED);
+            return;
+        }
+        stream.writeInt(this.texts.length);
+        for(int index = 0; index < this.texts.length; index++) {
+            boolean fromSaved = (this.texts[index] == null);
+            stream.writeBoolean(fromSaved);
+            if(fromSaved) {
+                stream.writeInt(this.starts[index]);
+                stream.writeInt(this.lengths[index]);
+            } else {
+                SessionStore.writeText(stream, this.texts[index].toString());
+            }
+        }
+        boolean withFallback = this.fallback != null && this.refersToSaved()
+                && this.fallback.length() <= Settings.getSessionFallbackMaxChars();
+        stream.writeBoolean(withFallback);
+        if(withFallback) {
+            SessionStore.writeText(stream, this.fallback.toString());
+        }
+    }
+
+    /**
+     * Creates the delta with an edit applied, used to replay edits on a tab whose file is not loaded yet.
+     * Inserted text following inserted text is merged into one piece. The fallback is turned into a piece table
+     * on the first edit and edited in place afterwards, as the delta it is taken from is dropped.
+     *
+     * @param offset        The offset at which the edit happened.
+     * @param removedLength The number of characters removed at the offset.
+     * @param insertedText  The text inserted at the offset.
+     * @return The delta including the edit.
+     * @throws IndexOutOfBoundsException if the edited range is out of the bounds of the content.
+     */
+    SessionDelta withEdit(int offset, int removedLength, String insertedText) {
+        int[] pieceStarts = (this.texts == null) ? new int[] {0} : this.starts;
+        int[] pieceLengths = (this.texts == null) ? new int[] {this.savedLength} : this.lengths;
+        CharSequence[] pieceTexts = (this.texts == null) ? new CharSequence[1] : this.texts;
+        int end = offset + removedLength;
+        if(offset < 0 || removedLength < 0) {
+            throw new IndexOutOfBoundsException("Range is out of bounds!");
+        }
+        List<Integer> starts = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        List<CharSequence> texts = new ArrayList<>();
+        boolean inserted = false;
+        int position = 0;
+        for(int index = 0; index < pieceTexts.length; index++) {
+            int pieceEnd = position + pieceLengths[index];
+            if(position < offset) {
+                addPart(starts, lengths, texts, pieceStarts[index], pieceTexts[index], 0, Math.min(pieceEnd, offset) - position);
+            }
+            if(!inserted && offset <= pieceEnd) {
+                addPart(starts, lengths, texts, 0, insertedText, 0, insertedText.length());
+                inserted = true;
+            }
+            if(pieceEnd > end) {
+                addPart(starts, lengths, texts, pieceStarts[index], pieceTexts[index], Math.max(position, end) - position, pieceEnd - position);
+            }
+            position = pieceEnd;
+        }
+        if(!inserted && offset == 0) {
+            addPart(starts, lengths, texts, 0, insertedText, 0, insertedText.length());
+        } else if(!inserted || end > position) {
+            throw new IndexOutOfBoundsException("Range is out of bounds!");
+        }
+        PieceTable fallback = null;
+        if(this.fallback instanceof PieceTable) {
+            fallback = (PieceTable) this.fallback;
+        } else if(this.fallback != null) {
+            fallback = new PieceTable(this.fallback.toString());
+        }
+        if(fallback != null) {
+            fallback.replace(offset, removedLength, insertedText);
+        }
+        return new SessionDelta(this.savedLength, this.savedHash,
+                starts.stream().mapToInt(Integer::intValue).toArray(),
+                lengths.stream().mapToInt(Integer::intValue).toArray(),
+                texts.toArray(new CharSequence[0]), fallback, this.rawLineBreaks);
+    }
+
+    /**
+     * Adds a part of a piece to the pieces being built, merging inserted text with preceding inserted text.
+     *
+     * @param starts  The offsets of the pieces being built.
+     * @param lengths The lengths of the pieces being built.
+     * @param texts   The text of the pieces being built.
+     * @param start   The offset of the piece in the saved content, unused for inserted text.
+     * @param text    The inserted text of the piece, or {@code null} for a range of the saved content.
+     * @param from    The start of the part, relative to the piece.
+     * @param to      The end of the part, relative to the piece.
+     */
+    private static void addPart(List<Integer> starts, List<Integer> lengths, List<CharSequence> texts, int start, CharSequence text, int from, int to) {
+        if(from >= to) {
+            return;
+        }
+        int last = texts.size() - 1;
+        if(text == null) {
+            starts.add(start + from);
+            lengths.add(to - from);
+            texts.add(null);
+        } else if(last >= 0 && texts.get(last) != null) {
+            texts.set(last, texts.get(last).toString() + text.subSequence(from, to));
+            lengths.set(last, lengths.get(last) + to - from);
+        } else {
+            starts.add(0);
+            lengths.add(to - from);
+            texts.add(text.subSequence(from, to).toString());
+        }
+    }
+
+    /**
+     * Checks if the pieces refer to ranges of the saved content, so they only apply to the content they were made for.
+     *
+     * @return True if a piece is a range of the saved content, false if the pieces are only inserted text.
+     */
+    private boolean refersToSaved() {
+        return Arrays.asList(this.texts).contains(null);
+    }
+
+    /**
+     * Rebuilds the content of the tab over its saved content. A delta made only of inserted text applies to any
+     * saved content; otherwise, if the file changed since the session was saved, the fallback is taken as the
+     * content, keeping the unsaved changes of the tab.
+     *
+     * @param saved The saved content of the tab, as loaded from its file.
+     * @return The piece table holding the content of the tab, or {@code null} if the file changed
+     *         since the session was saved and the delta refers to ranges of its previous content without a fallback.
+     */
+    PieceTable applyTo(String saved) {
+        if(this.texts == null) {
+            return new PieceTable(saved);
+        }
+        PieceTable table = PieceTable.empty(saved);
+        if(!this.matches(saved) && this.refersToSaved()) {
+            if(this.fallback == null) {
+                return null;
+            }
+            table.appendAdded(this.fallback);
+            return table;
+        }
+        for(int index = 0; index < this.texts.length; index++) {
+            if(this.texts[index] == null) {
+                table.appendOriginal(this.starts[index], this.lengths[index]);
+            } else {
+                table.appendAdded(this.texts[index]);
+            }
+        }
+        return table;
+    }
+}
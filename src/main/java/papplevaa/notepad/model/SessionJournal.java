@@ -0,0 +1,346 @@
+package papplevaa.notepad.model;
+
+import papplevaa.notepad.util.Log;
+import papplevaa.notepad.util.Settings;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of the edits made since the session was last written, so a crash does not lose them.
+ * The thread owning the model records edits and checkpoints into a buffer in memory; a background thread writes
+ * the buffer to the journal at a short interval and forces it to the storage device in batches, so the owning
+ * thread never waits for the disk.
+ *
+ * <p>A checkpoint captures the whole session, which the background thread writes to the session file before it
+ * starts a new journal. Checkpoints are taken when tabs are opened, closed or saved, and when the journal grows
+ * above its compaction size. The journal starts with the checkpoint number of the session it continues,
+ * so a journal left behind by a crash between the two writes is ignored instead of replayed twice.
+ *
+ * <p>Format: the magic number, the version and the checkpoint number, followed by records of the index of the
+ * edited tab and either an edit (offset, removed length and inserted text) or the full content of the tab.
+ */
+public final class SessionJournal {
+    /** The magic number at the start of a journal file, "NPJL". */
+    private static final int MAGIC = 0x4E504A4C;
+    /** The version of the format written. */
+    private static final int VERSION = 1;
+    /** The size of the header of the journal. */
+    private static final int HEADER_SIZE = 16;
+    /** The marker of an edit record. */
+    private static final byte EDIT = 0;
+    /** The marker of a record holding the full content of a tab. */
+    private static final byte CONTENT = 1;
+
+    /** The path to the session file. */
+    private final File sessionPath;
+    /** The path to the journal file. */
+    private final File journalPath;
+    /** The callback asking the thread owning the model for a checkpoint, called on the journal thread. */
+    private final Runnable compactionRequest;
+    /** The lock guarding the records and the checkpoint not written yet. */
+    private final Object lock = new Object();
+    /** The records not written yet. */
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    /** The stream encoding records into the buffer. */
+    private final DataOutputStream records = new DataOutputStream(this.buffer);
+    /** The checkpoint not written yet, or {@code null} if there is none. */
+    private SessionStore.Snapshot pendingSnapshot;
+    /** The number of the last checkpoint, used by the thread owning the model. */
+    private long checkpoint;
+    /** The open journal file, or {@code null} if there is none, used by the journal thread. */
+    private FileChannel channel;
+    /** The flag indicating whether records were written since the journal was last forced. */
+    private boolean unsynced;
+    /** The time the journal was last forced, in nanoseconds. */
+    private long lastSync;
+    /** The flag indicating whether a compaction was requested and not done yet. */
+    private boolean compactionRequested;
+    /** The executor of the journal thread, or {@code null} if the journal is not started. */
+    private ScheduledExecutorService executor;
+
+    /**
+     * Constructs a new SessionJournal.
+     *
+     * @param sessionPath       The path to the session file.
+     * @param journalPath       The path to the journal file.
+     * @param compactionRequest The callback asking the thread owning the model for a checkpoint,
+     *                          called on the journal thread when the journal grows above its compaction size.
+     */
+    public SessionJournal(File sessionPath, File journalPath, Runnable compactionRequest) {
+        this.sessionPath = sessionPath;
+        this.journalPath = journalPath;
+        this.compactionRequest = compactionRequest;
+    }
+
+    /**
+     * Reads the session and replays the edits of the journal continuing it, recovering the edits made
+     * before the application was last closed abnormally.
+     *
+     * @return The recovered model, or {@code null} if there is no session or it can not be read.
+     */
+    public Model recover() {
+        Model model = SessionStore.read(this.sessionPath);
+        this.checkpoint = SessionStore.readCheckpoint(this.sessionPath);
+        if(model != null && this.journalPath.exists()) {
+            this.replay(model);
+        }
+        return model;
+    }
+
+    /**
+     * Replays the records of the journal on the model, stopping at the first damaged record,
+     * or at a record that does not apply to the model.
+     *
+     * @param model The model read from the session.
+     */
+    private void replay(Model model) {
+        int replayed = 0;
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(this.journalPath), 1 << 16))) {
+            if(stream.readInt() != MAGIC || stream.readInt() != VERSION || stream.readLong() != this.checkpoint) {
+                Log.warn("Journal does not continue the session, ignored");
+                return;
+            }
+            while(true) {
+                byte kind;
+                try {
+                    kind = stream.readByte();
+                } catch(EOFException exception) {
+                    break;
+                }
+                Tab tab = model.getTabAt(stream.readInt());
+                if(kind == EDIT) {
+                    int offset = stream.readInt();
+                    int removedLength = stream.readInt();
+                    tab.applyEdit(offset, removedLength, SessionStore.readText(stream));
+                } else if(kind == CONTENT) {
+                    tab.setCurrentContent(SessionStore.readText(stream));
+                } else {
+                    throw new IOException("Corrupt journal record");
+                }
+                replayed++;
+            }
+        } catch(IOException | IndexOutOfBoundsException | IllegalArgumentException | IllegalStateException exception) {
+            // A crash may leave a partially written record at the end
+            Log.warn("Journal ends with a damaged record: ", exception.toString());
+        }
+        Log.info("Recovered " + replayed + " edits from the journal");
+    }
+
+    /**
+     * Takes the first checkpoint of the model and starts the journal thread.
+     * Must be called on the thread owning the model.
+     *
+     * @param model The model whose edits are recorded.
+     */
+    public void start(Model model) {
+        this.checkpoint(model);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notepad-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Settings.getJournalFlushMillis();
+        this.executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records an edit of a tab. Must be called on the thread owning the model.
+     *
+     * @param tabIndex      The index of the edited tab.
+     * @param offset        The offset at which the edit happened.
+     * @param removedLength The number of characters removed at the offset.
+     * @param insertedText  The text inserted at the offset.
+     */
+    public void recordEdit(int tabIndex, int offset, int removedLength, String insertedText) {
+        synchronized(this.lock) {
+            try {
+                this.records.writeByte(EDIT);
+                this.records.writeInt(tabIndex);
+                this.records.writeInt(offset);
+                this.records.writeInt(removedLength);
+                SessionStore.writeText(this.records, insertedText);
+            } catch(IOException exception) {
+                // Writing to memory does not fail
+            }
+        }
+    }
+
+    /**
+     * Records the full content of a tab. Must be called on the thread owning the model.
+     *
+     * @param tabIndex The index of the tab.
+     * @param content  The new content of the tab.
+     */
+    public void recordContent(int tabIndex, String content) {
+        synchronized(this.lock) {
+            try {
+                this.records.writeByte(CONTENT);
+                this.records.writeInt(tabIndex);
+                SessionStore.writeText(this.records, content);
+            } catch(IOException exception) {
+                // Writing to memory does not fail
+            }
+        }
+    }
+
+    /**
+     * Captures the session to be written by the journal thread, replacing the records not written yet.
+     * Must be called on the thread owning the model, after changes that records do not describe,
+     * like opening, closing or saving tabs.
+     *
+     * @param model The model to capture.
+     */
+    public void checkpoint(Model model) {
+        SessionStore.Snapshot snapshot = SessionStore.capture(model, ++this.checkpoint);
+        synchronized(this.lock) {
+            this.pendingSnapshot = snapshot;
+            this.buffer.reset();
+        }
+    }
+
+    /**
+     * Writes the last checkpoint and the records not written yet to disk. Called on the journal thread.
+     */
+    synchronized void flush() {
+        SessionStore.Snapshot snapshot;
+        byte[] batch;
+        synchronized(this.lock) {
+            snapshot = this.pendingSnapshot;
+            this.pendingSnapshot = null;
+            batch = this.buffer.toByteArray();
+            this.buffer.reset();
+        }
+        try {
+            if(snapshot != null) {
+                if(!SessionStore.write(this.sessionPath, snapshot)) {
+                    this.retry(snapshot, batch);
+                    return;
+                }
+                this.restartJournal(snapshot.getCheckpoint());
+            }
+            if(this.channel == null) {
+                return;
+            }
+            if(batch.length > 0) {
+                this.writeFully(ByteBuffer.wrap(batch));
+                this.unsynced = true;
+            }
+            long now = System.nanoTime();
+            if(this.unsynced && now - this.lastSync >= TimeUnit.MILLISECONDS.toNanos(Settings.getJournalSyncMillis())) {
+                this.channel.force(false);
+                this.unsynced = false;
+                this.lastSync = now;
+            }
+            if(!this.compactionRequested && this.channel.size() > Settings.getJournalCompactBytes()) {
+                this.compactionRequested = true;
+                this.compactionRequest.run();
+            }
+        } catch(IOException exception) {
+            Log.error("Failed to write journal: ", exception.getMessage());
+            // The journal may end with a partial record now, so nothing is appended until the next checkpoint
+            this.closeChannel();
+            this.compactionRequest.run();
+        }
+    }
+
+    /**
+     * Puts back a checkpoint that could not be written, together with the records following it,
+     * unless a newer checkpoint was taken in the meantime.
+     *
+     * @param snapshot The checkpoint that could not be written.
+     * @param batch    The records following the checkpoint.
+     */
+    private void retry(SessionStore.Snapshot snapshot, byte[] batch) {
+        synchronized(this.lock) {
+            if(this.pendingSnapshot == null) {
+                byte[] later = this.buffer.toByteArray();
+                this.buffer.reset();
+                this.buffer.write(batch, 0, batch.length);
+                this.buffer.write(later, 0, later.length);
+                this.pendingSnapshot = snapshot;
+            }
+        }
+    }
+
+    /**
+     * Replaces the journal with an empty journal continuing the checkpoint.
+     *
+     * @param checkpoint The number of the checkpoint written to the session file.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void restartJournal(long checkpoint) throws IOException {
+        this.closeChannel();
+        this.channel = FileChannel.open(this.journalPath.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(checkpoint).flip();
+        this.writeFully(header);
+        this.unsynced = true;
+        this.compactionRequested = false;
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer to the journal.
+     *
+     * @param bytes The bytes to write.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while(bytes.hasRemaining()) {
+            this.channel.write(bytes);
+        }
+    }
+
+    /**
+     * Closes the journal file, if it is open.
+     */
+    private void closeChannel() {
+        if(this.channel == null) {
+            return;
+        }
+        try {
+            this.channel.close();
+        } catch(IOException exception) {
+            Log.warn("Failed to close journal: ", exception.getMessage());
+        }
+        this.channel = null;
+    }
+
+    /**
+     * Stops the journal thread and writes the final session, then deletes the journal, which it makes redundant.
+     * Must be called on the thread owning the model.
+     *
+     * @param model The model to write.
+     */
+    public void close(Model model) {
+        if(this.executor != null) {
+            this.executor.shutdown();
+            try {
+                this.executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch(InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.checkpoint(model);
+        this.flush();
+        this.closeChannel();
+        boolean written;
+        synchronized(this.lock) {
+            written = (this.pendingSnapshot == null);
+        }
+        if(written) {
+            try {
+                Files.deleteIfExists(this.journalPath.toPath());
+            } catch(IOException exception) {
+                Log.warn("Failed to delete journal: ", exception.getMessage());
+            }
+        }
+    }
+}
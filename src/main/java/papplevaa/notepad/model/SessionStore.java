@@ -0,0 +1,368 @@
+package papplevaa.notepad.model;
+
+import papplevaa.notepad.util.FileUtil;
+import papplevaa.notepad.util.LineSeparator;
+import papplevaa.notepad.util.Log;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the session of the Notepad application in a compact, versioned binary format.
+ * The session holds the settings of the model and the metadata of its tabs. Tabs backed by a file only store
+ * their unsaved changes relative to the content of the file, which is read again when the session is restored.
+ * Sessions written with Java serialization by earlier versions are migrated when they are read.
+ *
+ * <p>Format, version 5: the magic number, the version and the checkpoint number, the dark mode flag,
+ * the window width and height, the selected index and the number of tabs, followed by each tab: its title,
+ * its optional file path, its large file flag, and either its full text or its {@link SessionDelta}.
+ * Version 4 is the same, but its deltas are without the fallback content; version 3 is the same as version 4, but its text may have the line breaks of the files it was read from, which are turned into
+ * {@code \n} when it is read; version 2 is also without the checkpoint number.
+ */
+public final class SessionStore {
+    /** The magic number at the start of a session file, "NPAD". */
+    private static final int MAGIC = 0x4E504144;
+    /** The version of the format written. */
+    private static final int VERSION = 5;
+    /** The oldest version of the format that can be read. */
+    private static final int MIN_VERSION = 2;
+    /** The marker of a tab stored with its full text. */
+    private static final byte FULL_TEXT = 0;
+    /** The marker of a tab stored as a delta relative to its file. */
+    private static final byte DELTA = 1;
+    /** The marker of a tab stored as a delta relative to its file with its own line breaks, read from version 3 or earlier. */
+    private static final byte RAW_DELTA = 2;
+    /** The first version whose text has {@code \n} line breaks only. */
+    private static final int NORMALIZED_VERSION = 4;
+    /** The first version whose deltas may be followed by the whole content of the tab. */
+    private static final int FALLBACK_VERSION = 5;
+
+    private SessionStore() {
+        // Private constructor to prevent instantiation; utility class with static methods.
+    }
+
+    /**
+     * Writes the session to a file. The session is written to a temporary file first,
+     * which then replaces the file, so a failed write does not destroy the previous session.
+     *
+     * @param filePath The path to the session file.
+     * @param model    The model to write.
+     */
+    public static void write(File filePath, Model model) {
+        write(filePath, capture(model, 0));
+    }
+
+    /**
+     * Captures the state of the model to be written later, possibly on another thread.
+     * Must be called on the thread owning the model; capturing a tab backed by a file only collects its pieces.
+     *
+     * @param model      The model to capture.
+     * @param checkpoint The checkpoint number stored in the session, identifying the journal that continues it.
+     * @return The captured session.
+     */
+    public static Snapshot capture(Model model, long checkpoint) {
+        int numberOfTabs = model.getNumberOfTabs();
+        List<TabEntry> tabs = new ArrayList<>(numberOfTabs);
+        for(int index = 0; index < numberOfTabs; index++) {
+            Tab tab = model.getTabAt(index);
+            SessionDelta delta = tab.getSessionDelta();
+            String text = (delta == null) ? tab.getCurrentContent() : null;
+            tabs.add(new TabEntry(tab.getTitle(), tab.getFilePath(), tab.isLargeFile(), text, delta));
+        }
+        return new Snapshot(checkpoint, model.isDarkMode(), model.getWindowWidth(), model.getWindowHeight(),
+                model.getSelectedIndex(), tabs);
+    }
+
+    /**
+     * Writes a captured session to a file, and forces it to the storage device before it replaces the file,
+     * so a crash leaves either the previous or the new session.
+     *
+     * @param filePath The path to the session file.
+     * @param snapshot The captured session.
+     * @return True if the session was written, false otherwise.
+     */
+    public static boolean write(File filePath, Snapshot snapshot) {
+        File temporary = new File(filePath.getPath() + ".tmp");
+        try {
+            try (FileOutputStream file = new FileOutputStream(temporary);
+                 DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                writeSnapshot(stream, snapshot);
+                stream.flush();
+                file.getFD().sync();
+            }
+            try {
+                Files.move(temporary.toPath(), filePath.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch(AtomicMoveNotSupportedException exception) {
+                Files.move(temporary.toPath(), filePath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch(IOException exception) {
+            Log.error("Failed to save data for next session: ", exception.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads the session from a file, migrating sessions written with Java serialization.
+     * Tabs stored as deltas get their content once their saved content is set.
+     *
+     * @param filePath The path to the session file.
+     * @return The model read, or {@code null} if there is no session or it can not be read.
+     */
+    public static Model read(File filePath) {
+        if(!filePath.exists()) {
+            return null;
+        }
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath), 1 << 16))) {
+            if(stream.readInt() != MAGIC) {
+                return migrate(filePath);
+            }
+            int version = stream.readInt();
+            if(version < MIN_VERSION || version > VERSION) {
+                Log.warn("Unsupported session version " + version);
+                return null;
+            }
+            if(version >= 3) {
+                stream.readLong();
+            }
+            return readModel(stream, version);
+        } catch(IOException exception) {
+            Log.warn("Failed to load data from previous session: ", exception.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads the checkpoint number of the session in a file.
+     *
+     * @param filePath The path to the session file.
+     * @return The checkpoint number, or 0 if there is no session or it has no checkpoint number.
+     */
+    public static long readCheckpoint(File filePath) {
+        if(!filePath.exists()) {
+            return 0;
+        }
+        try (DataInputStream stream = new DataInputStream(new FileInputStream(filePath))) {
+            if(stream.readInt() != MAGIC || stream.readInt() < 3) {
+                return 0;
+            }
+            return stream.readLong();
+        } catch(IOException exception) {
+            return 0;
+        }
+    }
+
+    /**
+     * Reads a session written with Java serialization, the format used before version 2.
+     * The content of its tabs has the line breaks of the files it was read from, which are turned into {@code \n}.
+     *
+     * @param filePath The path to the session file.
+     * @return The model read, or {@code null} if it can not be read.
+     */
+    private static Model migrate(File filePath) {
+        Model model = FileUtil.deserialize(filePath, Model.class);
+        if(model != null) {
+            for(int index = 0; index < model.getNumberOfTabs(); index++) {
+                Tab tab = model.getTabAt(index);
+                String content = tab.getCurrentContent();
+                String normalized = LineSeparator.normalize(content);
+                if(normalized != content) {
+                    tab.setCurrentContent(normalized);
+                }
+            }
+            Log.info("Migrated session from the serialized format");
+        }
+        return model;
+    }
+
+    /**
+     * Writes a captured session to the stream.
+     *
+     * @param stream   The stream to write to.
+     * @param snapshot The captured session.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static void writeSnapshot(DataOutputStream stream, Snapshot snapshot) throws IOException {
+        stream.writeInt(MAGIC);
+        stream.writeInt(VERSION);
+        stream.writeLong(snapshot.checkpoint);
+        stream.writeBoolean(snapshot.darkMode);
+        stream.writeInt(snapshot.width);
+        stream.writeInt(snapshot.height);
+        stream.writeInt(snapshot.selectedIndex);
+        stream.writeInt(snapshot.tabs.size());
+        for(TabEntry tab : snapshot.tabs) {
+            stream.writeUTF(tab.title);
+            stream.writeBoolean(tab.filePath != null);
+            if(tab.filePath != null) {
+                stream.writeUTF(tab.filePath.getPath());
+            }
+            stream.writeBoolean(tab.largeFile);
+            if(tab.delta == null) {
+                stream.writeByte(FULL_TEXT);
+                writeText(stream, tab.text);
+            } else {
+                stream.writeByte(tab.delta.hasRawLineBreaks() ? RAW_DELTA : DELTA);
+                tab.delta.write(stream);
+            }
+        }
+    }
+
+    /**
+     * Reads the model from the stream. The text of sessions written before version 4 is normalized, and their deltas
+     * are marked to be normalized once the content of their file is loaded.
+     *
+     * @param stream  The stream to read from.
+     * @param version The version of the session.
+     * @return The model read.
+     * @throws IOException if an I/O error occurs or the data is corrupt.
+     */
+    private static Model readModel(DataInputStream stream, int version) throws IOException {
+        boolean rawLineBreaks = (version < NORMALIZED_VERSION);
+        boolean withFallback = (version >= FALLBACK_VERSION);
+        Model model = new Model();
+        model.setDarkMode(stream.readBoolean());
+        model.setWindowWidth(stream.readInt());
+        model.setWindowHeight(stream.readInt());
+        int selectedIndex = stream.readInt();
+        int numberOfTabs = stream.readInt();
+        for(int index = 0; index < numberOfTabs; index++) {
+            String title = stream.readUTF();
+            File tabPath = stream.readBoolean() ? new File(stream.readUTF()) : null;
+            Tab tab = new Tab(title, "", tabPath);
+            tab.setLargeFile(stream.readBoolean());
+            byte kind = stream.readByte();
+            if(kind == FULL_TEXT) {
+                String text = readText(stream);
+                tab.setCurrentContent(rawLineBreaks ? LineSeparator.normalize(text) : text);
+            } else if(kind == DELTA && tabPath != null) {
+                SessionDelta delta = SessionDelta.read(stream, withFallback);
+                tab.setRestoredDelta(rawLineBreaks ? delta.withRawLineBreaks() : delta);
+            } else if(kind == RAW_DELTA && tabPath != null) {
+                tab.setRestoredDelta(SessionDelta.read(stream, withFallback).withRawLineBreaks());
+            } else {
+                throw new IOException("Corrupt session tab");
+            }
+            model.addTab(tab);
+        }
+        if(selectedIndex < -1 || selectedIndex >= numberOfTabs) {
+            throw new IOException("Corrupt session selection");
+        }
+        model.setSelectedIndex(selectedIndex);
+        return model;
+    }
+
+    /**
+     * Writes a text of any length as its UTF-8 encoded length and bytes.
+     *
+     * @param stream The stream to write to.
+     * @param text   The text to write.
+     * @throws IOException if an I/O error occurs.
+     */
+    static void writeText(DataOutputStream stream, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    /**
+     * Reads a text written by {@link #writeText(DataOutputStream, String)}.
+     *
+     * @param stream The stream to read from.
+     * @return The text read.
+     * @throws IOException if an I/O error occurs or the data is corrupt.
+     */
+    static String readText(DataInputStream stream) throws IOException {
+        int length = stream.readInt();
+        if(length < 0) {
+            throw new IOException("Corrupt session text");
+        }
+        byte[] bytes = new byte[length];
+        stream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The state of a model captured to be written as a session. Immutable, so it can be written on any thread.
+     */
+    public static final class Snapshot {
+        /** The checkpoint number of the session. */
+        private final long checkpoint;
+        /** The flag indicating whether the dark mode is enabled or not. */
+        private final boolean darkMode;
+        /** The width of the application window. */
+        private final int width;
+        /** The height of the application window. */
+        private final int height;
+        /** The index of the selected tab. */
+        private final int selectedIndex;
+        /** The captured tabs. */
+        private final List<TabEntry> tabs;
+
+        /**
+         * Constructs a new Snapshot.
+         *
+         * @param checkpoint    The checkpoint number of the session.
+         * @param darkMode      The flag indicating whether the dark mode is enabled.
+         * @param width         The width of the application window.
+         * @param height        The height of the application window.
+         * @param selectedIndex The index of the selected tab.
+         * @param tabs          The captured tabs.
+         */
+        private Snapshot(long checkpoint, boolean darkMode, int width, int height, int selectedIndex, List<TabEntry> tabs) {
+            this.checkpoint = checkpoint;
+            this.darkMode = darkMode;
+            this.width = width;
+            this.height = height;
+            this.selectedIndex = selectedIndex;
+            this.tabs = tabs;
+        }
+
+        /**
+         * Gets the checkpoint number of the session.
+         *
+         * @return The checkpoint number.
+         */
+        public long getCheckpoint() {
+            return this.checkpoint;
+        }
+    }
+
+    /**
+     * A tab captured in a snapshot, holding either its full text or its delta.
+     */
+    private static final class TabEntry {
+        /** The title of the tab. */
+        private final String title;
+        /** The file path of the tab, or {@code null} if it has none. */
+        private final File filePath;
+        /** The flag indicating whether the tab shows a large file. */
+        private final boolean largeFile;
+        /** The full current content of the tab, or {@code null} if it is stored as a delta. */
+        private final String text;
+        /** The unsaved changes of the tab relative to its file, or {@code null} if it is stored with its full text. */
+        private final SessionDelta delta;
+
+        /**
+         * Constructs a new TabEntry.
+         *
+         * @param title     The title of the tab.
+         * @param filePath  The file path of the tab.
+         * @param largeFile The flag indicating whether the tab shows a large file.
+         * @param text      The full current content of the tab.
+         * @param delta     The unsaved changes of the tab relative to its file.
+         */
+        private TabEntry(String title, File filePath, boolean largeFile, String text, SessionDelta delta) {
+            this.title = title;
+            this.filePath = filePath;
+            this.largeFile = largeFile;
+            this.text = text;
+            this.delta = delta;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package papplevaa.notepad.model;
 
+import papplevaa.notepad.util.LineSeparator;
+import papplevaa.notepad.util.TextEncoding;
+
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Objects;
 
@@ -10,14 +15,48 @@ import java.util.Objects;
  * Implements the Serializable interface to support serialization.
  */
 public class Tab implements Serializable {
+    /** The serial version of the class, pinned so sessions saved by earlier versions stay readable. */
+    private static final long serialVersionUID = -5754969768000137142L;
     /** The file path associated with the tab. */
     private File filePath;
     /** The title of the tab. */
     private String title;
     /** The content of the tab when it was last saved. */
     private transient String lastSaved;
-    /** The current content of the tab. */
+    /** The current content of the tab, or {@code null} while it is only held by the piece table. */
     private String current;
+    /** The piece table the edits are applied to, created on the first edit, or {@code null} if there is none. */
+    private transient PieceTable pieceTable;
+    /** The flag indicating whether the tab shows a large file in the read-only viewer. */
+    private boolean largeFile;
+    /** The memory-mapped content of a large file, or {@code null} if it is not mapped. */
+    private transient MappedText mappedContent;
+    /** The flag indicating whether the file of the restored tab is still being loaded. */
+    private transient boolean loading;
+    /** The edit generation, incremented whenever the current or the last saved content changes. */
+    private transient long generation;
+    /** The edit generation at which the current content was known to match the last saved content. */
+    private transient long savedGeneration;
+    /** The edit generation for which the cached unsaved flag was computed. */
+    private transient long checkedGeneration;
+    /** The cached result of the last content comparison. */
+    private transient boolean unsaved;
+    /** The unsaved changes read from the session, applied once the saved content is loaded, or {@code null} if there are none. */
+    private transient SessionDelta restoredDelta;
+    /** The index of the line starts of the current content, built when it is first requested, or {@code null} if it is not built. */
+    private transient LineIndex lineIndex;
+    /** The encoding of the file of the tab, detected when it is read, or {@code null} for the default encoding. */
+    private transient TextEncoding encoding;
+    /** The line separator of the file of the tab, detected when it is read, or {@code null} for LF. */
+    private transient LineSeparator lineSeparator;
+    /** The time the file of the tab was last modified when it was read or saved, 0 if it is unknown. */
+    private transient long fileLastModified;
+    /** The flag indicating whether the tab follows the text appended to its file, read-only meanwhile. */
+    private transient boolean following;
+    /** The flag indicating whether the file changed since the session holding the unsaved changes of the tab was saved. */
+    private transient boolean changedSinceSession;
+    /** The flag indicating whether the unsaved changes of the session could not be applied to the changed file. */
+    private transient boolean restoredChangesDropped;
 
     /**
      * Constructs a new Tab with default values.
@@ -45,6 +84,19 @@ public class Tab implements Serializable {
         this.current = this.lastSaved;
     }
 
+    /**
+     * Constructs a new read-only Tab showing a memory-mapped large file.
+     * The content of the file is not loaded, so both the last saved and the current content are empty.
+     *
+     * @param title         The title of the tab.
+     * @param mappedContent The memory-mapped content of the file.
+     */
+    public Tab(String title, MappedText mappedContent) {
+        this(title, "", mappedContent.getFile());
+        this.largeFile = true;
+        this.mappedContent = mappedContent;
+    }
+
     /**
      * Gets the title of the tab.
      *
@@ -73,11 +125,12 @@ public class Tab implements Serializable {
     }
 
     /**
-     * Sets the file path associated with the tab.
+     * Sets the file path associated with the tab. Tabs of a model get their path through
+     * {@link Model#setFilePathOf(Tab, File)}, which keeps them found by it.
      *
      * @param filePath The new file path for the tab.
      */
-    public void setFilePath(File filePath) {
+    void setFilePath(File filePath) {
         this.filePath = filePath;
     }
 
@@ -91,12 +144,48 @@ public class Tab implements Serializable {
     }
 
     /**
-     * Sets the content of the tab when it was last saved.
+     * Sets the content of the tab when it was last saved. The unsaved changes restored from the session are applied
+     * on top of it; if the file changed since the session was saved, they are kept as unsaved changes of the new
+     * content, which {@link #isChangedSinceSession()} tells.
      *
      * @param content The new last saved content for the tab.
      */
     public void setLastSavedContent(String content) {
         this.lastSaved = Objects.requireNonNullElse(content, "");
+        this.generation++;
+        if(this.restoredDelta != null) {
+            SessionDelta delta = this.restoredDelta.normalized(this.lastSaved, this.getLineSeparator());
+            this.changedSinceSession = delta.isModified() && !delta.matches(this.lastSaved);
+            this.pieceTable = delta.applyTo(this.lastSaved);
+            this.restoredDelta = null;
+            this.lineIndex = null;
+            if(this.pieceTable == null) {
+                // Edits replayed from the journal on the previous content of the file, which is gone
+                this.restoredChangesDropped = true;
+                this.pieceTable = new PieceTable(this.lastSaved);
+            }
+            this.current = null;
+        }
+    }
+
+    /**
+     * Checks if the file of the tab changed since the session holding its unsaved changes was saved,
+     * e.g. by another program, once its saved content is set.
+     *
+     * @return True if the file changed under the unsaved changes of the session, false otherwise.
+     */
+    public boolean isChangedSinceSession() {
+        return this.changedSinceSession;
+    }
+
+    /**
+     * Checks if the unsaved changes of the session were dropped because the file changed since the session was
+     * saved and they referred to its previous content.
+     *
+     * @return True if the unsaved changes were dropped, false otherwise.
+     */
+    public boolean isRestoredChangesDropped() {
+        return this.restoredChangesDropped;
     }
 
     /**
@@ -105,9 +194,22 @@ public class Tab implements Serializable {
      * @return The current content of the tab.
      */
     public String getCurrentContent() {
+        if(this.current == null) {
+            this.current = this.pieceTable.toString();
+        }
         return this.current;
     }
 
+    /**
+     * Gets the current content of the tab without turning it into a string: the string if it was built,
+     * or an immutable snapshot of the piece table otherwise, which another thread can read.
+     *
+     * @return The current content of the tab.
+     */
+    public CharSequence getContentSnapshot() {
+        return (this.current != null) ? this.current : this.pieceTable.snapshot();
+    }
+
     /**
      * Sets the current content of the tab.
      *
@@ -115,15 +217,89 @@ public class Tab implements Serializable {
      */
     public void setCurrentContent(String content) {
         this.current = content;
+        this.pieceTable = null;
+        this.restoredDelta = null;
+        this.lineIndex = null;
+        this.generation++;
+    }
+
+    /**
+     * Applies an edit to the current content of the tab.
+     * The edit is applied to a piece table that refers to the current content instead of copying it,
+     * so an edit costs O(log n); the content is turned into a string again only when it is requested.
+     * Edits replayed on a restored tab whose file is not loaded yet are added to its unsaved changes.
+     * The line index is updated along, if it was built.
+     *
+     * @param offset        The offset at which the edit happened.
+     * @param removedLength The number of characters removed at the offset.
+     * @param insertedText  The text inserted at the offset.
+     * @throws IndexOutOfBoundsException if the edited range is out of the bounds of the content.
+     */
+    public void applyEdit(int offset, int removedLength, String insertedText) {
+        if(this.restoredDelta != null) {
+            this.restoredDelta = this.restoredDelta.withEdit(offset, removedLength, insertedText);
+            this.generation++;
+            return;
+        }
+        if(this.pieceTable == null) {
+            this.pieceTable = new PieceTable(this.current);
+        }
+        this.pieceTable.replace(offset, removedLength, insertedText);
+        if(this.lineIndex != null) {
+            this.lineIndex.applyEdit(offset, removedLength, insertedText);
+        }
+        this.current = null;
+        this.generation++;
+    }
+
+    /**
+     * Gets the length of the current content of the tab without turning the piece table into a string.
+     *
+     * @return The length of the current content.
+     */
+    public int getCurrentLength() {
+        return (this.current != null) ? this.current.length() : this.pieceTable.length();
+    }
+
+    /**
+     * Gets the index of the line starts of the current content. The index is built on the first request
+     * and then kept up to date by the edits, so only the first request costs O(n).
+     *
+     * @return The line index of the current content.
+     */
+    public LineIndex getLineIndex() {
+        if(this.lineIndex == null) {
+            this.lineIndex = new LineIndex(this.getCurrentContent());
+        }
+        return this.lineIndex;
     }
 
     /**
      * Checks if there are unsaved changes in the tab.
+     * The contents are only compared when they changed since the last check, and the comparison
+     * falls back to a full compare only if the lengths and the hashes of the contents are equal,
+     * so the usual keystroke that changes the length is answered in constant time.
      *
      * @return True if there are unsaved changes, false otherwise.
      */
     public boolean isUnsaved() {
-        return !this.current.equals(this.lastSaved);
+        if(this.largeFile || this.loading || this.generation == this.savedGeneration) {
+            return false;
+        }
+        if(this.checkedGeneration != this.generation) {
+            if(this.getCurrentLength() != this.lastSaved.length()) {
+                this.unsaved = true;
+            } else if(this.current != null) {
+                this.unsaved = this.current.hashCode() != this.lastSaved.hashCode() || !this.current.equals(this.lastSaved);
+            } else {
+                this.unsaved = !this.pieceTable.contentEquals(this.lastSaved);
+            }
+            this.checkedGeneration = this.generation;
+            if(!this.unsaved) {
+                this.savedGeneration = this.generation;
+            }
+        }
+        return this.unsaved;
     }
 
     /**
@@ -131,6 +307,227 @@ public class Tab implements Serializable {
      * Updates the last saved content to match the current content.
      */
     public void commitChanges() {
-        this.lastSaved = this.current;
+        this.lastSaved = this.getCurrentContent();
+        // The next edit starts a piece table over the saved content, so both share the same string
+        this.pieceTable = null;
+        this.savedGeneration = this.generation;
+    }
+
+    /**
+     * Marks the text appended to a followed tab as saved without copying the content into the last saved content,
+     * so following a file costs only the appended text. The tab is not unsaved until it is edited again; a tab that
+     * stops following gets its content from its file again.
+     */
+    public void commitFollowedText() {
+        this.savedGeneration = this.generation;
+    }
+
+    /**
+     * Gets the edit generation of the tab, which changes whenever its current or last saved content changes.
+     *
+     * @return The edit generation.
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Commits content that was saved in the background to the last saved state.
+     * The tab may have been edited while its content was being written, so its current content
+     * stays as it is and is compared with the saved content again.
+     *
+     * @param savedContent The content written to the file, taken with {@link #getContentSnapshot()} when the save started.
+     * @param generation   The edit generation of the tab when the save started.
+     */
+    public void commitChanges(String savedContent, long generation) {
+        if(generation == this.generation) {
+            // Not edited since the save started, so the saved content is the current content
+            this.lastSaved = savedContent;
+            this.current = savedContent;
+            this.pieceTable = null;
+            this.savedGeneration = this.generation;
+            return;
+        }
+        this.lastSaved = savedContent;
+        this.generation++;
+    }
+
+    /**
+     * Checks if the tab shows a large file in the read-only viewer.
+     * Large file tabs have no editable content and never have unsaved changes.
+     *
+     * @return True if the tab shows a large file, false otherwise.
+     */
+    public boolean isLargeFile() {
+        return this.largeFile;
+    }
+
+    /**
+     * Gets the memory-mapped content of a large file.
+     *
+     * @return The mapped content, or {@code null} if the content is not mapped (yet).
+     */
+    public MappedText getMappedContent() {
+        return this.mappedContent;
+    }
+
+    /**
+     * Sets the memory-mapped content of a large file, used when a large file tab is restored.
+     *
+     * @param mappedContent The mapped content, or {@code null} to turn the tab into a regular tab.
+     */
+    public void setMappedContent(MappedText mappedContent) {
+        this.mappedContent = mappedContent;
+        this.largeFile = (mappedContent != null);
+    }
+
+    /**
+     * Checks if the file of the restored tab is still being loaded.
+     * A loading tab has no known saved state yet, so it is reported to have no unsaved changes.
+     *
+     * @return True if the tab is loading, false otherwise.
+     */
+    public boolean isLoading() {
+        return this.loading;
+    }
+
+    /**
+     * Sets whether the file of the restored tab is still being loaded.
+     *
+     * @param loading True if the tab is loading, false once its file is loaded.
+     */
+    public void setLoading(boolean loading) {
+        this.loading = loading;
+    }
+
+    /**
+     * Gets the encoding the tab is saved with: the encoding detected when its file was read,
+     * or the default encoding for new tabs and tabs whose file was not read yet.
+     *
+     * @return The encoding of the tab.
+     */
+    public TextEncoding getEncoding() {
+        return (this.encoding != null) ? this.encoding : TextEncoding.DEFAULT;
+    }
+
+    /**
+     * Sets the encoding the tab is saved with.
+     *
+     * @param encoding The encoding of the file of the tab, or {@code null} for the default encoding.
+     */
+    public void setEncoding(TextEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+    /**
+     * Gets the line separator the tab is saved with: the separator detected when its file was read,
+     * or LF for new tabs and tabs whose file was not read yet. The content itself always has {@code \n} line breaks.
+     *
+     * @return The line separator of the tab.
+     */
+    public LineSeparator getLineSeparator() {
+        return (this.lineSeparator != null) ? this.lineSeparator : LineSeparator.LF;
+    }
+
+    /**
+     * Sets the line separator the tab is saved with.
+     *
+     * @param lineSeparator The line separator of the file of the tab, or {@code null} for LF.
+     */
+    public void setLineSeparator(LineSeparator lineSeparator) {
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * Gets the time the file of the tab was last modified when the tab read or saved it.
+     * A file modified at another time was changed by another process.
+     *
+     * @return The time in milliseconds since the epoch, or 0 if it is unknown.
+     */
+    public long getFileLastModified() {
+        return this.fileLastModified;
+    }
+
+    /**
+     * Sets the time the file of the tab was last modified when the tab read or saved it.
+     *
+     * @param fileLastModified The time in milliseconds since the epoch.
+     */
+    public void setFileLastModified(long fileLastModified) {
+        this.fileLastModified = fileLastModified;
+    }
+
+    /**
+     * Checks if the tab follows the text appended to its file. A following tab holds the last lines of the file
+     * and can not be edited or saved.
+     *
+     * @return True if the tab follows its file, false otherwise.
+     */
+    public boolean isFollowing() {
+        return this.following;
+    }
+
+    /**
+     * Sets whether the tab follows the text appended to its file.
+     *
+     * @param following True if the tab follows its file.
+     */
+    public void setFollowing(boolean following) {
+        this.following = following;
+    }
+
+    /**
+     * Sets whether the tab shows a large file, used when the tab is read from the session.
+     *
+     * @param largeFile True if the tab shows a large file.
+     */
+    void setLargeFile(boolean largeFile) {
+        this.largeFile = largeFile;
+    }
+
+    /**
+     * Sets the unsaved changes read from the session. The current content of the tab is rebuilt from them
+     * when the saved content is set, once the file of the tab is loaded.
+     *
+     * @param delta The unsaved changes relative to the content of the file.
+     */
+    void setRestoredDelta(SessionDelta delta) {
+        this.restoredDelta = delta;
+        this.current = "";
+        this.pieceTable = null;
+        this.lineIndex = null;
+    }
+
+    /**
+     * Gets the unsaved changes of the tab relative to the content of its file, to be stored in the session.
+     *
+     * @return The changes, or {@code null} if the tab has to be stored with its full current content.
+     */
+    SessionDelta getSessionDelta() {
+        if(this.restoredDelta != null) {
+            return this.restoredDelta.snapshot();
+        }
+        if(this.filePath == null || this.loading) {
+            return null;
+        }
+        if(this.largeFile || this.following) {
+            // A followed tab is restored with the whole content of its file
+            return SessionDelta.unmodified(this.lastSaved);
+        }
+        if(this.pieceTable != null && this.pieceTable.getOriginal() == this.lastSaved) {
+            return SessionDelta.of(this.pieceTable);
+        }
+        return this.isUnsaved() ? SessionDelta.modified(this.lastSaved, this.getContentSnapshot()) : SessionDelta.unmodified(this.lastSaved);
+    }
+
+    /**
+     * Writes the tab to the stream, turning the piece table into the serialized current content first.
+     *
+     * @param stream The stream the tab is written to.
+     * @throws IOException if an I/O error occurs while writing.
+     */
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        this.getCurrentContent();
+        stream.defaultWriteObject();
     }
 }
@@ -0,0 +1,225 @@
+package papplevaa.notepad.ui;
+
+import papplevaa.notepad.controller.CallbackHandler;
+import papplevaa.notepad.model.Tab;
+import papplevaa.notepad.util.TextSearch;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The dialog for finding and replacing text in the selected tab or in all tabs.
+ * The matches found in all tabs are listed as they arrive; selecting one shows it in its tab.
+ */
+public class FindDialog extends JDialog {
+    /** The largest number of matches listed, so a search matching everywhere does not flood the list. */
+    private static final int MAX_LISTED_HITS = 10000;
+
+    /** The callback handler for communication with the controller. */
+    private final CallbackHandler callback;
+    /** The field holding the text to search for. */
+    private final JTextField findField;
+    /** The field holding the replacement. */
+    private final JTextField replaceField;
+    /** The check box selecting whether the case of letters has to match. */
+    private final JCheckBox matchCaseBox;
+    /** The check box selecting whether the searched text is a regular expression. */
+    private final JCheckBox regexBox;
+    /** The label showing the outcome of the last action. */
+    private final JLabel statusLabel;
+    /** The matches listed. */
+    private final DefaultListModel<Hit> hits;
+
+    /**
+     * Constructs a new FindDialog.
+     *
+     * @param owner    The frame owning the dialog.
+     * @param callback The callback handler for communication with the controller.
+     */
+    public FindDialog(JFrame owner, CallbackHandler callback) {
+        super(owner, "Find and Replace", false);
+        this.callback = callback;
+        this.findField = new JTextField(30);
+        this.replaceField = new JTextField(30);
+        this.matchCaseBox = new JCheckBox("Match case");
+        this.regexBox = new JCheckBox("Regular expression");
+        this.statusLabel = new JLabel(" ");
+        this.hits = new DefaultListModel<>();
+        this.initComponents();
+        this.pack();
+        this.setLocationRelativeTo(owner);
+    }
+
+    /**
+     * Shows the dialog with the search text selected, ready to be typed over.
+     */
+    public void open() {
+        this.setVisible(true);
+        this.findField.selectAll();
+        this.findField.requestFocusInWindow();
+    }
+
+    /**
+     * Shows a message about the outcome of the last action.
+     *
+     * @param status The message.
+     */
+    public void setStatus(String status) {
+        this.statusLabel.setText(status);
+    }
+
+    /**
+     * Removes the listed matches.
+     */
+    public void clearHits() {
+        this.hits.clear();
+    }
+
+    /**
+     * Adds matches to the list, up to the largest number listed.
+     *
+     * @param newHits The matches to add.
+     */
+    public void addHits(List<Hit> newHits) {
+        for(Hit hit : newHits) {
+            if(this.hits.size() >= MAX_LISTED_HITS) {
+                return;
+            }
+            this.hits.addElement(hit);
+        }
+    }
+
+    /**
+     * Lays out the fields, options, buttons and the list of matches.
+     */
+    private void initComponents() {
+        JPanel fields = new JPanel(new GridLayout(0, 1, 4, 4));
+        fields.add(new JLabel("Find:"));
+        fields.add(this.findField);
+        fields.add(new JLabel("Replace with:"));
+        fields.add(this.replaceField);
+        JPanel options = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        options.add(this.matchCaseBox);
+        options.add(this.regexBox);
+        fields.add(options);
+
+        JPanel buttons = new JPanel(new GridLayout(0, 1, 4, 4));
+        buttons.add(this.createButton("Find Next", search -> this.callback.findNext(search)));
+        buttons.add(this.createButton("Replace", search -> this.callback.replace(search, this.replaceField.getText())));
+        buttons.add(this.createButton("Replace All", search -> this.callback.replaceAll(search, this.replaceField.getText())));
+        buttons.add(this.createButton("Find in All Tabs", search -> this.callback.findInAllTabs(search)));
+
+        JList<Hit> hitList = new JList<>(this.hits);
+        hitList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        hitList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent event) {
+                Hit hit = hitList.getSelectedValue();
+                if(hit != null) {
+                    callback.showSearchHit(hit.getTab(), hit.getStart(), hit.getEnd());
+                }
+            }
+        });
+        JScrollPane hitPane = new JScrollPane(hitList);
+        hitPane.setPreferredSize(new Dimension(500, 200));
+
+        JPanel top = new JPanel(new BorderLayout(8, 8));
+        top.add(fields, BorderLayout.CENTER);
+        top.add(buttons, BorderLayout.EAST);
+        JPanel content = new JPanel(new BorderLayout(8, 8));
+        content.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        content.add(top, BorderLayout.NORTH);
+        content.add(hitPane, BorderLayout.CENTER);
+        content.add(this.statusLabel, BorderLayout.SOUTH);
+        this.setContentPane(content);
+        this.getRootPane().setDefaultButton((JButton) buttons.getComponent(0));
+    }
+
+    /**
+     * Creates a button that runs an action with the search described by the fields.
+     * Nothing is run if the search text is empty or not a valid regular expression.
+     *
+     * @param text   The text of the button.
+     * @param action The action to run.
+     * @return The button.
+     */
+    private JButton createButton(String text, Consumer<TextSearch> action) {
+        JButton button = new JButton(text);
+        button.addActionListener(event -> {
+            try {
+                action.accept(new TextSearch(this.findField.getText(), this.matchCaseBox.isSelected(), this.regexBox.isSelected()));
+            } catch(PatternSyntaxException exception) {
+                this.setStatus("Invalid regular expression: " + exception.getDescription());
+            } catch(IllegalArgumentException exception) {
+                this.setStatus("Enter the text to find");
+            }
+        });
+        return button;
+    }
+
+    /**
+     * A match found in a tab, listed with the line it is on.
+     */
+    public static final class Hit {
+        /** The tab holding the match. */
+        private final Tab tab;
+        /** The start offset of the match. */
+        private final int start;
+        /** The end offset of the match. */
+        private final int end;
+        /** The text listed for the match. */
+        private final String label;
+
+        /**
+         * Constructs a new Hit.
+         *
+         * @param tab   The tab holding the match.
+         * @param start The start offset of the match.
+         * @param end   The end offset of the match.
+         * @param label The text listed for the match.
+         */
+        public Hit(Tab tab, int start, int end, String label) {
+            this.tab = tab;
+            this.start = start;
+            this.end = end;
+            this.label = label;
+        }
+
+        /**
+         * Gets the tab holding the match.
+         *
+         * @return The tab.
+         */
+        public Tab getTab() {
+            return this.tab;
+        }
+
+        /**
+         * Gets the start offset of the match.
+         *
+         * @return The start offset.
+         */
+        public int getStart() {
+            return this.start;
+        }
+
+        /**
+         * Gets the end offset of the match.
+         *
+         * @return The end offset.
+         */
+        public int getEnd() {
+            return this.end;
+        }
+
+        @Override
+        public String toString() {
+            return this.label;
+        }
+    }
+}
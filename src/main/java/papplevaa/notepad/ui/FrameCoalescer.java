@@ -0,0 +1,81 @@
+package papplevaa.notepad.ui;
+
+import javax.swing.Timer;
+
+/**
+ * Coalesces requests for an update on the event dispatch thread, so the update runs at most once per frame however
+ * many requests arrive. The first request starts a one-shot timer of one frame; the requests arriving before it
+ * fires are served by the same update. Counts the requests received and the updates run.
+ *
+ * <p>Requests have to be made on the event dispatch thread, where the update also runs.
+ */
+public final class FrameCoalescer {
+    /** The length of a frame in milliseconds, about 60 frames per second. */
+    public static final int FRAME_MILLIS = 16;
+
+    /** The timer running the update once the frame has passed. */
+    private final Timer timer;
+    /** The update to run. */
+    private final Runnable update;
+    /** The number of requests received. */
+    private long requests;
+    /** The number of updates run. */
+    private long updates;
+
+    /**
+     * Constructs a new FrameCoalescer.
+     *
+     * @param update The update to run at most once per frame.
+     */
+    public FrameCoalescer(Runnable update) {
+        this.update = update;
+        this.timer = new Timer(FRAME_MILLIS, event -> this.run());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * Requests the update to run at the end of the current frame.
+     */
+    public void request() {
+        this.requests++;
+        if(!this.timer.isRunning()) {
+            this.timer.start();
+        }
+    }
+
+    /**
+     * Runs the pending update right away, if an update was requested.
+     */
+    public void flush() {
+        if(this.timer.isRunning()) {
+            this.timer.stop();
+            this.run();
+        }
+    }
+
+    /**
+     * Gets the number of requests received.
+     *
+     * @return The number of requests.
+     */
+    public long getRequests() {
+        return this.requests;
+    }
+
+    /**
+     * Gets the number of updates run.
+     *
+     * @return The number of updates.
+     */
+    public long getUpdates() {
+        return this.updates;
+    }
+
+    /**
+     * Runs the update.
+     */
+    private void run() {
+        this.updates++;
+        this.update.run();
+    }
+}
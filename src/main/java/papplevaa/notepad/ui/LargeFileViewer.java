@@ -0,0 +1,148 @@
+package papplevaa.notepad.ui;
+
+import papplevaa.notepad.model.MappedText;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * A read-only view of a memory-mapped text, used instead of a text area for files too large to be loaded.
+ * Only the lines intersecting the visible area are decoded and painted, so the cost of scrolling and
+ * the heap used stay the same regardless of the size of the file.
+ */
+public class LargeFileViewer extends JComponent implements Scrollable {
+    /** The number of spaces a tab character is painted as. */
+    private static final String TAB_REPLACEMENT = "    ";
+    /** The gap left on the left side of the lines, in pixels. */
+    private static final int MARGIN = 4;
+
+    /** The text shown by the viewer. */
+    private final MappedText text;
+    /** The width of the widest line painted so far, in pixels. */
+    private int widestLine;
+
+    /**
+     * Constructs a new LargeFileViewer showing the specified text.
+     *
+     * @param text The text to show.
+     */
+    public LargeFileViewer(MappedText text) {
+        this.text = text;
+        this.setOpaque(true);
+        this.updateUI();
+    }
+
+    /**
+     * Gets the text shown by the viewer.
+     *
+     * @return The shown text.
+     */
+    public MappedText getText() {
+        return this.text;
+    }
+
+    /**
+     * Updates the font and colors from the current look and feel, using the ones of text areas.
+     */
+    @Override
+    public void updateUI() {
+        super.updateUI();
+        this.setFont(UIManager.getFont("TextArea.font"));
+        this.setBackground(UIManager.getColor("TextArea.background"));
+        this.setForeground(UIManager.getColor("TextArea.foreground"));
+        this.widestLine = 0;
+        this.revalidate();
+    }
+
+    /**
+     * Gets the preferred size of the viewer: the height of all lines, and the width of the widest line painted so far.
+     * The height is capped at the largest component size Swing can handle.
+     *
+     * @return The preferred size.
+     */
+    @Override
+    public Dimension getPreferredSize() {
+        long height = this.text.getLineCount() * this.getLineHeight();
+        return new Dimension(this.widestLine + 2 * MARGIN, (int) Math.min(height, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Paints the lines intersecting the clip area.
+     *
+     * @param graphics The graphics context to paint with.
+     */
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Rectangle clip = graphics.getClipBounds();
+        graphics.setColor(this.getBackground());
+        graphics.fillRect(clip.x, clip.y, clip.width, clip.height);
+        graphics.setColor(this.getForeground());
+        graphics.setFont(this.getFont());
+        FontMetrics metrics = graphics.getFontMetrics();
+        int lineHeight = this.getLineHeight();
+        long firstLine = clip.y / lineHeight;
+        long lastLine = Math.min(this.text.getLineCount() - 1, ((long) clip.y + clip.height) / lineHeight);
+        int widest = this.widestLine;
+        for(long line = firstLine; line <= lastLine; line++) {
+            String content = this.text.getLine(line).replace("\t", TAB_REPLACEMENT);
+            int baseline = (int) (line * lineHeight) + metrics.getAscent();
+            graphics.drawString(content, MARGIN, baseline);
+            widest = Math.max(widest, metrics.stringWidth(content));
+        }
+        if(widest > this.widestLine) {
+            this.widestLine = widest;
+            SwingUtilities.invokeLater(this::revalidate);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return this.getPreferredSize();
+    }
+
+    /**
+     * Scrolls by one line.
+     */
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return (orientation == SwingConstants.VERTICAL) ? this.getLineHeight() : this.getFontMetrics(this.getFont()).charWidth('m');
+    }
+
+    /**
+     * Scrolls by one page.
+     */
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return (orientation == SwingConstants.VERTICAL) ? visibleRect.height : visibleRect.width;
+    }
+
+    /**
+     * Fills the viewport horizontally while the lines are narrower than it.
+     */
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        Container parent = SwingUtilities.getUnwrappedParent(this);
+        return parent instanceof JViewport && parent.getWidth() > this.getPreferredSize().width;
+    }
+
+    /**
+     * Fills the viewport vertically while the lines are shorter than it.
+     */
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = SwingUtilities.getUnwrappedParent(this);
+        return parent instanceof JViewport && parent.getHeight() > this.getPreferredSize().height;
+    }
+
+    /**
+     * Gets the height of a line in pixels.
+     *
+     * @return The line height.
+     */
+    private int getLineHeight() {
+        return this.getFontMetrics(this.getFont()).getHeight();
+    }
+}
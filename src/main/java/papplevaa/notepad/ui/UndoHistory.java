@@ -0,0 +1,454 @@
+package papplevaa.notepad.ui;
+
+import javax.swing.undo.CannotRedoException;
+import javax.swing.undo.CannotUndoException;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Undo and redo history of a text, storing each step as a compact record of the offset, the removed text
+ * and the inserted text. Consecutive typing and deleting is merged into one step per word, or until a pause,
+ * so a step undoes what the user perceives as one edit. The oldest steps are evicted once the history
+ * uses more memory than its budget, instead of keeping a fixed number of steps.
+ *
+ * <p>The records are kept in parallel arrays used as a ring buffer: the steps before the cursor can be undone,
+ * the steps from the cursor can be redone.
+ */
+public final class UndoHistory {
+    /** The estimated memory used by a record besides its text: the offset, two references and two string headers. */
+    private static final int RECORD_BYTES = 56;
+    /** The initial capacity of the ring buffer. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The memory budget in bytes. */
+    private final long memoryBudget;
+    /** The longest pause between keystrokes merged into one step, in milliseconds. */
+    private final long groupMillis;
+    /** The offsets of the edits. */
+    private int[] offsets;
+    /** The texts removed by the edits. */
+    private String[] removedTexts;
+    /** The texts inserted by the edits. */
+    private String[] insertedTexts;
+    /** The position of the oldest record in the ring buffer. */
+    private int head;
+    /** The number of records. */
+    private int size;
+    /** The number of records that can be undone; the records from this index can be redone. */
+    private int cursor;
+    /** The estimated memory used by the records. */
+    private long memory;
+    /** The time of the last recorded edit, in milliseconds. */
+    private long lastTime;
+    /** The flag indicating whether the next edit may be merged into the last record. */
+    private boolean open;
+    /** The flag indicating whether steps were evicted, so the oldest step no longer starts at the initial text. */
+    private boolean evicted;
+
+    /**
+     * Constructs a new, empty UndoHistory.
+     *
+     * @param memoryBudget The memory budget in bytes; the last step is kept even if it alone exceeds the budget.
+     * @param groupMillis  The longest pause between keystrokes merged into one step, in milliseconds.
+     */
+    public UndoHistory(long memoryBudget, long groupMillis) {
+        this.memoryBudget = memoryBudget;
+        this.groupMillis = groupMillis;
+        this.offsets = new int[INITIAL_CAPACITY];
+        this.removedTexts = new String[INITIAL_CAPACITY];
+        this.insertedTexts = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Records an edit, merging it into the last step if it continues the typing or deleting of the last step.
+     * Recording an edit discards the steps that could be redone.
+     *
+     * @param offset       The offset at which the edit happened.
+     * @param removedText  The text removed at the offset.
+     * @param insertedText The text inserted at the offset.
+     * @param time         The time of the edit, in milliseconds.
+     */
+    public void record(int offset, String removedText, String insertedText, long time) {
+        if(removedText.isEmpty() && insertedText.isEmpty()) {
+            return;
+        }
+        this.truncateRedo();
+        boolean merged = this.open && time - this.lastTime <= this.groupMillis && this.merge(offset, removedText, insertedText);
+        if(!merged) {
+            this.append(offset, removedText, insertedText);
+        }
+        this.lastTime = time;
+        this.open = true;
+        this.evict();
+    }
+
+    /**
+     * Ends the current step, so the next edit starts a new one.
+     */
+    public void markBoundary() {
+        this.open = false;
+    }
+
+    /**
+     * Checks if there is a step that can be undone.
+     *
+     * @return True if a step can be undone, false otherwise.
+     */
+    public boolean canUndo() {
+        return this.cursor > 0;
+    }
+
+    /**
+     * Checks if there is a step that can be redone.
+     *
+     * @return True if a step can be redone, false otherwise.
+     */
+    public boolean canRedo() {
+        return this.cursor < this.size;
+    }
+
+    /**
+     * Undoes the last step by replacing its inserted text with its removed text.
+     *
+     * @param target The text the step is reverted in.
+     * @throws CannotUndoException if there is no step to undo.
+     */
+    public void undo(EditTarget target) {
+        if(!this.canUndo()) {
+            throw new CannotUndoException();
+        }
+        this.open = false;
+        int slot = this.slot(this.cursor - 1);
+        target.replace(this.offsets[slot], this.insertedTexts[slot].length(), this.removedTexts[slot]);
+        this.cursor--;
+    }
+
+    /**
+     * Redoes the last undone step by replacing its removed text with its inserted text.
+     *
+     * @param target The text the step is applied to again.
+     * @throws CannotRedoException if there is no step to redo.
+     */
+    public void redo(EditTarget target) {
+        if(!this.canRedo()) {
+            throw new CannotRedoException();
+        }
+        this.open = false;
+        int slot = this.slot(this.cursor);
+        target.replace(this.offsets[slot], this.removedTexts[slot].length(), this.insertedTexts[slot]);
+        this.cursor++;
+    }
+
+    /**
+     * Gets the number of steps in the history, both the ones that can be undone and redone.
+     *
+     * @return The number of steps.
+     */
+    public int getNumberOfSteps() {
+        return this.size;
+    }
+
+    /**
+     * Gets the estimated memory used by the steps.
+     *
+     * @return The estimated memory in bytes.
+     */
+    public long getMemoryUsage() {
+        return this.memory;
+    }
+
+    /**
+     * Puts the steps of an older history of the same text before the steps of this history, used when the history
+     * of a previous session is restored after the text was already edited. The steps the older history could redo
+     * are dropped if this history has steps, since they no longer apply. Nothing is restored if this history
+     * evicted steps, since its oldest step no longer follows the older history then.
+     *
+     * @param older The history of the text before the first step of this history.
+     */
+    public void prepend(UndoHistory older) {
+        if(this.evicted) {
+            return;
+        }
+        int olderSteps = (this.size > 0) ? older.cursor : older.size;
+        int[] liveOffsets = new int[this.size];
+        String[] liveRemoved = new String[this.size];
+        String[] liveInserted = new String[this.size];
+        for(int index = 0; index < this.size; index++) {
+            int slot = this.slot(index);
+            liveOffsets[index] = this.offsets[slot];
+            liveRemoved[index] = this.removedTexts[slot];
+            liveInserted[index] = this.insertedTexts[slot];
+        }
+        int liveCursor = this.cursor;
+        int liveSize = this.size;
+        this.clear();
+        for(int index = 0; index < olderSteps; index++) {
+            int slot = older.slot(index);
+            this.append(older.offsets[slot], older.removedTexts[slot], older.insertedTexts[slot]);
+        }
+        for(int index = 0; index < liveSize; index++) {
+            this.append(liveOffsets[index], liveRemoved[index], liveInserted[index]);
+        }
+        this.cursor = (liveSize > 0) ? olderSteps + liveCursor : older.cursor;
+        this.evicted = older.evicted;
+        this.open = false;
+        this.evict();
+    }
+
+    /**
+     * Reverts the steps that can be undone on a copy of the text, without changing the history.
+     *
+     * @param text The text after the steps that can be undone.
+     * @return The text before the oldest step, or {@code null} if steps were evicted and it is no longer known.
+     */
+    String revert(String text) {
+        if(this.evicted) {
+            return null;
+        }
+        StringBuilder reverted = new StringBuilder(text);
+        for(int index = this.cursor - 1; index >= 0; index--) {
+            int slot = this.slot(index);
+            int offset = this.offsets[slot];
+            reverted.replace(offset, offset + this.insertedTexts[slot].length(), this.removedTexts[slot]);
+        }
+        return reverted.toString();
+    }
+
+    /**
+     * Writes the newest steps of the history to the stream, within a size limit. The steps that could be redone are
+     * dropped first, starting with the last one, then the oldest steps, so the written steps still follow each other.
+     *
+     * @param stream   The stream to write to.
+     * @param maxBytes The largest estimated memory of the written steps.
+     * @throws IOException if an I/O error occurs.
+     */
+    void write(DataOutputStream stream, long maxBytes) throws IOException {
+        long bytes = this.memory;
+        int end = this.size;
+        while(bytes > maxBytes && end > this.cursor) {
+            end--;
+            bytes -= this.costAt(end);
+        }
+        int start = 0;
+        while(bytes > maxBytes && start < end) {
+            bytes -= this.costAt(start);
+            start++;
+        }
+        stream.writeBoolean(this.evicted || start > 0);
+        stream.writeInt(end - start);
+        stream.writeInt(Math.max(0, this.cursor - start));
+        for(int index = start; index < end; index++) {
+            int slot = this.slot(index);
+            stream.writeInt(this.offsets[slot]);
+            UndoHistoryStore.writeText(stream, this.removedTexts[slot]);
+            UndoHistoryStore.writeText(stream, this.insertedTexts[slot]);
+        }
+    }
+
+    /**
+     * Reads a history written by {@link #write(DataOutputStream, long)}.
+     *
+     * @param stream       The stream to read from.
+     * @param memoryBudget The memory budget of the history in bytes.
+     * @param groupMillis  The longest pause between keystrokes merged into one step, in milliseconds.
+     * @return The history read.
+     * @throws IOException if an I/O error occurs or the data is corrupt.
+     */
+    static UndoHistory read(DataInputStream stream, long memoryBudget, long groupMillis) throws IOException {
+        UndoHistory history = new UndoHistory(memoryBudget, groupMillis);
+        boolean evicted = stream.readBoolean();
+        int steps = stream.readInt();
+        int cursor = stream.readInt();
+        if(steps < 0 || cursor < 0 || cursor > steps) {
+            throw new IOException("Corrupt undo history");
+        }
+        for(int index = 0; index < steps; index++) {
+            int offset = stream.readInt();
+            String removedText = UndoHistoryStore.readText(stream);
+            String insertedText = UndoHistoryStore.readText(stream);
+            history.append(offset, removedText, insertedText);
+        }
+        history.cursor = cursor;
+        history.evicted = evicted;
+        history.evict();
+        return history;
+    }
+
+    /**
+     * Removes every step.
+     */
+    private void clear() {
+        Arrays.fill(this.removedTexts, null);
+        Arrays.fill(this.insertedTexts, null);
+        this.head = 0;
+        this.size = 0;
+        this.cursor = 0;
+        this.memory = 0;
+    }
+
+    /**
+     * Estimates the memory used by a step.
+     *
+     * @param index The index of the step, 0 being the oldest.
+     * @return The estimated memory in bytes.
+     */
+    private long costAt(int index) {
+        int slot = this.slot(index);
+        return cost(this.removedTexts[slot], this.insertedTexts[slot]);
+    }
+
+    /**
+     * Merges an edit into the last step if it continues it: typing a character right after the text the
+     * step inserted, within the same word, or deleting a character right before or after the text it deleted.
+     *
+     * @param offset       The offset at which the edit happened.
+     * @param removedText  The text removed at the offset.
+     * @param insertedText The text inserted at the offset.
+     * @return True if the edit was merged, false if it starts a new step.
+     */
+    private boolean merge(int offset, String removedText, String insertedText) {
+        if(this.size == 0) {
+            return false;
+        }
+        int slot = this.slot(this.size - 1);
+        int lastOffset = this.offsets[slot];
+        String lastRemoved = this.removedTexts[slot];
+        String lastInserted = this.insertedTexts[slot];
+        if(removedText.isEmpty() && insertedText.length() == 1) {
+            char typed = insertedText.charAt(0);
+            if(lastInserted.isEmpty() || offset != lastOffset + lastInserted.length() || typed == '\n') {
+                return false;
+            }
+            // A word starts a new step, the whitespace after it belongs to the word
+            char previous = lastInserted.charAt(lastInserted.length() - 1);
+            if(previous == '\n' || (Character.isWhitespace(previous) && !Character.isWhitespace(typed))) {
+                return false;
+            }
+            this.insertedTexts[slot] = lastInserted + insertedText;
+        } else if(insertedText.isEmpty() && removedText.length() == 1 && lastInserted.isEmpty()) {
+            if(offset + 1 == lastOffset) {
+                // Backspace
+                this.offsets[slot] = offset;
+                this.removedTexts[slot] = removedText + lastRemoved;
+            } else if(offset == lastOffset) {
+                // Delete
+                this.removedTexts[slot] = lastRemoved + removedText;
+            } else {
+                return false;
+            }
+        } else {
+            return false;
+        }
+        this.memory += 2;
+        return true;
+    }
+
+    /**
+     * Appends a new step after the last one, growing the ring buffer if it is full.
+     *
+     * @param offset       The offset at which the edit happened.
+     * @param removedText  The text removed at the offset.
+     * @param insertedText The text inserted at the offset.
+     */
+    private void append(int offset, String removedText, String insertedText) {
+        if(this.size == this.offsets.length) {
+            this.grow();
+        }
+        int slot = this.slot(this.size);
+        this.offsets[slot] = offset;
+        this.removedTexts[slot] = removedText;
+        this.insertedTexts[slot] = insertedText;
+        this.size++;
+        this.cursor = this.size;
+        this.memory += cost(removedText, insertedText);
+    }
+
+    /**
+     * Discards the steps that could be redone.
+     */
+    private void truncateRedo() {
+        while(this.size > this.cursor) {
+            int slot = this.slot(this.size - 1);
+            this.memory -= cost(this.removedTexts[slot], this.insertedTexts[slot]);
+            this.removedTexts[slot] = null;
+            this.insertedTexts[slot] = null;
+            this.size--;
+            this.open = false;
+        }
+    }
+
+    /**
+     * Evicts the oldest steps while the history uses more memory than its budget, keeping at least the last step.
+     * Steps that can only be redone are never evicted, since the steps after them would no longer apply.
+     */
+    private void evict() {
+        while(this.memory > this.memoryBudget && this.size > 1 && this.cursor > 0) {
+            int slot = this.head;
+            this.memory -= cost(this.removedTexts[slot], this.insertedTexts[slot]);
+            this.removedTexts[slot] = null;
+            this.insertedTexts[slot] = null;
+            this.head = (this.head + 1) % this.offsets.length;
+            this.size--;
+            this.cursor--;
+            this.evicted = true;
+        }
+    }
+
+    /**
+     * Doubles the capacity of the ring buffer, moving the oldest record to the start.
+     */
+    private void grow() {
+        int capacity = this.offsets.length * 2;
+        int[] grownOffsets = new int[capacity];
+        String[] grownRemoved = new String[capacity];
+        String[] grownInserted = new String[capacity];
+        for(int index = 0; index < this.size; index++) {
+            int slot = this.slot(index);
+            grownOffsets[index] = this.offsets[slot];
+            grownRemoved[index] = this.removedTexts[slot];
+            grownInserted[index] = this.insertedTexts[slot];
+        }
+        this.offsets = grownOffsets;
+        this.removedTexts = grownRemoved;
+        this.insertedTexts = grownInserted;
+        this.head = 0;
+    }
+
+    /**
+     * Gets the position of a record in the ring buffer.
+     *
+     * @param index The index of the record, 0 being the oldest.
+     * @return The position of the record in the arrays.
+     */
+    private int slot(int index) {
+        return (this.head + index) % this.offsets.length;
+    }
+
+    /**
+     * Estimates the memory used by a record.
+     *
+     * @param removedText  The text removed by the edit.
+     * @param insertedText The text inserted by the edit.
+     * @return The estimated memory in bytes.
+     */
+    private static long cost(String removedText, String insertedText) {
+        return RECORD_BYTES + 2L * (removedText.length() + insertedText.length());
+    }
+
+    /**
+     * The text an undo history reverts or applies its steps to.
+     */
+    @FunctionalInterface
+    public interface EditTarget {
+        /**
+         * Replaces a range of the text.
+         *
+         * @param offset The offset of the range.
+         * @param length The length of the range.
+         * @param text   The text replacing the range.
+         */
+        void replace(int offset, int length, String text);
+    }
+}
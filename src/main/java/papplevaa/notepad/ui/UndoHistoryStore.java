@@ -0,0 +1,308 @@
+package papplevaa.notepad.ui;
+
+import papplevaa.notepad.util.Log;
+import papplevaa.notepad.util.Settings;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads and writes the undo histories of the tabs, so they survive a restart. The histories are stored in one file
+ * next to the session, in the order of the tabs. Opening the file only reads its index; the history of a tab is read
+ * when it is first needed, which keeps the startup fast.
+ *
+ * <p>Each history is stored with the length and hash of the text it ends at, and is only restored on a text that
+ * still matches, so a history never applies to a text changed outside of it. Each history is limited to the size
+ * from the settings, evicting its oldest steps.
+ *
+ * <p>Format: the magic number, the version and the number of entries, followed by the index: for each entry the flag
+ * whether there is a history, the length and hash of the text, and the position and size of the history in the file;
+ * followed by the histories.
+ */
+public final class UndoHistoryStore {
+    /** The magic number at the start of a history file, "NPUH". */
+    private static final int MAGIC = 0x4E505548;
+    /** The version of the format written. */
+    private static final int VERSION = 1;
+    /** The size of the header of the file. */
+    private static final int HEADER_SIZE = 12;
+    /** The size of an entry of the index. */
+    private static final int INDEX_ENTRY_SIZE = 21;
+
+    /** The path to the history file. */
+    private final File filePath;
+    /** The entries read from the index, {@code null} for tabs without history. */
+    private final List<Entry> entries;
+
+    /**
+     * Constructs a new UndoHistoryStore.
+     *
+     * @param filePath The path to the history file.
+     * @param entries  The entries read from the index.
+     */
+    private UndoHistoryStore(File filePath, List<Entry> entries) {
+        this.filePath = filePath;
+        this.entries = entries;
+    }
+
+    /**
+     * Opens a history file, reading only its index.
+     *
+     * @param filePath The path to the history file.
+     * @return The opened store, without entries if there is no history file or it can not be read.
+     */
+    public static UndoHistoryStore open(File filePath) {
+        List<Entry> entries = new ArrayList<>();
+        if(filePath.exists()) {
+            try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath)))) {
+                if(stream.readInt() != MAGIC || stream.readInt() != VERSION) {
+                    throw new IOException("Unknown undo history format");
+                }
+                int numberOfEntries = stream.readInt();
+                for(int index = 0; index < numberOfEntries; index++) {
+                    boolean present = stream.readBoolean();
+                    int textLength = stream.readInt();
+                    int textHash = stream.readInt();
+                    long position = stream.readLong();
+                    int size = stream.readInt();
+                    entries.add(present ? new Entry(filePath, textLength, textHash, position, size) : null);
+                }
+            } catch(IOException exception) {
+                Log.warn("Failed to load undo history from previous session: ", exception.getMessage());
+                entries.clear();
+            }
+        }
+        return new UndoHistoryStore(filePath, Collections.unmodifiableList(entries));
+    }
+
+    /**
+     * Gets the number of entries in the store.
+     *
+     * @return The number of entries.
+     */
+    public int getNumberOfEntries() {
+        return this.entries.size();
+    }
+
+    /**
+     * Gets the entry of the tab at the specified index, as the tabs were ordered when the store was written.
+     *
+     * @param index The index of the tab.
+     * @return The entry, or {@code null} if the tab had no history.
+     */
+    public Entry getEntry(int index) {
+        return this.entries.get(index);
+    }
+
+    /**
+     * Writes the histories of the tabs to a file, replacing the file at once.
+     * Entries of a store that are written again are read from its file first, so the file may be the same.
+     *
+     * @param filePath The path to the history file.
+     * @param entries  The entries in the order of the tabs, {@code null} for tabs without history.
+     */
+    public static void write(File filePath, List<Entry> entries) {
+        File temporary = new File(filePath.getPath() + ".tmp");
+        try {
+            List<byte[]> histories = new ArrayList<>(entries.size());
+            for(Entry entry : entries) {
+                histories.add((entry == null) ? null : entry.encode());
+            }
+            try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+                stream.writeInt(MAGIC);
+                stream.writeInt(VERSION);
+                stream.writeInt(entries.size());
+                long position = HEADER_SIZE + (long) INDEX_ENTRY_SIZE * entries.size();
+                for(int index = 0; index < entries.size(); index++) {
+                    Entry entry = entries.get(index);
+                    byte[] history = histories.get(index);
+                    boolean present = (history != null);
+                    stream.writeBoolean(present);
+                    stream.writeInt(present ? entry.textLength : 0);
+                    stream.writeInt(present ? entry.textHash : 0);
+                    stream.writeLong(present ? position : 0);
+                    stream.writeInt(present ? history.length : 0);
+                    if(present) {
+                        position += history.length;
+                    }
+                }
+                for(byte[] history : histories) {
+                    if(history != null) {
+                        stream.write(history);
+                    }
+                }
+            }
+            try {
+                Files.move(temporary.toPath(), filePath.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch(AtomicMoveNotSupportedException exception) {
+                Files.move(temporary.toPath(), filePath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch(IOException exception) {
+            Log.error("Failed to save undo history for next session: ", exception.getMessage());
+        }
+    }
+
+    /**
+     * Writes a text of any length as its UTF-8 encoded length and bytes.
+     *
+     * @param stream The stream to write to.
+     * @param text   The text to write.
+     * @throws IOException if an I/O error occurs.
+     */
+    static void writeText(DataOutputStream stream, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    /**
+     * Reads a text written by {@link #writeText(DataOutputStream, String)}.
+     *
+     * @param stream The stream to read from.
+     * @return The text read.
+     * @throws IOException if an I/O error occurs or the data is corrupt.
+     */
+    static String readText(DataInputStream stream) throws IOException {
+        int length = stream.readInt();
+        if(length < 0) {
+            throw new IOException("Corrupt undo history text");
+        }
+        byte[] bytes = new byte[length];
+        stream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The undo history of a tab, either in memory or stored in a history file and read on demand,
+     * together with the length and hash of the text it ends at.
+     */
+    public static final class Entry {
+        /** The history file holding the history, or {@code null} if it is in memory. */
+        private final File filePath;
+        /** The length of the text the history ends at. */
+        private final int textLength;
+        /** The hash of the text the history ends at. */
+        private final int textHash;
+        /** The position of the history in the file. */
+        private final long position;
+        /** The size of the history in the file. */
+        private final int size;
+        /** The history, or {@code null} if it is stored in the file. */
+        private final UndoHistory history;
+
+        /**
+         * Constructs a new Entry stored in a history file.
+         *
+         * @param filePath   The history file.
+         * @param textLength The length of the text the history ends at.
+         * @param textHash   The hash of the text the history ends at.
+         * @param position   The position of the history in the file.
+         * @param size       The size of the history in the file.
+         */
+        private Entry(File filePath, int textLength, int textHash, long position, int size) {
+            this.filePath = filePath;
+            this.textLength = textLength;
+            this.textHash = textHash;
+            this.position = position;
+            this.size = size;
+            this.history = null;
+        }
+
+        /**
+         * Constructs a new Entry in memory.
+         *
+         * @param history The history.
+         * @param text    The text the history ends at.
+         */
+        private Entry(UndoHistory history, String text) {
+            this.filePath = null;
+            this.textLength = text.length();
+            this.textHash = text.hashCode();
+            this.position = 0;
+            this.size = 0;
+            this.history = history;
+        }
+
+        /**
+         * Creates the entry of a history to be written.
+         *
+         * @param history The history.
+         * @param text    The current text of the tab, which the history ends at.
+         * @return The entry.
+         */
+        public static Entry of(UndoHistory history, String text) {
+            return new Entry(history, text);
+        }
+
+        /**
+         * Gets the length of the text the history ends at.
+         *
+         * @return The length of the text.
+         */
+        public int getTextLength() {
+            return this.textLength;
+        }
+
+        /**
+         * Gets the hash of the text the history ends at, as computed by {@link String#hashCode()}.
+         *
+         * @return The hash of the text.
+         */
+        public int getTextHash() {
+            return this.textHash;
+        }
+
+        /**
+         * Reads the history, with the memory budget and grouping pause from the settings.
+         *
+         * @return The history, or {@code null} if it can not be read.
+         */
+        public UndoHistory load() {
+            if(this.history != null) {
+                return this.history;
+            }
+            try (RandomAccessFile file = new RandomAccessFile(this.filePath, "r")) {
+                byte[] bytes = new byte[this.size];
+                file.seek(this.position);
+                file.readFully(bytes);
+                return UndoHistory.read(new DataInputStream(new ByteArrayInputStream(bytes)),
+                        Settings.getUndoMemoryBytes(), Settings.getUndoGroupMillis());
+            } catch(IOException exception) {
+                Log.warn("Failed to load undo history: ", exception.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * Encodes the history to be written, limited to the size from the settings.
+         *
+         * @return The encoded history, or {@code null} if it has no steps or can not be read.
+         * @throws IOException if an I/O error occurs.
+         */
+        private byte[] encode() throws IOException {
+            if(this.history == null) {
+                // Stored histories were limited when they were written, so their bytes are copied as they are
+                try (RandomAccessFile file = new RandomAccessFile(this.filePath, "r")) {
+                    byte[] bytes = new byte[this.size];
+                    file.seek(this.position);
+                    file.readFully(bytes);
+                    return bytes;
+                }
+            }
+            if(this.history.getNumberOfSteps() == 0) {
+                return null;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream stream = new DataOutputStream(bytes)) {
+                this.history.write(stream, Settings.getUndoPersistBytes());
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -1,65 +1,198 @@
 package papplevaa.notepad.ui;
 
+import papplevaa.notepad.util.Log;
+import papplevaa.notepad.util.Settings;
+
 import javax.swing.*;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
-import javax.swing.undo.UndoManager;
+import javax.swing.text.DocumentFilter;
 
 /**
- * A custom extension of JTextArea that supports undo and redo operations using an UndoManager.
+ * A custom extension of JTextArea that supports undo and redo operations using an UndoHistory.
+ * The edits are captured by a filter on the document, which sees the removed text before it is removed.
  */
 public class UndoableTextArea extends JTextArea {
-    /** The UndoManager responsible for handling undo and redo operations. */
-    private UndoManager undoManager;
+    /** The UndoHistory responsible for handling undo and redo operations. */
+    private UndoHistory undoHistory;
+    /** The flag indicating whether an undo, a redo or appended text is being applied, so it is not recorded as an edit. */
+    private boolean applyingHistory;
 
     /**
-     * Constructs a new UndoableTextArea with default content and sets up the UndoManager.
+     * Constructs a new UndoableTextArea with default content and sets up the UndoHistory.
      */
     public UndoableTextArea() {
         super();
-        setupUndoManager();
+        setupUndoHistory();
     }
 
     /**
-     * Constructs a new UndoableTextArea with the specified initial content and sets up the UndoManager.
+     * Constructs a new UndoableTextArea with the specified initial content and sets up the UndoHistory.
      *
      * @param content The initial content of the text area.
      */
     public UndoableTextArea(String content) {
         super(content);
-        setupUndoManager();
+        setupUndoHistory();
     }
 
     /**
-     * Constructs a new UndoableTextArea with the specified document and sets up the UndoManager.
+     * Constructs a new UndoableTextArea with the specified document and sets up the UndoHistory.
      *
      * @param doc The document to use for the text area.
      */
     public UndoableTextArea(Document doc) {
         super(doc);
-        setupUndoManager();
+        setupUndoHistory();
     }
 
     /**
-     * Performs an undo operation using the UndoManager.
+     * Performs an undo operation using the UndoHistory.
      */
     public void undo() {
-        undoManager.undo();
+        undoHistory.undo(this::applyHistoryEdit);
     }
 
     /**
-     * Performs a redo operation using the UndoManager.
+     * Performs a redo operation using the UndoHistory.
      */
     public void redo() {
-        undoManager.redo();
+        undoHistory.redo(this::applyHistoryEdit);
     }
 
     /**
-     * Sets up the UndoManager for the text area.
-     * Configures the UndoManager with a limit of 100 edits and adds an UndoableEditListener to the document associated with the text area.
+     * Replaces a range of the text in one edit that is undone in one step, and selects the replacement.
+     *
+     * @param start The start offset of the range.
+     * @param end   The end offset of the range.
+     * @param text  The text replacing the range.
+     */
+    public void replaceAsOneStep(int start, int end, String text) {
+        this.undoHistory.markBoundary();
+        this.replaceRange(text, start, end);
+        this.undoHistory.markBoundary();
+        this.select(start, start + text.length());
+    }
+
+    /**
+     * Appends text not typed by the user, like the text appended to a followed file, without recording it in the
+     * undo history, and removes text from the start to keep the text short.
+     *
+     * @param text          The text to append.
+     * @param removedLength The number of characters removed from the start after appending.
+     */
+    public void appendUnrecorded(String text, int removedLength) {
+        this.applyingHistory = true;
+        try {
+            this.append(text);
+            if(removedLength > 0) {
+                this.replaceRange("", 0, removedLength);
+            }
+        } finally {
+            this.applyingHistory = false;
+        }
+    }
+
+    /**
+     * Gets the UndoHistory of the text area.
+     *
+     * @return The undo history.
+     */
+    public UndoHistory getUndoHistory() {
+        return this.undoHistory;
+    }
+
+    /**
+     * Restores the undo history of a previous session before the edits made since the text area was created.
+     * The history is only restored if it ends at the text the text area was created with.
+     *
+     * @param entry The stored history of the tab.
+     * @return True if the history was restored, false if it does not match the text or can not be read.
      */
-    private void setupUndoManager() {
-        this.undoManager = new UndoManager();
-        this.undoManager.setLimit(100);
-        this.getDocument().addUndoableEditListener(event -> undoManager.addEdit(event.getEdit()));
+    public boolean restoreUndoHistory(UndoHistoryStore.Entry entry) {
+        String initialText = this.undoHistory.revert(this.getText());
+        if(initialText == null || initialText.length() != entry.getTextLength() || initialText.hashCode() != entry.getTextHash()) {
+            return false;
+        }
+        UndoHistory older = entry.load();
+        if(older == null) {
+            return false;
+        }
+        this.undoHistory.prepend(older);
+        return true;
+    }
+
+    /**
+     * Applies a step of the history to the document and moves the caret after it.
+     *
+     * @param offset The offset of the replaced range.
+     * @param length The length of the replaced range.
+     * @param text   The text replacing the range.
+     * @throws IllegalStateException if the step does not fit the document.
+     */
+    private void applyHistoryEdit(int offset, int length, String text) {
+        this.applyingHistory = true;
+        try {
+            ((AbstractDocument) this.getDocument()).replace(offset, length, text, null);
+            this.setCaretPosition(offset + text.length());
+        } catch(BadLocationException exception) {
+            throw new IllegalStateException("Undo history does not match the document", exception);
+        } finally {
+            this.applyingHistory = false;
+        }
+    }
+
+    /**
+     * Sets up the UndoHistory for the text area.
+     * Configures the UndoHistory with the memory budget and grouping pause from the settings,
+     * and installs a filter recording the edits on the document associated with the text area.
+     */
+    private void setupUndoHistory() {
+        this.undoHistory = new UndoHistory(Settings.getUndoMemoryBytes(), Settings.getUndoGroupMillis());
+        if(this.getDocument() instanceof AbstractDocument) {
+            ((AbstractDocument) this.getDocument()).setDocumentFilter(new HistoryFilter());
+        } else {
+            Log.warn("Undo is not supported by the document!");
+        }
+    }
+
+    /**
+     * Document filter recording the edits of the document in the undo history.
+     */
+    private final class HistoryFilter extends DocumentFilter {
+        @Override
+        public void insertString(FilterBypass bypass, int offset, String text, AttributeSet attributes) throws BadLocationException {
+            bypass.insertString(offset, text, attributes);
+            this.record(offset, "", text);
+        }
+
+        @Override
+        public void remove(FilterBypass bypass, int offset, int length) throws BadLocationException {
+            String removedText = bypass.getDocument().getText(offset, length);
+            bypass.remove(offset, length);
+            this.record(offset, removedText, "");
+        }
+
+        @Override
+        public void replace(FilterBypass bypass, int offset, int length, String text, AttributeSet attributes) throws BadLocationException {
+            String removedText = bypass.getDocument().getText(offset, length);
+            bypass.replace(offset, length, text, attributes);
+            this.record(offset, removedText, (text == null) ? "" : text);
+        }
+
+        /**
+         * Records an edit in the undo history, unless it is an undo or redo being applied.
+         *
+         * @param offset       The offset at which the edit happened.
+         * @param removedText  The text removed at the offset.
+         * @param insertedText The text inserted at the offset.
+         */
+        private void record(int offset, String removedText, String insertedText) {
+            if(!applyingHistory) {
+                undoHistory.record(offset, removedText, insertedText, System.currentTimeMillis());
+            }
+        }
     }
 }
@@ -8,9 +8,11 @@ import com.formdev.flatlaf.FlatLightLaf;
 
 import javax.swing.*;
 import javax.swing.event.*;
+import javax.swing.text.BadLocationException;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
+import java.util.List;
 import java.util.function.IntConsumer;
 
 /**
@@ -20,17 +22,40 @@ import java.util.function.IntConsumer;
 public class View {
     /** The callback handler for communication with the controller. */
     private CallbackHandler callback;
-    /** The main frame of the Notepad application. */
+    /** The main frame of the Notepad application, created when the view is initialized. */
     private JFrame frame;
+    /** The panel holding the tabbed pane and the status bar, shown in the main frame. */
+    private final JPanel content;
     /** The tabbed pane containing individual tabs for text file. */
     private JTabbedPane tabbedPane;
+    /** The model shown by the view, used to create the components of tabs when they are first selected. */
+    private Model model;
+    /** The dialog for finding and replacing text, created when it is first shown. */
+    private FindDialog findDialog;
+    /** The status bar showing the line and column of the caret. */
+    private JLabel statusBar;
+    /** The client property holding the time a tab component was last hidden. */
+    private static final String HIDDEN_SINCE = "notepad.hiddenSince";
 
     /**
-     * Constructs a new View, initializing the main frame and tabbed pane.
+     * Constructs a new View, initializing the tabbed pane. The main frame is only created by {@link #initialize(Model)},
+     * so a view that is not shown, like the one of a benchmark, can also be constructed without a display.
      */
     public View() {
-        this.frame = new JFrame("Notepad");
-        this.tabbedPane = new JTabbedPane();
+        this.content = new JPanel(new BorderLayout());
+        this.tabbedPane = new JTabbedPane() {
+            /** The flag indicating whether the tabbed pane has been painted already. */
+            private boolean painted;
+
+            @Override
+            public void paint(Graphics graphics) {
+                super.paint(graphics);
+                if(!this.painted) {
+                    this.painted = true;
+                    callback.framePainted();
+                }
+            }
+        };
     }
 
     /**
@@ -50,9 +75,24 @@ public class View {
      */
     public void initialize(Model model) {
         this.initFrame(model);
+        this.initializeContent(model);
+    }
+
+    /**
+     * Initializes the menus, the tabbed pane with tabs from the model and the status bar, without the main frame
+     * unless it was created by {@link #initialize(Model)}. A view initialized this way is not shown, but its tabs
+     * can be selected, typed into and painted without a display, e.g. to measure them.
+     *
+     * @param model The model containing data to initialize the view.
+     * @return The component holding the tabbed pane and the status bar.
+     */
+    public JComponent initializeContent(Model model) {
+        this.model = model;
         this.initMenu();
         this.initTabbedPane(model);
+        this.initStatusBar();
         this.setDarkMode(model.isDarkMode());
+        return this.content;
     }
 
     /**
@@ -74,37 +114,79 @@ public class View {
      * @return The selected text area or null if no tab is selected.
      */
     public UndoableTextArea getSelectedTextArea() {
+        return textAreaOf(this.tabbedPane.getSelectedComponent());
+    }
+
+    /**
+     * Retrieves the text area of the tab at the specified index.
+     *
+     * @param index The index of the tab.
+     * @return The text area, or null if the tab has no text area or it has not been created yet.
+     */
+    public UndoableTextArea getTextAreaAt(int index) {
+        return textAreaOf(this.tabbedPane.getComponentAt(index));
+    }
+
+    /**
+     * Finds the index of the tab showing a text area. The selected tab, which most edits are made in, is checked first.
+     *
+     * @param textArea The text area.
+     * @return The index of the tab, or -1 if the text area is not shown by a tab.
+     */
+    private int indexOfTextArea(UndoableTextArea textArea) {
+        int selectedIndex = this.tabbedPane.getSelectedIndex();
+        if(selectedIndex >= 0 && this.getTextAreaAt(selectedIndex) == textArea) {
+            return selectedIndex;
+        }
+        return this.tabbedPane.indexOfComponent(SwingUtilities.getAncestorOfClass(JScrollPane.class, textArea));
+    }
+
+    /**
+     * Retrieves the text area shown by the component of a tab.
+     *
+     * @param component The component of the tab.
+     * @return The text area, or null if the component does not show one.
+     */
+    private static UndoableTextArea textAreaOf(Component component) {
         UndoableTextArea result = null;
-        JScrollPane scrollPane = (JScrollPane) this.tabbedPane.getSelectedComponent();
-        if (scrollPane != null) {
-            result = (UndoableTextArea) scrollPane.getViewport().getView();
+        if(component instanceof JScrollPane) {
+            Component view = ((JScrollPane) component).getViewport().getView();
+            if(view instanceof UndoableTextArea) {
+                result = (UndoableTextArea) view;
+            }
         }
         return result;
     }
 
     /**
      * Updates the title of the tab at the specified index, adding a star if unsaved.
+     * The tabbed pane is only changed if the shown title differs, so it is not laid out again for nothing.
      *
      * @param index   The index of the tab.
      * @param title   The new title for the tab.
      * @param starred True if the tab is starred, false otherwise.
+     * @return True if the shown title changed, false otherwise.
      */
-    public void updateTitleAt(int index, String title, boolean starred) {
-        if(starred) {
-            this.tabbedPane.setTitleAt(index, "*" + title);
-        } else {
-            this.tabbedPane.setTitleAt(index, title);
+    public boolean updateTitleAt(int index, String title, boolean starred) {
+        String shownTitle = starred ? "*" + title : title;
+        if(shownTitle.equals(this.tabbedPane.getTitleAt(index))) {
+            return false;
         }
+        this.tabbedPane.setTitleAt(index, shownTitle);
+        return true;
     }
 
     /**
-     * Changes the selected tab to the one at the specified index and focuses on its text area.
+     * Changes the selected tab to the one at the specified index and focuses on its text area, if it has one.
      *
      * @param activeTab The index of the tab to be selected.
      */
     public void changeSelectedTab(int activeTab) {
         this.tabbedPane.setSelectedIndex(activeTab);
-        this.getSelectedTextArea().requestFocus();
+        UndoableTextArea selectedTextArea = this.getSelectedTextArea();
+        if(selectedTextArea != null) {
+            selectedTextArea.requestFocus();
+        }
     }
 
     /**
@@ -120,6 +202,68 @@ public class View {
         this.tabbedPane.add(name, scrollPane);
     }
 
+    /**
+     * Adds a new tab showing a memory-mapped large file in a read-only viewer to the tabbed pane.
+     *
+     * @param name The name of the new tab.
+     * @param text The memory-mapped content of the file.
+     */
+    public void addLargeFileTab(String name, MappedText text) {
+        JScrollPane scrollPane = new JScrollPane(new LargeFileViewer(text));
+        this.tabbedPane.add(name, scrollPane);
+    }
+
+    /**
+     * Replaces the placeholder of a restored tab with its content once its file is loaded.
+     *
+     * @param index The index of the tab.
+     * @param tab   The loaded tab.
+     */
+    public void showRestoredTab(int index, Tab tab) {
+        this.updateTitleAt(index, tab.getTitle(), tab.isUnsaved());
+        if(this.tabbedPane.getSelectedIndex() == index) {
+            this.tabbedPane.setComponentAt(index, this.createTabComponent(tab));
+            this.changeSelectedTab(index);
+        } else {
+            // Hidden tabs are created when they are first selected
+            this.tabbedPane.setComponentAt(index, new TabPlaceholder());
+        }
+    }
+
+    /**
+     * Appends the text appended to a followed file to the text area of its tab, if it was created, and drops text
+     * from its start. The text area scrolls along if its caret was at the end, so a user reading older lines
+     * is not moved.
+     *
+     * @param index         The index of the tab.
+     * @param text          The appended text.
+     * @param removedLength The number of characters dropped from the start.
+     */
+    public void appendText(int index, String text, int removedLength) {
+        UndoableTextArea textArea = this.getTextAreaAt(index);
+        if(textArea == null) {
+            return;
+        }
+        boolean atEnd = textArea.getCaretPosition() == textArea.getDocument().getLength();
+        textArea.appendUnrecorded(text, removedLength);
+        if(atEnd) {
+            textArea.setCaretPosition(textArea.getDocument().getLength());
+        }
+    }
+
+    /**
+     * Sets whether the text area of a tab can be edited, if it was created.
+     *
+     * @param index    The index of the tab.
+     * @param editable True if the text can be edited, false if it is read-only.
+     */
+    public void setEditableAt(int index, boolean editable) {
+        UndoableTextArea textArea = this.getTextAreaAt(index);
+        if(textArea != null) {
+            textArea.setEditable(editable);
+        }
+    }
+
     /**
      * Removes the tab at the specified index from the tabbed pane.
      *
@@ -142,9 +286,20 @@ public class View {
                 UIManager.setLookAndFeel(new FlatLightLaf());
             }
         } catch(UnsupportedLookAndFeelException exception) {
-            System.out.println("Failed to load custom look and feel!");
+            Log.warn("Failed to load custom look and feel: ", exception.getMessage());
         }
-        SwingUtilities.updateComponentTreeUI(this.frame);
+        SwingUtilities.updateComponentTreeUI((this.frame != null) ? this.frame : this.content);
+    }
+
+    /**
+     * Brings the main frame to the front, restoring it if it is minimized.
+     */
+    public void bringToFront() {
+        if((this.frame.getExtendedState() & Frame.ICONIFIED) != 0) {
+            this.frame.setExtendedState(this.frame.getExtendedState() & ~Frame.ICONIFIED);
+        }
+        this.frame.toFront();
+        this.frame.requestFocus();
     }
 
     /**
@@ -174,6 +329,52 @@ public class View {
         return selectedFile;
     }
 
+    /**
+     * Opens a file chooser dialog for choosing any number of files to open.
+     *
+     * @return The selected files, empty if the dialog is canceled.
+     */
+    public File[] chooseFiles() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setCurrentDirectory(new File(System.getProperty("user.home")));
+        fileChooser.setMultiSelectionEnabled(true);
+        if(fileChooser.showOpenDialog(this.frame) != JFileChooser.APPROVE_OPTION) {
+            return new File[0];
+        }
+        return fileChooser.getSelectedFiles();
+    }
+
+    /**
+     * Opens a file chooser dialog for choosing a folder to open files from.
+     *
+     * @return The selected folder or null if the dialog is canceled.
+     */
+    public File chooseFolder() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setCurrentDirectory(new File(System.getProperty("user.home")));
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if(fileChooser.showOpenDialog(this.frame) != JFileChooser.APPROVE_OPTION) {
+            return null;
+        }
+        return fileChooser.getSelectedFile();
+    }
+
+    /**
+     * Displays a dialog asking the user for the glob pattern of the files to open from a folder.
+     *
+     * @param folderName The name of the folder, shown in the dialog.
+     * @return The pattern, or null if the dialog is canceled or the input is blank.
+     */
+    public String askFilePattern(String folderName) {
+        Object input = JOptionPane.showInputDialog(this.frame,
+                "Files to open from " + folderName + " (like *.txt, or **/*.java for subfolders):", "Open Folder",
+                JOptionPane.QUESTION_MESSAGE, null, null, "*");
+        if(input == null || input.toString().isBlank()) {
+            return null;
+        }
+        return input.toString().trim();
+    }
+
     /**
      * Displays a confirmation dialog asking the user if they want to save changes.
      *
@@ -184,6 +385,172 @@ public class View {
         return ConfirmDialogOptions.getByValue(result);
     }
 
+    /**
+     * Displays a warning dialog with the specified message.
+     *
+     * @param message The message of the warning.
+     */
+    public void showWarningDialog(String message) {
+        JOptionPane.showMessageDialog(this.frame, message, "Notepad", JOptionPane.WARNING_MESSAGE);
+    }
+
+    /**
+     * Displays an error dialog with the specified message.
+     *
+     * @param message The message describing the error.
+     */
+    public void showErrorDialog(String message) {
+        JOptionPane.showMessageDialog(this.frame, message, "Notepad", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * Displays a dialog telling the user that the file of a tab with unsaved changes was changed by another process,
+     * asking whether to reload it, keep the changes, or show the differences first.
+     *
+     * @param name The name of the file.
+     * @return The user's choice from the dialog, {@code KEEP} if the dialog is closed.
+     */
+    public ExternalChangeOptions showExternalChangeDialog(String name) {
+        Object[] options = {"Reload", "Keep my changes", "Show diff"};
+        int result = JOptionPane.showOptionDialog(this.frame,
+                name + " was changed by another program.\nReload it and lose your unsaved changes?", "Notepad",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[1]);
+        return ExternalChangeOptions.getByValue(result);
+    }
+
+    /**
+     * Displays the differences between two versions of a file in a read-only dialog.
+     *
+     * @param title The title of the dialog.
+     * @param diff  The differences in the unified diff format.
+     */
+    public void showDiffDialog(String title, String diff) {
+        JTextArea textArea = new JTextArea(diff);
+        textArea.setEditable(false);
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        textArea.setCaretPosition(0);
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(720, 440));
+        JOptionPane.showMessageDialog(this.frame, scrollPane, title, JOptionPane.PLAIN_MESSAGE);
+    }
+
+    /**
+     * Shows the line and column of the caret in the status bar.
+     *
+     * @param line   The line of the caret, 1 being the first.
+     * @param column The column of the caret, 1 being the first.
+     */
+    public void showCaretPosition(int line, int column) {
+        this.statusBar.setText("Ln " + line + ", Col " + column);
+    }
+
+    /**
+     * Clears the status bar, for tabs without a caret.
+     */
+    public void clearCaretPosition() {
+        this.statusBar.setText(" ");
+    }
+
+    /**
+     * Displays a dialog asking the user for the line to go to.
+     *
+     * @param currentLine The line of the caret, 1 being the first, suggested in the dialog.
+     * @param lineCount   The number of lines.
+     * @return The chosen line, limited to the existing lines, or null if the dialog is canceled or the input is not a number.
+     */
+    public Integer askLineNumber(int currentLine, int lineCount) {
+        Object input = JOptionPane.showInputDialog(this.frame, "Line number (1 - " + lineCount + "):", "Go to Line",
+                JOptionPane.QUESTION_MESSAGE, null, null, Integer.toString(currentLine));
+        if(input == null) {
+            return null;
+        }
+        try {
+            return Math.max(1, Math.min(Integer.parseInt(input.toString().trim()), lineCount));
+        } catch(NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Shows the dialog for finding and replacing text, creating it the first time.
+     */
+    public void showFindDialog() {
+        if(this.findDialog == null) {
+            this.findDialog = new FindDialog(this.frame, this.callback);
+        }
+        this.findDialog.open();
+    }
+
+    /**
+     * Shows a message about the outcome of the last search in the find dialog, if it was created.
+     *
+     * @param status The message.
+     */
+    public void setSearchStatus(String status) {
+        if(this.findDialog != null) {
+            this.findDialog.setStatus(status);
+        }
+    }
+
+    /**
+     * Removes the matches listed in the find dialog, if it was created.
+     */
+    public void clearSearchHits() {
+        if(this.findDialog != null) {
+            this.findDialog.clearHits();
+        }
+    }
+
+    /**
+     * Adds matches to the list of the find dialog, if it was created.
+     *
+     * @param hits The matches to add.
+     */
+    public void addSearchHits(List<FindDialog.Hit> hits) {
+        if(this.findDialog != null) {
+            this.findDialog.addHits(hits);
+        }
+    }
+
+    /**
+     * Creates a progress listener that pops up a progress monitor when a file operation takes noticeable time.
+     * The returned listener may be notified from any thread; the monitor is updated on the event dispatch thread.
+     *
+     * @param message The message describing the operation.
+     * @return The progress listener backed by the progress monitor.
+     */
+    public ProgressListener createProgressListener(String message) {
+        ProgressMonitor monitor = new ProgressMonitor(this.frame, message, null, 0, 100);
+        return new ProgressListener() {
+            /** The last percentage posted to the monitor, used to avoid flooding the event queue. */
+            private int lastPercent = -1;
+            /** The flag indicating whether the monitor was canceled, as last seen on the event dispatch thread. */
+            private volatile boolean canceled;
+
+            @Override
+            public void progressed(long processed, long total) {
+                int percent = (total > 0) ? (int) (processed * 100 / total) : 100;
+                if(percent != this.lastPercent) {
+                    this.lastPercent = percent;
+                    SwingUtilities.invokeLater(() -> {
+                        monitor.setProgress(percent);
+                        this.canceled = monitor.isCanceled();
+                    });
+                }
+            }
+
+            @Override
+            public void finished() {
+                SwingUtilities.invokeLater(monitor::close);
+            }
+
+            @Override
+            public boolean isCanceled() {
+                return this.canceled;
+            }
+        };
+    }
+
     /* ---------------------- *
      * INITIALIZATION METHODS *
      * ---------------------- */
@@ -194,6 +561,7 @@ public class View {
      * @param model The model containing data to set the initial frame size.
      */
     private void initFrame(Model model) {
+        this.frame = new JFrame("Notepad");
         // Set custom close operation here
         this.frame.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
         this.frame.addWindowListener(new WindowAdapter() {
@@ -213,6 +581,7 @@ public class View {
                 callback.updateFrameSize(frame.getWidth(), frame.getHeight());
             }
         });
+        this.frame.add(this.content);
     }
 
     /**
@@ -221,7 +590,9 @@ public class View {
     public void initMenu() {
         /* ------ Menubar ------ */
         JMenuBar menuBar = new JMenuBar();
-        this.frame.setJMenuBar(menuBar);
+        if(this.frame != null) {
+            this.frame.setJMenuBar(menuBar);
+        }
 
         /* --- File Menu --- */
         JMenu menu = new JMenu("File");
@@ -251,6 +622,14 @@ public class View {
         menuItem.addActionListener(event -> callback.open());
         menu.add(menuItem);
 
+        // Open Folder menu item
+        menuItem = new JMenuItem("Open Folder");
+        menuItem.setAccelerator(KeyStroke.getKeyStroke(
+                KeyEvent.VK_O, InputEvent.CTRL_DOWN_MASK + InputEvent.SHIFT_DOWN_MASK
+        ));
+        menuItem.addActionListener(event -> callback.openFolder());
+        menu.add(menuItem);
+
         // Save menu item
         menuItem = new JMenuItem("Save");
         menuItem.setAccelerator(KeyStroke.getKeyStroke(
@@ -267,6 +646,17 @@ public class View {
         menuItem.addActionListener(event -> callback.saveAs());
         menu.add(menuItem);
 
+        // Separator
+        menu.addSeparator();
+
+        // Follow menu item
+        menuItem = new JMenuItem("Follow File");
+        menuItem.setAccelerator(KeyStroke.getKeyStroke(
+                KeyEvent.VK_L, InputEvent.CTRL_DOWN_MASK + InputEvent.SHIFT_DOWN_MASK
+        ));
+        menuItem.addActionListener(event -> callback.toggleFollow());
+        menu.add(menuItem);
+
         /* --- Edit Menu --- */
         menu = new JMenu("Edit");
         menuBar.add(menu);
@@ -314,6 +704,25 @@ public class View {
         menuItem.addActionListener(event -> callback.paste());
         menu.add(menuItem);
 
+        // Separator
+        menu.addSeparator();
+
+        // Find menu item
+        menuItem = new JMenuItem("Find and Replace");
+        menuItem.setAccelerator(KeyStroke.getKeyStroke(
+                KeyEvent.VK_F, InputEvent.CTRL_DOWN_MASK
+        ));
+        menuItem.addActionListener(event -> callback.find());
+        menu.add(menuItem);
+
+        // Go to Line menu item
+        menuItem = new JMenuItem("Go to Line");
+        menuItem.setAccelerator(KeyStroke.getKeyStroke(
+                KeyEvent.VK_G, InputEvent.CTRL_DOWN_MASK
+        ));
+        menuItem.addActionListener(event -> callback.goToLine());
+        menu.add(menuItem);
+
         /* ------ Theme Button ------ */
         JButton button = new JButton("Change Theme");
         button.addActionListener(event -> callback.invertTheme());
@@ -329,12 +738,18 @@ public class View {
         textArea.getDocument().addDocumentListener(new DocumentListener() {
             @Override
             public void insertUpdate(DocumentEvent event) {
-                callback.updateContent(textArea.getText());
+                try {
+                    String insertedText = event.getDocument().getText(event.getOffset(), event.getLength());
+                    callback.updateContent(indexOfTextArea(textArea), event.getOffset(), 0, insertedText);
+                } catch(BadLocationException exception) {
+                    // Fall back to synchronizing the whole content
+                    callback.updateContent(indexOfTextArea(textArea), textArea.getText());
+                }
             }
 
             @Override
-            public void removeUpdate(DocumentEvent e) {
-                callback.updateContent(textArea.getText());
+            public void removeUpdate(DocumentEvent event) {
+                callback.updateContent(indexOfTextArea(textArea), event.getOffset(), event.getLength(), "");
             }
 
             @Override
@@ -342,6 +757,8 @@ public class View {
                 // Plain text documents do not fire these kind of events.
             }
         });
+        // The caret listener is notified after the document listener, so the model already holds the edit
+        textArea.addCaretListener(event -> callback.updateCaretPosition(event.getDot()));
 
         textArea.getInputMap().put(
                 KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.CTRL_DOWN_MASK),
@@ -385,12 +802,77 @@ public class View {
         this.tabbedPane.setTabLayoutPolicy(JTabbedPane.SCROLL_TAB_LAYOUT);
         this.createTabsFromModel(model);
         this.tabbedPane.setSelectedIndex(model.getSelectedIndex());
-        this.tabbedPane.addChangeListener(event -> callback.updateSelectedTab(this.tabbedPane.getSelectedIndex()));
-        this.frame.add(tabbedPane);
+        this.materializeTab(model.getSelectedIndex());
+        this.tabbedPane.addChangeListener(new ChangeListener() {
+            /** The component of the previously selected tab. */
+            private Component previousComponent = tabbedPane.getSelectedComponent();
+
+            @Override
+            public void stateChanged(ChangeEvent event) {
+                if(this.previousComponent instanceof JComponent) {
+                    ((JComponent) this.previousComponent).putClientProperty(HIDDEN_SINCE, System.currentTimeMillis());
+                }
+                int selectedIndex = tabbedPane.getSelectedIndex();
+                materializeTab(selectedIndex);
+                this.previousComponent = tabbedPane.getSelectedComponent();
+                callback.updateSelectedTab(selectedIndex);
+            }
+        });
+        this.content.add(this.tabbedPane, BorderLayout.CENTER);
+        this.startIdleTabRelease();
     }
 
     /**
-     * Creates tabs in the tabbed pane based on the tabs in the provided model.
+     * Replaces the placeholder of a tab with its component, if the tab has not been created yet.
+     *
+     * @param index The index of the tab, or -1 if no tab is selected.
+     */
+    private void materializeTab(int index) {
+        if(index >= 0 && this.tabbedPane.getComponentAt(index) instanceof TabPlaceholder) {
+            this.tabbedPane.setComponentAt(index, this.createTabComponent(this.model.getTabAt(index)));
+        }
+    }
+
+    /**
+     * Starts a timer that periodically releases the text areas of hidden tabs that have no unsaved changes
+     * and have been hidden for longer than the configured time. Released tabs are created again from the model
+     * when they are selected, losing their undo history. Does nothing if releasing is disabled.
+     */
+    private void startIdleTabRelease() {
+        long idleMillis = Settings.getIdleTabReleaseMillis();
+        if(idleMillis == 0) {
+            return;
+        }
+        int period = (int) Math.min(Math.max(idleMillis / 2, 1000), Integer.MAX_VALUE);
+        Timer timer = new Timer(period, event -> {
+            long now = System.currentTimeMillis();
+            int numberOfTabs = this.tabbedPane.getTabCount();
+            for(int index = 0; index < numberOfTabs; index++) {
+                Component component = this.tabbedPane.getComponentAt(index);
+                if(index == this.tabbedPane.getSelectedIndex() || !(component instanceof JScrollPane)) {
+                    continue;
+                }
+                Object hiddenSince = ((JScrollPane) component).getClientProperty(HIDDEN_SINCE);
+                Tab tab = this.model.getTabAt(index);
+                if(hiddenSince instanceof Long && now - (Long) hiddenSince >= idleMillis && !tab.isUnsaved() && !tab.isLoading()) {
+                    this.tabbedPane.setComponentAt(index, new TabPlaceholder());
+                }
+            }
+        });
+        timer.start();
+    }
+
+    /**
+     * Initializes the status bar below the tabbed pane.
+     */
+    private void initStatusBar() {
+        this.statusBar = new JLabel(" ");
+        this.statusBar.setBorder(BorderFactory.createEmptyBorder(2, 8, 2, 8));
+        this.content.add(this.statusBar, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Creates tabs in the tabbed pane based on the tabs in the provided model, using placeholders as their components.
      *
      * @param model The model containing data to create tabs.
      */
@@ -398,13 +880,38 @@ public class View {
         int numberOfTabs = model.getNumberOfTabs();
         for(int index = 0; index < numberOfTabs; index++) {
             Tab tabAtIndex = model.getTabAt(index);
-            UndoableTextArea textArea = new UndoableTextArea(tabAtIndex.getCurrentContent());
-            JScrollPane scrollPane = new JScrollPane(textArea);
-            // The documentListener should be added after creating the text area
-            // Else its content will be instantly changed to the already opened tab
-            this.setupCustomizedTextArea(textArea);
-            this.tabbedPane.add(tabAtIndex.getTitle(), scrollPane);
+            // Only a placeholder is created, the tab itself is created when it is first selected
+            this.tabbedPane.add(tabAtIndex.getTitle(), new TabPlaceholder());
             this.updateTitleAt(index, tabAtIndex.getTitle(), tabAtIndex.isUnsaved());
         }
     }
+
+    /**
+     * Creates the component showing the content of a tab: a placeholder while its file is loading,
+     * a read-only viewer for large files, and a text area otherwise.
+     *
+     * @param tab The tab to show.
+     * @return The scroll pane holding the component.
+     */
+    private JScrollPane createTabComponent(Tab tab) {
+        if(tab.isLoading()) {
+            return new JScrollPane(new JLabel("Loading " + tab.getTitle() + "...", SwingConstants.CENTER));
+        }
+        if(tab.getMappedContent() != null) {
+            return new JScrollPane(new LargeFileViewer(tab.getMappedContent()));
+        }
+        UndoableTextArea textArea = new UndoableTextArea(tab.getCurrentContent());
+        textArea.setEditable(!tab.isFollowing());
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        // The documentListener should be added after creating the text area
+        // Else its content will be instantly changed to the already opened tab
+        this.setupCustomizedTextArea(textArea);
+        return scrollPane;
+    }
+
+    /**
+     * The lightweight component standing in for a tab whose text area has not been created yet.
+     */
+    private static final class TabPlaceholder extends JComponent {
+    }
 }
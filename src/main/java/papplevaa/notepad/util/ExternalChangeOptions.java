@@ -0,0 +1,58 @@
+package papplevaa.notepad.util;
+
+/**
+ * Enumeration representing the options available when the file of a tab with unsaved changes is changed by
+ * another process. These options include choices to reload the file, keep the changes of the tab, or show the
+ * differences between them first.
+ */
+public enum ExternalChangeOptions {
+    /**
+     * Option indicating that the file should be reloaded, dropping the unsaved changes.
+     */
+    RELOAD(0),
+    /**
+     * Option indicating that the unsaved changes should be kept.
+     */
+    KEEP(1),
+    /**
+     * Option indicating that the differences between the tab and the file should be shown.
+     */
+    SHOW_DIFF(2);
+
+    /** The integer value associated with the actual Option. */
+    private final int value;
+
+    /**
+     * Constructs an ExternalChangeOptions enum with the specified integer value.
+     *
+     * @param value The integer value associated with the enum option.
+     */
+    ExternalChangeOptions(int value) {
+        this.value = value;
+    }
+
+    /**
+     * Gets the integer value associated with the enum option.
+     *
+     * @return The integer value.
+     */
+    public int getValue() {
+        return this.value;
+    }
+
+    /**
+     * Gets the ExternalChangeOptions enum corresponding to the specified integer value.
+     * If no matching option is found, the default option is {@code KEEP}.
+     *
+     * @param value The integer value to match.
+     * @return The ExternalChangeOptions enum corresponding to the specified value.
+     */
+    public static ExternalChangeOptions getByValue(int value) {
+        for(ExternalChangeOptions option : ExternalChangeOptions.values()) {
+            if(option.getValue() == value)  {
+                return option;
+            }
+        }
+        return KEEP;
+    }
+}
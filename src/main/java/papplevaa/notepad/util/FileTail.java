@@ -0,0 +1,118 @@
+package papplevaa.notepad.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the text appended to a growing file, like a log, from the position it was read up to.
+ * Only the appended bytes are read, through a {@link FileChannel} opened by path on each read, so a file that is
+ * rotated or truncated is noticed by shrinking below the position. The decoder and the line breaks are kept between
+ * reads, so a character or a CRLF split between two appends is decoded whole; line breaks are turned into {@code \n}
+ * like the ones of a file read by {@link FileUtil#loadText(File, ProgressListener)}.
+ *
+ * <p>A tail is read by one thread at a time.
+ */
+public final class FileTail {
+    /** The size of the blocks the appended bytes are read in. */
+    private static final int BLOCK_SIZE = 1 << 16;
+    /** The most bytes read at once, so a burst of appends is read over several reads instead of all in memory. */
+    private static final long MAX_READ_BYTES = 4L << 20;
+
+    /** The followed file. */
+    private final File file;
+    /** The decoder of the text of the file, keeping its state between reads. */
+    private final CharsetDecoder decoder;
+    /** The line breaks of the appended text, kept between reads for a carriage return ending a read. */
+    private final FileUtil.LineBreaks lineBreaks;
+    /** The buffer of the bytes read, holding the bytes of a character split between reads. */
+    private final ByteBuffer bytes;
+    /** The buffer of the decoded chars. */
+    private final CharBuffer chars;
+    /** The position of the first byte not read yet. */
+    private long position;
+
+    /**
+     * Constructs a new FileTail.
+     *
+     * @param file     The file to follow.
+     * @param position The position the file was read up to.
+     * @param encoding The encoding of the file.
+     */
+    public FileTail(File file, long position, TextEncoding encoding) {
+        this.file = file;
+        this.position = position;
+        this.decoder = encoding.getCharset().newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.lineBreaks = new FileUtil.LineBreaks();
+        this.bytes = ByteBuffer.allocate(BLOCK_SIZE);
+        this.chars = CharBuffer.allocate(BLOCK_SIZE);
+    }
+
+    /**
+     * Gets the position of the first byte not read yet.
+     *
+     * @return The position in bytes.
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    /**
+     * Reads the text appended to the file since the last read, at most {@value #MAX_READ_BYTES} bytes of it.
+     * The size of the file is checked first, so a file that did not grow is not opened.
+     *
+     * @return The appended text with {@code \n} line breaks, empty if nothing was appended,
+     *         or {@code null} if the file shrank below the position, having been truncated or replaced.
+     * @throws IOException if the file can not be read.
+     */
+    public String readAppended() throws IOException {
+        long size = this.file.length();
+        if(size == this.position) {
+            return "";
+        } else if(size < this.position) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            long end = Math.min(channel.size(), this.position + MAX_READ_BYTES);
+            if(end < this.position) {
+                return null;
+            }
+            while(this.position < end) {
+                int limit = (int) Math.min(this.bytes.remaining(), end - this.position);
+                this.bytes.limit(this.bytes.position() + limit);
+                int read = channel.read(this.bytes, this.position);
+                if(read <= 0) {
+                    break;
+                }
+                this.position += read;
+                this.bytes.flip();
+                while(this.decoder.decode(this.bytes, this.chars, false).isOverflow()) {
+                    this.drain(text);
+                }
+                this.drain(text);
+                // The bytes of a character split by the read stay for the next one
+                this.bytes.compact();
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Appends the decoded chars to the text with their line breaks turned into {@code \n}, and clears the buffer.
+     *
+     * @param text The text read so far.
+     */
+    private void drain(StringBuilder text) {
+        this.chars.flip();
+        this.lineBreaks.append(this.chars.array(), this.chars.arrayOffset() + this.chars.position(), this.chars.remaining(), text);
+        this.chars.clear();
+    }
+}
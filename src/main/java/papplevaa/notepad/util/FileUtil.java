@@ -1,49 +1,410 @@
 package papplevaa.notepad.util;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Utility class providing file-related operations for the Notepad application.
  */
 public final class FileUtil {
+    /** The number of bytes read from a file at once. */
+    private static final int BLOCK_SIZE = 1 << 16;
+    /** The largest capacity that can be requested for a StringBuilder. */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
     private FileUtil() {
         // Private constructor to prevent instantiation; utility class with static methods.
     }
 
     /**
-     * Reads the content of a file and returns it as a string.
+     * Reads the content of a file and returns it as a string, decoded with the platform default charset.
      *
      * @param filePath The path to the file to be read.
      * @return The content of the file as a string, or {@code null} if an error occurs during reading.
      */
     public static String loadContent(File filePath) {
-        StringBuilder content = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            while (reader.ready()) {
-                char readChar = (char)reader.read();
-                content.append(readChar);
+        return loadContent(filePath, Charset.defaultCharset(), ProgressListener.NONE);
+    }
+
+    /**
+     * Reads the content of a file block by block and returns it as a string.
+     * The buffer holding the decoded content is sized from the file length up front,
+     * so the content is not copied while it grows. Malformed input is replaced, not rejected.
+     *
+     * @param filePath The path to the file to be read.
+     * @param charset  The charset used to decode the content of the file.
+     * @param listener The listener notified after each block is read.
+     * @return The content of the file as a string, or {@code null} if an error occurs during reading.
+     */
+    public static String loadContent(File filePath, Charset charset, ProgressListener listener) {
+        try (FileChannel channel = FileChannel.open(filePath.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate(BLOCK_SIZE);
+            return decode(channel, bytes, 0, replacing(charset.newDecoder()), null, listener);
+        } catch (IOException exception) {
+            Log.warn("Failed to load content: ", exception.getMessage());
+            return null;
+        } finally {
+            listener.finished();
+        }
+    }
+
+    /**
+     * Reads the content of a file block by block, detecting its encoding from its first block and its line separator
+     * while decoding. The encoding is detected by {@link TextEncoding#detect(ByteBuffer, boolean)} and the byte order
+     * mark is skipped. Line breaks are turned into {@code \n} as each block is decoded, and the separator used by
+     * most of them is reported as the separator of the file.
+     * A file taken as UTF-8 from its first block that turns out to hold other bytes later is read again
+     * in the legacy encoding; otherwise the file is read once. Malformed input is replaced, not rejected.
+     *
+     * @param filePath The path to the file to be read.
+     * @param listener The listener notified after each block is read.
+     * @return The content of the file with its encoding, line separator, modification time and length,
+     *         or {@code null} if an error occurs during reading.
+     */
+    public static LoadedText loadText(File filePath, ProgressListener listener) {
+        // Taken before reading, so a change made while the file is read is not mistaken for the content read
+        long lastModified = filePath.lastModified();
+        try (FileChannel channel = FileChannel.open(filePath.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate(BLOCK_SIZE);
+            long processed = readHead(channel, bytes);
+            TextEncoding encoding = TextEncoding.detect(bytes, processed == channel.size());
+            bytes.compact();
+            boolean guessed = !encoding.hasBom() && encoding.getCharset().equals(StandardCharsets.UTF_8);
+            if(guessed) {
+                CharsetDecoder decoder = encoding.getCharset().newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT);
+                LineBreaks lineBreaks = new LineBreaks();
+                try {
+                    String content = decode(channel, bytes, processed, decoder, lineBreaks, listener);
+                    return new LoadedText(content, encoding, lineBreaks.getSeparator(), lastModified, channel.position());
+                } catch(CharacterCodingException exception) {
+                    // Not UTF-8 after all, read it again from the start
+                    channel.position(0);
+                    bytes.clear();
+                    processed = readHead(channel, bytes);
+                    encoding = TextEncoding.legacy(bytes);
+                    bytes.compact();
+                }
             }
-        } catch (IOException e) {
-            System.out.println("Failed to load content");
+            LineBreaks lineBreaks = new LineBreaks();
+            String content = decode(channel, bytes, processed, replacing(encoding.getCharset().newDecoder()), lineBreaks, listener);
+            return new LoadedText(content, encoding, lineBreaks.getSeparator(), lastModified, channel.position());
+        } catch (IOException exception) {
+            Log.warn("Failed to load content: ", exception.getMessage());
             return null;
+        } finally {
+            listener.finished();
         }
+    }
+
+    /**
+     * Fills a buffer with the first bytes of a channel, as far as the channel has them, and flips it for reading.
+     *
+     * @param channel The channel to read from, at its start.
+     * @param bytes   The buffer to fill.
+     * @return The number of bytes read.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static long readHead(FileChannel channel, ByteBuffer bytes) throws IOException {
+        long processed = 0;
+        int read = 0;
+        while(bytes.hasRemaining() && read != -1) {
+            read = channel.read(bytes);
+            processed += Math.max(read, 0);
+        }
+        bytes.flip();
+        return processed;
+    }
+
+    /**
+     * Decodes the rest of a channel block by block after the bytes already read into the buffer.
+     *
+     * @param channel    The channel to read from.
+     * @param bytes      The buffer holding the bytes read but not decoded yet, ready to be filled further.
+     * @param processed  The number of bytes read from the channel so far.
+     * @param decoder    The decoder of the content.
+     * @param lineBreaks The line breaks turning the separators into {@code \n}, or {@code null} to keep them.
+     * @param listener   The listener notified after each block is read.
+     * @return The decoded content.
+     * @throws IOException if an I/O error occurs, or CharacterCodingException if the decoder reports malformed input.
+     */
+    private static String decode(FileChannel channel, ByteBuffer bytes, long processed, CharsetDecoder decoder, LineBreaks lineBreaks, ProgressListener listener) throws IOException {
+        long total = channel.size();
+        StringBuilder content = new StringBuilder(initialCapacity(total, decoder));
+        CharBuffer chars = CharBuffer.allocate(BLOCK_SIZE);
+        boolean endOfInput = false;
+        while(!endOfInput) {
+            int read = channel.read(bytes);
+            endOfInput = (read == -1);
+            if(read > 0) {
+                processed += read;
+            }
+            bytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, endOfInput);
+                if(result.isError()) {
+                    result.throwException();
+                }
+                drain(chars, content, lineBreaks);
+            } while(result.isOverflow());
+            bytes.compact();
+            listener.progressed(processed, total);
+        }
+        while(decoder.flush(chars).isOverflow()) {
+            drain(chars, content, lineBreaks);
+        }
+        drain(chars, content, lineBreaks);
         return content.toString();
     }
 
     /**
-     * Writes the provided content to a file.
+     * Makes a decoder replace malformed and unmappable input instead of rejecting it.
+     *
+     * @param decoder The decoder.
+     * @return The decoder.
+     */
+    private static CharsetDecoder replacing(CharsetDecoder decoder) {
+        return decoder.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Writes the provided content to a file, encoded with the platform default charset.
      *
      * @param content  The content to be written to the file.
      * @param filePath The path to the file where the content will be saved.
+     * @throws IOException if an error occurs during writing; the file is left unchanged then.
      */
-    public static void saveContent(String content, File filePath) {
-        try (FileWriter writer = new FileWriter(filePath)) {
-            writer.write(content);
-        } catch (IOException exception) {
-            System.out.println("Failed to save content");
+    public static void saveContent(String content, File filePath) throws IOException {
+        saveContent(content, filePath, Charset.defaultCharset(), ProgressListener.NONE);
+    }
+
+    /**
+     * Writes the provided content to a file block by block, encoded with a charset, without a byte order mark,
+     * and with its line breaks as they are.
+     *
+     * @param content  The content to be written to the file.
+     * @param filePath The path to the file where the content will be saved.
+     * @param charset  The charset used to encode the content.
+     * @param listener The listener notified with the number of characters written after each block.
+     * @throws IOException if an error occurs during writing; the file is left unchanged then.
+     * @see #saveContent(CharSequence, File, TextEncoding, LineSeparator, ProgressListener)
+     */
+    public static void saveContent(CharSequence content, File filePath, Charset charset, ProgressListener listener) throws IOException {
+        saveContent(content, filePath, new TextEncoding(charset, false), LineSeparator.LF, listener);
+    }
+
+    /**
+     * Writes the provided content to a file block by block. The content is written to a temporary file
+     * next to the file and forced to the storage device, which then replaces the file in one atomic rename,
+     * so a failed or interrupted save never leaves a partially written file behind.
+     * The content is encoded one block at a time into a direct buffer written straight to the file channel,
+     * by an encoder and buffer kept by the saving thread, so saving allocates nothing in proportion to the content.
+     * The {@code \n} line breaks of the content are turned into the line separator block by block on the way.
+     * Characters the charset can not encode are replaced.
+     *
+     * @param content   The content to be written to the file, with {@code \n} line breaks.
+     * @param filePath  The path to the file where the content will be saved.
+     * @param encoding  The encoding of the file: the charset of the content and whether a byte order mark precedes it.
+     * @param separator The line separator of the file.
+     * @param listener  The listener notified with the number of characters written after each block.
+     * @throws IOException if an error occurs during writing; the file is left unchanged then.
+     */
+    public static void saveContent(CharSequence content, File filePath, TextEncoding encoding, LineSeparator separator, ProgressListener listener) throws IOException {
+        Path target = filePath.getAbsoluteFile().toPath();
+        boolean exists = Files.exists(target);
+        if(exists) {
+            // Saving through a symbolic link replaces the file it points to, keeping the link
+            target = target.toRealPath();
+        }
+        Path temporary = null;
+        try {
+            FileChannel temporaryChannel = null;
+            while(temporaryChannel == null) {
+                temporary = target.resolveSibling("." + target.getFileName() + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+                try {
+                    // Created with the default permissions of new files, unlike Files.createTempFile, which restricts them
+                    temporaryChannel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                } catch(FileAlreadyExistsException exception) {
+                    temporary = null;
+                }
+            }
+            try (FileChannel channel = temporaryChannel) {
+                SaveBuffers buffers = SaveBuffers.get();
+                CharsetEncoder encoder = buffers.encoderOf(encoding.getCharset());
+                ByteBuffer bytes = buffers.bytes;
+                bytes.clear();
+                bytes.put(encoding.getBom());
+                int total = content.length();
+                int start = 0;
+                while(start < total) {
+                    int end = (int) Math.min((long) start + BLOCK_SIZE, total);
+                    CharBuffer chars;
+                    if(separator == LineSeparator.LF) {
+                        chars = CharBuffer.wrap(content, start, end);
+                    } else {
+                        // The translated block is encoded whole, so a surrogate pair is not split between blocks
+                        if(end < total && Character.isHighSurrogate(content.charAt(end - 1))) {
+                            end--;
+                        }
+                        chars = translate(content, start, end, separator.getSeparator(), buffers.chars);
+                    }
+                    CoderResult result;
+                    do {
+                        result = encoder.encode(chars, bytes, end == total);
+                        writeBlock(channel, bytes);
+                    } while(result.isOverflow());
+                    // A surrogate pair split at the end of the block stays in the buffer and starts the next block
+                    start = end - chars.remaining();
+                    listener.progressed(start, total);
+                }
+                while(encoder.encode(CharBuffer.allocate(0), bytes, true).isOverflow()) {
+                    writeBlock(channel, bytes);
+                }
+                while(encoder.flush(bytes).isOverflow()) {
+                    writeBlock(channel, bytes);
+                }
+                writeBlock(channel, bytes);
+                channel.force(true);
+            }
+            if(exists) {
+                copyPermissions(target, temporary);
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch(AtomicMoveNotSupportedException exception) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch(IOException exception) {
+            if(temporary != null) {
+                Files.deleteIfExists(temporary);
+            }
+            throw exception;
+        } finally {
+            listener.finished();
         }
     }
 
+    /**
+     * Copies a block of content into a buffer, turning its {@code \n} line breaks into a line separator.
+     * A carriage return already before a line break, e.g. in pasted text, is dropped, so it is not written twice.
+     *
+     * @param content   The content.
+     * @param start     The start of the block in the content.
+     * @param end       The end of the block in the content.
+     * @param separator The line separator.
+     * @param chars     The buffer to copy into, large enough for the block with every char a line break.
+     * @return The buffer, flipped for reading.
+     */
+    private static CharBuffer translate(CharSequence content, int start, int end, String separator, CharBuffer chars) {
+        chars.clear();
+        for(int index = start; index < end; index++) {
+            char character = content.charAt(index);
+            if(character == '\n') {
+                chars.put(separator);
+            } else if(character != '\r' || index + 1 == content.length() || content.charAt(index + 1) != '\n') {
+                chars.put(character);
+            }
+        }
+        return chars.flip();
+    }
+
+    /**
+     * Writes the bytes encoded into the buffer to the channel, and clears the buffer.
+     *
+     * @param channel The channel to write to.
+     * @param bytes   The buffer holding the encoded bytes.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static void writeBlock(FileChannel channel, ByteBuffer bytes) throws IOException {
+        bytes.flip();
+        while(bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    /**
+     * Gives the temporary file the permissions of the existing file it replaces, so saving does not change them.
+     *
+     * @param target    The file being replaced.
+     * @param temporary The temporary file replacing it.
+     */
+    private static void copyPermissions(Path target, Path temporary) {
+        try {
+            Files.setPosixFilePermissions(temporary, Files.getPosixFilePermissions(target));
+        } catch(IOException | UnsupportedOperationException exception) {
+            // The file system has no POSIX permissions, the replacing file keeps the ones it was created with
+        }
+    }
+
+    /**
+     * Lists the files of a folder and its subfolders whose path relative to the folder matches a pattern, like
+     * {@code *.txt} for the files of the folder itself or {@code **}{@code /*.java} for the ones of its subfolders.
+     * Hidden subfolders, like {@code .git}, and subfolders that can not be read are skipped.
+     *
+     * @param directory The folder.
+     * @param matcher   The matcher of the relative paths of the files to list.
+     * @param maxFiles  The number of files listed at most; the walk stops once that many are found.
+     * @return The matching files, sorted by path.
+     * @throws IOException if the folder can not be read.
+     */
+    public static List<File> listFiles(File directory, PathMatcher matcher, int maxFiles) throws IOException {
+        Path root = directory.toPath();
+        List<File> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                boolean hidden = !dir.equals(root) && dir.getFileName().toString().startsWith(".");
+                return hidden ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if(attributes.isRegularFile() && matcher.matches(root.relativize(file))) {
+                    files.add(file.toFile());
+                }
+                return (files.size() < maxFiles) ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exception) throws IOException {
+                if(file.equals(root)) {
+                    throw exception;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(files);
+        return files;
+    }
+
     /**
      * Serializes an object and saves it to a file.
      *
@@ -55,7 +416,7 @@ public final class FileUtil {
         try (ObjectOutputStream stream = new ObjectOutputStream(new FileOutputStream(filePath))) {
             stream.writeObject(object);
         } catch (IOException exception) {
-            System.out.println("Failed to save data for next session");
+            Log.error("Failed to save data for next session: ", exception.getMessage());
         }
     }
 
@@ -74,8 +435,150 @@ public final class FileUtil {
                 return tClass.cast(object);
             }
         } catch (IOException | ClassNotFoundException exception) {
-            System.out.println("Failed to load data from previous session");
+            Log.warn("Failed to load data from previous session: ", exception.getMessage());
         }
         return null;
     }
+
+    /**
+     * Estimates the number of chars a file of the given size decodes to, so that the content buffer is allocated once.
+     *
+     * @param size    The size of the file in bytes.
+     * @param decoder The decoder used to decode the file.
+     * @return The initial capacity of the content buffer.
+     */
+    private static int initialCapacity(long size, CharsetDecoder decoder) {
+        long estimate = (long) Math.ceil(size * (double) decoder.averageCharsPerByte());
+        return (int) Math.min(estimate, MAX_CAPACITY);
+    }
+
+    /**
+     * Moves the decoded chars from the buffer to the content and clears the buffer.
+     *
+     * @param chars      The buffer holding the decoded chars.
+     * @param content    The content the chars are appended to.
+     * @param lineBreaks The line breaks turning the separators into {@code \n}, or {@code null} to keep them.
+     */
+    private static void drain(CharBuffer chars, StringBuilder content, LineBreaks lineBreaks) {
+        chars.flip();
+        if(lineBreaks != null) {
+            lineBreaks.append(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining(), content);
+        } else {
+            content.append(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        }
+        chars.clear();
+    }
+
+    /**
+     * Turns the line breaks of decoded text into {@code \n} and counts the separators they were, to find the line
+     * separator of a file. A carriage return ending a block is held until the next block shows whether a line feed
+     * follows it, so text decoded in pieces, like the appended text of a followed file, is turned alike.
+     */
+    static final class LineBreaks {
+        /** The flag indicating whether the last char seen was a carriage return. */
+        private boolean afterCarriageReturn;
+        /** The number of line feeds not preceded by a carriage return. */
+        private long lineFeeds;
+        /** The number of carriage returns followed by a line feed. */
+        private long carriageReturnLineFeeds;
+        /** The number of carriage returns not followed by a line feed. */
+        private long carriageReturns;
+
+        /**
+         * Appends decoded chars to the content with their line breaks turned into {@code \n}.
+         * Runs of chars without carriage returns are appended at once.
+         *
+         * @param chars   The array holding the chars.
+         * @param offset  The offset of the first char in the array.
+         * @param length  The number of chars.
+         * @param content The content the chars are appended to.
+         */
+        void append(char[] chars, int offset, int length, StringBuilder content) {
+            int runStart = offset;
+            int end = offset + length;
+            for(int index = offset; index < end; index++) {
+                char character = chars[index];
+                if(character == '\r') {
+                    content.append(chars, runStart, index - runStart).append('\n');
+                    runStart = index + 1;
+                    this.carriageReturns++;
+                    this.afterCarriageReturn = true;
+                    continue;
+                }
+                if(character == '\n') {
+                    if(this.afterCarriageReturn) {
+                        // The line feed completes the line break already appended for the carriage return
+                        content.append(chars, runStart, index - runStart);
+                        runStart = index + 1;
+                        this.carriageReturns--;
+                        this.carriageReturnLineFeeds++;
+                    } else {
+                        this.lineFeeds++;
+                    }
+                }
+                this.afterCarriageReturn = false;
+            }
+            content.append(chars, runStart, end - runStart);
+        }
+
+        /**
+         * Gets the separator of most line breaks seen, preferring LF, then CRLF on ties.
+         *
+         * @return The separator, LF if there were no line breaks.
+         */
+        LineSeparator getSeparator() {
+            if(this.carriageReturnLineFeeds > this.lineFeeds && this.carriageReturnLineFeeds >= this.carriageReturns) {
+                return LineSeparator.CRLF;
+            } else if(this.carriageReturns > this.lineFeeds && this.carriageReturns > this.carriageReturnLineFeeds) {
+                return LineSeparator.CR;
+            }
+            return LineSeparator.LF;
+        }
+    }
+
+    /**
+     * The encoders and the buffers of a thread saving files, reused by all its saves.
+     * Saves run on the single I/O thread, so in practice there is one set.
+     */
+    private static final class SaveBuffers {
+        /** The buffers of each thread. */
+        private static final ThreadLocal<SaveBuffers> BUFFERS = ThreadLocal.withInitial(SaveBuffers::new);
+
+        /** The direct buffer the content is encoded into, written to the file without another copy. */
+        private final ByteBuffer bytes;
+        /** The buffer a block of content is copied into while its line breaks are translated. */
+        private final CharBuffer chars;
+        /** The encoders created so far, by charset. */
+        private final Map<Charset, CharsetEncoder> encoders;
+
+        /**
+         * Constructs the buffers of a thread.
+         */
+        private SaveBuffers() {
+            this.bytes = ByteBuffer.allocateDirect(BLOCK_SIZE);
+            this.chars = CharBuffer.allocate(2 * BLOCK_SIZE);
+            this.encoders = new HashMap<>();
+        }
+
+        /**
+         * Gets the buffers of the current thread.
+         *
+         * @return The buffers.
+         */
+        private static SaveBuffers get() {
+            return BUFFERS.get();
+        }
+
+        /**
+         * Gets the encoder of a charset, reset for a new content, creating it the first time.
+         *
+         * @param charset The charset.
+         * @return The encoder, replacing malformed and unmappable characters.
+         */
+        private CharsetEncoder encoderOf(Charset charset) {
+            return this.encoders.computeIfAbsent(charset, key -> key.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)).reset();
+        }
+    }
 }
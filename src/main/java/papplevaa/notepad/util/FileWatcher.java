@@ -0,0 +1,243 @@
+package papplevaa.notepad.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches files for changes made by other processes with a single {@link WatchService} on one background thread.
+ * The directories of the watched files are registered once each, however many files they hold, and the events of
+ * other files in them are dropped. Events are debounced: the changed files are collected until no event arrived
+ * for the debounce time, or for at most {@value #MAX_DEBOUNCE_FACTOR} times that while events keep coming, so a
+ * file written in many steps is reported once.
+ *
+ * <p>Files are watched and unwatched by any thread, counting how many times each one is watched.
+ * The listener is called on the watcher thread.
+ */
+public final class FileWatcher {
+    /** The longest time changes are held while events keep coming, as a multiple of the debounce time. */
+    private static final int MAX_DEBOUNCE_FACTOR = 10;
+
+    /** The time without events after which the changed files are reported, in nanoseconds. */
+    private final long debounceNanos;
+    /** The listener receiving the changed files, called on the watcher thread. */
+    private final Consumer<Set<File>> listener;
+    /** The number of times each watched file is watched, by its absolute path. */
+    private final Map<Path, Integer> watchedFiles;
+    /** The number of watched files in each registered directory. */
+    private final Map<Path, Integer> filesPerDirectory;
+    /** The keys of the registered directories. */
+    private final Map<Path, WatchKey> directoryKeys;
+    /** The watch service, or {@code null} if the watcher is not started. */
+    private WatchService service;
+
+    /**
+     * Constructs a new FileWatcher. Files can be watched right away; they are reported once it is started.
+     *
+     * @param debounceMillis The time without events after which the changed files are reported.
+     * @param listener       The listener receiving the changed files, called on the watcher thread.
+     */
+    public FileWatcher(long debounceMillis, Consumer<Set<File>> listener) {
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.listener = listener;
+        this.watchedFiles = new HashMap<>();
+        this.filesPerDirectory = new HashMap<>();
+        this.directoryKeys = new HashMap<>();
+    }
+
+    /**
+     * Starts the watch service, registers the directories of the files watched so far and starts the watcher thread.
+     *
+     * @throws IOException if the watch service can not be created.
+     */
+    public synchronized void start() throws IOException {
+        if(this.service != null) {
+            return;
+        }
+        this.service = FileSystems.getDefault().newWatchService();
+        for(Path directory : this.filesPerDirectory.keySet()) {
+            this.register(directory);
+        }
+        Thread thread = new Thread(this::run, "notepad-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the watcher thread and closes the watch service. Changes not reported yet are dropped.
+     */
+    public synchronized void close() {
+        if(this.service == null) {
+            return;
+        }
+        try {
+            this.service.close();
+        } catch(IOException exception) {
+            Log.warn("Failed to close the file watcher: ", exception.getMessage());
+        }
+        this.service = null;
+        this.directoryKeys.clear();
+    }
+
+    /**
+     * Watches a file, registering its directory if none of its files was watched yet.
+     *
+     * @param file The file to watch.
+     */
+    public synchronized void watch(File file) {
+        Path path = pathOf(file);
+        Path directory = path.getParent();
+        if(directory == null || this.watchedFiles.merge(path, 1, Integer::sum) > 1) {
+            return;
+        }
+        if(this.filesPerDirectory.merge(directory, 1, Integer::sum) == 1 && this.service != null) {
+            this.register(directory);
+        }
+    }
+
+    /**
+     * Stops watching a file once it is unwatched as many times as it was watched, and its directory once none of its
+     * files is watched anymore.
+     *
+     * @param file The file to stop watching.
+     */
+    public synchronized void unwatch(File file) {
+        Path path = pathOf(file);
+        Integer count = this.watchedFiles.get(path);
+        if(count == null) {
+            return;
+        }
+        if(count > 1) {
+            this.watchedFiles.put(path, count - 1);
+            return;
+        }
+        this.watchedFiles.remove(path);
+        Path directory = path.getParent();
+        int files = this.filesPerDirectory.merge(directory, -1, Integer::sum);
+        if(files == 0) {
+            this.filesPerDirectory.remove(directory);
+            WatchKey key = this.directoryKeys.remove(directory);
+            if(key != null) {
+                key.cancel();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of directories registered with the watch service.
+     *
+     * @return The number of registered directories.
+     */
+    public synchronized int getNumberOfDirectories() {
+        return this.directoryKeys.size();
+    }
+
+    /**
+     * Gets the absolute, normalized path of a file, as the files are watched and reported.
+     *
+     * @param file The file.
+     * @return The path of the file.
+     */
+    private static Path pathOf(File file) {
+        return file.getAbsoluteFile().toPath().normalize();
+    }
+
+    /**
+     * Registers a directory with the watch service. A directory that can not be registered is left unwatched.
+     *
+     * @param directory The directory.
+     */
+    private void register(Path directory) {
+        try {
+            WatchKey key = directory.register(this.service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            this.directoryKeys.put(directory, key);
+        } catch(IOException | ClosedWatchServiceException exception) {
+            Log.warn("Failed to watch ", directory.toString());
+        }
+    }
+
+    /**
+     * Takes the events of the watch service until it is closed, and reports the changed files once they are debounced.
+     */
+    private void run() {
+        WatchService watchService;
+        synchronized(this) {
+            watchService = this.service;
+        }
+        Set<File> changed = new LinkedHashSet<>();
+        long firstEventNanos = 0;
+        long lastEventNanos = 0;
+        try {
+            while(true) {
+                WatchKey key;
+                if(changed.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long deadline = Math.min(lastEventNanos + this.debounceNanos, firstEventNanos + MAX_DEBOUNCE_FACTOR * this.debounceNanos);
+                    long wait = deadline - System.nanoTime();
+                    if(wait <= 0) {
+                        this.listener.accept(changed);
+                        changed = new LinkedHashSet<>();
+                        continue;
+                    }
+                    key = watchService.poll(wait, TimeUnit.NANOSECONDS);
+                }
+                if(key == null) {
+                    continue;
+                }
+                boolean wasEmpty = changed.isEmpty();
+                if(this.collect(key, changed)) {
+                    lastEventNanos = System.nanoTime();
+                    if(wasEmpty) {
+                        firstEventNanos = lastEventNanos;
+                    }
+                }
+                key.reset();
+            }
+        } catch(InterruptedException | ClosedWatchServiceException exception) {
+            // The watcher is closed
+        }
+    }
+
+    /**
+     * Collects the watched files changed by the events of a key. An overflow marks all watched files of its directory.
+     *
+     * @param key     The key of a directory, signalled by the watch service.
+     * @param changed The changed files collected so far.
+     * @return True if a watched file changed, false if the events were all about other files.
+     */
+    private synchronized boolean collect(WatchKey key, Set<File> changed) {
+        boolean watchedFileChanged = false;
+        Path directory = (Path) key.watchable();
+        for(WatchEvent<?> event : key.pollEvents()) {
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                for(Path path : this.watchedFiles.keySet()) {
+                    if(directory.equals(path.getParent())) {
+                        changed.add(path.toFile());
+                        watchedFileChanged = true;
+                    }
+                }
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if(this.watchedFiles.containsKey(path)) {
+                changed.add(path.toFile());
+                watchedFileChanged = true;
+            }
+        }
+        return watchedFileChanged;
+    }
+}
@@ -0,0 +1,157 @@
+package papplevaa.notepad.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in nanoseconds with buckets of bounded relative size, in the style of HdrHistogram.
+ * Each power of two is split into {@value #SUB_BUCKETS} buckets, so a value is reported within 1/{@value #SUB_BUCKETS}
+ * of itself, and the whole range of a long fits in a few thousand counts. Recording increments one count, without
+ * allocating or locking, so it can be done on the hot path from any thread.
+ */
+public final class LatencyHistogram implements LatencyHistogramMXBean {
+    /** The number of bits of a value kept exactly. */
+    private static final int PRECISION_BITS = 7;
+    /** The number of buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << (PRECISION_BITS - 1);
+    /** The number of values below which every value has a bucket of its own. */
+    private static final int EXACT_VALUES = 1 << PRECISION_BITS;
+    /** The number of nanoseconds in a microsecond. */
+    private static final long NANOS_PER_MICRO = 1000;
+
+    /** The counts of the buckets. */
+    private final AtomicLongArray counts;
+    /** The sum of the recorded values. */
+    private final LongAdder sum;
+    /** The largest recorded value. */
+    private final AtomicLong max;
+
+    /**
+     * Constructs a new, empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(bucketOf(Long.MAX_VALUE) + 1);
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds; negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        this.counts.incrementAndGet(bucketOf(value));
+        this.sum.add(value);
+        this.max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Records the time elapsed since a start time.
+     *
+     * @param startNanos The start time, as returned by {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        this.record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for(int bucket = 0; bucket < this.counts.length(); bucket++) {
+            count += this.counts.get(bucket);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the value below or at which a percentage of the recorded values lie.
+     *
+     * @param percentile The percentage, from 0 to 100.
+     * @return The highest value of the bucket holding the percentile in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = this.getCount();
+        if(count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for(int bucket = 0; bucket < this.counts.length(); bucket++) {
+            seen += this.counts.get(bucket);
+            if(seen >= rank) {
+                return Math.min(highestValueOf(bucket), this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long count = this.getCount();
+        return (count == 0) ? 0 : (double) this.sum.sum() / count / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getP50Micros() {
+        return this.getValueAtPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getP90Micros() {
+        return this.getValueAtPercentile(90) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getP99Micros() {
+        return this.getValueAtPercentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getP999Micros() {
+        return this.getValueAtPercentile(99.9) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return this.max.get() / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Summarizes the histogram in one line.
+     *
+     * @return The count, mean, percentiles and maximum in microseconds.
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fus p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus",
+                this.getCount(), this.getMeanMicros(), this.getP50Micros(), this.getP90Micros(),
+                this.getP99Micros(), this.getP999Micros(), this.getMaxMicros());
+    }
+
+    /**
+     * Gets the bucket of a value. Values below {@value #EXACT_VALUES} have a bucket each; above, the bucket is chosen
+     * by the position of the highest set bit and the {@value #PRECISION_BITS} bits from it.
+     *
+     * @param value The value, at least 0.
+     * @return The index of the bucket.
+     */
+    private static int bucketOf(long value) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - PRECISION_BITS);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Gets the highest value falling in a bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The highest value of the bucket.
+     */
+    private static long highestValueOf(int bucket) {
+        int shift = (bucket < EXACT_VALUES) ? 0 : bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (bucket - shift * SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
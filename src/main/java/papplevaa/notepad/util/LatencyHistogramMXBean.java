@@ -0,0 +1,55 @@
+package papplevaa.notepad.util;
+
+/**
+ * The management interface of a latency histogram, exposing its count and percentiles over JMX.
+ */
+public interface LatencyHistogramMXBean {
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return The number of latencies.
+     */
+    long getCount();
+
+    /**
+     * Gets the mean of the recorded latencies.
+     *
+     * @return The mean in microseconds.
+     */
+    double getMeanMicros();
+
+    /**
+     * Gets the median of the recorded latencies.
+     *
+     * @return The median in microseconds.
+     */
+    long getP50Micros();
+
+    /**
+     * Gets the 90th percentile of the recorded latencies.
+     *
+     * @return The percentile in microseconds.
+     */
+    long getP90Micros();
+
+    /**
+     * Gets the 99th percentile of the recorded latencies.
+     *
+     * @return The percentile in microseconds.
+     */
+    long getP99Micros();
+
+    /**
+     * Gets the 99.9th percentile of the recorded latencies.
+     *
+     * @return The percentile in microseconds.
+     */
+    long getP999Micros();
+
+    /**
+     * Gets the largest recorded latency.
+     *
+     * @return The largest latency in microseconds.
+     */
+    long getMaxMicros();
+}
@@ -0,0 +1,225 @@
+package papplevaa.notepad.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Utility class comparing two texts line by line and describing their differences in the unified diff format.
+ * The lines the texts start and end with in common are skipped first, so the usual change of a few lines in a long
+ * file only compares those lines. The rest is compared with Myers' O((N+M)D) algorithm, which keeps the furthest
+ * reaching paths of each edit distance D; above {@value #MAX_EDIT_DISTANCE} edits the differing lines are shown
+ * as removed and added as a whole instead.
+ */
+public final class LineDiff {
+    /** The largest number of removed and added lines compared line by line, bounding the memory of the comparison. */
+    private static final int MAX_EDIT_DISTANCE = 1000;
+    /** The marker of a line both texts have. */
+    private static final char EQUAL = ' ';
+    /** The marker of a line only the old text has. */
+    private static final char REMOVED = '-';
+    /** The marker of a line only the new text has. */
+    private static final char ADDED = '+';
+
+    private LineDiff() {
+        // Private constructor to prevent instantiation; utility class with static methods.
+    }
+
+    /**
+     * Describes the differences between two texts in the unified diff format.
+     *
+     * @param oldName The name of the old text, shown in the header.
+     * @param oldText The old text, with {@code \n} line breaks.
+     * @param newName The name of the new text, shown in the header.
+     * @param newText The new text, with {@code \n} line breaks.
+     * @param context The number of unchanged lines shown around the changed ones.
+     * @return The differences, or an empty string if the texts are equal.
+     */
+    public static String unified(String oldName, String oldText, String newName, String newText, int context) {
+        if(oldText.equals(newText)) {
+            return "";
+        }
+        String[] oldLines = oldText.split("\n", -1);
+        String[] newLines = newText.split("\n", -1);
+        int prefix = 0;
+        while(prefix < oldLines.length && prefix < newLines.length && oldLines[prefix].equals(newLines[prefix])) {
+            prefix++;
+        }
+        int suffix = 0;
+        while(suffix < oldLines.length - prefix && suffix < newLines.length - prefix
+                && oldLines[oldLines.length - 1 - suffix].equals(newLines[newLines.length - 1 - suffix])) {
+            suffix++;
+        }
+        // The script starts and ends with the unchanged lines shown as context
+        int oldStart = Math.max(0, prefix - context);
+        int oldEnd = Math.min(oldLines.length, oldLines.length - suffix + context);
+        int newStart = oldStart;
+        StringBuilder script = new StringBuilder();
+        for(int index = oldStart; index < prefix; index++) {
+            script.append(EQUAL);
+        }
+        script.append(compare(oldLines, prefix, oldLines.length - suffix, newLines, prefix, newLines.length - suffix));
+        for(int index = oldLines.length - suffix; index < oldEnd; index++) {
+            script.append(EQUAL);
+        }
+
+        StringBuilder diff = new StringBuilder();
+        diff.append("--- ").append(oldName).append('\n');
+        diff.append("+++ ").append(newName).append('\n');
+        appendHunks(diff, script, oldLines, oldStart, newLines, newStart, context);
+        return diff.toString();
+    }
+
+    /**
+     * Compares two ranges of lines with Myers' algorithm, falling back to replacing the whole range
+     * if they differ in more than {@value #MAX_EDIT_DISTANCE} lines.
+     *
+     * @param oldLines The lines of the old text.
+     * @param oldStart The start of the range of the old lines.
+     * @param oldEnd   The end of the range of the old lines.
+     * @param newLines The lines of the new text.
+     * @param newStart The start of the range of the new lines.
+     * @param newEnd   The end of the range of the new lines.
+     * @return The edit script, one marker per line: equal, removed or added.
+     */
+    private static String compare(String[] oldLines, int oldStart, int oldEnd, String[] newLines, int newStart, int newEnd) {
+        int n = oldEnd - oldStart;
+        int m = newEnd - newStart;
+        int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+        // The furthest x reached on each diagonal k = x - y, offset by max; one snapshot per edit distance
+        int[] furthest = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+        for(int distance = 0; distance <= max; distance++) {
+            for(int k = -distance; k <= distance; k += 2) {
+                int x;
+                if(k == -distance || (k != distance && furthest[max + k - 1] < furthest[max + k + 1])) {
+                    x = furthest[max + k + 1];
+                } else {
+                    x = furthest[max + k - 1] + 1;
+                }
+                int y = x - k;
+                while(x < n && y < m && oldLines[oldStart + x].equals(newLines[newStart + y])) {
+                    x++;
+                    y++;
+                }
+                furthest[max + k] = x;
+                if(x >= n && y >= m) {
+                    trace.add(Arrays.copyOfRange(furthest, max - distance, max + distance + 1));
+                    return backtrack(trace, n, m);
+                }
+            }
+            trace.add(Arrays.copyOfRange(furthest, max - distance, max + distance + 1));
+        }
+        StringBuilder script = new StringBuilder(n + m);
+        for(int index = 0; index < n; index++) {
+            script.append(REMOVED);
+        }
+        for(int index = 0; index < m; index++) {
+            script.append(ADDED);
+        }
+        return script.toString();
+    }
+
+    /**
+     * Follows the furthest reaching paths back from the end of both ranges to build the edit script.
+     *
+     * @param trace The furthest x on each diagonal after each edit distance, diagonal -d first.
+     * @param n     The number of old lines.
+     * @param m     The number of new lines.
+     * @return The edit script, one marker per line: equal, removed or added.
+     */
+    private static String backtrack(List<int[]> trace, int n, int m) {
+        StringBuilder reversed = new StringBuilder(n + m);
+        int x = n;
+        int y = m;
+        for(int distance = trace.size() - 1; distance > 0; distance--) {
+            int[] previous = trace.get(distance - 1);
+            int k = x - y;
+            int previousK;
+            if(k == -distance || (k != distance && previous[k - 1 + distance - 1] < previous[k + 1 + distance - 1])) {
+                previousK = k + 1;
+            } else {
+                previousK = k - 1;
+            }
+            int previousX = previous[previousK + distance - 1];
+            int previousY = previousX - previousK;
+            while(x > previousX && y > previousY) {
+                reversed.append(EQUAL);
+                x--;
+                y--;
+            }
+            reversed.append((previousK == k + 1) ? ADDED : REMOVED);
+            x = previousX;
+            y = previousY;
+        }
+        while(x > 0 && y > 0) {
+            reversed.append(EQUAL);
+            x--;
+            y--;
+        }
+        return reversed.reverse().toString();
+    }
+
+    /**
+     * Appends the hunks of an edit script: the changed lines with the unchanged lines around them,
+     * merging changes closer than twice the context.
+     *
+     * @param diff     The diff to append to.
+     * @param script   The edit script, one marker per line.
+     * @param oldLines The lines of the old text.
+     * @param oldStart The old line the script starts at.
+     * @param newLines The lines of the new text.
+     * @param newStart The new line the script starts at.
+     * @param context  The number of unchanged lines shown around the changed ones.
+     */
+    private static void appendHunks(StringBuilder diff, CharSequence script, String[] oldLines, int oldStart,
+                                    String[] newLines, int newStart, int context) {
+        int length = script.length();
+        int position = 0;
+        int oldLine = oldStart;
+        int newLine = newStart;
+        while(position < length) {
+            // Skip to the next change, keeping the context before it
+            int change = position;
+            while(change < length && script.charAt(change) == EQUAL) {
+                change++;
+            }
+            if(change == length) {
+                return;
+            }
+            int skipped = Math.max(0, change - context - position);
+            position += skipped;
+            oldLine += skipped;
+            newLine += skipped;
+            // Extend the hunk until the unchanged lines after a change exceed twice the context
+            int end = change;
+            int equalRun = 0;
+            while(end < length && equalRun <= 2 * context) {
+                equalRun = (script.charAt(end) == EQUAL) ? equalRun + 1 : 0;
+                end++;
+            }
+            end -= Math.max(0, equalRun - context);
+            int oldCount = 0;
+            int newCount = 0;
+            for(int index = position; index < end; index++) {
+                char marker = script.charAt(index);
+                oldCount += (marker != ADDED) ? 1 : 0;
+                newCount += (marker != REMOVED) ? 1 : 0;
+            }
+            diff.append("@@ -").append(oldLine + ((oldCount == 0) ? 0 : 1)).append(',').append(oldCount)
+                    .append(" +").append(newLine + ((newCount == 0) ? 0 : 1)).append(',').append(newCount).append(" @@\n");
+            for(int index = position; index < end; index++) {
+                char marker = script.charAt(index);
+                if(marker == ADDED) {
+                    diff.append(ADDED).append(newLines[newLine++]).append('\n');
+                } else if(marker == REMOVED) {
+                    diff.append(REMOVED).append(oldLines[oldLine++]).append('\n');
+                } else {
+                    diff.append(EQUAL).append(oldLines[oldLine++]).append('\n');
+                    newLine++;
+                }
+            }
+            position = end;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package papplevaa.notepad.util;
+
+/**
+ * The line separators of text files. Text is edited with {@code \n} line breaks only, so a file is read with its
+ * line breaks turned into {@code \n} and written with {@code \n} turned back into the separator of the file.
+ */
+public enum LineSeparator {
+    /** The separator of Unix and macOS: a line feed. */
+    LF("\n"),
+    /** The separator of Windows: a carriage return followed by a line feed. */
+    CRLF("\r\n"),
+    /** The separator of classic Mac OS: a carriage return. */
+    CR("\r");
+
+    /** The characters of the separator. */
+    private final String separator;
+
+    /**
+     * Constructs a LineSeparator.
+     *
+     * @param separator The characters of the separator.
+     */
+    LineSeparator(String separator) {
+        this.separator = separator;
+    }
+
+    /**
+     * Gets the characters of the separator written to files.
+     *
+     * @return The characters of the separator.
+     */
+    public String getSeparator() {
+        return this.separator;
+    }
+
+    /**
+     * Turns the line breaks of a text, of any separator, into {@code \n}.
+     *
+     * @param text The text.
+     * @return The text with {@code \n} line breaks only, the same text if it has no carriage return.
+     */
+    public static String normalize(String text) {
+        if(text.indexOf('\r') < 0) {
+            return text;
+        }
+        return text.replace("\r\n", "\n").replace('\r', '\n');
+    }
+}
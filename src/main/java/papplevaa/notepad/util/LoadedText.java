@@ -0,0 +1,83 @@
+package papplevaa.notepad.util;
+
+/**
+ * The content of a text file read by {@link FileUtil#loadText(java.io.File, ProgressListener)},
+ * together with the encoding and the line separator detected while reading it, the time it was last modified
+ * and the number of bytes read.
+ */
+public final class LoadedText {
+    /** The decoded content of the file, without its byte order mark and with {@code \n} line breaks. */
+    private final String content;
+    /** The encoding of the file. */
+    private final TextEncoding encoding;
+    /** The line separator of the file. */
+    private final LineSeparator lineSeparator;
+    /** The time the file was last modified before it was read, in milliseconds since the epoch. */
+    private final long lastModified;
+    /** The number of bytes read from the file. */
+    private final long length;
+
+    /**
+     * Constructs a new LoadedText.
+     *
+     * @param content       The decoded content of the file.
+     * @param encoding      The encoding of the file.
+     * @param lineSeparator The line separator of the file.
+     * @param lastModified  The time the file was last modified before it was read.
+     * @param length        The number of bytes read from the file.
+     */
+    public LoadedText(String content, TextEncoding encoding, LineSeparator lineSeparator, long lastModified, long length) {
+        this.content = content;
+        this.encoding = encoding;
+        this.lineSeparator = lineSeparator;
+        this.lastModified = lastModified;
+        this.length = length;
+    }
+
+    /**
+     * Gets the decoded content of the file, without its byte order mark and with {@code \n} line breaks.
+     *
+     * @return The content.
+     */
+    public String getContent() {
+        return this.content;
+    }
+
+    /**
+     * Gets the encoding of the file.
+     *
+     * @return The encoding.
+     */
+    public TextEncoding getEncoding() {
+        return this.encoding;
+    }
+
+    /**
+     * Gets the line separator of the file, used by most of its line breaks.
+     *
+     * @return The line separator.
+     */
+    public LineSeparator getLineSeparator() {
+        return this.lineSeparator;
+    }
+
+    /**
+     * Gets the time the file was last modified before it was read. A later change of the file is a change of
+     * another process, unless the file was saved since.
+     *
+     * @return The time in milliseconds since the epoch, or 0 if it is unknown.
+     */
+    public long getLastModified() {
+        return this.lastModified;
+    }
+
+    /**
+     * Gets the number of bytes read from the file, including its byte order mark: the position of the first byte
+     * appended to the file since.
+     *
+     * @return The number of bytes.
+     */
+    public long getLength() {
+        return this.length;
+    }
+}
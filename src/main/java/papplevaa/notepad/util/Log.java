@@ -0,0 +1,164 @@
+package papplevaa.notepad.util;
+
+import java.util.Locale;
+
+/**
+ * Utility class logging messages of the application to the standard output, filtered by level.
+ * The level is read from {@link Settings#getLogLevel()} on startup. Messages below the level are dropped before any
+ * text is built: the overloads taking a message and a detail only concatenate them when the message is logged, so
+ * a disabled call on the hot path allocates nothing.
+ */
+public final class Log {
+    /**
+     * The levels of the messages, from the most to the least severe.
+     */
+    public enum Level {
+        /** Failures losing data or work. */
+        ERROR,
+        /** Failures the application recovers from. */
+        WARN,
+        /** Milestones and completed operations. */
+        INFO,
+        /** User actions and internal details. */
+        DEBUG
+    }
+
+    /** The least severe level of the messages logged. */
+    private static volatile Level level = parseLevel(Settings.getLogLevel());
+
+    private Log() {
+        // Private constructor to prevent instantiation; utility class with static methods.
+    }
+
+    /**
+     * Gets the least severe level of the messages logged.
+     *
+     * @return The level.
+     */
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Sets the least severe level of the messages logged.
+     *
+     * @param newLevel The level.
+     */
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * Checks whether messages of a level are logged, to guard messages that are expensive to build.
+     *
+     * @param messageLevel The level of the message.
+     * @return {@code true} if the message would be logged, {@code false} otherwise.
+     */
+    public static boolean isEnabled(Level messageLevel) {
+        return messageLevel.compareTo(level) <= 0;
+    }
+
+    /**
+     * Logs an error.
+     *
+     * @param message The message.
+     */
+    public static void error(String message) {
+        log(Level.ERROR, message, null);
+    }
+
+    /**
+     * Logs an error made of a message and a detail appended to it.
+     *
+     * @param message The message.
+     * @param detail  The detail.
+     */
+    public static void error(String message, String detail) {
+        log(Level.ERROR, message, detail);
+    }
+
+    /**
+     * Logs a warning.
+     *
+     * @param message The message.
+     */
+    public static void warn(String message) {
+        log(Level.WARN, message, null);
+    }
+
+    /**
+     * Logs a warning made of a message and a detail appended to it.
+     *
+     * @param message The message.
+     * @param detail  The detail.
+     */
+    public static void warn(String message, String detail) {
+        log(Level.WARN, message, detail);
+    }
+
+    /**
+     * Logs an informational message.
+     *
+     * @param message The message.
+     */
+    public static void info(String message) {
+        log(Level.INFO, message, null);
+    }
+
+    /**
+     * Logs an informational message made of a message and a detail appended to it.
+     *
+     * @param message The message.
+     * @param detail  The detail.
+     */
+    public static void info(String message, String detail) {
+        log(Level.INFO, message, detail);
+    }
+
+    /**
+     * Logs a debug message.
+     *
+     * @param message The message.
+     */
+    public static void debug(String message) {
+        log(Level.DEBUG, message, null);
+    }
+
+    /**
+     * Logs a debug message made of a message and a detail appended to it.
+     *
+     * @param message The message.
+     * @param detail  The detail.
+     */
+    public static void debug(String message, String detail) {
+        log(Level.DEBUG, message, detail);
+    }
+
+    /**
+     * Logs a message if its level is enabled.
+     *
+     * @param messageLevel The level of the message.
+     * @param message      The message.
+     * @param detail       The detail appended to the message, or {@code null} if none.
+     */
+    private static void log(Level messageLevel, String message, String detail) {
+        if(!isEnabled(messageLevel)) {
+            return;
+        }
+        System.out.println((detail == null) ? message : message + detail);
+    }
+
+    /**
+     * Parses the name of a level, falling back to {@link Level#INFO} if it is unknown.
+     *
+     * @param name The name of the level, in any case.
+     * @return The level.
+     */
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch(IllegalArgumentException exception) {
+            return Level.INFO;
+        }
+    }
+}
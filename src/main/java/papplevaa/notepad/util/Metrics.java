@@ -0,0 +1,220 @@
+package papplevaa.notepad.util;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The registry of the metrics of the application: counters, latency histograms and gauges, by name.
+ * Counters and histograms are looked up once and kept by their users, so updating them on the hot path costs no
+ * lookup and no allocation. Once started, the metrics are exposed over JMX, the registry as
+ * {@code papplevaa.notepad:type=Metrics} and each histogram as {@code papplevaa.notepad:type=Histogram,name=...},
+ * and dumped periodically to a text file.
+ */
+public final class Metrics implements MetricsMXBean {
+    /** The domain of the names of the managed beans. */
+    private static final String DOMAIN = "papplevaa.notepad";
+    /** The registry. */
+    private static final Metrics INSTANCE = new Metrics();
+
+    /** The counters by name. */
+    private final Map<String, LongAdder> counters;
+    /** The histograms by name. */
+    private final Map<String, LatencyHistogram> histograms;
+    /** The gauges by name. */
+    private final Map<String, Long> gauges;
+    /** The server the beans are registered with, or {@code null} if the metrics are not exposed. */
+    private MBeanServer server;
+    /** The executor dumping the metrics periodically, or {@code null} if they are not dumped. */
+    private ScheduledExecutorService dumper;
+
+    /**
+     * Constructs the registry.
+     */
+    private Metrics() {
+        this.counters = new ConcurrentSkipListMap<>();
+        this.histograms = new ConcurrentSkipListMap<>();
+        this.gauges = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Gets the counter of a name, creating it the first time.
+     *
+     * @param name The name of the counter.
+     * @return The counter.
+     */
+    public static LongAdder counter(String name) {
+        return INSTANCE.counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Gets the latency histogram of a name, creating it the first time. Histograms created after the metrics were
+     * started are exposed right away.
+     *
+     * @param name The name of the histogram.
+     * @return The histogram.
+     */
+    public static synchronized LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = INSTANCE.histograms.get(name);
+        if(histogram == null) {
+            histogram = new LatencyHistogram();
+            INSTANCE.histograms.put(name, histogram);
+            if(INSTANCE.server != null) {
+                register(histogramName(name), histogram);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Replaces all gauges whose names start with a prefix, used for gauges of things that come and go, like tabs.
+     *
+     * @param prefix The prefix of the names of the replaced gauges.
+     * @param values The new gauges by name, each starting with the prefix.
+     */
+    public static void setGauges(String prefix, Map<String, Long> values) {
+        INSTANCE.gauges.keySet().removeIf(name -> name.startsWith(prefix) && !values.containsKey(name));
+        INSTANCE.gauges.putAll(values);
+    }
+
+    /**
+     * Exposes the metrics over JMX and starts dumping them to a file periodically.
+     * Calling it again while started has no effect.
+     *
+     * @param dumpPath       The file the metrics are dumped to.
+     * @param intervalMillis The interval of the dumps in milliseconds, or 0 to not dump them periodically.
+     */
+    public static synchronized void start(File dumpPath, long intervalMillis) {
+        if(INSTANCE.server == null) {
+            INSTANCE.server = ManagementFactory.getPlatformMBeanServer();
+            register(DOMAIN + ":type=Metrics", INSTANCE);
+            for(Map.Entry<String, LatencyHistogram> entry : INSTANCE.histograms.entrySet()) {
+                register(histogramName(entry.getKey()), entry.getValue());
+            }
+        }
+        if(INSTANCE.dumper == null && intervalMillis > 0) {
+            INSTANCE.dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "notepad-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            INSTANCE.dumper.scheduleAtFixedRate(() -> dump(dumpPath), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops dumping the metrics periodically and dumps them one last time. They stay exposed over JMX.
+     *
+     * @param dumpPath The file the metrics are dumped to.
+     */
+    public static synchronized void stop(File dumpPath) {
+        if(INSTANCE.dumper != null) {
+            INSTANCE.dumper.shutdownNow();
+            INSTANCE.dumper = null;
+        }
+        dump(dumpPath);
+    }
+
+    /**
+     * Writes the metrics to a file, replacing it at once.
+     *
+     * @param dumpPath The file to write to.
+     */
+    public static void dump(File dumpPath) {
+        File temporary = new File(dumpPath.getPath() + ".tmp");
+        try {
+            Files.write(temporary.toPath(), format().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temporary.toPath(), dumpPath.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch(AtomicMoveNotSupportedException exception) {
+                Files.move(temporary.toPath(), dumpPath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch(IOException exception) {
+            Log.warn("Failed to dump metrics: ", exception.getMessage());
+        }
+    }
+
+    /**
+     * Formats all metrics as text, one metric per line, sorted by kind and name.
+     *
+     * @return The formatted metrics.
+     */
+    public static String format() {
+        StringWriter text = new StringWriter();
+        PrintWriter writer = new PrintWriter(text);
+        writer.println("# Notepad metrics at " + Instant.now());
+        for(Map.Entry<String, Long> entry : INSTANCE.getCounters().entrySet()) {
+            writer.println("counter " + entry.getKey() + " " + entry.getValue());
+        }
+        for(Map.Entry<String, Long> entry : INSTANCE.getGauges().entrySet()) {
+            writer.println("gauge " + entry.getKey() + " " + entry.getValue());
+        }
+        for(Map.Entry<String, LatencyHistogram> entry : INSTANCE.histograms.entrySet()) {
+            writer.println("histogram " + entry.getKey() + " " + entry.getValue());
+        }
+        writer.flush();
+        return text.toString();
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        for(Map.Entry<String, LongAdder> entry : this.counters.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().sum());
+        }
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        return new TreeMap<>(this.gauges);
+    }
+
+    /**
+     * Gets the name of the bean of a histogram.
+     *
+     * @param name The name of the histogram.
+     * @return The name of its bean.
+     */
+    private static String histogramName(String name) {
+        return DOMAIN + ":type=Histogram,name=" + ObjectName.quote(name);
+    }
+
+    /**
+     * Registers a bean with the server, replacing a bean left registered under the same name.
+     *
+     * @param name The name of the bean.
+     * @param bean The bean.
+     */
+    private static void register(String name, Object bean) {
+        try {
+            ObjectName objectName = new ObjectName(name);
+            try {
+                INSTANCE.server.registerMBean(bean, objectName);
+            } catch(InstanceAlreadyExistsException exception) {
+                INSTANCE.server.unregisterMBean(objectName);
+                INSTANCE.server.registerMBean(bean, objectName);
+            }
+        } catch(JMException exception) {
+            Log.warn("Failed to expose metrics: ", exception.getMessage());
+        }
+    }
+}
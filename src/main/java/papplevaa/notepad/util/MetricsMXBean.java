@@ -0,0 +1,23 @@
+package papplevaa.notepad.util;
+
+import java.util.Map;
+
+/**
+ * The management interface of the metrics registry, exposing its counters and gauges over JMX.
+ * The histograms are exposed as {@link LatencyHistogramMXBean}s of their own.
+ */
+public interface MetricsMXBean {
+    /**
+     * Gets the current values of the counters.
+     *
+     * @return The values by counter name.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Gets the current values of the gauges.
+     *
+     * @return The values by gauge name.
+     */
+    Map<String, Long> getGauges();
+}
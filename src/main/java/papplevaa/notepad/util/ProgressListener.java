@@ -0,0 +1,34 @@
+package papplevaa.notepad.util;
+
+/**
+ * Listener interface for receiving progress notifications from long-running file operations.
+ * Implementations may be invoked from any thread and should be cheap, as they are called once per processed block.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+    /** A listener that ignores every notification. */
+    ProgressListener NONE = (processed, total) -> { };
+
+    /**
+     * Signals that another block of the operation has been processed.
+     *
+     * @param processed The number of bytes, or characters when writing, processed so far.
+     * @param total     The total number of bytes, or characters when writing, to process.
+     */
+    void progressed(long processed, long total);
+
+    /**
+     * Signals that the operation has ended, either successfully or with a failure.
+     */
+    default void finished() {
+    }
+
+    /**
+     * Checks if the user asked to cancel the operation. Operations made of several steps check it between steps.
+     *
+     * @return True if the operation should stop, false otherwise.
+     */
+    default boolean isCanceled() {
+        return false;
+    }
+}
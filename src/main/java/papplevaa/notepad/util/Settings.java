@@ -0,0 +1,216 @@
+package papplevaa.notepad.util;
+
+/**
+ * Utility class providing the tunable settings of the Notepad application.
+ * Each setting can be overridden with a system property, e.g. {@code -Dnotepad.largeFileThreshold=1048576}.
+ */
+public final class Settings {
+    /** The default size in bytes above which files are opened in the read-only large file viewer. */
+    private static final long DEFAULT_LARGE_FILE_THRESHOLD = 64L << 20;
+    /** The default number of threads loading the files of restored tabs. */
+    private static final int DEFAULT_RESTORE_THREADS = 8;
+    /** The default time after which hidden tabs without unsaved changes release their text areas, 0 to never. */
+    private static final long DEFAULT_IDLE_TAB_RELEASE_MILLIS = 0;
+    /** The default interval at which the edits recorded in the journal are written to it. */
+    private static final long DEFAULT_JOURNAL_FLUSH_MILLIS = 250;
+    /** The default interval at which the journal is forced to the storage device, 0 to force it on every write. */
+    private static final long DEFAULT_JOURNAL_SYNC_MILLIS = 1000;
+    /** The default size of the journal above which it is compacted into the session. */
+    private static final long DEFAULT_JOURNAL_COMPACT_BYTES = 4L << 20;
+    /** The default length of the content of a modified tab stored whole in the session at most. */
+    private static final int DEFAULT_SESSION_FALLBACK_MAX_CHARS = 1 << 20;
+    /** The default memory budget of the undo history of a tab. */
+    private static final long DEFAULT_UNDO_MEMORY_BYTES = 256L << 10;
+    /** The default longest pause between keystrokes merged into one undo step. */
+    private static final long DEFAULT_UNDO_GROUP_MILLIS = 1000;
+    /** The default size limit of the undo history of a tab stored for the next session. */
+    private static final long DEFAULT_UNDO_PERSIST_BYTES = 128L << 10;
+    /** The default level of the messages logged. */
+    private static final String DEFAULT_LOG_LEVEL = "INFO";
+    /** The default interval at which the metrics are dumped to their file, 0 to dump them only on exit. */
+    private static final long DEFAULT_METRICS_DUMP_MILLIS = 60_000;
+    /** The default time without changes after which the changes of the files of the tabs are handled. */
+    private static final long DEFAULT_WATCH_DEBOUNCE_MILLIS = 300;
+    /** The default interval at which followed files are checked for appended text. */
+    private static final long DEFAULT_FOLLOW_POLL_MILLIS = 100;
+    /** The default number of lines a followed file keeps in memory. */
+    private static final int DEFAULT_FOLLOW_MAX_LINES = 100_000;
+    /** The default number of threads loading the files opened together. */
+    private static final int DEFAULT_OPEN_THREADS = 8;
+    /** The default number of files of a folder opened at most at once. */
+    private static final int DEFAULT_OPEN_MAX_FILES = 500;
+    /** The default flag indicating whether later launches forward their files to the running instance. */
+    private static final boolean DEFAULT_SINGLE_INSTANCE = true;
+
+    private Settings() {
+        // Private constructor to prevent instantiation; utility class with static methods.
+    }
+
+    /**
+     * Gets the size above which files are memory-mapped and opened in the read-only large file viewer.
+     *
+     * @return The threshold in bytes.
+     */
+    public static long getLargeFileThreshold() {
+        return Long.getLong("notepad.largeFileThreshold", DEFAULT_LARGE_FILE_THRESHOLD);
+    }
+
+    /**
+     * Gets the number of threads loading the files of restored tabs concurrently on startup.
+     *
+     * @return The number of threads, at least 1.
+     */
+    public static int getRestoreThreads() {
+        return Math.max(1, Integer.getInteger("notepad.restoreThreads", DEFAULT_RESTORE_THREADS));
+    }
+
+    /**
+     * Gets the time after which a hidden tab without unsaved changes releases its text area, together with its undo history.
+     *
+     * @return The time in milliseconds, or 0 if text areas are never released.
+     */
+    public static long getIdleTabReleaseMillis() {
+        return Math.max(0, Long.getLong("notepad.idleTabReleaseMillis", DEFAULT_IDLE_TAB_RELEASE_MILLIS));
+    }
+
+    /**
+     * Gets the interval at which the edits recorded in the journal are written to it by the journal thread.
+     *
+     * @return The interval in milliseconds, at least 1.
+     */
+    public static long getJournalFlushMillis() {
+        return Math.max(1, Long.getLong("notepad.journalFlushMillis", DEFAULT_JOURNAL_FLUSH_MILLIS));
+    }
+
+    /**
+     * Gets the interval at which the journal is forced to the storage device. Writes in between are batched into
+     * one sync, trading the edits of at most one interval on a power loss for fewer syncs.
+     *
+     * @return The interval in milliseconds, or 0 if the journal is forced on every write.
+     */
+    public static long getJournalSyncMillis() {
+        return Math.max(0, Long.getLong("notepad.journalSyncMillis", DEFAULT_JOURNAL_SYNC_MILLIS));
+    }
+
+    /**
+     * Gets the size of the journal above which it is compacted by writing the whole session and starting a new journal.
+     *
+     * @return The size in bytes.
+     */
+    public static long getJournalCompactBytes() {
+        return Math.max(0, Long.getLong("notepad.journalCompactBytes", DEFAULT_JOURNAL_COMPACT_BYTES));
+    }
+
+    /**
+     * Gets the length of the content of a modified tab stored whole in the session at most, next to its changes, so
+     * they survive its file being changed before the session is restored. 0 stores the changes only.
+     *
+     * @return The length in characters.
+     */
+    public static int getSessionFallbackMaxChars() {
+        return Math.max(0, Integer.getInteger("notepad.sessionFallbackMaxChars", DEFAULT_SESSION_FALLBACK_MAX_CHARS));
+    }
+
+    /**
+     * Gets the memory budget of the undo history of a tab. The oldest undo steps are evicted above it.
+     *
+     * @return The budget in bytes.
+     */
+    public static long getUndoMemoryBytes() {
+        return Math.max(0, Long.getLong("notepad.undoMemoryBytes", DEFAULT_UNDO_MEMORY_BYTES));
+    }
+
+    /**
+     * Gets the longest pause between keystrokes that are still merged into one undo step.
+     *
+     * @return The pause in milliseconds.
+     */
+    public static long getUndoGroupMillis() {
+        return Math.max(0, Long.getLong("notepad.undoGroupMillis", DEFAULT_UNDO_GROUP_MILLIS));
+    }
+
+    /**
+     * Gets the size limit of the undo history of a tab stored for the next session. The oldest steps are dropped above it.
+     *
+     * @return The limit in bytes.
+     */
+    public static long getUndoPersistBytes() {
+        return Math.max(0, Long.getLong("notepad.undoPersistBytes", DEFAULT_UNDO_PERSIST_BYTES));
+    }
+
+    /**
+     * Gets the level of the messages logged: ERROR, WARN, INFO or DEBUG. Messages of lower levels are dropped.
+     *
+     * @return The name of the level.
+     */
+    public static String getLogLevel() {
+        return System.getProperty("notepad.logLevel", DEFAULT_LOG_LEVEL);
+    }
+
+    /**
+     * Gets the interval at which the metrics are dumped to their file while the application runs.
+     *
+     * @return The interval in milliseconds, or 0 if the metrics are dumped only on exit.
+     */
+    public static long getMetricsDumpMillis() {
+        return Math.max(0, Long.getLong("notepad.metricsDumpMillis", DEFAULT_METRICS_DUMP_MILLIS));
+    }
+
+    /**
+     * Gets the time without further changes after which the files changed by other processes are reloaded.
+     * A file written in many steps is reloaded once.
+     *
+     * @return The time in milliseconds.
+     */
+    public static long getWatchDebounceMillis() {
+        return Math.max(0, Long.getLong("notepad.watchDebounceMillis", DEFAULT_WATCH_DEBOUNCE_MILLIS));
+    }
+
+    /**
+     * Gets the interval at which followed files are checked for appended text. Checking a file that did not grow
+     * only reads its size.
+     *
+     * @return The interval in milliseconds, at least 1.
+     */
+    public static long getFollowPollMillis() {
+        return Math.max(1, Long.getLong("notepad.followPollMillis", DEFAULT_FOLLOW_POLL_MILLIS));
+    }
+
+    /**
+     * Gets the number of lines a followed file keeps in memory. The oldest lines are dropped once a tab exceeds it
+     * by an eighth, so following a file all day takes bounded memory.
+     *
+     * @return The number of lines, at least 1.
+     */
+    public static int getFollowMaxLines() {
+        return Math.max(1, Integer.getInteger("notepad.followMaxLines", DEFAULT_FOLLOW_MAX_LINES));
+    }
+
+    /**
+     * Gets the number of threads loading the files opened together, like the files of a folder.
+     *
+     * @return The number of threads, at least 1.
+     */
+    public static int getOpenThreads() {
+        return Math.max(1, Integer.getInteger("notepad.openThreads", DEFAULT_OPEN_THREADS));
+    }
+
+    /**
+     * Gets the number of files of a folder opened at most at once; the files found after that many are left closed.
+     *
+     * @return The number of files, at least 1.
+     */
+    public static int getOpenMaxFiles() {
+        return Math.max(1, Integer.getInteger("notepad.openMaxFiles", DEFAULT_OPEN_MAX_FILES));
+    }
+
+    /**
+     * Checks if a later launch forwards the files it was asked to open to the running instance instead of starting
+     * another one.
+     *
+     * @return True if the application runs as a single instance, false otherwise.
+     */
+    public static boolean isSingleInstance() {
+        return Boolean.parseBoolean(System.getProperty("notepad.singleInstance", Boolean.toString(DEFAULT_SINGLE_INSTANCE)));
+    }
+}
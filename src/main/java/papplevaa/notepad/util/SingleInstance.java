@@ -0,0 +1,319 @@
+package papplevaa.notepad.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the application to a single running instance by listening on a Unix domain socket. A later launch forwards
+ * the files it was asked to open over the socket and exits right away, without starting the user interface.
+ * A request is a header byte followed by the absolute paths of the files, each ended by a NUL byte, which no path
+ * can contain; the instance answers with a single byte once it took the request. A connection closed without a
+ * header only checks that the instance is alive. A launch that does not send its whole request within a few seconds
+ * is dropped, so a hung launch does not keep the ones after it waiting.
+ *
+ * <p>The socket is bound before the user interface is built, so a launch started meanwhile finds it. Binding holds
+ * a lock on a file next to the socket, and a socket file found there is only replaced if connecting to it is
+ * refused, so of two launches started together exactly one becomes the instance. Requests received before the
+ * listener is set are kept for it; the listener is called on the instance thread.
+ */
+public final class SingleInstance {
+    /** The byte a request starts with. */
+    private static final byte REQUEST = 'O';
+    /** The byte ending each path of a request. */
+    private static final byte PATH_END = 0;
+    /** The byte answering a request that was taken. */
+    private static final byte ACCEPTED = 1;
+    /** The largest request read, bounding the memory of a malformed one. */
+    private static final int MAX_REQUEST_BYTES = 1 << 20;
+    /** The default time a launch has to send its whole request before its connection is dropped. */
+    private static final long DEFAULT_REQUEST_TIMEOUT_MILLIS = 5000;
+
+    /** The path of the socket file. */
+    private final Path socketPath;
+    /** The channel accepting the requests of later launches. */
+    private final ServerSocketChannel server;
+    /** The file key of the socket file bound by this instance, telling it apart from one bound by another instance. */
+    private final Object socketKey;
+    /** The time a launch has to send its whole request, in milliseconds. */
+    private final long requestTimeoutMillis;
+    /** The listener receiving the files of each request, or {@code null} until it is set; guarded by the instance. */
+    private Consumer<List<File>> listener;
+    /** The requests received before the listener was set, guarded by the instance. */
+    private final List<List<File>> pendingRequests;
+
+    /**
+     * Constructs a new SingleInstance listening on a bound channel.
+     *
+     * @param socketPath           The path of the socket file.
+     * @param server               The bound channel.
+     * @param socketKey            The file key of the bound socket file.
+     * @param requestTimeoutMillis The time a launch has to send its whole request.
+     */
+    private SingleInstance(Path socketPath, ServerSocketChannel server, Object socketKey, long requestTimeoutMillis) {
+        this.socketPath = socketPath;
+        this.server = server;
+        this.socketKey = socketKey;
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        this.pendingRequests = new ArrayList<>();
+    }
+
+    /**
+     * Forwards files to open to the running instance, if there is one.
+     *
+     * @param socketPath The path of the socket file.
+     * @param files      The files to open, possibly none, just to check for a running instance.
+     * @return True if a running instance took the files, false if there is none or it did not answer.
+     */
+    public static boolean forward(Path socketPath, List<File> files) {
+        if(!Files.exists(socketPath)) {
+            return false;
+        }
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            ByteArrayOutputStream request = new ByteArrayOutputStream();
+            request.write(REQUEST);
+            for(File file : files) {
+                request.writeBytes(file.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+                request.write(PATH_END);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(request.toByteArray());
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.shutdownOutput();
+            ByteBuffer answer = ByteBuffer.allocate(1);
+            return channel.read(answer) == 1 && answer.get(0) == ACCEPTED;
+        } catch(IOException exception) {
+            // No instance is listening, the socket file is stale
+            return false;
+        }
+    }
+
+    /**
+     * Listens for the requests of later launches on a daemon thread, replacing a stale socket file.
+     * The socket is bound while holding a lock on a file next to it, so launches started together bind one at a time.
+     *
+     * @param socketPath The path of the socket file.
+     * @return The listening instance, keeping the requests until its listener is set.
+     * @throws FileAlreadyExistsException if another instance is listening on the socket.
+     * @throws IOException                if the socket can not be bound.
+     */
+    public static SingleInstance listen(Path socketPath) throws IOException {
+        return listen(socketPath, DEFAULT_REQUEST_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Listens for the requests of later launches on a daemon thread, dropping a launch that does not send its
+     * whole request in time.
+     *
+     * @param socketPath           The path of the socket file.
+     * @param requestTimeoutMillis The time a launch has to send its whole request.
+     * @return The listening instance, keeping the requests until its listener is set.
+     * @throws FileAlreadyExistsException if another instance is listening on the socket.
+     * @throws IOException                if the socket can not be bound.
+     */
+    static SingleInstance listen(Path socketPath, long requestTimeoutMillis) throws IOException {
+        Path lockPath = socketPath.resolveSibling(socketPath.getFileName() + ".lock");
+        ServerSocketChannel server;
+        Object socketKey;
+        try (FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = lockChannel.lock();
+            try {
+                if(Files.exists(socketPath, LinkOption.NOFOLLOW_LINKS)) {
+                    if(isAlive(socketPath)) {
+                        throw new FileAlreadyExistsException(socketPath.toString(), null, "Another instance is listening");
+                    }
+                    // Nothing accepts connections on it, it was left behind by an instance that crashed
+                    Files.delete(socketPath);
+                }
+                server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+                try {
+                    server.bind(UnixDomainSocketAddress.of(socketPath));
+                    socketKey = fileKeyOf(socketPath);
+                } catch(IOException exception) {
+                    server.close();
+                    throw exception;
+                }
+            } finally {
+                lock.release();
+            }
+        }
+        SingleInstance instance = new SingleInstance(socketPath, server, socketKey, requestTimeoutMillis);
+        Thread thread = new Thread(instance::run, "notepad-instance");
+        thread.setDaemon(true);
+        thread.start();
+        return instance;
+    }
+
+    /**
+     * Sets the listener receiving the files of each request, and passes it the requests received so far.
+     *
+     * @param listener The listener, called on the instance thread and, for the requests received so far, on this one.
+     */
+    public synchronized void setListener(Consumer<List<File>> listener) {
+        this.listener = listener;
+        for(List<File> files : this.pendingRequests) {
+            listener.accept(files);
+        }
+        this.pendingRequests.clear();
+    }
+
+    /**
+     * Stops listening and deletes the socket file, so later launches start their own instance. A socket file bound
+     * by another instance since, after this one's was deleted, is left alone.
+     */
+    public void close() {
+        try {
+            this.server.close();
+            if(this.socketKey != null && this.socketKey.equals(fileKeyOf(this.socketPath))) {
+                Files.deleteIfExists(this.socketPath);
+            }
+        } catch(IOException exception) {
+            Log.warn("Failed to close the instance socket: ", exception.getMessage());
+        }
+    }
+
+    /**
+     * Checks if an instance accepts connections on a socket file, by connecting to it without sending a request.
+     *
+     * @param socketPath The path of the socket file.
+     * @return True if the connection is accepted, false if it is refused.
+     */
+    private static boolean isAlive(Path socketPath) {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            return true;
+        } catch(IOException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the file key of a file, identifying it while it exists.
+     *
+     * @param path The path of the file.
+     * @return The file key, or {@code null} if the file does not exist or has no key.
+     */
+    private static Object fileKeyOf(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).fileKey();
+        } catch(IOException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Accepts the requests of later launches until the channel is closed, one at a time.
+     */
+    private void run() {
+        while(true) {
+            try (SocketChannel channel = this.server.accept()) {
+                List<File> files = readRequest(channel, this.requestTimeoutMillis);
+                if(files == null) {
+                    // Only checked that the instance is alive
+                    continue;
+                }
+                channel.write(ByteBuffer.wrap(new byte[] {ACCEPTED}));
+                this.deliver(files);
+            } catch(AsynchronousCloseException exception) {
+                // The instance is closed
+                return;
+            } catch(IOException exception) {
+                if(!this.server.isOpen()) {
+                    return;
+                }
+                Log.warn("Failed to read a request of another launch: ", exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Passes the files of a request to the listener, or keeps them until it is set.
+     *
+     * @param files The files of the request.
+     */
+    private synchronized void deliver(List<File> files) {
+        if(this.listener == null) {
+            this.pendingRequests.add(files);
+        } else {
+            this.listener.accept(files);
+        }
+    }
+
+    /**
+     * Reads the files of a request, until the other launch shuts its output down or the time it has runs out.
+     * The channel is read without blocking, waiting for data with a selector, and is left blocking afterwards.
+     *
+     * @param channel       The channel of the other launch.
+     * @param timeoutMillis The time the other launch has to send its whole request.
+     * @return The files of the request, or {@code null} if the connection was closed without a request.
+     * @throws SocketTimeoutException if the request is not sent in time.
+     * @throws IOException            if the request can not be read or is too large.
+     */
+    private static List<File> readRequest(SocketChannel channel, long timeoutMillis) throws IOException {
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        channel.configureBlocking(false);
+        try (Selector selector = Selector.open()) {
+            channel.register(selector, SelectionKey.OP_READ);
+            int read;
+            while((read = channel.read(buffer)) != -1) {
+                if(read == 0) {
+                    long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if(remainingMillis <= 0) {
+                        throw new SocketTimeoutException("Request timed out");
+                    }
+                    selector.select(remainingMillis);
+                    selector.selectedKeys().clear();
+                    continue;
+                }
+                request.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+                if(request.size() > MAX_REQUEST_BYTES) {
+                    throw new IOException("Request too large");
+                }
+            }
+        }
+        // Closing the selector deregistered the channel, so it can block again to answer
+        channel.configureBlocking(true);
+        byte[] bytes = request.toByteArray();
+        if(bytes.length == 0) {
+            return null;
+        } else if(bytes[0] != REQUEST) {
+            throw new IOException("Malformed request");
+        }
+        List<File> files = new ArrayList<>();
+        int start = 1;
+        for(int index = 1; index < bytes.length; index++) {
+            if(bytes[index] == PATH_END) {
+                files.add(new File(new String(bytes, start, index - start, StandardCharsets.UTF_8)));
+                start = index + 1;
+            }
+        }
+        return files;
+    }
+}
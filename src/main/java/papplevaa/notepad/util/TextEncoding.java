@@ -0,0 +1,269 @@
+package papplevaa.notepad.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * The encoding of a text file: its charset and whether it starts with a byte order mark.
+ * Detected when a file is opened and kept by its tab, so the file is saved the way it was read.
+ */
+public final class TextEncoding {
+    /** The encoding of new files and of files holding only ASCII: the platform default charset, without a mark. */
+    public static final TextEncoding DEFAULT = new TextEncoding(Charset.defaultCharset(), false);
+    /** The byte order mark of UTF-8. */
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    /** The byte order mark of UTF-16 big endian. */
+    private static final byte[] UTF_16BE_BOM = {(byte) 0xFE, (byte) 0xFF};
+    /** The byte order mark of UTF-16 little endian. */
+    private static final byte[] UTF_16LE_BOM = {(byte) 0xFF, (byte) 0xFE};
+    /** The bytes Windows-1252 leaves undefined, which it decodes as replacement characters. */
+    private static final String WINDOWS_1252_UNDEFINED = "\u0081\u008D\u008F\u0090\u009D";
+
+    /** The charset of the text. */
+    private final Charset charset;
+    /** The flag indicating whether the text starts with a byte order mark. */
+    private final boolean bom;
+
+    /**
+     * Constructs a new TextEncoding.
+     *
+     * @param charset The charset of the text.
+     * @param bom     True if the text starts with a byte order mark, false otherwise.
+     */
+    public TextEncoding(Charset charset, boolean bom) {
+        this.charset = Objects.requireNonNull(charset);
+        this.bom = bom && bomOf(charset).length > 0;
+    }
+
+    /**
+     * Gets the charset of the text.
+     *
+     * @return The charset.
+     */
+    public Charset getCharset() {
+        return this.charset;
+    }
+
+    /**
+     * Checks if the text starts with a byte order mark.
+     *
+     * @return True if it starts with a byte order mark, false otherwise.
+     */
+    public boolean hasBom() {
+        return this.bom;
+    }
+
+    /**
+     * Gets the byte order mark written before the text.
+     *
+     * @return The bytes of the mark, empty if the text has none.
+     */
+    public byte[] getBom() {
+        return this.bom ? bomOf(this.charset).clone() : new byte[0];
+    }
+
+    /**
+     * Detects the encoding of a file from its first bytes, and skips its byte order mark.
+     * A byte order mark decides the encoding. Without one, the bytes are checked to be UTF-8, then for the zero
+     * bytes of UTF-16 text; other text is taken as a legacy 8-bit encoding, the platform default unless that is
+     * UTF-8, in which case Windows-1252 or, if it has bytes Windows-1252 does not define, ISO-8859-1.
+     * Text holding only ASCII gets the default encoding.
+     *
+     * @param head      The first bytes of the file, from its position to its limit; the position is moved past the mark.
+     * @param wholeFile True if the bytes are the whole file, false if they may end within a character.
+     * @return The detected encoding.
+     */
+    public static TextEncoding detect(ByteBuffer head, boolean wholeFile) {
+        if(startsWith(head, UTF_8_BOM)) {
+            head.position(head.position() + UTF_8_BOM.length);
+            return new TextEncoding(StandardCharsets.UTF_8, true);
+        }
+        if(startsWith(head, UTF_16BE_BOM)) {
+            head.position(head.position() + UTF_16BE_BOM.length);
+            return new TextEncoding(StandardCharsets.UTF_16BE, true);
+        }
+        if(startsWith(head, UTF_16LE_BOM)) {
+            head.position(head.position() + UTF_16LE_BOM.length);
+            return new TextEncoding(StandardCharsets.UTF_16LE, true);
+        }
+        int validity = utf8Validity(head, wholeFile);
+        if(validity == 0) {
+            return DEFAULT;
+        } else if(validity > 0) {
+            return new TextEncoding(StandardCharsets.UTF_8, false);
+        }
+        Charset utf16 = utf16Without(head);
+        if(utf16 != null) {
+            return new TextEncoding(utf16, false);
+        }
+        return legacy(head);
+    }
+
+    /**
+     * Gets the legacy 8-bit encoding of text that is not Unicode, used when text taken as UTF-8 turns out not to be.
+     *
+     * @param head The first bytes of the text, from its position to its limit.
+     * @return The platform default encoding unless it is UTF-8, then Windows-1252 or ISO-8859-1.
+     */
+    public static TextEncoding legacy(ByteBuffer head) {
+        if(!Charset.defaultCharset().equals(StandardCharsets.UTF_8)) {
+            return DEFAULT;
+        }
+        if(Charset.isSupported("windows-1252")) {
+            boolean defined = true;
+            for(int index = head.position(); index < head.limit() && defined; index++) {
+                defined = WINDOWS_1252_UNDEFINED.indexOf((char) (head.get(index) & 0xFF)) < 0;
+            }
+            if(defined) {
+                return new TextEncoding(Charset.forName("windows-1252"), false);
+            }
+        }
+        return new TextEncoding(StandardCharsets.ISO_8859_1, false);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(this == other) {
+            return true;
+        }
+        if(!(other instanceof TextEncoding)) {
+            return false;
+        }
+        TextEncoding encoding = (TextEncoding) other;
+        return this.bom == encoding.bom && this.charset.equals(encoding.charset);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.charset.hashCode() + (this.bom ? 1 : 0);
+    }
+
+    /**
+     * Gets the name of the encoding as shown to the user.
+     *
+     * @return The name of the charset, followed by "with BOM" if the text has a byte order mark.
+     */
+    @Override
+    public String toString() {
+        return this.bom ? this.charset.name() + " with BOM" : this.charset.name();
+    }
+
+    /**
+     * Gets the byte order mark of a charset.
+     *
+     * @param charset The charset.
+     * @return The bytes of the mark, empty if the charset has none.
+     */
+    private static byte[] bomOf(Charset charset) {
+        if(charset.equals(StandardCharsets.UTF_8)) {
+            return UTF_8_BOM;
+        } else if(charset.equals(StandardCharsets.UTF_16BE)) {
+            return UTF_16BE_BOM;
+        } else if(charset.equals(StandardCharsets.UTF_16LE)) {
+            return UTF_16LE_BOM;
+        }
+        return new byte[0];
+    }
+
+    /**
+     * Checks if bytes start with a prefix.
+     *
+     * @param bytes  The bytes, from their position to their limit.
+     * @param prefix The prefix.
+     * @return True if the bytes start with the prefix, false otherwise.
+     */
+    private static boolean startsWith(ByteBuffer bytes, byte[] prefix) {
+        if(bytes.remaining() < prefix.length) {
+            return false;
+        }
+        for(int index = 0; index < prefix.length; index++) {
+            if(bytes.get(bytes.position() + index) != prefix[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if bytes are valid UTF-8.
+     *
+     * @param bytes     The bytes, from their position to their limit.
+     * @param wholeFile True if the bytes are the whole file, false if the last character may be cut off.
+     * @return 0 if the bytes are all ASCII, 1 if they are valid UTF-8 with other characters, and -1 if they are not UTF-8.
+     */
+    private static int utf8Validity(ByteBuffer bytes, boolean wholeFile) {
+        int validity = 0;
+        int index = bytes.position();
+        int limit = bytes.limit();
+        while(index < limit) {
+            int lead = bytes.get(index) & 0xFF;
+            if(lead < 0x80) {
+                if(lead == 0) {
+                    // Text files do not hold NUL characters, UTF-16 text does
+                    return -1;
+                }
+                index++;
+                continue;
+            }
+            int length;
+            int minimum;
+            if(lead >= 0xC2 && lead <= 0xDF) {
+                length = 2;
+                minimum = 0x80;
+            } else if(lead >= 0xE0 && lead <= 0xEF) {
+                length = 3;
+                minimum = 0x800;
+            } else if(lead >= 0xF0 && lead <= 0xF4) {
+                length = 4;
+                minimum = 0x10000;
+            } else {
+                return -1;
+            }
+            if(index + length > limit) {
+                return wholeFile ? -1 : 1;
+            }
+            int codePoint = lead & (0xFF >>> (length + 1));
+            for(int next = 1; next < length; next++) {
+                int continuation = bytes.get(index + next) & 0xFF;
+                if((continuation & 0xC0) != 0x80) {
+                    return -1;
+                }
+                codePoint = (codePoint << 6) | (continuation & 0x3F);
+            }
+            if(codePoint < minimum || codePoint > Character.MAX_CODE_POINT
+                    || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                return -1;
+            }
+            validity = 1;
+            index += length;
+        }
+        return validity;
+    }
+
+    /**
+     * Recognizes UTF-16 text without a byte order mark by its zero bytes: the high bytes of Latin characters.
+     *
+     * @param bytes The bytes, from their position to their limit.
+     * @return UTF-16BE if most even bytes are zero and no odd ones, UTF-16LE the other way around, or {@code null}.
+     */
+    private static Charset utf16Without(ByteBuffer bytes) {
+        int pairs = bytes.remaining() / 2;
+        if(pairs == 0) {
+            return null;
+        }
+        int evenZeros = 0;
+        int oddZeros = 0;
+        for(int index = 0; index < pairs * 2; index += 2) {
+            evenZeros += (bytes.get(bytes.position() + index) == 0) ? 1 : 0;
+            oddZeros += (bytes.get(bytes.position() + index + 1) == 0) ? 1 : 0;
+        }
+        if(evenZeros * 2 > pairs && oddZeros == 0) {
+            return StandardCharsets.UTF_16BE;
+        } else if(oddZeros * 2 > pairs && evenZeros == 0) {
+            return StandardCharsets.UTF_16LE;
+        }
+        return null;
+    }
+}
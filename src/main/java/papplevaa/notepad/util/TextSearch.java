@@ -0,0 +1,418 @@
+package papplevaa.notepad.util;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A search for a literal text or a regular expression in a text.
+ * Literal texts are found with the Boyer-Moore-Horspool algorithm, which skips ahead by up to the length of the
+ * searched text on a mismatch. Texts longer than a chunk are searched for all matches in chunks on the fork-join pool.
+ * Regular expressions are found with {@link Matcher}, in one pass over the text.
+ *
+ * <p>A search is immutable, so it can be used from several threads at once.
+ */
+public final class TextSearch {
+    /** The number of characters searched by one task when all matches are found in parallel. */
+    private static final int CHUNK_SIZE = 1 << 20;
+    /** The number of entries of the skip table, which is indexed by the low bits of a character. */
+    private static final int TABLE_SIZE = 256;
+
+    /** The searched text or regular expression. */
+    private final String pattern;
+    /** The flag indicating whether the case of letters has to match. */
+    private final boolean matchCase;
+    /** The flag indicating whether the pattern is a regular expression. */
+    private final boolean regex;
+    /** The compiled regular expression, or {@code null} for a literal search. */
+    private final Pattern compiled;
+    /** The searched text with its case folded if the case does not have to match, or {@code null} for a regular expression. */
+    private final char[] literal;
+    /** The distance to skip ahead by the last character of the window, or {@code null} for a regular expression. */
+    private final int[] skips;
+
+    /**
+     * Constructs a new TextSearch.
+     *
+     * @param pattern   The text or regular expression to search for.
+     * @param matchCase True if the case of letters has to match, false otherwise.
+     * @param regex     True if the pattern is a regular expression, false if it is a literal text.
+     * @throws IllegalArgumentException if the pattern is empty.
+     * @throws PatternSyntaxException   if the pattern is not a valid regular expression.
+     */
+    public TextSearch(String pattern, boolean matchCase, boolean regex) {
+        if(pattern.isEmpty()) {
+            throw new IllegalArgumentException("Empty search text");
+        }
+        this.pattern = pattern;
+        this.matchCase = matchCase;
+        this.regex = regex;
+        if(regex) {
+            this.compiled = Pattern.compile(pattern, matchCase ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+            this.literal = null;
+            this.skips = null;
+        } else {
+            this.compiled = null;
+            this.literal = new char[pattern.length()];
+            for(int index = 0; index < this.literal.length; index++) {
+                this.literal[index] = this.fold(pattern.charAt(index));
+            }
+            // Characters sharing their low bits share an entry, which keeps the smallest, always safe, skip
+            this.skips = new int[TABLE_SIZE];
+            Arrays.fill(this.skips, this.literal.length);
+            for(int index = 0; index < this.literal.length - 1; index++) {
+                this.skips[this.literal[index] % TABLE_SIZE] = this.literal.length - 1 - index;
+            }
+        }
+    }
+
+    /**
+     * Gets the searched text or regular expression.
+     *
+     * @return The pattern.
+     */
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    /**
+     * Checks if the case of letters has to match.
+     *
+     * @return True if the case has to match, false otherwise.
+     */
+    public boolean isMatchCase() {
+        return this.matchCase;
+    }
+
+    /**
+     * Checks if the pattern is a regular expression.
+     *
+     * @return True if the pattern is a regular expression, false if it is a literal text.
+     */
+    public boolean isRegex() {
+        return this.regex;
+    }
+
+    /**
+     * Finds the first match starting at or after an offset.
+     *
+     * @param text The text to search in.
+     * @param from The offset to start searching at.
+     * @return The start and end offset of the match, or {@code null} if there is none.
+     */
+    public int[] find(CharSequence text, int from) {
+        if(from > text.length()) {
+            return null;
+        }
+        if(this.regex) {
+            Matcher matcher = this.compiled.matcher(text);
+            return matcher.find(from) ? new int[] {matcher.start(), matcher.end()} : null;
+        }
+        IntList starts = new IntList();
+        this.scan(text, from, text.length() - this.literal.length + 1, starts, true);
+        return (starts.size == 0) ? null : new int[] {starts.values[0], starts.values[0] + this.literal.length};
+    }
+
+    /**
+     * Finds all matches that do not overlap, from the start of the text to its end. A match overlapping the previous
+     * one is skipped, as when searching for the next match after the end of each match.
+     *
+     * @param text The text to search in.
+     * @return The start and end offsets of the matches, in pairs: {@code [start0, end0, start1, end1, ...]}.
+     */
+    public int[] findAll(CharSequence text) {
+        IntList matches = new IntList();
+        if(this.regex) {
+            Matcher matcher = this.compiled.matcher(text);
+            while(matcher.find()) {
+                matches.add(matcher.start());
+                matches.add(matcher.end());
+            }
+            return matches.toArray();
+        }
+        IntList starts = new ChunkSearch(text, 0, text.length() - this.literal.length + 1).invoke();
+        int end = 0;
+        for(int index = 0; index < starts.size; index++) {
+            int start = starts.values[index];
+            if(start >= end) {
+                end = start + this.literal.length;
+                matches.add(start);
+                matches.add(end);
+            }
+        }
+        return matches.toArray();
+    }
+
+    /**
+     * Computes the text replacing a match. References to groups like {@code $1} are expanded for regular expressions,
+     * while the replacement of a literal search is used as it is.
+     *
+     * @param text        The text holding the match.
+     * @param start       The start offset of the match.
+     * @param end         The end offset of the match.
+     * @param replacement The replacement.
+     * @return The text replacing the match, or {@code null} if the range is not a match.
+     * @throws IllegalArgumentException if the replacement refers to a group that does not exist.
+     */
+    public String replacementOf(CharSequence text, int start, int end, String replacement) {
+        int[] match = this.find(text, start);
+        if(match == null || match[0] != start || match[1] != end) {
+            return null;
+        }
+        if(!this.regex) {
+            return replacement;
+        }
+        Matcher matcher = this.compiled.matcher(text);
+        matcher.find(start);
+        StringBuilder expanded = new StringBuilder();
+        matcher.appendReplacement(expanded, replacement);
+        return expanded.substring(start);
+    }
+
+    /**
+     * Replaces all matches that do not overlap. Only the range from the start of the first match to the end of the
+     * last one is returned with the replacements, so it can be applied to the text as a single edit.
+     *
+     * @param text        The text to replace the matches in.
+     * @param replacement The replacement, with references to groups like {@code $1} for regular expressions.
+     * @return The replacement of the range, or {@code null} if there is no match.
+     * @throws IllegalArgumentException if the replacement refers to a group that does not exist.
+     */
+    public Replacement replaceAll(CharSequence text, String replacement) {
+        if(this.regex) {
+            Matcher matcher = this.compiled.matcher(text);
+            if(!matcher.find()) {
+                return null;
+            }
+            int start = matcher.start();
+            int end;
+            int count = 0;
+            StringBuilder replaced = new StringBuilder();
+            do {
+                matcher.appendReplacement(replaced, replacement);
+                if(count++ == 0) {
+                    // The text before the first match is not part of the replaced range
+                    replaced.delete(0, start);
+                }
+                end = matcher.end();
+            } while(matcher.find());
+            return new Replacement(start, end, replaced.toString(), count);
+        }
+        int[] matches = this.findAll(text);
+        if(matches.length == 0) {
+            return null;
+        }
+        int start = matches[0];
+        int end = matches[matches.length - 1];
+        int count = matches.length / 2;
+        long capacity = (long) end - start + (long) count * (replacement.length() - this.literal.length);
+        StringBuilder replaced = new StringBuilder((int) Math.min(Math.max(capacity, 16), Integer.MAX_VALUE - 8));
+        for(int index = 0; index < matches.length; index += 2) {
+            if(index > 0) {
+                replaced.append(text, matches[index - 1], matches[index]);
+            }
+            replaced.append(replacement);
+        }
+        return new Replacement(start, end, replaced.toString(), count);
+    }
+
+    /**
+     * Scans the text for the starts of literal matches with the Boyer-Moore-Horspool algorithm.
+     * All starts are found, including the ones of overlapping matches.
+     *
+     * @param text       The text to search in.
+     * @param from       The first start to consider.
+     * @param to         The start after the last start to consider.
+     * @param starts     The list the starts are added to.
+     * @param firstOnly  True to stop after the first start found.
+     */
+    private void scan(CharSequence text, int from, int to, IntList starts, boolean firstOnly) {
+        int last = this.literal.length - 1;
+        int position = from;
+        while(position < to) {
+            char windowEnd = this.fold(text.charAt(position + last));
+            if(windowEnd == this.literal[last]) {
+                int index = last - 1;
+                while(index >= 0 && this.fold(text.charAt(position + index)) == this.literal[index]) {
+                    index--;
+                }
+                if(index < 0) {
+                    starts.add(position);
+                    if(firstOnly) {
+                        return;
+                    }
+                }
+            }
+            position += this.skips[windowEnd % TABLE_SIZE];
+        }
+    }
+
+    /**
+     * Folds the case of a character if the case of letters does not have to match, the way
+     * {@link String#equalsIgnoreCase(String)} compares characters.
+     *
+     * @param character The character.
+     * @return The folded character.
+     */
+    private char fold(char character) {
+        if(this.matchCase) {
+            return character;
+        }
+        if(character < 0x80) {
+            return (character >= 'A' && character <= 'Z') ? (char) (character + ('a' - 'A')) : character;
+        }
+        return Character.toLowerCase(Character.toUpperCase(character));
+    }
+
+    /**
+     * The replacement of the range of a text holding all matches.
+     */
+    public static final class Replacement {
+        /** The start offset of the first match. */
+        private final int start;
+        /** The end offset of the last match. */
+        private final int end;
+        /** The text replacing the range. */
+        private final String text;
+        /** The number of replaced matches. */
+        private final int count;
+
+        /**
+         * Constructs a new Replacement.
+         *
+         * @param start The start offset of the first match.
+         * @param end   The end offset of the last match.
+         * @param text  The text replacing the range.
+         * @param count The number of replaced matches.
+         */
+        private Replacement(int start, int end, String text, int count) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+            this.count = count;
+        }
+
+        /**
+         * Gets the start offset of the replaced range.
+         *
+         * @return The start offset.
+         */
+        public int getStart() {
+            return this.start;
+        }
+
+        /**
+         * Gets the end offset of the replaced range.
+         *
+         * @return The end offset.
+         */
+        public int getEnd() {
+            return this.end;
+        }
+
+        /**
+         * Gets the text replacing the range.
+         *
+         * @return The text.
+         */
+        public String getText() {
+            return this.text;
+        }
+
+        /**
+         * Gets the number of replaced matches.
+         *
+         * @return The number of matches.
+         */
+        public int getCount() {
+            return this.count;
+        }
+    }
+
+    /**
+     * The task finding the starts of all literal matches in a range of starts,
+     * splitting ranges longer than a chunk in halves searched in parallel.
+     */
+    private final class ChunkSearch extends RecursiveTask<IntList> {
+        /** The text to search in. */
+        private final CharSequence text;
+        /** The first start to consider. */
+        private final int from;
+        /** The start after the last start to consider. */
+        private final int to;
+
+        /**
+         * Constructs a new ChunkSearch.
+         *
+         * @param text The text to search in.
+         * @param from The first start to consider.
+         * @param to   The start after the last start to consider.
+         */
+        private ChunkSearch(CharSequence text, int from, int to) {
+            this.text = text;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IntList compute() {
+            if(this.to - this.from <= CHUNK_SIZE) {
+                IntList starts = new IntList();
+                scan(this.text, this.from, this.to, starts, false);
+                return starts;
+            }
+            int middle = this.from + (this.to - this.from) / 2;
+            ChunkSearch second = new ChunkSearch(this.text, middle, this.to);
+            second.fork();
+            IntList starts = new ChunkSearch(this.text, this.from, middle).compute();
+            starts.addAll(second.join());
+            return starts;
+        }
+    }
+
+    /**
+     * A growable list of primitive integers.
+     */
+    private static final class IntList {
+        /** The values, followed by unused capacity. */
+        private int[] values = new int[16];
+        /** The number of values. */
+        private int size;
+
+        /**
+         * Adds a value to the end of the list.
+         *
+         * @param value The value to add.
+         */
+        private void add(int value) {
+            if(this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size++] = value;
+        }
+
+        /**
+         * Adds all values of another list to the end of the list.
+         *
+         * @param other The list whose values are added.
+         */
+        private void addAll(IntList other) {
+            if(this.size + other.size > this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.max(this.size + other.size, this.size * 2));
+            }
+            System.arraycopy(other.values, 0, this.values, this.size, other.size);
+            this.size += other.size;
+        }
+
+        /**
+         * Copies the values to an array of their size.
+         *
+         * @return The values.
+         */
+        private int[] toArray() {
+            return Arrays.copyOf(this.values, this.size);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package papplevaa.notepad.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import papplevaa.notepad.model.Tab;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark typing into a large document, comparing the former full-text synchronization of the tab
+ * (getText on every keystroke) with the delta based synchronization.
+ * The full-text path copies the whole document per keystroke, so at 50 MB a single run takes minutes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ContentSyncBenchmark {
+    /** The size of the document typed into, in megabytes. */
+    @Param({"1", "50"})
+    public int documentMegabytes;
+    /** The number of characters typed. */
+    @Param({"10000"})
+    public int keystrokes;
+
+    /** The initial content of the document. */
+    private String content;
+    /** The document typed into. */
+    private PlainDocument document;
+    /** The tab kept in sync with the document. */
+    private Tab tab;
+
+    /**
+     * Creates the initial content of the document.
+     */
+    @Setup(Level.Trial)
+    public void createContent() {
+        StringBuilder builder = new StringBuilder(this.documentMegabytes << 20);
+        while(builder.length() < this.documentMegabytes << 20) {
+            builder.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit.\n");
+        }
+        this.content = builder.toString();
+    }
+
+    /**
+     * Creates a fresh document and tab before every run.
+     */
+    @Setup(Level.Invocation)
+    public void createDocument() throws BadLocationException {
+        this.document = new PlainDocument();
+        this.document.insertString(0, this.content, null);
+        this.tab = new Tab("Benchmark", this.content, null);
+    }
+
+    /**
+     * Types into the middle of the document and copies the whole text to the tab after every keystroke.
+     *
+     * @return The tab's unsaved flag, so the work is not eliminated.
+     */
+    @Benchmark
+    public boolean fullTextSync() throws BadLocationException {
+        int offset = this.content.length() / 2;
+        for(int keystroke = 0; keystroke < this.keystrokes; keystroke++) {
+            this.document.insertString(offset + keystroke, "x", null);
+            this.tab.setCurrentContent(this.document.getText(0, this.document.getLength()));
+            this.tab.isUnsaved();
+        }
+        return this.tab.isUnsaved();
+    }
+
+    /**
+     * Types into the middle of the document and applies only the inserted text to the tab after every keystroke.
+     *
+     * @return The tab's unsaved flag, so the work is not eliminated.
+     */
+    @Benchmark
+    public boolean deltaSync() throws BadLocationException {
+        int offset = this.content.length() / 2;
+        for(int keystroke = 0; keystroke < this.keystrokes; keystroke++) {
+            this.document.insertString(offset + keystroke, "x", null);
+            this.tab.applyEdit(offset + keystroke, 0, "x");
+            this.tab.isUnsaved();
+        }
+        return this.tab.isUnsaved();
+    }
+}
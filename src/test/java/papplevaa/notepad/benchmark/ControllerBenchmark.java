@@ -0,0 +1,87 @@
+package papplevaa.notepad.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import papplevaa.notepad.controller.Controller;
+import papplevaa.notepad.model.Model;
+import papplevaa.notepad.model.Tab;
+import papplevaa.notepad.ui.View;
+
+import javax.swing.SwingUtilities;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of Controller.updateContent, the callback of every keystroke, typing into the middle of a tab.
+ * The controller owns its model on the event dispatch thread, so the keystrokes are sent there in batches, the way
+ * the view sends them; the view is not shown, so the benchmark runs without a display.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ControllerBenchmark {
+    /** The number of keystrokes sent to the event dispatch thread at once. */
+    private static final int KEYSTROKES = 1000;
+
+    /** The size of the content of the tab in kilobytes. */
+    @Param({"1", "1024", "51200"})
+    public int sizeInKilobytes;
+
+    /** The initial content of the tab. */
+    private String content;
+    /** The controller typed into. */
+    private Controller controller;
+    /** The offset of the next keystroke. */
+    private int offset;
+
+    /**
+     * Creates the content of the tab.
+     */
+    @Setup(Level.Trial)
+    public void createContent() {
+        StringBuilder builder = new StringBuilder(this.sizeInKilobytes << 10);
+        while(builder.length() < this.sizeInKilobytes << 10) {
+            builder.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit.\n");
+        }
+        this.content = builder.toString();
+    }
+
+    /**
+     * Creates a controller with one selected tab before every iteration, so the edits recorded for the journal,
+     * which is not started, do not pile up.
+     *
+     * @throws InterruptedException      if interrupted while waiting for the event dispatch thread.
+     * @throws InvocationTargetException if creating the controller fails.
+     */
+    @Setup(Level.Iteration)
+    public void createController() throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(() -> {
+            View view = new View();
+            Model model = new Model();
+            this.controller = new Controller(view, model);
+            Tab tab = new Tab("Benchmark", this.content, null);
+            model.addTab(tab);
+            model.setSelectedIndex(0);
+            view.addTab(tab.getTitle(), tab.getCurrentContent());
+        });
+        this.offset = this.content.length() / 2;
+    }
+
+    /**
+     * Types a batch of characters, each reported as an edit.
+     *
+     * @throws InterruptedException      if interrupted while waiting for the event dispatch thread.
+     * @throws InvocationTargetException if an edit fails.
+     */
+    @Benchmark
+    @OperationsPerInvocation(KEYSTROKES)
+    public void typeEdits() throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(() -> {
+            for(int keystroke = 0; keystroke < KEYSTROKES; keystroke++) {
+                this.controller.updateContent(0, this.offset++, 0, "x");
+            }
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package papplevaa.notepad.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import papplevaa.notepad.util.FileUtil;
+import papplevaa.notepad.util.ProgressListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of loading and saving the content of a tab with FileUtil, from a small note up to a 1 GB file.
+ * The files are written to the temporary directory, so the results include the page cache but not the device.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FileContentBenchmark {
+    /** The size of the loaded and saved content in kilobytes. */
+    @Param({"1", "1024", "1048576"})
+    public int sizeInKilobytes;
+
+    /** The content saved. */
+    private String content;
+    /** The temporary file loaded. */
+    private File loadedFile;
+    /** The temporary file saved to. */
+    private File savedFile;
+
+    /**
+     * Creates the content and writes it to the file loaded.
+     *
+     * @throws IOException if the files can not be created.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        long size = this.sizeInKilobytes * 1024L;
+        StringBuilder builder = new StringBuilder((int) size);
+        while(builder.length() < size) {
+            builder.append("The quick brown fox jumps over the lazy dog 0123456789\n");
+        }
+        this.content = builder.toString();
+        this.loadedFile = File.createTempFile("notepad-load", ".txt");
+        this.savedFile = File.createTempFile("notepad-save", ".txt");
+        FileUtil.saveContent(this.content, this.loadedFile);
+    }
+
+    /**
+     * Deletes the temporary files.
+     *
+     * @throws IOException if the files can not be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.loadedFile.toPath());
+        Files.deleteIfExists(this.savedFile.toPath());
+    }
+
+    /**
+     * Loads the file.
+     *
+     * @return The loaded content.
+     */
+    @Benchmark
+    public String loadContent() {
+        return FileUtil.loadContent(this.loadedFile, Charset.defaultCharset(), ProgressListener.NONE);
+    }
+
+    /**
+     * Saves the content, replacing the file written by the previous invocation.
+     *
+     * @throws IOException if the file can not be written.
+     */
+    @Benchmark
+    public void saveContent() throws IOException {
+        FileUtil.saveContent(this.content, this.savedFile, Charset.defaultCharset(), ProgressListener.NONE);
+    }
+}
@@ -0,0 +1,317 @@
+package papplevaa.notepad.benchmark;
+
+import papplevaa.notepad.controller.Controller;
+import papplevaa.notepad.model.Model;
+import papplevaa.notepad.model.Tab;
+import papplevaa.notepad.ui.UndoableTextArea;
+import papplevaa.notepad.ui.View;
+import papplevaa.notepad.util.LatencyHistogram;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Latency harness for the Swing side of the application, driving a View and a Controller on the event dispatch thread
+ * the way a user does: typing synthetic key events into 1 KB, 1 MB and 50 MB documents, and switching among 100 tabs.
+ * Each keystroke is measured from dispatching its key event to painting the visible part of the text area, and each
+ * switch from selecting the tab to painting the tabbed pane, so the cost of the document, the model, the controller
+ * and the repaint are all included.
+ *
+ * <p>The view is initialized without its frame and painted into an image, so the harness runs without a display as
+ * well as under Xvfb. The p50 and p99 latencies are written to a properties file and, if a baseline file from an
+ * earlier run is given, compared with it in a regression report; the harness exits with status 1 if a latency grew
+ * by more than the tolerance.
+ *
+ * <p>Run with {@code mvn -Pgui-benchmark test-compile exec:exec}, or directly with
+ * {@code GuiLatencyBenchmark <result file> [<baseline file>]}. The tolerance is set with
+ * {@code -Dbenchmark.tolerance=0.2}, a fraction of the baseline.
+ */
+public final class GuiLatencyBenchmark {
+    /** The sizes of the documents typed into, in kilobytes. */
+    private static final int[] DOCUMENT_KILOBYTES = {1, 1024, 51200};
+    /** The number of keystrokes typed before measuring, to warm up the code paths. */
+    private static final int WARMUP_KEYSTROKES = 2000;
+    /** The number of keystrokes measured per document. */
+    private static final int KEYSTROKES = 5000;
+    /** The number of tabs switched among. */
+    private static final int TABS = 100;
+    /** The size of the content of each switched tab, in kilobytes. */
+    private static final int TAB_KILOBYTES = 64;
+    /** The number of tab switches measured. */
+    private static final int SWITCHES = 2000;
+    /** The size of the painted view, like a maximized window. */
+    private static final Dimension VIEW_SIZE = new Dimension(1280, 800);
+    /** The default tolerated growth of a latency over its baseline, as a fraction of the baseline. */
+    private static final double DEFAULT_TOLERANCE = 0.2;
+    /** The latency below which changes are not reported as regressions, in microseconds, as they are noise. */
+    private static final long NOISE_MICROS = 20;
+
+    /** The image the view is painted into. */
+    private final BufferedImage canvas;
+    /** The latencies measured, by scenario. */
+    private final Map<String, LatencyHistogram> results;
+
+    /**
+     * Constructs a new GuiLatencyBenchmark.
+     */
+    private GuiLatencyBenchmark() {
+        this.canvas = new BufferedImage(VIEW_SIZE.width, VIEW_SIZE.height, BufferedImage.TYPE_INT_RGB);
+        this.results = new LinkedHashMap<>();
+    }
+
+    /**
+     * Runs all scenarios, writes the results and reports the regressions against the baseline.
+     *
+     * @param args The result file, defaulting to {@code gui-latency.properties}, then the optional baseline file.
+     * @throws Exception if a scenario fails or the files can not be read or written.
+     */
+    public static void main(String[] args) throws Exception {
+        File resultFile = new File((args.length > 0) ? args[0] : "gui-latency.properties");
+        File baselineFile = (args.length > 1) ? new File(args[1]) : null;
+        double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", String.valueOf(DEFAULT_TOLERANCE)));
+
+        GuiLatencyBenchmark benchmark = new GuiLatencyBenchmark();
+        for(int kilobytes : DOCUMENT_KILOBYTES) {
+            benchmark.measureTyping(kilobytes);
+        }
+        benchmark.measureTabSwitching();
+
+        Properties measured = benchmark.toProperties();
+        resultFile.getAbsoluteFile().getParentFile().mkdirs();
+        try(Writer writer = new OutputStreamWriter(new FileOutputStream(resultFile), StandardCharsets.UTF_8)) {
+            measured.store(writer, "GUI latencies in microseconds");
+        }
+        System.out.println("Results written to " + resultFile);
+
+        boolean regressed = false;
+        if(baselineFile != null && baselineFile.isFile()) {
+            Properties baseline = new Properties();
+            try(Reader reader = new InputStreamReader(new FileInputStream(baselineFile), StandardCharsets.UTF_8)) {
+                baseline.load(reader);
+            }
+            regressed = report(measured, baseline, tolerance);
+        } else {
+            for(Map.Entry<String, LatencyHistogram> entry : benchmark.results.entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+            }
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    /**
+     * Measures typing into the middle of a document shown in the selected tab.
+     *
+     * @param kilobytes The size of the document in kilobytes.
+     * @throws InterruptedException      if interrupted while waiting for the event dispatch thread.
+     * @throws InvocationTargetException if the scenario fails on the event dispatch thread.
+     */
+    private void measureTyping(int kilobytes) throws InterruptedException, InvocationTargetException {
+        String content = createContent(kilobytes);
+        LatencyHistogram latencies = new LatencyHistogram();
+        SwingUtilities.invokeAndWait(() -> {
+            Model model = new Model();
+            model.addTab(new Tab("typing.txt", content, null));
+            model.setSelectedIndex(0);
+            View view = new View();
+            new Controller(view, model);
+            JComponent root = this.layOut(view.initializeContent(model));
+            UndoableTextArea textArea = view.getSelectedTextArea();
+            textArea.setCaretPosition(content.indexOf('\n', content.length() / 2) + 1);
+            this.layOut(root);
+            textArea.scrollRectToVisible(this.caretRectangle(textArea));
+            for(int keystroke = 0; keystroke < WARMUP_KEYSTROKES + KEYSTROKES; keystroke++) {
+                long startNanos = System.nanoTime();
+                this.type(textArea, (keystroke % 60 == 59) ? '\n' : (char) ('a' + keystroke % 26));
+                this.paint(textArea, textArea.getVisibleRect());
+                if(keystroke >= WARMUP_KEYSTROKES) {
+                    latencies.recordSince(startNanos);
+                }
+            }
+            if(model.getTabAt(0).getCurrentLength() != content.length() + WARMUP_KEYSTROKES + KEYSTROKES) {
+                throw new IllegalStateException("The keystrokes did not reach the model");
+            }
+        });
+        this.results.put("typing." + kilobytes + "KB", latencies);
+    }
+
+    /**
+     * Measures switching among tabs in a random order. The first visit of a tab creates its text area,
+     * so the first visits and the later ones are measured apart.
+     *
+     * @throws InterruptedException      if interrupted while waiting for the event dispatch thread.
+     * @throws InvocationTargetException if the scenario fails on the event dispatch thread.
+     */
+    private void measureTabSwitching() throws InterruptedException, InvocationTargetException {
+        String content = createContent(TAB_KILOBYTES);
+        LatencyHistogram firstVisits = new LatencyHistogram();
+        LatencyHistogram latencies = new LatencyHistogram();
+        SwingUtilities.invokeAndWait(() -> {
+            Model model = new Model();
+            for(int index = 0; index < TABS; index++) {
+                model.addTab(new Tab("tab" + index + ".txt", content, null));
+            }
+            model.setSelectedIndex(0);
+            View view = new View();
+            new Controller(view, model);
+            JComponent root = this.layOut(view.initializeContent(model));
+            boolean[] visited = new boolean[TABS];
+            visited[0] = true;
+            Random random = new Random(7);
+            int selected = 0;
+            for(int switched = 0; switched < SWITCHES; switched++) {
+                int index = random.nextInt(TABS - 1);
+                index = (index >= selected) ? index + 1 : index;
+                long startNanos = System.nanoTime();
+                view.changeSelectedTab(index);
+                this.layOut(root);
+                this.paint(root, new Rectangle(VIEW_SIZE));
+                (visited[index] ? latencies : firstVisits).recordSince(startNanos);
+                visited[index] = true;
+                selected = index;
+            }
+        });
+        this.results.put("tabSwitch.firstVisit", firstVisits);
+        this.results.put("tabSwitch", latencies);
+    }
+
+    /**
+     * Types a character into a text area by dispatching its key event through the keyboard focus manager, the way it
+     * is delivered to the focused component. The text area handles it with its key bindings and notifies the view
+     * and controller. A line break is typed with the Enter key, the other characters as typed keys.
+     *
+     * @param textArea  The text area typed into.
+     * @param character The character typed.
+     */
+    private void type(UndoableTextArea textArea, char character) {
+        long when = System.currentTimeMillis();
+        KeyEvent event = (character == '\n')
+                ? new KeyEvent(textArea, KeyEvent.KEY_PRESSED, when, 0, KeyEvent.VK_ENTER, character)
+                : new KeyEvent(textArea, KeyEvent.KEY_TYPED, when, 0, KeyEvent.VK_UNDEFINED, character);
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().redispatchEvent(textArea, event);
+    }
+
+    /**
+     * Paints a region of a component into the canvas, as the repaint manager does for a dirty region.
+     *
+     * @param component The component to paint.
+     * @param region    The region to paint, in the coordinates of the component.
+     */
+    private void paint(JComponent component, Rectangle region) {
+        Graphics2D graphics = this.canvas.createGraphics();
+        try {
+            graphics.setClip(region);
+            component.paint(graphics);
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * Sizes a component like a maximized window and lays out its whole tree, as a shown frame would.
+     *
+     * @param root The component to lay out.
+     * @return The component.
+     */
+    private JComponent layOut(JComponent root) {
+        root.setSize(VIEW_SIZE);
+        layOutTree(root);
+        return root;
+    }
+
+    /**
+     * Lays out a container and all containers in it.
+     *
+     * @param container The container to lay out.
+     */
+    private static void layOutTree(Container container) {
+        container.doLayout();
+        for(Component child : container.getComponents()) {
+            if(child instanceof Container) {
+                layOutTree((Container) child);
+            }
+        }
+    }
+
+    /**
+     * Gets the rectangle of the caret of a text area.
+     *
+     * @param textArea The text area.
+     * @return The rectangle, or an empty one at the origin if it can not be computed.
+     */
+    private Rectangle caretRectangle(UndoableTextArea textArea) {
+        try {
+            Rectangle rectangle = textArea.modelToView2D(textArea.getCaretPosition()).getBounds();
+            rectangle.grow(0, VIEW_SIZE.height / 2);
+            return rectangle;
+        } catch(BadLocationException exception) {
+            return new Rectangle();
+        }
+    }
+
+    /**
+     * Creates the content of a document made of lines of prose.
+     *
+     * @param kilobytes The size of the content in kilobytes.
+     * @return The content.
+     */
+    private static String createContent(int kilobytes) {
+        StringBuilder builder = new StringBuilder(kilobytes << 10);
+        while(builder.length() < kilobytes << 10) {
+            builder.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit.\n");
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Gets the p50 and p99 latencies of all scenarios, in microseconds.
+     *
+     * @return The latencies, keyed by scenario and percentile, e.g. {@code typing.1KB.p99}.
+     */
+    private Properties toProperties() {
+        Properties properties = new Properties();
+        for(Map.Entry<String, LatencyHistogram> entry : this.results.entrySet()) {
+            properties.setProperty(entry.getKey() + ".p50", String.valueOf(entry.getValue().getP50Micros()));
+            properties.setProperty(entry.getKey() + ".p99", String.valueOf(entry.getValue().getP99Micros()));
+        }
+        return properties;
+    }
+
+    /**
+     * Prints the latencies next to their baseline, marking those that grew by more than the tolerance.
+     *
+     * @param measured  The latencies measured.
+     * @param baseline  The latencies of the baseline.
+     * @param tolerance The tolerated growth, as a fraction of the baseline.
+     * @return True if a latency regressed, false otherwise.
+     */
+    private static boolean report(Properties measured, Properties baseline, double tolerance) {
+        boolean regressed = false;
+        System.out.println(String.format("%-28s %10s %10s %8s", "Latency (us)", "Baseline", "Measured", "Change"));
+        for(String key : new TreeSet<>(measured.stringPropertyNames())) {
+            long value = Long.parseLong(measured.getProperty(key));
+            String baselineValue = baseline.getProperty(key);
+            if(baselineValue == null) {
+                System.out.println(String.format("%-28s %10s %10d %8s", key, "-", value, "new"));
+                continue;
+            }
+            long previous = Long.parseLong(baselineValue);
+            double change = (previous == 0) ? 0 : (double) (value - previous) / previous;
+            boolean regression = value - previous > NOISE_MICROS && change > tolerance;
+            regressed |= regression;
+            System.out.println(String.format("%-28s %10d %10d %+7.1f%%%s", key, previous, value, change * 100, regression ? "  REGRESSION" : ""));
+        }
+        System.out.println(regressed ? "Latencies regressed by more than " + Math.round(tolerance * 100) + "%" : "No regressions");
+        return regressed;
+    }
+}
@@ -0,0 +1,77 @@
+package papplevaa.notepad.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import papplevaa.notepad.util.FileUtil;
+import papplevaa.notepad.util.ProgressListener;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput benchmark comparing the block based FileUtil.loadContent with the former per-character loader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LoadContentBenchmark {
+    /** The size of the loaded file in kilobytes. */
+    @Param({"1", "1024", "16384"})
+    public int sizeInKilobytes;
+
+    /** The temporary file holding the benchmarked content. */
+    private File file;
+
+    /**
+     * Writes a file of the benchmarked size filled with printable lines.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.file = File.createTempFile("notepad-load", ".txt");
+        String line = "The quick brown fox jumps over the lazy dog 0123456789\n";
+        long size = this.sizeInKilobytes * 1024L;
+        try (Writer writer = new BufferedWriter(new FileWriter(this.file))) {
+            for(long written = 0; written < size; written += line.length()) {
+                writer.write(line);
+            }
+        }
+    }
+
+    /**
+     * Deletes the temporary file.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file.toPath());
+    }
+
+    /**
+     * Loads the file block by block.
+     *
+     * @return The loaded content.
+     */
+    @Benchmark
+    public String blockLoader() {
+        return FileUtil.loadContent(this.file, Charset.defaultCharset(), ProgressListener.NONE);
+    }
+
+    /**
+     * Loads the file one character at a time, the way FileUtil.loadContent used to.
+     *
+     * @return The loaded content.
+     */
+    @Benchmark
+    public String perCharacterLoader() throws IOException {
+        StringBuilder content = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new FileReader(this.file))) {
+            while (reader.ready()) {
+                content.append((char) reader.read());
+            }
+        }
+        return content.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package papplevaa.notepad.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import papplevaa.notepad.model.PieceTable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark comparing the piece table text model with the former immutable String model,
+ * where every edit produces a new copy of the whole content.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class PieceTableBenchmark {
+    /** The size of the edited content in kilobytes. */
+    @Param({"64", "1024", "16384"})
+    public int sizeInKilobytes;
+
+    /** The number of edits per invocation. */
+    private static final int EDITS = 100;
+
+    /** The original content. */
+    private String content;
+    /** The offsets of the edits, generated up front. */
+    private int[] offsets;
+
+    /**
+     * Creates the content and the offsets of the edits.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder builder = new StringBuilder(this.sizeInKilobytes << 10);
+        while(builder.length() < this.sizeInKilobytes << 10) {
+            builder.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit.\n");
+        }
+        this.content = builder.toString();
+        Random random = new Random(7);
+        this.offsets = new int[EDITS];
+        for(int index = 0; index < EDITS; index++) {
+            this.offsets[index] = random.nextInt(this.content.length() - EDITS);
+        }
+    }
+
+    /**
+     * Applies insertions and deletions at random offsets to an immutable string.
+     *
+     * @return The edited content.
+     */
+    @Benchmark
+    public String stringEdits() {
+        String text = this.content;
+        for(int index = 0; index < EDITS; index++) {
+            int offset = this.offsets[index];
+            text = (index % 2 == 0)
+                    ? text.substring(0, offset) + "x" + text.substring(offset)
+                    : text.substring(0, offset) + text.substring(offset + 1);
+        }
+        return text;
+    }
+
+    /**
+     * Applies insertions and deletions at random offsets to a piece table.
+     *
+     * @param blackhole The blackhole consuming the edited table.
+     */
+    @Benchmark
+    public void pieceTableEdits(Blackhole blackhole) {
+        PieceTable table = new PieceTable(this.content);
+        for(int index = 0; index < EDITS; index++) {
+            int offset = this.offsets[index];
+            if(index % 2 == 0) {
+                table.insert(offset, "x");
+            } else {
+                table.delete(offset, 1);
+            }
+        }
+        blackhole.consume(table.length());
+    }
+
+    /**
+     * Measures the memory-free cost of wrapping unmodified content, which is what an untouched tab pays.
+     *
+     * @return The piece table over the content.
+     */
+    @Benchmark
+    public PieceTable pieceTableUnmodified() {
+        return new PieceTable(this.content);
+    }
+}
@@ -0,0 +1,106 @@
+package papplevaa.notepad.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import papplevaa.notepad.model.Model;
+import papplevaa.notepad.model.SessionStore;
+import papplevaa.notepad.model.Tab;
+import papplevaa.notepad.util.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark comparing the session format with the former Java serialization of the whole model,
+ * for a session of file-backed tabs of which every tenth has a few unsaved edits.
+ * The files of the tabs are read when the session is restored in both cases, so only the session file is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SessionBenchmark {
+    /** The number of tabs in the session. */
+    @Param({"100", "1000"})
+    public int tabs;
+
+    /** The total size of the content of the tabs in megabytes. */
+    @Param({"500"})
+    public int totalMegabytes;
+
+    /** The model holding the tabs. */
+    private Model model;
+    /** The session file written by Java serialization. */
+    private File serializedSession;
+    /** The session file written in the session format. */
+    private File session;
+
+    /**
+     * Creates the tabs and writes both session files, so the read benchmarks have something to read.
+     *
+     * @throws IOException if the session files can not be created.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        int tabLength = (int) (((long) this.totalMegabytes << 20) / this.tabs);
+        this.model = new Model();
+        for(int index = 0; index < this.tabs; index++) {
+            StringBuilder builder = new StringBuilder(tabLength);
+            while(builder.length() < tabLength) {
+                builder.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit. Tab #").append(index).append('\n');
+            }
+            Tab tab = new Tab("tab" + index + ".txt", builder.toString(), new File("tab" + index + ".txt"));
+            if(index % 10 == 0) {
+                tab.applyEdit(tabLength / 2, 5, "edited");
+                tab.applyEdit(0, 0, "A new first line\n");
+            }
+            this.model.addTab(tab);
+        }
+        this.serializedSession = File.createTempFile("notepad-serialized", ".data");
+        this.serializedSession.deleteOnExit();
+        this.session = File.createTempFile("notepad-session", ".data");
+        this.session.deleteOnExit();
+        FileUtil.serialize(this.serializedSession, this.model);
+        SessionStore.write(this.session, this.model);
+        System.out.println();
+        System.out.println("Serialized session: " + this.serializedSession.length() + " bytes, session: " + this.session.length() + " bytes");
+    }
+
+    /**
+     * Writes the model with Java serialization.
+     */
+    @Benchmark
+    public void serializedWrite() {
+        FileUtil.serialize(this.serializedSession, this.model);
+    }
+
+    /**
+     * Writes the model in the session format.
+     */
+    @Benchmark
+    public void sessionWrite() {
+        SessionStore.write(this.session, this.model);
+    }
+
+    /**
+     * Reads the model with Java serialization.
+     *
+     * @return The model read.
+     */
+    @Benchmark
+    public Model serializedRead() {
+        return FileUtil.deserialize(this.serializedSession, Model.class);
+    }
+
+    /**
+     * Reads the model in the session format.
+     *
+     * @return The model read.
+     */
+    @Benchmark
+    public Model sessionRead() {
+        return SessionStore.read(this.session);
+    }
+}
@@ -0,0 +1,84 @@
+package papplevaa.notepad.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import papplevaa.notepad.model.Tab;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of checking a large tab for unsaved changes after an edit, for the three outcomes of the check:
+ * an edit changing the length, answered without comparing; a replacement of the same length; and an edit undone,
+ * whose content is equal to the saved content again. The last two compare the piece table with the saved content,
+ * which should cost time proportional to the edits, not to the size of the tab.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TabBenchmark {
+    /** The size of the content of the tab in megabytes. */
+    @Param({"1", "50", "500"})
+    public int sizeInMegabytes;
+
+    /** The saved content of the tab. */
+    private String content;
+    /** The tab checked. */
+    private Tab tab;
+    /** The offset of the edits, in the middle of the content. */
+    private int offset;
+
+    /**
+     * Creates the content of the tab.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        StringBuilder builder = new StringBuilder(this.sizeInMegabytes << 20);
+        while(builder.length() < this.sizeInMegabytes << 20) {
+            builder.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit.\n");
+        }
+        this.content = builder.toString();
+        this.tab = new Tab("Benchmark", this.content, null);
+        this.offset = this.content.length() / 2;
+    }
+
+    /**
+     * Inserts a character, then checks the tab.
+     *
+     * @return The unsaved flag of the tab.
+     */
+    @Benchmark
+    public boolean lengthChanged() {
+        this.tab.applyEdit(this.offset, 0, "x");
+        boolean unsaved = this.tab.isUnsaved();
+        this.tab.applyEdit(this.offset, 1, "");
+        return unsaved;
+    }
+
+    /**
+     * Replaces a character by another one, then checks the tab.
+     *
+     * @return The unsaved flag of the tab.
+     */
+    @Benchmark
+    public boolean sameLength() {
+        char original = this.content.charAt(this.offset);
+        this.tab.applyEdit(this.offset, 1, "#");
+        boolean unsaved = this.tab.isUnsaved();
+        this.tab.applyEdit(this.offset, 1, String.valueOf(original));
+        return unsaved;
+    }
+
+    /**
+     * Inserts and deletes a character, then checks the tab, which has the saved content again.
+     *
+     * @return The unsaved flag of the tab.
+     */
+    @Benchmark
+    public boolean editUndone() {
+        this.tab.applyEdit(this.offset, 0, "x");
+        this.tab.applyEdit(this.offset, 1, "");
+        return this.tab.isUnsaved();
+    }
+}
@@ -0,0 +1,76 @@
+package papplevaa.notepad.model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the LineIndex class.
+ */
+public class LineIndexTest {
+    /**
+     * Test: Constructor with a text of three lines, the last one empty.
+     * Expected: The line count, the line starts and the lines of offsets match the text.
+     */
+    @Test
+    public void testLineIndexOfText() {
+        // Arrange
+        String text = "ab\ncd\n";
+        // Act
+        LineIndex lineIndex = new LineIndex(text);
+        // Assert
+        assertEquals(3, lineIndex.getLineCount());
+        assertEquals(0, lineIndex.getLineStart(0));
+        assertEquals(3, lineIndex.getLineStart(1));
+        assertEquals(6, lineIndex.getLineStart(2));
+        assertEquals(0, lineIndex.getLineOfOffset(2));
+        assertEquals(1, lineIndex.getLineOfOffset(3));
+        assertEquals(2, lineIndex.getLineOfOffset(6));
+    }
+
+    /**
+     * Test: applyEdit method with random inserts, deletes and replaces spread over the text.
+     * Expected: After each edit, the index matches an index built from scratch from the edited text.
+     */
+    @Test
+    public void testApplyEditMatchesRebuiltIndex() {
+        // Arrange
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder("first\nsecond\n\nfourth");
+        LineIndex lineIndex = new LineIndex(text);
+        for(int edit = 0; edit < 2000; edit++) {
+            int offset = random.nextInt(text.length() + 1);
+            int removedLength = random.nextInt(Math.min(8, text.length() - offset) + 1);
+            StringBuilder inserted = new StringBuilder();
+            for(int index = random.nextInt(6); index > 0; index--) {
+                inserted.append("x\ny".charAt(random.nextInt(3)));
+            }
+            // Act
+            text.replace(offset, offset + removedLength, inserted.toString());
+            lineIndex.applyEdit(offset, removedLength, inserted);
+            // Assert
+            LineIndex rebuilt = new LineIndex(text);
+            assertEquals(rebuilt.getLineCount(), lineIndex.getLineCount());
+            assertEquals(text.length(), lineIndex.getLength());
+            for(int line = 0; line < rebuilt.getLineCount(); line++) {
+                assertEquals(rebuilt.getLineStart(line), lineIndex.getLineStart(line));
+            }
+            int probe = random.nextInt(text.length() + 1);
+            assertEquals(rebuilt.getLineOfOffset(probe), lineIndex.getLineOfOffset(probe));
+        }
+    }
+
+    /**
+     * Test: getLineStart method with a line after the last one.
+     * Expected: IndexOutOfBoundsException is thrown.
+     */
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void testGetLineStartOutOfBounds() {
+        // Arrange
+        LineIndex lineIndex = new LineIndex("one\ntwo");
+        // Act
+        lineIndex.getLineStart(2);
+    }
+}
@@ -0,0 +1,82 @@
+package papplevaa.notepad.model;
+
+import org.junit.Test;
+import papplevaa.notepad.util.ProgressListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the MappedText class.
+ */
+public class MappedTextTest {
+    /**
+     * Test: open method with a file of more lines than the distance of two index checkpoints.
+     * Expected: Every line is located and decoded, including the empty line after the last line feed.
+     */
+    @Test
+    public void testOpenAndGetLine() throws IOException {
+        // Arrange
+        File file = File.createTempFile("notepad-mapped", ".txt");
+        file.deleteOnExit();
+        StringBuilder content = new StringBuilder();
+        for(int line = 0; line < 3000; line++) {
+            content.append("Line #").append(line).append(line % 2 == 0 ? "\n" : "\r\n");
+        }
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        // Act
+        MappedText text = MappedText.open(file, StandardCharsets.UTF_8, ProgressListener.NONE);
+        // Assert
+        assertEquals(3001, text.getLineCount());
+        assertEquals(file.length(), text.getSize());
+        assertEquals("Line #0", text.getLine(0));
+        assertEquals("Line #2047", text.getLine(2047));
+        assertEquals("Line #1025", text.getLine(1025));
+        assertEquals("Line #2999", text.getLine(2999));
+        assertEquals("", text.getLine(3000));
+    }
+
+    /**
+     * Test: open method with lines longer than the distance in bytes of two index checkpoints, and short lines between.
+     * Expected: Every line is located, long lines being cut at the longest decoded prefix.
+     */
+    @Test
+    public void testGetLineWithLongLines() throws IOException {
+        // Arrange
+        File file = File.createTempFile("notepad-mapped", ".txt");
+        file.deleteOnExit();
+        String longLine = "x".repeat(100_000);
+        StringBuilder content = new StringBuilder();
+        for(int line = 0; line < 40; line++) {
+            content.append(line % 4 == 0 ? longLine : "Line #" + line).append('\n');
+        }
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        // Act
+        MappedText text = MappedText.open(file, StandardCharsets.UTF_8, ProgressListener.NONE);
+        // Assert
+        assertEquals(41, text.getLineCount());
+        assertEquals("Line #39", text.getLine(39));
+        assertEquals("Line #5", text.getLine(5));
+        assertEquals(1 << 16, text.getLine(36).length());
+        assertEquals("Line #37", text.getLine(37));
+        assertEquals("", text.getLine(40));
+    }
+
+    /**
+     * Test: getLine method with an invalid index.
+     * Expected: IndexOutOfBoundsException is thrown.
+     */
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void testGetLineInvalidIndex() throws IOException {
+        // Arrange
+        File file = File.createTempFile("notepad-mapped", ".txt");
+        file.deleteOnExit();
+        MappedText text = MappedText.open(file, StandardCharsets.UTF_8, ProgressListener.NONE);
+        // Act
+        text.getLine(1);
+    }
+}
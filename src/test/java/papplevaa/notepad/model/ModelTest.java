@@ -3,6 +3,9 @@ package papplevaa.notepad.model;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.NoSuchElementException;
 
 import static org.junit.Assert.*;
@@ -115,4 +118,82 @@ public class ModelTest {
     public void testRemoveTabInvalidIndex() {
         model.removeTab(1);
     }
+
+    /**
+     * Test: findTab with paths leading to the file of a tab through {@code ..} and a symbolic link.
+     * Expected: The tab is found by every path, and no tab by the path of another file.
+     */
+    @Test
+    public void testFindTabByOtherPaths() throws IOException {
+        // Arrange
+        File directory = Files.createTempDirectory("model").toFile();
+        File file = new File(directory, "notes.txt");
+        File link = new File(directory, "link.txt");
+        try {
+            Files.createFile(file.toPath());
+            Files.createSymbolicLink(link.toPath(), file.toPath());
+            Tab tab = new Tab("notes.txt", "", file);
+            model.addTab(tab);
+            // Act
+            Tab byDots = model.findTab(new File(new File(directory, "sub"), ".." + File.separator + "notes.txt"));
+            Tab byLink = model.findTab(link);
+            Tab byOther = model.findTab(new File(directory, "other.txt"));
+            // Assert
+            assertSame(tab, model.findTab(file));
+            assertSame(tab, byDots);
+            assertSame(tab, byLink);
+            assertNull(byOther);
+        } finally {
+            link.delete();
+            file.delete();
+            directory.delete();
+        }
+    }
+
+    /**
+     * Test: findTab after the path of a tab is changed and after the tab is removed.
+     * Expected: The tab is found by its new path only, and by no path once removed.
+     */
+    @Test
+    public void testFindTabAfterPathChangeAndRemove() {
+        // Arrange
+        File oldPath = new File("old.txt");
+        File newPath = new File("new.txt");
+        Tab tab = new Tab("old.txt", "", oldPath);
+        model.addTab(new Tab());
+        model.addTab(tab);
+        // Act
+        model.setFilePathOf(tab, newPath);
+        Tab byOldPath = model.findTab(oldPath);
+        Tab byNewPath = model.findTab(newPath);
+        model.removeTab(model.indexOfTab(tab));
+        // Assert
+        assertNull(byOldPath);
+        assertSame(tab, byNewPath);
+        assertEquals(newPath, tab.getFilePath());
+        assertNull(model.findTab(newPath));
+    }
+
+    /**
+     * Test: findTab with two tabs of the same file, after the one found is removed and after the other one moves.
+     * Expected: The other tab is found once the first is removed, and no tab once it moves to another file.
+     */
+    @Test
+    public void testFindTabWithSameFileInTwoTabs() {
+        // Arrange
+        File path = new File("same.txt");
+        Tab first = new Tab("same.txt", "", path);
+        Tab second = new Tab("same.txt", "", path);
+        model.addTab(first);
+        model.addTab(second);
+        Tab beforeRemove = model.findTab(path);
+        // Act
+        model.removeTab(model.indexOfTab(first));
+        Tab afterRemove = model.findTab(path);
+        model.setFilePathOf(second, new File("other.txt"));
+        // Assert
+        assertSame(first, beforeRemove);
+        assertSame(second, afterRemove);
+        assertNull(model.findTab(path));
+    }
 }
@@ -0,0 +1,196 @@
+package papplevaa.notepad.model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the PieceTable class.
+ */
+public class PieceTableTest {
+    /**
+     * Test: Constructor with an original text.
+     * Expected: The text equals the original text, which is shared and not copied.
+     */
+    @Test
+    public void testConstructor() {
+        // Arrange
+        String original = "Hello, World!";
+        // Act
+        PieceTable table = new PieceTable(original);
+        // Assert
+        assertEquals(13, table.length());
+        assertTrue(table.isUnmodified());
+        assertEquals(1, table.getNumberOfPieces());
+        assertSame(original, table.toString());
+    }
+
+    /**
+     * Test: Constructor with null.
+     * Expected: NullPointerException is thrown.
+     */
+    @Test (expected = NullPointerException.class)
+    public void testConstructorWithNull() {
+        new PieceTable(null);
+    }
+
+    /**
+     * Test: insert method at the start, in the middle and at the end of the text.
+     * Expected: The text is inserted at each offset.
+     */
+    @Test
+    public void testInsert() {
+        // Arrange
+        PieceTable table = new PieceTable("Hello World");
+        // Act
+        table.insert(5, ",");
+        table.insert(0, ">> ");
+        table.insert(table.length(), "!");
+        // Assert
+        assertEquals(">> Hello, World!", table.toString());
+        assertFalse(table.isUnmodified());
+    }
+
+    /**
+     * Test: insert method with consecutive typing.
+     * Expected: The typed characters are coalesced into a single piece.
+     */
+    @Test
+    public void testInsertCoalescesTyping() {
+        // Arrange
+        PieceTable table = new PieceTable("Hello World");
+        // Act
+        table.insert(5, ",");
+        table.insert(6, " dear");
+        table.insert(11, "!");
+        // Assert
+        assertEquals("Hello, dear! World", table.toString());
+        assertEquals(3, table.getNumberOfPieces());
+    }
+
+    /**
+     * Test: insert method with an invalid offset.
+     * Expected: IndexOutOfBoundsException is thrown.
+     */
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void testInsertInvalidOffset() {
+        new PieceTable("Text").insert(5, "!");
+    }
+
+    /**
+     * Test: delete method across pieces.
+     * Expected: The range is removed from the text.
+     */
+    @Test
+    public void testDelete() {
+        // Arrange
+        PieceTable table = new PieceTable("Hello World");
+        table.insert(5, ", dear");
+        // Act
+        table.delete(3, 6);
+        // Assert
+        assertEquals("Helar World", table.toString());
+    }
+
+    /**
+     * Test: delete method with an invalid range.
+     * Expected: IndexOutOfBoundsException is thrown.
+     */
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void testDeleteInvalidRange() {
+        new PieceTable("Text").delete(2, 3);
+    }
+
+    /**
+     * Test: charAt and subSequence methods on a modified text.
+     * Expected: The characters are read across piece boundaries.
+     */
+    @Test
+    public void testCharAtAndSubSequence() {
+        // Arrange
+        PieceTable table = new PieceTable("abcdef");
+        table.insert(3, "XYZ");
+        // Act
+        char character = table.charAt(4);
+        CharSequence sequence = table.subSequence(2, 7);
+        // Assert
+        assertEquals('Y', character);
+        assertEquals("cXYZd", sequence.toString());
+    }
+
+    /**
+     * Test: snapshot method followed by further edits of the table.
+     * Expected: The snapshot keeps the text at the time it was taken, read in order and in ranges.
+     */
+    @Test
+    public void testSnapshot() {
+        // Arrange
+        PieceTable table = new PieceTable("abcdef");
+        table.insert(3, "XYZ");
+        table.delete(0, 1);
+        // Act
+        PieceTable.Snapshot snapshot = table.snapshot();
+        table.insert(0, "123");
+        StringBuilder read = new StringBuilder();
+        for(int index = 0; index < snapshot.length(); index++) {
+            read.append(snapshot.charAt(index));
+        }
+        // Assert
+        assertEquals("bcXYZdef", read.toString());
+        assertEquals("Zde", snapshot.subSequence(4, 7).toString());
+        assertEquals('X', snapshot.charAt(2));
+        assertEquals("bcXYZdef", snapshot.toString());
+        assertEquals("123bcXYZdef", table.toString());
+    }
+
+    /**
+     * Test: contentEquals method after edits that restore the original text.
+     * Expected: Returns true for the original text and false for a different text of the same length.
+     */
+    @Test
+    public void testContentEquals() {
+        // Arrange
+        String original = "Content";
+        PieceTable table = new PieceTable(original);
+        table.insert(7, "s");
+        table.delete(7, 1);
+        table.replace(0, 1, "C");
+        // Act
+        boolean equalsOriginal = table.contentEquals(original);
+        boolean equalsOther = table.contentEquals("Contest");
+        // Assert
+        assertTrue(equalsOriginal);
+        assertFalse(equalsOther);
+    }
+
+    /**
+     * Test: Random edits compared to a StringBuilder.
+     * Expected: The piece table holds the same text as the StringBuilder after every edit.
+     */
+    @Test
+    public void testRandomEdits() {
+        // Arrange
+        Random random = new Random(42);
+        StringBuilder expected = new StringBuilder("The quick brown fox jumps over the lazy dog");
+        PieceTable table = new PieceTable(expected.toString());
+        // Act & Assert
+        for(int edit = 0; edit < 2000; edit++) {
+            int offset = random.nextInt(expected.length() + 1);
+            if(random.nextBoolean() || expected.length() == 0) {
+                String text = Integer.toString(edit);
+                expected.insert(offset, text);
+                table.insert(offset, text);
+            } else {
+                int length = random.nextInt(Math.min(5, expected.length() - Math.min(offset, expected.length() - 1)) + 1);
+                offset = Math.min(offset, expected.length() - length);
+                expected.delete(offset, offset + length);
+                table.delete(offset, length);
+            }
+            assertEquals(expected.length(), table.length());
+        }
+        assertEquals(expected.toString(), table.toString());
+        assertTrue(table.contentEquals(expected.toString()));
+    }
+}
@@ -0,0 +1,90 @@
+package papplevaa.notepad.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the SessionDelta class.
+ */
+public class SessionDeltaTest {
+    /**
+     * Test: withEdit method with random edits on the delta of an unmodified tab.
+     * Expected: Applying the delta gives the same content as applying the edits to a string.
+     */
+    @Test
+    public void testWithEditMatchesStringEdits() {
+        // Arrange
+        String saved = "The quick brown fox jumps over the lazy dog";
+        SessionDelta delta = SessionDelta.unmodified(saved);
+        StringBuilder expected = new StringBuilder(saved);
+        Random random = new Random(3);
+        // Act
+        for(int edit = 0; edit < 500; edit++) {
+            int offset = random.nextInt(expected.length() + 1);
+            int removedLength = random.nextInt(Math.min(4, expected.length() - offset) + 1);
+            String insertedText = (random.nextInt(3) == 0) ? "" : Integer.toString(edit);
+            delta = delta.withEdit(offset, removedLength, insertedText);
+            expected.replace(offset, offset + removedLength, insertedText);
+        }
+        // Assert
+        assertEquals(expected.toString(), delta.applyTo(saved).toString());
+    }
+
+    /**
+     * Test: withEdit method with an edit beyond the end of the content.
+     * Expected: IndexOutOfBoundsException is thrown.
+     */
+    @Test (expected = IndexOutOfBoundsException.class)
+    public void testWithEditOutOfBounds() {
+        // Arrange
+        SessionDelta delta = SessionDelta.unmodified("Short");
+        // Act
+        delta.withEdit(4, 2, "");
+    }
+
+    /**
+     * Test: applyTo method with a saved content different from the one the delta was made for.
+     * Expected: Null is returned.
+     */
+    @Test
+    public void testApplyToChangedContent() {
+        // Arrange
+        SessionDelta delta = SessionDelta.unmodified("Saved").withEdit(0, 0, "Un");
+        // Act
+        PieceTable table = delta.applyTo("Changed");
+        // Assert
+        assertNull(table);
+    }
+
+    /**
+     * Test: applyTo method with a saved content different from the one the delta of a piece table was made for,
+     * after writing and reading the delta and replaying an edit on it.
+     * Expected: The fallback is taken as the content, including the replayed edit.
+     */
+    @Test
+    public void testApplyToChangedContentWithFallback() throws IOException {
+        // Arrange
+        PieceTable edited = new PieceTable("Hello World");
+        edited.replace(0, 5, "Howdy");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream stream = new DataOutputStream(bytes)) {
+            SessionDelta.of(edited).write(stream);
+        }
+        SessionDelta delta = SessionDelta.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), true);
+        delta = delta.withEdit(11, 0, "!");
+        // Act
+        PieceTable table = delta.applyTo("Goodbye World");
+        // Assert
+        assertNotNull(table);
+        assertEquals("Howdy World!", table.toString());
+        assertEquals("Goodbye World", table.getOriginal());
+    }
+}
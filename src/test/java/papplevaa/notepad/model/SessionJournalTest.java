@@ -0,0 +1,133 @@
+package papplevaa.notepad.model;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the SessionJournal class.
+ */
+public class SessionJournalTest {
+    /**
+     * Test: recover method after edits were written to the journal but the application was never closed.
+     * Expected: The edits of both the untitled and the file-backed tab are recovered.
+     */
+    @Test
+    public void testRecoverAfterCrash() throws IOException {
+        // Arrange
+        File session = createTempFile(".data");
+        File journalFile = createTempFile(".journal");
+        Model model = new Model();
+        model.addTab(new Tab());
+        model.addTab(new Tab("a.txt", "Hello World", new File("a.txt")));
+        SessionJournal journal = new SessionJournal(session, journalFile, () -> {});
+        journal.checkpoint(model);
+        journal.recordEdit(0, 0, 0, "Draft");
+        journal.recordEdit(1, 5, 0, ",");
+        journal.recordEdit(1, 12, 0, "!");
+        journal.flush();
+        // Act
+        Model recovered = new SessionJournal(session, journalFile, () -> {}).recover();
+        // Assert
+        assertNotNull(recovered);
+        assertEquals("Draft", recovered.getTabAt(0).getCurrentContent());
+        Tab fileTab = recovered.getTabAt(1);
+        fileTab.setLastSavedContent("Hello World");
+        assertEquals("Hello, World!", fileTab.getCurrentContent());
+        assertTrue(fileTab.isUnsaved());
+    }
+
+    /**
+     * Test: recover method with a journal left behind by a crash after the session of the next checkpoint was written.
+     * Expected: The journal is ignored, so its edits are not applied twice.
+     */
+    @Test
+    public void testRecoverIgnoresStaleJournal() throws IOException {
+        // Arrange
+        File session = createTempFile(".data");
+        File journalFile = createTempFile(".journal");
+        File staleJournal = createTempFile(".stale");
+        Model model = new Model();
+        Tab tab = new Tab();
+        model.addTab(tab);
+        SessionJournal journal = new SessionJournal(session, journalFile, () -> {});
+        journal.checkpoint(model);
+        tab.applyEdit(0, 0, "Once");
+        journal.recordEdit(0, 0, 0, "Once");
+        journal.flush();
+        Files.copy(journalFile.toPath(), staleJournal.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        journal.checkpoint(model);
+        journal.flush();
+        Files.copy(staleJournal.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        // Act
+        Model recovered = new SessionJournal(session, journalFile, () -> {}).recover();
+        // Assert
+        assertEquals("Once", recovered.getTabAt(0).getCurrentContent());
+    }
+
+    /**
+     * Test: recover method with a journal ending in a partially written record.
+     * Expected: The complete records are replayed and the partial record is ignored.
+     */
+    @Test
+    public void testRecoverWithPartialRecord() throws IOException {
+        // Arrange
+        File session = createTempFile(".data");
+        File journalFile = createTempFile(".journal");
+        Model model = new Model();
+        model.addTab(new Tab());
+        SessionJournal journal = new SessionJournal(session, journalFile, () -> {});
+        journal.checkpoint(model);
+        journal.recordEdit(0, 0, 0, "Complete");
+        journal.flush();
+        try (FileOutputStream stream = new FileOutputStream(journalFile, true)) {
+            stream.write(new byte[] {0, 0, 0, 0, 0, 0});
+        }
+        // Act
+        Model recovered = new SessionJournal(session, journalFile, () -> {}).recover();
+        // Assert
+        assertEquals("Complete", recovered.getTabAt(0).getCurrentContent());
+    }
+
+    /**
+     * Test: close method after edits were recorded.
+     * Expected: The session holds the edits and the journal is deleted.
+     */
+    @Test
+    public void testClose() throws IOException {
+        // Arrange
+        File session = createTempFile(".data");
+        File journalFile = createTempFile(".journal");
+        Model model = new Model();
+        Tab tab = new Tab();
+        model.addTab(tab);
+        SessionJournal journal = new SessionJournal(session, journalFile, () -> {});
+        journal.start(model);
+        tab.applyEdit(0, 0, "Closed");
+        journal.recordEdit(0, 0, 0, "Closed");
+        // Act
+        journal.close(model);
+        // Assert
+        assertFalse(journalFile.exists());
+        assertEquals("Closed", SessionStore.read(session).getTabAt(0).getCurrentContent());
+    }
+
+    /**
+     * Creates a temporary file deleted when the tests end.
+     *
+     * @param suffix The suffix of the file name.
+     * @return The temporary file.
+     * @throws IOException if the file can not be created.
+     */
+    private static File createTempFile(String suffix) throws IOException {
+        File file = File.createTempFile("notepad-journal", suffix);
+        file.deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,201 @@
+package papplevaa.notepad.model;
+
+import org.junit.Test;
+import papplevaa.notepad.util.FileUtil;
+import papplevaa.notepad.util.LineSeparator;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the SessionStore class.
+ */
+public class SessionStoreTest {
+    /**
+     * Test: write and read methods with an untitled tab, an unmodified and a modified file-backed tab.
+     * Expected: The settings and tabs are restored, and file-backed tabs get their changes once their saved content is set.
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        // Arrange
+        File session = File.createTempFile("notepad-session", ".data");
+        session.deleteOnExit();
+        Model model = new Model();
+        model.setDarkMode(false);
+        model.setWindowWidth(800);
+        model.setWindowHeight(600);
+        Tab untitled = new Tab();
+        untitled.setCurrentContent("Draft");
+        Tab unmodified = new Tab("a.txt", "Saved content", new File("a.txt"));
+        Tab modified = new Tab("b.txt", "Hello World", new File("b.txt"));
+        modified.applyEdit(5, 0, ",");
+        modified.applyEdit(12, 0, "!!!");
+        model.addTab(untitled);
+        model.addTab(unmodified);
+        model.addTab(modified);
+        model.setSelectedIndex(2);
+        // Act
+        SessionStore.write(session, model);
+        Model restored = SessionStore.read(session);
+        // Assert
+        assertNotNull(restored);
+        assertFalse(restored.isDarkMode());
+        assertEquals(800, restored.getWindowWidth());
+        assertEquals(600, restored.getWindowHeight());
+        assertEquals(2, restored.getSelectedIndex());
+        assertEquals(3, restored.getNumberOfTabs());
+        assertEquals("Draft", restored.getTabAt(0).getCurrentContent());
+        assertNull(restored.getTabAt(0).getFilePath());
+        Tab restoredUnmodified = restored.getTabAt(1);
+        assertEquals(new File("a.txt"), restoredUnmodified.getFilePath());
+        restoredUnmodified.setLastSavedContent("Saved content");
+        assertEquals("Saved content", restoredUnmodified.getCurrentContent());
+        assertFalse(restoredUnmodified.isUnsaved());
+        Tab restoredModified = restored.getTabAt(2);
+        assertEquals("b.txt", restoredModified.getTitle());
+        restoredModified.setLastSavedContent("Hello World");
+        assertEquals("Hello, World!!!", restoredModified.getCurrentContent());
+        assertTrue(restoredModified.isUnsaved());
+        assertFalse(restoredModified.isChangedSinceSession());
+    }
+
+    /**
+     * Test: read method after the file of a modified tab changed on disk.
+     * Expected: The unsaved content is kept as unsaved changes over the new content of the file, which is reported.
+     */
+    @Test
+    public void testReadWithChangedFile() throws IOException {
+        // Arrange
+        File session = File.createTempFile("notepad-session", ".data");
+        session.deleteOnExit();
+        Model model = new Model();
+        Tab modified = new Tab("b.txt", "Hello World", new File("b.txt"));
+        modified.applyEdit(0, 5, "Howdy");
+        model.addTab(modified);
+        SessionStore.write(session, model);
+        // Act
+        Tab restored = SessionStore.read(session).getTabAt(0);
+        restored.setLastSavedContent("Goodbye World");
+        // Assert
+        assertEquals("Howdy World", restored.getCurrentContent());
+        assertEquals("Goodbye World", restored.getLastSavedContent());
+        assertTrue(restored.isUnsaved());
+        assertTrue(restored.isChangedSinceSession());
+        assertFalse(restored.isRestoredChangesDropped());
+    }
+
+    /**
+     * Test: write method with a large file-backed tab holding a small edit, larger than the fallback limit.
+     * Expected: Only the pieces are stored, so the session stays small, and the edit is restored over the file.
+     */
+    @Test
+    public void testWriteLargeModifiedTabStoresPieces() throws IOException {
+        // Arrange
+        File session = File.createTempFile("notepad-session", ".data");
+        session.deleteOnExit();
+        String saved = "x".repeat(2 << 20);
+        Model model = new Model();
+        Tab modified = new Tab("e.txt", saved, new File("e.txt"));
+        modified.applyEdit(1000, 0, "edit");
+        model.addTab(modified);
+        // Act
+        SessionStore.write(session, model);
+        Tab restored = SessionStore.read(session).getTabAt(0);
+        restored.setLastSavedContent(saved);
+        // Assert
+        assertTrue(session.length() < 4096);
+        assertEquals(saved.length() + 4, restored.getCurrentLength());
+        assertEquals("xedit", restored.getCurrentContent().substring(999, 1004));
+        assertFalse(restored.isChangedSinceSession());
+    }
+
+    /**
+     * Test: read method with a version 3 session holding an edit of a CRLF file and an untitled tab with CRLF text.
+     * Expected: The edit applies to the normalized file without reporting a change, and the text is normalized.
+     */
+    @Test
+    public void testReadVersion3SessionWithCrlf() throws IOException {
+        // Arrange
+        File session = File.createTempFile("notepad-session", ".data");
+        session.deleteOnExit();
+        try (DataOutputStream stream = new DataOutputStream(new FileOutputStream(session))) {
+            stream.writeInt(0x4E504144);
+            stream.writeInt(3);
+            stream.writeLong(0);
+            stream.writeBoolean(false);
+            stream.writeInt(800);
+            stream.writeInt(600);
+            stream.writeInt(0);
+            stream.writeInt(2);
+            stream.writeUTF("d.txt");
+            stream.writeBoolean(true);
+            stream.writeUTF("d.txt");
+            stream.writeBoolean(false);
+            stream.writeByte(1);
+            // A version 3 delta: the saved length and hash, then an inserted piece and a range of the saved content
+            stream.writeInt(14);
+            stream.writeInt("Hello\r\nWorld\r\n".hashCode());
+            stream.writeInt(2);
+            stream.writeBoolean(false);
+            SessionStore.writeText(stream, "Howdy");
+            stream.writeBoolean(true);
+            stream.writeInt(5);
+            stream.writeInt(9);
+            stream.writeUTF("Untitled");
+            stream.writeBoolean(false);
+            stream.writeBoolean(false);
+            stream.writeByte(0);
+            SessionStore.writeText(stream, "a\r\nb");
+        }
+        // Act
+        Model restored = SessionStore.read(session);
+        Tab edited = restored.getTabAt(0);
+        edited.setLineSeparator(LineSeparator.CRLF);
+        edited.setLastSavedContent("Hello\nWorld\n");
+        // Assert
+        assertEquals("Howdy\nWorld\n", edited.getCurrentContent());
+        assertTrue(edited.isUnsaved());
+        assertFalse(edited.isChangedSinceSession());
+        assertFalse(edited.isRestoredChangesDropped());
+        assertEquals("a\nb", restored.getTabAt(1).getCurrentContent());
+    }
+
+    /**
+     * Test: read method with a session written with Java serialization.
+     * Expected: The session is migrated, keeping its settings and tabs.
+     */
+    @Test
+    public void testReadSerializedSession() throws IOException {
+        // Arrange
+        File session = File.createTempFile("notepad-session", ".data");
+        session.deleteOnExit();
+        Model model = new Model();
+        model.setWindowWidth(1024);
+        model.addTab(new Tab("c.txt", "Content", null));
+        FileUtil.serialize(session, model);
+        // Act
+        Model restored = SessionStore.read(session);
+        // Assert
+        assertNotNull(restored);
+        assertEquals(1024, restored.getWindowWidth());
+        assertEquals("Content", restored.getTabAt(0).getCurrentContent());
+    }
+
+    /**
+     * Test: read method with a missing session file.
+     * Expected: Null is returned.
+     */
+    @Test
+    public void testReadMissingSession() {
+        // Arrange
+        File session = new File("src/test/resources/missing.data");
+        // Act
+        Model restored = SessionStore.read(session);
+        // Assert
+        assertNull(restored);
+    }
+}
@@ -84,6 +84,38 @@ public class TabTest {
         assertEquals("Content", tab.getCurrentContent());
     }
 
+    /**
+     * Test: applyEdit method with an insertion and a removal.
+     * Expected: Both edits are applied to the current content.
+     */
+    @Test
+    public void testApplyEdit() {
+        // Arrange
+        Tab tab = new Tab("Title", "Hello World", null);
+        // Act
+        tab.applyEdit(5, 0, ",");
+        tab.applyEdit(7, 5, "Tab");
+        // Assert
+        assertEquals(10, tab.getCurrentLength());
+        assertEquals("Hello, Tab", tab.getCurrentContent());
+        assertTrue(tab.isUnsaved());
+    }
+
+    /**
+     * Test: applyEdit method with edits that restore the last saved content.
+     * Expected: The tab has no unsaved changes.
+     */
+    @Test
+    public void testApplyEditBackToSavedContent() {
+        // Arrange
+        Tab tab = new Tab("Title", "Content", null);
+        tab.applyEdit(7, 0, "s");
+        // Act
+        tab.applyEdit(7, 1, "");
+        // Assert
+        assertFalse(tab.isUnsaved());
+    }
+
     /**
      * Test: isUnsaved method.
      * Expected: Returns true.
@@ -99,6 +131,55 @@ public class TabTest {
         assertTrue(unsaved);
     }
 
+    /**
+     * Test: isUnsaved method after the content returns to the last saved content.
+     * Expected: Returns true while the content differs, and false once it matches again.
+     */
+    @Test
+    public void testIsUnsavedAfterReturningToSavedContent() {
+        // Arrange
+        Tab tab = new Tab("Title", "Content", null);
+        // Act
+        tab.setCurrentContent("Contents");
+        boolean unsavedAfterTyping = tab.isUnsaved();
+        tab.setCurrentContent("Content");
+        boolean unsavedAfterUndo = tab.isUnsaved();
+        // Assert
+        assertTrue(unsavedAfterTyping);
+        assertFalse(unsavedAfterUndo);
+    }
+
+    /**
+     * Test: isUnsaved method with a change that keeps the length of the content.
+     * Expected: Returns true.
+     */
+    @Test
+    public void testIsUnsavedWithSameLength() {
+        // Arrange
+        Tab tab = new Tab("Title", "Content", null);
+        // Act
+        tab.setCurrentContent("Contest");
+        // Assert
+        assertTrue(tab.isUnsaved());
+    }
+
+    /**
+     * Test: setLastSavedContent method after the content was restored.
+     * Expected: The tab is compared against the new last saved content.
+     */
+    @Test
+    public void testSetLastSavedContent() {
+        // Arrange
+        Tab tab = new Tab();
+        tab.setCurrentContent("Restored content");
+        tab.commitChanges();
+        // Act
+        tab.setLastSavedContent("Content on disk");
+        // Assert
+        assertTrue(tab.isUnsaved());
+        assertEquals("Content on disk", tab.getLastSavedContent());
+    }
+
     /**
      * Test: commitChanges method.
      * Expected: Last saved content is updated with the current content.
@@ -113,4 +194,63 @@ public class TabTest {
         // Assert
         assertEquals(tab.getCurrentContent(), tab.getLastSavedContent());
     }
+
+    /**
+     * Test: commitChanges method with the content saved in the background, after the tab was edited meanwhile.
+     * Expected: The saved content becomes the last saved content, and the later edit stays unsaved.
+     */
+    @Test
+    public void testCommitChangesEditedDuringSave() {
+        // Arrange
+        Tab tab = new Tab("Title", "Saved", new File("path/to/file"));
+        tab.applyEdit(5, 0, " once");
+        String savedContent = tab.getContentSnapshot().toString();
+        long generation = tab.getGeneration();
+        tab.applyEdit(10, 0, " more");
+        // Act
+        tab.commitChanges(savedContent, generation);
+        // Assert
+        assertEquals("Saved once", tab.getLastSavedContent());
+        assertEquals("Saved once more", tab.getCurrentContent());
+        assertTrue(tab.isUnsaved());
+    }
+
+    /**
+     * Test: commitChanges method with the content saved in the background, without edits meanwhile.
+     * Expected: The saved content becomes both the last saved and the current content, and the tab is saved.
+     */
+    @Test
+    public void testCommitChangesNotEditedDuringSave() {
+        // Arrange
+        Tab tab = new Tab("Title", "Saved", new File("path/to/file"));
+        tab.applyEdit(5, 0, " once");
+        CharSequence snapshot = tab.getContentSnapshot();
+        long generation = tab.getGeneration();
+        String savedContent = snapshot.toString();
+        // Act
+        tab.commitChanges(savedContent, generation);
+        // Assert
+        assertSame(savedContent, tab.getLastSavedContent());
+        assertSame(savedContent, tab.getCurrentContent());
+        assertFalse(tab.isUnsaved());
+    }
+
+    /**
+     * Test: getLineIndex method before and after edits, and after the content is replaced.
+     * Expected: The index follows the edits, and is rebuilt for the replaced content.
+     */
+    @Test
+    public void testGetLineIndexFollowsEdits() {
+        // Arrange
+        Tab tab = new Tab("Title", "one\ntwo", new File("path/to/file"));
+        int initialLines = tab.getLineIndex().getLineCount();
+        // Act
+        tab.applyEdit(3, 0, "\nand a half");
+        int editedLines = tab.getLineIndex().getLineCount();
+        tab.setCurrentContent("single line");
+        // Assert
+        assertEquals(2, initialLines);
+        assertEquals(3, editedLines);
+        assertEquals(1, tab.getLineIndex().getLineCount());
+    }
 }
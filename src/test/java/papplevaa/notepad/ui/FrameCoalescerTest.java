@@ -0,0 +1,67 @@
+package papplevaa.notepad.ui;
+
+import org.junit.Test;
+
+import javax.swing.SwingUtilities;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the FrameCoalescer class.
+ */
+public class FrameCoalescerTest {
+    /**
+     * Test: request method called many times within one frame.
+     * Expected: The update runs once, and the counters show all requests and the single update.
+     */
+    @Test
+    public void testRequestCoalescesWithinFrame() throws InterruptedException, InvocationTargetException {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch ran = new CountDownLatch(1);
+        FrameCoalescer[] coalescer = new FrameCoalescer[1];
+        SwingUtilities.invokeAndWait(() -> coalescer[0] = new FrameCoalescer(() -> {
+            runs.incrementAndGet();
+            ran.countDown();
+        }));
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            for(int request = 0; request < 1000; request++) {
+                coalescer[0].request();
+            }
+        });
+        // Assert
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals(1, runs.get());
+        assertEquals(1000, coalescer[0].getRequests());
+        assertEquals(1, coalescer[0].getUpdates());
+    }
+
+    /**
+     * Test: flush method with a pending request and without one.
+     * Expected: The pending update runs right away, and nothing runs without a request.
+     */
+    @Test
+    public void testFlush() throws InterruptedException, InvocationTargetException {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        int[] runsAfterFlush = new int[2];
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            FrameCoalescer coalescer = new FrameCoalescer(runs::incrementAndGet);
+            coalescer.request();
+            coalescer.flush();
+            runsAfterFlush[0] = runs.get();
+            coalescer.flush();
+            runsAfterFlush[1] = runs.get();
+        });
+        // Assert
+        assertEquals(1, runsAfterFlush[0]);
+        assertEquals(1, runsAfterFlush[1]);
+    }
+}
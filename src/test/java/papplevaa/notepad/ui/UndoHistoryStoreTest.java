@@ -0,0 +1,109 @@
+package papplevaa.notepad.ui;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the UndoHistoryStore class.
+ */
+public class UndoHistoryStoreTest {
+    /**
+     * Test: write method followed by open and loading the entries.
+     * Expected: The tabs with history get back their steps and text fingerprint, the tabs without history get none.
+     */
+    @Test
+    public void testWriteAndOpen() throws IOException {
+        // Arrange
+        File file = createTempFile();
+        UndoHistory history = new UndoHistory(1 << 20, 1000);
+        history.record(0, "", "Hello", 0);
+        history.record(5, "", " World", 5000);
+        history.undo((offset, length, inserted) -> { });
+        // Act
+        UndoHistoryStore.write(file, Arrays.asList(null, UndoHistoryStore.Entry.of(history, "Hello")));
+        UndoHistoryStore store = UndoHistoryStore.open(file);
+        // Assert
+        assertEquals(2, store.getNumberOfEntries());
+        assertNull(store.getEntry(0));
+        UndoHistoryStore.Entry entry = store.getEntry(1);
+        assertEquals(5, entry.getTextLength());
+        assertEquals("Hello".hashCode(), entry.getTextHash());
+        UndoHistory loaded = entry.load();
+        assertNotNull(loaded);
+        assertEquals(2, loaded.getNumberOfSteps());
+        StringBuilder text = new StringBuilder("Hello");
+        loaded.redo((offset, length, inserted) -> text.replace(offset, offset + length, inserted));
+        assertEquals("Hello World", text.toString());
+    }
+
+    /**
+     * Test: write method with a history larger than the size limit, and writing the opened store again.
+     * Expected: The oldest steps are dropped, the newest still undo to the right text, and the entry survives being written again.
+     */
+    @Test
+    public void testWriteBeyondSizeLimit() throws IOException {
+        // Arrange
+        File file = createTempFile();
+        UndoHistory history = new UndoHistory(1 << 20, 1000);
+        StringBuilder text = new StringBuilder();
+        for(int step = 0; step < 100; step++) {
+            history.record(step * 10, "", "0123456789", step * 5000L);
+            text.append("0123456789");
+        }
+        System.setProperty("notepad.undoPersistBytes", "1000");
+        try {
+            // Act
+            UndoHistoryStore.write(file, Arrays.asList(UndoHistoryStore.Entry.of(history, text.toString())));
+            UndoHistoryStore.write(file, Arrays.asList(UndoHistoryStore.open(file).getEntry(0)));
+        } finally {
+            System.clearProperty("notepad.undoPersistBytes");
+        }
+        // Assert
+        UndoHistory loaded = UndoHistoryStore.open(file).getEntry(0).load();
+        assertNotNull(loaded);
+        assertTrue(loaded.getNumberOfSteps() > 0);
+        assertTrue(loaded.getMemoryUsage() <= 1000);
+        int undone = 0;
+        while(loaded.canUndo()) {
+            loaded.undo((offset, length, inserted) -> text.replace(offset, offset + length, inserted));
+            undone++;
+        }
+        assertEquals(10 * (100 - undone), text.length());
+    }
+
+    /**
+     * Test: open method with a missing file and with a file that is not a history file.
+     * Expected: An empty store is returned in both cases.
+     */
+    @Test
+    public void testOpenMissingOrCorruptFile() throws IOException {
+        // Arrange
+        File corrupt = createTempFile();
+        Files.write(corrupt.toPath(), new byte[] {1, 2, 3});
+        File missing = new File(corrupt.getPath() + ".missing");
+        // Act
+        UndoHistoryStore fromMissing = UndoHistoryStore.open(missing);
+        UndoHistoryStore fromCorrupt = UndoHistoryStore.open(corrupt);
+        // Assert
+        assertEquals(0, fromMissing.getNumberOfEntries());
+        assertEquals(0, fromCorrupt.getNumberOfEntries());
+    }
+
+    /**
+     * Creates a temporary file deleted when the tests end.
+     *
+     * @return The temporary file.
+     * @throws IOException if the file can not be created.
+     */
+    private static File createTempFile() throws IOException {
+        File file = File.createTempFile("notepad-history", ".history");
+        file.deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,94 @@
+package papplevaa.notepad.ui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the UndoHistory class.
+ */
+public class UndoHistoryTest {
+    /**
+     * Test: record method with characters typed after a pause longer than the grouping pause.
+     * Expected: The characters typed before and after the pause are separate steps.
+     */
+    @Test
+    public void testRecordAfterPause() {
+        // Arrange
+        UndoHistory history = new UndoHistory(1 << 20, 1000);
+        StringBuilder text = new StringBuilder();
+        // Act
+        history.record(0, "", "a", 0);
+        history.record(1, "", "b", 500);
+        history.record(2, "", "c", 2000);
+        // Assert
+        assertEquals(2, history.getNumberOfSteps());
+        history.undo((offset, length, inserted) -> text.append(offset).append(':').append(length));
+        assertEquals("2:1", text.toString());
+    }
+
+    /**
+     * Test: record method with consecutive backspaces and deletes.
+     * Expected: Each run is one step, and undoing it restores the removed text at the right offset.
+     */
+    @Test
+    public void testRecordDeletions() {
+        // Arrange
+        UndoHistory history = new UndoHistory(1 << 20, 1000);
+        StringBuilder text = new StringBuilder("Helorld");
+        // Act
+        history.record(4, "o", "", 0);
+        history.record(3, "l", "", 0);
+        history.markBoundary();
+        history.record(3, " ", "", 0);
+        history.record(3, "W", "", 0);
+        // Assert
+        assertEquals(2, history.getNumberOfSteps());
+        history.undo((offset, length, inserted) -> text.replace(offset, offset + length, inserted));
+        assertEquals("Hel World", text.toString());
+        history.undo((offset, length, inserted) -> text.replace(offset, offset + length, inserted));
+        assertEquals("Hello World", text.toString());
+    }
+
+    /**
+     * Test: record method after an undo.
+     * Expected: The undone step can no longer be redone.
+     */
+    @Test
+    public void testRecordAfterUndo() {
+        // Arrange
+        UndoHistory history = new UndoHistory(1 << 20, 1000);
+        history.record(0, "", "a", 0);
+        history.undo((offset, length, inserted) -> { });
+        // Act
+        history.record(0, "", "b", 0);
+        // Assert
+        assertFalse(history.canRedo());
+        assertTrue(history.canUndo());
+        assertEquals(1, history.getNumberOfSteps());
+    }
+
+    /**
+     * Test: record method with more steps than fit in the memory budget.
+     * Expected: The oldest steps are evicted, keeping the memory within the budget.
+     */
+    @Test
+    public void testRecordBeyondMemoryBudget() {
+        // Arrange
+        UndoHistory history = new UndoHistory(10000, 1000);
+        // Act
+        for(int step = 0; step < 1000; step++) {
+            history.record(step * 10, "", "0123456789", step);
+        }
+        // Assert
+        assertTrue(history.getMemoryUsage() <= 10000);
+        assertTrue(history.getNumberOfSteps() > 100);
+        assertTrue(history.getNumberOfSteps() < 1000);
+        int undone = 0;
+        while(history.canUndo()) {
+            history.undo((offset, length, inserted) -> { });
+            undone++;
+        }
+        assertEquals(history.getNumberOfSteps(), undone);
+    }
+}
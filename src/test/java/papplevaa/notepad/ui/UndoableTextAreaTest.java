@@ -3,6 +3,7 @@ package papplevaa.notepad.ui;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
 import javax.swing.text.PlainDocument;
 import javax.swing.undo.CannotUndoException;
@@ -110,19 +111,101 @@ public class UndoableTextAreaTest {
     }
 
     /**
-     * Test: UndoManager limit.
-     * Expected: RuntimeException is thrown when exceeding the limit.
+     * Test: Undo history limit, which is a memory budget instead of the former 100 edits.
+     * Expected: All 1000 edits can be undone, and RuntimeException is thrown when undoing beyond them.
      */
     @Test (expected = RuntimeException.class)
-    public void testUndoManagerLimit() {
+    public void testUndoHistoryLimit() {
         // Arrange
         textArea = new UndoableTextArea();
-        for(int i = 1; i <= 110; i++) {
+        for(int i = 1; i <= 1000; i++) {
             textArea.append("Undoable edit #" + i);
         }
-        // Act
-        for(int i = 1; i <= 101; i++) {
+        for(int i = 1; i <= 1000; i++) {
             textArea.undo();
         }
+        assertEquals("", textArea.getText());
+        // Act
+        textArea.undo();
+    }
+
+    /**
+     * Test: Undo operation after typing two words one character at a time.
+     * Expected: Each undo reverts one word together with the whitespace after it.
+     */
+    @Test
+    public void testUndoTypedWords() throws BadLocationException {
+        // Arrange
+        textArea = new UndoableTextArea();
+        String typed = "Hello World";
+        for(int i = 0; i < typed.length(); i++) {
+            textArea.getDocument().insertString(i, typed.substring(i, i + 1), null);
+        }
+        // Act
+        textArea.undo();
+        String afterFirstUndo = textArea.getText();
+        textArea.undo();
+        // Assert
+        assertEquals("Hello ", afterFirstUndo);
+        assertEquals("", textArea.getText());
+    }
+
+    /**
+     * Test: Undo operation after replacing a selection.
+     * Expected: The replaced text is restored in one step.
+     */
+    @Test
+    public void testUndoReplaceSelection() {
+        // Arrange
+        textArea = new UndoableTextArea("Hello World");
+        textArea.select(6, 11);
+        textArea.replaceSelection("Notepad");
+        // Act
+        textArea.undo();
+        // Assert
+        assertEquals("Hello World", textArea.getText());
+    }
+
+    /**
+     * Test: restoreUndoHistory method after the text area was edited, with a history ending at its initial text and with one that does not.
+     * Expected: The matching history is undone after the new edit, the other one is rejected.
+     */
+    @Test
+    public void testRestoreUndoHistory() {
+        // Arrange
+        UndoHistory older = new UndoHistory(1 << 20, 1000);
+        older.record(0, "", "Hello", 0);
+        textArea = new UndoableTextArea("Hello");
+        textArea.append(" World");
+        UndoableTextArea otherTextArea = new UndoableTextArea("Goodbye");
+        // Act
+        boolean restored = textArea.restoreUndoHistory(UndoHistoryStore.Entry.of(older, "Hello"));
+        boolean otherRestored = otherTextArea.restoreUndoHistory(UndoHistoryStore.Entry.of(older, "Hello"));
+        // Assert
+        assertTrue(restored);
+        assertFalse(otherRestored);
+        textArea.undo();
+        assertEquals("Hello", textArea.getText());
+        textArea.undo();
+        assertEquals("", textArea.getText());
+    }
+
+    /**
+     * Test: replaceAsOneStep method followed by typing right after the replaced range.
+     * Expected: The replacement and the typing are undone in separate steps.
+     */
+    @Test
+    public void testReplaceAsOneStep() throws BadLocationException {
+        // Arrange
+        textArea = new UndoableTextArea("a-b-c");
+        // Act
+        textArea.replaceAsOneStep(1, 4, "+b+");
+        textArea.getDocument().insertString(4, "!", null);
+        // Assert
+        assertEquals("a+b+!c", textArea.getText());
+        textArea.undo();
+        assertEquals("a+b+c", textArea.getText());
+        textArea.undo();
+        assertEquals("a-b-c", textArea.getText());
     }
 }
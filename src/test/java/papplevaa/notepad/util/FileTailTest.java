@@ -0,0 +1,86 @@
+package papplevaa.notepad.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the FileTail class.
+ */
+public class FileTailTest {
+    /** The followed file. */
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        this.file = File.createTempFile("tail", ".log");
+    }
+
+    @After
+    public void tearDown() {
+        this.file.delete();
+    }
+
+    /**
+     * Test: Append to a followed file in pieces that split a UTF-8 character and a CRLF line break.
+     * Expected: Only the appended text is read, with the split character decoded whole and \n line breaks.
+     */
+    @Test
+    public void testReadAppendedJoinsSplitCharacters() throws IOException {
+        // Arrange
+        byte[] start = "old line\r\n".getBytes(StandardCharsets.UTF_8);
+        byte[] appended = "új sor\r\nnext".getBytes(StandardCharsets.UTF_8);
+        Files.write(this.file.toPath(), start);
+        FileTail tail = new FileTail(this.file, start.length, new TextEncoding(StandardCharsets.UTF_8, false));
+        // Act
+        String nothing = tail.readAppended();
+        this.append(appended, 0, 1);
+        String first = tail.readAppended();
+        this.append(appended, 1, 7);
+        String second = tail.readAppended();
+        this.append(appended, 8, appended.length - 8);
+        String third = tail.readAppended();
+        // Assert
+        assertEquals("", nothing);
+        assertEquals("", first);
+        assertEquals("új sor\n", second);
+        assertEquals("next", third);
+        assertEquals(start.length + appended.length, tail.getPosition());
+    }
+
+    /**
+     * Test: Truncate a followed file below the position it was read up to.
+     * Expected: The shrinking is reported instead of text.
+     */
+    @Test
+    public void testReadAppendedReportsTruncation() throws IOException {
+        // Arrange
+        Files.writeString(this.file.toPath(), "first\nsecond\n", StandardCharsets.UTF_8);
+        FileTail tail = new FileTail(this.file, this.file.length(), TextEncoding.DEFAULT);
+        // Act
+        Files.writeString(this.file.toPath(), "new\n", StandardCharsets.UTF_8);
+        String text = tail.readAppended();
+        // Assert
+        assertNull(text);
+    }
+
+    /**
+     * Appends a part of some bytes to the followed file.
+     *
+     * @param bytes  The bytes.
+     * @param offset The offset of the part.
+     * @param length The length of the part.
+     */
+    private void append(byte[] bytes, int offset, int length) throws IOException {
+        Files.write(this.file.toPath(), Arrays.copyOfRange(bytes, offset, offset + length), StandardOpenOption.APPEND);
+    }
+}
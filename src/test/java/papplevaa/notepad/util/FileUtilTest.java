@@ -6,6 +6,13 @@ import org.junit.AfterClass;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Unit tests for the FileUtil class.
@@ -44,12 +51,56 @@ public class FileUtilTest {
         assertEquals("Hello, World!!!\r\n", content);
     }
 
+    /**
+     * Test: Load content from a file with an explicit charset and a progress listener.
+     * Expected: Content is decoded with the charset, and the progress reaches the file size before finishing.
+     */
+    @Test
+    public void testLoadContentWithProgress() throws IOException {
+        // Arrange
+        File file = new File("src/test/resources/dump/progress.txt");
+        Files.writeString(file.toPath(), "Árvíztűrő tükörfúrógép", StandardCharsets.UTF_8);
+        long[] lastProgress = new long[2];
+        boolean[] finished = new boolean[1];
+        ProgressListener listener = new ProgressListener() {
+            @Override
+            public void progressed(long processed, long total) {
+                lastProgress[0] = processed;
+                lastProgress[1] = total;
+            }
+
+            @Override
+            public void finished() {
+                finished[0] = true;
+            }
+        };
+        // Act
+        String content = FileUtil.loadContent(file, StandardCharsets.UTF_8, listener);
+        // Assert
+        assertEquals("Árvíztűrő tükörfúrógép", content);
+        assertEquals(file.length(), lastProgress[0]);
+        assertEquals(file.length(), lastProgress[1]);
+        assertTrue(finished[0]);
+    }
+
+    /**
+     * Test: Load content from a file that does not exist.
+     * Expected: null is returned.
+     */
+    @Test
+    public void testLoadContentMissingFile() {
+        // Act
+        String content = FileUtil.loadContent(new File("src/test/resources/dump/missing.txt"));
+        // Assert
+        assertNull(content);
+    }
+
     /**
      * Test: Save content to a file.
      * Expected: Content is successfully saved to the specified file.
      */
     @Test
-    public void testSaveContent() {
+    public void testSaveContent() throws IOException {
         // Arrange
         File file = new File("src/test/resources/dump/save.txt");
         // Act
@@ -59,6 +110,181 @@ public class FileUtilTest {
         assertEquals("Passw1234", contentReadFromDisk);
     }
 
+    /**
+     * Test: Save content over an existing file with an explicit charset and a progress listener.
+     * Expected: The file is replaced with the encoded content, no temporary file is left behind, and the progress reaches the length of the content.
+     */
+    @Test
+    public void testSaveContentReplacesFile() throws IOException {
+        // Arrange
+        File directory = new File("src/test/resources/dump/replace");
+        createDirectory(directory);
+        File file = new File(directory, "replace.txt");
+        Files.writeString(file.toPath(), "Old content that is longer than the new one", StandardCharsets.UTF_8);
+        StringBuilder content = new StringBuilder();
+        while(content.length() < 200000) {
+            content.append("Árvíztűrő tükörfúrógép \uD83D\uDE00\n");
+        }
+        long[] lastProgress = new long[2];
+        // Act
+        FileUtil.saveContent(content, file, StandardCharsets.UTF_8, (processed, total) -> {
+            lastProgress[0] = processed;
+            lastProgress[1] = total;
+        });
+        // Assert
+        assertEquals(content.toString(), Files.readString(file.toPath(), StandardCharsets.UTF_8));
+        assertEquals(1, directory.list().length);
+        assertEquals(content.length(), lastProgress[0]);
+        assertEquals(content.length(), lastProgress[1]);
+    }
+
+    /**
+     * Test: Save content to a file in a directory that does not exist.
+     * Expected: IOException is thrown instead of the failure being ignored.
+     */
+    @Test (expected = IOException.class)
+    public void testSaveContentToMissingDirectory() throws IOException {
+        // Arrange
+        File file = new File("src/test/resources/dump/missing/save.txt");
+        // Act
+        FileUtil.saveContent("Passw1234", file);
+    }
+
+    /**
+     * Test: Save content to a new file, and to an existing file through a symbolic link.
+     * Expected: The new file has the default permissions of new files, and the link is kept while its target is replaced.
+     */
+    @Test
+    public void testSaveContentPermissionsAndLink() throws IOException {
+        // Arrange
+        File reference = new File("src/test/resources/dump/reference.txt");
+        File created = new File("src/test/resources/dump/created.txt");
+        File target = new File("src/test/resources/dump/target.txt");
+        File link = new File("src/test/resources/dump/link.txt");
+        Files.createFile(reference.toPath());
+        Files.writeString(target.toPath(), "Old", StandardCharsets.UTF_8);
+        Files.createSymbolicLink(link.toPath(), target.getAbsoluteFile().toPath());
+        // Act
+        FileUtil.saveContent("New file", created);
+        FileUtil.saveContent("New", link);
+        // Assert
+        assertEquals(Files.getPosixFilePermissions(reference.toPath()), Files.getPosixFilePermissions(created.toPath()));
+        assertTrue(Files.isSymbolicLink(link.toPath()));
+        assertEquals("New", Files.readString(target.toPath(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test: Load text from a UTF-16LE file with a byte order mark, then save it with the detected encoding.
+     * Expected: The mark is detected and skipped, and the saved file has the same bytes as the original.
+     */
+    @Test
+    public void testLoadTextWithBomRoundTrips() throws IOException {
+        // Arrange
+        File file = new File("src/test/resources/dump/bom.txt");
+        byte[] text = "Árvíztűrő tükörfúrógép\n".getBytes(StandardCharsets.UTF_16LE);
+        byte[] original = new byte[text.length + 2];
+        original[0] = (byte) 0xFF;
+        original[1] = (byte) 0xFE;
+        System.arraycopy(text, 0, original, 2, text.length);
+        Files.write(file.toPath(), original);
+        // Act
+        LoadedText loaded = FileUtil.loadText(file, ProgressListener.NONE);
+        FileUtil.saveContent(loaded.getContent(), file, loaded.getEncoding(), loaded.getLineSeparator(), ProgressListener.NONE);
+        // Assert
+        assertEquals("Árvíztűrő tükörfúrógép\n", loaded.getContent());
+        assertEquals(new TextEncoding(StandardCharsets.UTF_16LE, true), loaded.getEncoding());
+        assertArrayEquals(original, Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Test: Load text from a UTF-8 file without a byte order mark.
+     * Expected: The file is detected as UTF-8 without a mark.
+     */
+    @Test
+    public void testLoadTextDetectsUtf8() throws IOException {
+        // Arrange
+        File file = new File("src/test/resources/dump/utf8.txt");
+        Files.writeString(file.toPath(), "Árvíztűrő tükörfúrógép", StandardCharsets.UTF_8);
+        // Act
+        LoadedText loaded = FileUtil.loadText(file, ProgressListener.NONE);
+        // Assert
+        assertEquals("Árvíztűrő tükörfúrógép", loaded.getContent());
+        assertEquals(new TextEncoding(StandardCharsets.UTF_8, false), loaded.getEncoding());
+    }
+
+    /**
+     * Test: Load text from a file whose first block is ASCII, followed by a byte that is not valid UTF-8.
+     * Expected: The file is read again in the legacy encoding and decoded with it.
+     */
+    @Test
+    public void testLoadTextFallsBackToLegacyEncoding() throws IOException {
+        // Arrange
+        File file = new File("src/test/resources/dump/legacy.txt");
+        byte[] bytes = new byte[200000];
+        Arrays.fill(bytes, (byte) 'a');
+        bytes[bytes.length - 1] = (byte) 0xE9;
+        Files.write(file.toPath(), bytes);
+        TextEncoding legacy = TextEncoding.legacy(ByteBuffer.wrap(bytes));
+        // Act
+        LoadedText loaded = FileUtil.loadText(file, ProgressListener.NONE);
+        // Assert
+        assertEquals(legacy, loaded.getEncoding());
+        assertEquals(new String(bytes, legacy.getCharset()), loaded.getContent());
+    }
+
+    /**
+     * Test: Load text from a file with CRLF line breaks spanning several blocks, then save it with the detected separator.
+     * Expected: The content has \n line breaks, CRLF is detected, and the saved file has the same bytes as the original.
+     */
+    @Test
+    public void testLoadTextWithCrlfRoundTrips() throws IOException {
+        // Arrange
+        File file = new File("src/test/resources/dump/crlf.txt");
+        StringBuilder text = new StringBuilder();
+        for(int line = 0; line < 20000; line++) {
+            text.append("line ").append(line).append("\r\n");
+        }
+        byte[] original = text.toString().getBytes(StandardCharsets.US_ASCII);
+        Files.write(file.toPath(), original);
+        // Act
+        LoadedText loaded = FileUtil.loadText(file, ProgressListener.NONE);
+        FileUtil.saveContent(loaded.getContent(), file, loaded.getEncoding(), loaded.getLineSeparator(), ProgressListener.NONE);
+        // Assert
+        assertEquals(text.toString().replace("\r\n", "\n"), loaded.getContent());
+        assertEquals(LineSeparator.CRLF, loaded.getLineSeparator());
+        assertArrayEquals(original, Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Test: Save content that still has a CRLF line break, e.g. from pasted text, with the CRLF separator.
+     * Expected: Every line break is written as a single CRLF.
+     */
+    @Test
+    public void testSaveContentWithCarriageReturn() throws IOException {
+        // Arrange
+        File file = new File("src/test/resources/dump/pasted.txt");
+        // Act
+        FileUtil.saveContent("a\r\nb\nc\r", file, TextEncoding.DEFAULT, LineSeparator.CRLF, ProgressListener.NONE);
+        // Assert
+        assertEquals("a\r\nb\r\nc\r", Files.readString(file.toPath(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Test: Load text from a file mixing lone CR, CRLF and LF line breaks, most of them lone CR.
+     * Expected: Every line break becomes \n, and CR is detected as the separator of the file.
+     */
+    @Test
+    public void testLoadTextWithMixedLineBreaks() throws IOException {
+        // Arrange
+        File file = new File("src/test/resources/dump/mixed.txt");
+        Files.writeString(file.toPath(), "a\rb\r\nc\nd\re\r\r", StandardCharsets.US_ASCII);
+        // Act
+        LoadedText loaded = FileUtil.loadText(file, ProgressListener.NONE);
+        // Assert
+        assertEquals("a\nb\nc\nd\ne\n\n", loaded.getContent());
+        assertEquals(LineSeparator.CR, loaded.getLineSeparator());
+    }
+
     /**
      * Test: Serialization and Deserialization of an object.
      * Expected: The object is successfully serialized and deserialized.
@@ -75,6 +301,30 @@ public class FileUtilTest {
         assertEquals(serialized, deserialized);
     }
 
+    /**
+     * Test: List the files of a folder matching glob patterns, with a hidden subfolder and a limit.
+     * Expected: Patterns match the paths relative to the folder, hidden subfolders are skipped and the limit is kept.
+     */
+    @Test
+    public void testListFiles() throws IOException {
+        // Arrange
+        File folder = new File("src/test/resources/dump/folder");
+        createDirectory(folder);
+        createDirectory(new File(folder, "sub"));
+        createDirectory(new File(folder, ".git"));
+        for(String name : new String[] {"a.txt", "b.java", "sub/c.java", "sub/d.txt", ".git/e.java"}) {
+            Files.writeString(new File(folder, name).toPath(), name, StandardCharsets.UTF_8);
+        }
+        // Act
+        List<File> texts = FileUtil.listFiles(folder, FileSystems.getDefault().getPathMatcher("glob:*.txt"), 10);
+        List<File> nested = FileUtil.listFiles(folder, FileSystems.getDefault().getPathMatcher("glob:**/*.java"), 10);
+        List<File> limited = FileUtil.listFiles(folder, FileSystems.getDefault().getPathMatcher("glob:**"), 2);
+        // Assert
+        assertEquals(List.of(new File(folder, "a.txt")), texts);
+        assertEquals(List.of(new File(folder, "sub/c.java")), nested);
+        assertEquals(2, limited.size());
+    }
+
     /**
      * Utility method: Create a directory if it does not exist.
      */
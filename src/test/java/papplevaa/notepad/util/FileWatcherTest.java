@@ -0,0 +1,90 @@
+package papplevaa.notepad.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the FileWatcher class.
+ */
+public class FileWatcherTest {
+    /** The directory of the watched files. */
+    private File directory;
+    /** The batches of changed files reported by the watcher. */
+    private BlockingQueue<Set<File>> reports;
+    /** The watcher under test. */
+    private FileWatcher watcher;
+
+    @Before
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("watched").toFile();
+        this.reports = new LinkedBlockingQueue<>();
+        this.watcher = new FileWatcher(100, this.reports::add);
+    }
+
+    @After
+    public void tearDown() {
+        this.watcher.close();
+        for(File file : this.directory.listFiles()) {
+            file.delete();
+        }
+        this.directory.delete();
+    }
+
+    /**
+     * Test: Write a watched file several times in a row, and a file of the same directory that is not watched.
+     * Expected: The writes are reported once, in one batch holding only the watched file.
+     */
+    @Test
+    public void testWritesAreDebouncedIntoOneReport() throws IOException, InterruptedException {
+        // Arrange
+        File watched = new File(this.directory, "watched.txt");
+        File other = new File(this.directory, "other.txt");
+        Files.writeString(watched.toPath(), "a", StandardCharsets.UTF_8);
+        this.watcher.watch(watched);
+        this.watcher.start();
+        // Act
+        for(int write = 0; write < 5; write++) {
+            Files.writeString(watched.toPath(), "line " + write, StandardCharsets.UTF_8);
+            Files.writeString(other.toPath(), "line " + write, StandardCharsets.UTF_8);
+        }
+        Set<File> report = this.reports.poll(10, TimeUnit.SECONDS);
+        // Assert
+        assertEquals(Set.of(watched.getAbsoluteFile()), report);
+        assertNull(this.reports.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Test: Watch two files of one directory, then unwatch both.
+     * Expected: The directory is registered once while any of its files is watched, and later writes are not reported.
+     */
+    @Test
+    public void testDirectoryIsRegisteredOnceAndReleased() throws IOException, InterruptedException {
+        // Arrange
+        File first = new File(this.directory, "first.txt");
+        File second = new File(this.directory, "second.txt");
+        this.watcher.start();
+        // Act
+        this.watcher.watch(first);
+        this.watcher.watch(second);
+        int registered = this.watcher.getNumberOfDirectories();
+        this.watcher.unwatch(first);
+        this.watcher.unwatch(second);
+        Files.writeString(first.toPath(), "changed", StandardCharsets.UTF_8);
+        // Assert
+        assertEquals(1, registered);
+        assertEquals(0, this.watcher.getNumberOfDirectories());
+        assertNull(this.reports.poll(500, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,69 @@
+package papplevaa.notepad.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the LatencyHistogram class.
+ */
+public class LatencyHistogramTest {
+    /**
+     * Test: getValueAtPercentile method after recording the values from 1 to 1000000 once each.
+     * Expected: Each percentile is reported within 1/64 of its exact value, and the maximum exactly.
+     */
+    @Test
+    public void testGetValueAtPercentile() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(long value = 1; value <= 1_000_000; value++) {
+            histogram.record(value);
+        }
+        // Act
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+        long p100 = histogram.getValueAtPercentile(100);
+        // Assert
+        assertEquals(1_000_000, histogram.getCount());
+        assertEquals(500_000, p50, 500_000 / 64.0);
+        assertEquals(990_000, p99, 990_000 / 64.0);
+        assertEquals(1_000_000, p100);
+        assertEquals(1_000, histogram.getMaxMicros());
+        assertEquals(500.0005, histogram.getMeanMicros(), 0.001);
+    }
+
+    /**
+     * Test: record method with small, negative and huge values.
+     * Expected: Small values are kept exactly, negative values count as 0, and the largest long is accepted.
+     */
+    @Test
+    public void testRecordEdgeValues() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        // Act
+        histogram.record(-5);
+        histogram.record(100);
+        histogram.record(Long.MAX_VALUE);
+        // Assert
+        assertEquals(3, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(1));
+        assertEquals(100, histogram.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+    }
+
+    /**
+     * Test: getValueAtPercentile method on an empty histogram.
+     * Expected: 0 is returned.
+     */
+    @Test
+    public void testEmptyHistogram() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        // Act
+        long p99 = histogram.getValueAtPercentile(99);
+        // Assert
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, p99);
+        assertEquals(0.0, histogram.getMeanMicros(), 0.0);
+    }
+}
@@ -0,0 +1,52 @@
+package papplevaa.notepad.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the LineDiff class.
+ */
+public class LineDiffTest {
+    /**
+     * Test: Compare texts with one line changed and one line added between unchanged lines.
+     * Expected: One hunk with the removed and added lines, surrounded by the given number of context lines.
+     */
+    @Test
+    public void testUnifiedShowsChangesWithContext() {
+        // Arrange
+        String oldText = "a\nb\nc\nd\ne\nf\ng\n";
+        String newText = "a\nb\nc\nD\ne\nx\nf\ng\n";
+        // Act
+        String diff = LineDiff.unified("old", oldText, "new", newText, 1);
+        // Assert
+        assertEquals("--- old\n+++ new\n@@ -3,4 +3,5 @@\n c\n-d\n+D\n e\n+x\n f\n", diff);
+    }
+
+    /**
+     * Test: Compare texts whose changes are far apart, and equal texts.
+     * Expected: A hunk per change, and no differences for equal texts.
+     */
+    @Test
+    public void testUnifiedSplitsDistantChanges() {
+        // Arrange
+        StringBuilder oldText = new StringBuilder();
+        StringBuilder newText = new StringBuilder();
+        for(int line = 0; line < 20; line++) {
+            oldText.append(line).append('\n');
+            if(line == 2) {
+                newText.append("two\n");
+            } else if(line != 17) {
+                newText.append(line).append('\n');
+            }
+        }
+        // Act
+        String diff = LineDiff.unified("old", oldText.toString(), "new", newText.toString(), 2);
+        String noDiff = LineDiff.unified("old", oldText.toString(), "new", oldText.toString(), 2);
+        // Assert
+        assertEquals("--- old\n+++ new\n"
+                + "@@ -1,5 +1,5 @@\n 0\n 1\n-2\n+two\n 3\n 4\n"
+                + "@@ -16,5 +16,4 @@\n 15\n 16\n-17\n 18\n 19\n", diff);
+        assertEquals("", noDiff);
+    }
+}
@@ -0,0 +1,68 @@
+package papplevaa.notepad.util;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Metrics class.
+ */
+public class MetricsTest {
+    /**
+     * Test: dump method after updating a counter, a histogram and gauges.
+     * Expected: The file lists the counter, the histogram and the gauges set last, one per line.
+     */
+    @Test
+    public void testDump() throws IOException {
+        // Arrange
+        File dumpPath = File.createTempFile("metrics", ".txt");
+        dumpPath.deleteOnExit();
+        Metrics.counter("test.dump.counter").add(3);
+        Metrics.histogram("test.dump.histogram").record(2_000);
+        Metrics.setGauges("test.dump.gauge.", Map.of("test.dump.gauge.a", 1L, "test.dump.gauge.b", 2L));
+        Metrics.setGauges("test.dump.gauge.", Map.of("test.dump.gauge.b", 5L));
+        // Act
+        Metrics.dump(dumpPath);
+        // Assert
+        List<String> lines = Files.readAllLines(dumpPath.toPath(), StandardCharsets.UTF_8);
+        assertTrue(lines.contains("counter test.dump.counter 3"));
+        assertTrue(lines.contains("gauge test.dump.gauge.b 5"));
+        assertFalse(lines.contains("gauge test.dump.gauge.a 1"));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("histogram test.dump.histogram count=1 ")));
+    }
+
+    /**
+     * Test: start method, then reading the metrics through the platform MBean server.
+     * Expected: The counters and the histograms are exposed as attributes of their beans.
+     */
+    @Test
+    public void testStartExposesBeans() throws Exception {
+        // Arrange
+        Metrics.counter("test.jmx.counter").increment();
+        Metrics.histogram("test.jmx.histogram").record(5_000);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        // Act
+        Metrics.start(File.createTempFile("metrics", ".txt"), 0);
+        LatencyHistogram later = Metrics.histogram("test.jmx.later");
+        later.record(7_000);
+        // Assert
+        Object counters = server.getAttribute(new ObjectName("papplevaa.notepad:type=Metrics"), "Counters");
+        assertNotNull(counters);
+        assertTrue(counters.toString().contains("test.jmx.counter"));
+        ObjectName histogramName = new ObjectName("papplevaa.notepad:type=Histogram,name=" + ObjectName.quote("test.jmx.histogram"));
+        assertEquals(1L, server.getAttribute(histogramName, "Count"));
+        assertEquals(5L, server.getAttribute(histogramName, "MaxMicros"));
+        ObjectName laterName = new ObjectName("papplevaa.notepad:type=Histogram,name=" + ObjectName.quote("test.jmx.later"));
+        assertEquals(7L, server.getAttribute(laterName, "P50Micros"));
+    }
+}
@@ -0,0 +1,146 @@
+package papplevaa.notepad.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the SingleInstance class.
+ */
+public class SingleInstanceTest {
+    /** The directory of the socket file. */
+    private Path directory;
+    /** The socket file. */
+    private Path socketPath;
+    /** The files of the requests received by the instance. */
+    private BlockingQueue<List<File>> requests;
+
+    @Before
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("instance");
+        this.socketPath = this.directory.resolve("notepad.socket");
+        this.requests = new LinkedBlockingQueue<>();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.socketPath);
+        Files.deleteIfExists(this.directory.resolve("notepad.socket.lock"));
+        Files.delete(this.directory);
+    }
+
+    /**
+     * Test: forward files, one with a space and non-ASCII characters in its name, to a listening instance.
+     * Expected: The instance takes the request and receives the absolute paths of the files in order.
+     */
+    @Test
+    public void testForwardToListeningInstance() throws IOException, InterruptedException {
+        // Arrange
+        SingleInstance instance = SingleInstance.listen(this.socketPath);
+        instance.setListener(this.requests::add);
+        List<File> files = List.of(new File("/tmp/notes.txt"), new File("/tmp/Jegyzet és más.txt"));
+        try {
+            // Act
+            boolean forwarded = SingleInstance.forward(this.socketPath, files);
+            List<File> received = this.requests.poll(5, TimeUnit.SECONDS);
+            // Assert
+            assertTrue(forwarded);
+            assertEquals(files, received);
+        } finally {
+            instance.close();
+        }
+        assertFalse(Files.exists(this.socketPath));
+    }
+
+    /**
+     * Test: forward files while another launch is connected to the instance without sending its request.
+     * Expected: The hung launch is dropped once its time runs out, and the files are forwarded after it.
+     */
+    @Test
+    public void testForwardAfterHungLaunch() throws IOException, InterruptedException {
+        // Arrange
+        SingleInstance instance = SingleInstance.listen(this.socketPath, 200);
+        instance.setListener(this.requests::add);
+        List<File> files = List.of(new File("/tmp/after.txt"));
+        try (SocketChannel hung = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            hung.connect(UnixDomainSocketAddress.of(this.socketPath));
+            // Act
+            boolean forwarded = SingleInstance.forward(this.socketPath, files);
+            List<File> received = this.requests.poll(5, TimeUnit.SECONDS);
+            // Assert
+            assertTrue(forwarded);
+            assertEquals(files, received);
+        } finally {
+            instance.close();
+        }
+    }
+
+    /**
+     * Test: forward files without a running instance, then listen where a crashed instance left its socket file.
+     * Expected: Forwarding fails without an instance, and the stale socket file is replaced by a listening one.
+     */
+    @Test
+    public void testStaleSocketFile() throws IOException, InterruptedException {
+        // Arrange
+        Files.createFile(this.socketPath);
+        // Act
+        boolean forwardedToNone = SingleInstance.forward(this.socketPath, List.of(new File("/tmp/a.txt")));
+        SingleInstance instance = SingleInstance.listen(this.socketPath);
+        instance.setListener(this.requests::add);
+        try {
+            boolean forwarded = SingleInstance.forward(this.socketPath, List.of());
+            List<File> received = this.requests.poll(5, TimeUnit.SECONDS);
+            // Assert
+            assertFalse(forwardedToNone);
+            assertTrue(forwarded);
+            assertEquals(List.of(), received);
+        } finally {
+            instance.close();
+        }
+    }
+
+    /**
+     * Test: listen on the socket of a listening instance, with a request forwarded before the listener is set.
+     * Expected: The second listen fails without taking the socket, and the request is kept for the listener.
+     */
+    @Test
+    public void testListenOnLiveSocket() throws IOException, InterruptedException {
+        // Arrange
+        SingleInstance instance = SingleInstance.listen(this.socketPath);
+        try {
+            boolean forwarded = SingleInstance.forward(this.socketPath, List.of(new File("/tmp/early.txt")));
+            // Act
+            boolean secondListened;
+            try {
+                SingleInstance.listen(this.socketPath).close();
+                secondListened = true;
+            } catch(FileAlreadyExistsException exception) {
+                secondListened = false;
+            }
+            instance.setListener(this.requests::add);
+            List<File> received = this.requests.poll(5, TimeUnit.SECONDS);
+            // Assert
+            assertTrue(forwarded);
+            assertFalse(secondListened);
+            assertTrue(Files.exists(this.socketPath));
+            assertEquals(List.of(new File("/tmp/early.txt")), received);
+        } finally {
+            instance.close();
+        }
+    }
+}
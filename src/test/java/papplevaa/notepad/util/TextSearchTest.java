@@ -0,0 +1,133 @@
+package papplevaa.notepad.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the TextSearch class.
+ */
+public class TextSearchTest {
+    /**
+     * Test: findAll method on random texts longer than a chunk, with and without matching the case.
+     * Expected: The matches are the ones found by searching with String.indexOf after the end of each match.
+     */
+    @Test
+    public void testFindAllMatchesIndexOf() {
+        // Arrange
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        for(int index = 0; index < (3 << 20); index++) {
+            builder.append("abAB\n".charAt(random.nextInt(5)));
+        }
+        String text = builder.toString();
+        String lowerText = text.toLowerCase();
+        for(String pattern : new String[] {"ab", "aba", "bAb", "aaaa", "b\na"}) {
+            // Act
+            int[] caseMatches = new TextSearch(pattern, true, false).findAll(text);
+            int[] foldedMatches = new TextSearch(pattern, false, false).findAll(text);
+            // Assert
+            assertArrayEquals(pattern, indexOfMatches(text, pattern), caseMatches);
+            assertArrayEquals(pattern, indexOfMatches(lowerText, pattern.toLowerCase()), foldedMatches);
+        }
+    }
+
+    /**
+     * Test: find method with a literal text and with a regular expression.
+     * Expected: The first match at or after the offset is found, and null when there is none.
+     */
+    @Test
+    public void testFind() {
+        // Arrange
+        String text = "one two three two";
+        TextSearch literal = new TextSearch("TWO", false, false);
+        TextSearch regex = new TextSearch("t\\w+e", true, true);
+        // Act
+        int[] literalMatch = literal.find(text, 5);
+        int[] regexMatch = regex.find(text, 0);
+        int[] noMatch = literal.find(text, 15);
+        // Assert
+        assertArrayEquals(new int[] {14, 17}, literalMatch);
+        assertArrayEquals(new int[] {8, 13}, regexMatch);
+        assertNull(noMatch);
+    }
+
+    /**
+     * Test: replaceAll method with a literal text matching overlapping ranges and with a regular expression using groups.
+     * Expected: Only the range from the first to the last match is returned, with the matches that do not overlap replaced.
+     */
+    @Test
+    public void testReplaceAll() {
+        // Arrange
+        TextSearch literal = new TextSearch("aa", true, false);
+        TextSearch regex = new TextSearch("(\\w+)@(\\w+)", true, true);
+        // Act
+        TextSearch.Replacement literalReplacement = literal.replaceAll("xaaaaay", "b");
+        TextSearch.Replacement regexReplacement = regex.replaceAll("to: a@b, c@d.", "$2 at $1");
+        TextSearch.Replacement noReplacement = literal.replaceAll("xyz", "b");
+        // Assert
+        assertEquals(1, literalReplacement.getStart());
+        assertEquals(5, literalReplacement.getEnd());
+        assertEquals("bb", literalReplacement.getText());
+        assertEquals(2, literalReplacement.getCount());
+        assertEquals(4, regexReplacement.getStart());
+        assertEquals(12, regexReplacement.getEnd());
+        assertEquals("b at a, d at c", regexReplacement.getText());
+        assertEquals(2, regexReplacement.getCount());
+        assertNull(noReplacement);
+    }
+
+    /**
+     * Test: replacementOf method on a match and on a range that is not a match.
+     * Expected: Group references are expanded for the match, and null is returned for the other range.
+     */
+    @Test
+    public void testReplacementOf() {
+        // Arrange
+        TextSearch regex = new TextSearch("(\\d+)px", true, true);
+        String text = "width: 10px; height: 20px";
+        // Act
+        String replaced = regex.replacementOf(text, 21, 25, "$1em");
+        String notReplaced = regex.replacementOf(text, 0, 5, "$1em");
+        // Assert
+        assertEquals("20em", replaced);
+        assertNull(notReplaced);
+    }
+
+    /**
+     * Test: Constructor with an invalid regular expression.
+     * Expected: PatternSyntaxException is thrown.
+     */
+    @Test (expected = PatternSyntaxException.class)
+    public void testInvalidRegex() {
+        // Act
+        new TextSearch("(unclosed", true, true);
+    }
+
+    /**
+     * Finds the matches that do not overlap with String.indexOf.
+     *
+     * @param text    The text to search in.
+     * @param pattern The text to search for.
+     * @return The start and end offsets of the matches, in pairs.
+     */
+    private static int[] indexOfMatches(String text, String pattern) {
+        StringBuilder found = new StringBuilder();
+        int count = 0;
+        int start = text.indexOf(pattern);
+        while(start >= 0) {
+            found.append(start).append(',').append(start + pattern.length()).append(',');
+            count++;
+            start = text.indexOf(pattern, start + pattern.length());
+        }
+        int[] matches = new int[count * 2];
+        String[] values = found.toString().split(",");
+        for(int index = 0; index < matches.length; index++) {
+            matches[index] = Integer.parseInt(values[index]);
+        }
+        return matches;
+    }
+}